@@ -6,27 +6,56 @@ import dev.mars.config.ApplicationProperties;
 import dev.mars.controller.BaseController;
 import dev.mars.controller.DocumentationController;
 import dev.mars.controller.MetricsController;
+import dev.mars.controller.SearchController;
 import dev.mars.controller.TradeController;
+import dev.mars.controller.TradeFeedController;
 import dev.mars.controller.UserController;
+import dev.mars.dao.model.Trade;
+import dev.mars.dao.model.User;
 import dev.mars.di.ApplicationModule;
 import dev.mars.exception.ExceptionHandler;
+import dev.mars.routes.ConcurrencyLimitFilter;
+import dev.mars.routes.DeadlineFilter;
+import dev.mars.routes.IdempotencyFilter;
+import dev.mars.routes.v1.SearchRoutesV1;
+import dev.mars.routes.v1.TradeFeedRoutesV1;
 import dev.mars.routes.v1.TradeRoutesV1;
 import dev.mars.routes.v1.UserRoutesV1;
 import dev.mars.routes.UserRoutes;
 import dev.mars.routes.TradeRoutes;
+import dev.mars.service.TradeService;
+import dev.mars.service.UserService;
 import dev.mars.service.async.AsyncService;
+import dev.mars.service.async.JdbcExecutor;
+import dev.mars.service.cache.CacheWarmer;
+import dev.mars.service.cache.ExistenceFilters;
+import dev.mars.service.cache.bus.InvalidationBus;
+import dev.mars.service.compression.ResponseCompressor;
+import dev.mars.service.concurrency.ConcurrencyLimiterRegistry;
+import dev.mars.service.feed.TradeFeed;
+import dev.mars.service.idempotency.IdempotencyStore;
+import dev.mars.service.json.DomainJsonModule;
+import dev.mars.service.search.AutocompleteService;
+import dev.mars.service.search.TradeSearchIndex;
 import io.javalin.Javalin;
 import io.javalin.config.JavalinConfig;
 import io.javalin.json.JavalinJackson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
+import java.util.Set;
+
 /**
  * Enhanced main application class for the Javalin API.
  */
 public class Main {
     private static final Logger logger = LoggerFactory.getLogger(Main.class);
     private static AsyncService asyncService;
+    private static JdbcExecutor jdbcExecutor;
+    private static CacheWarmer cacheWarmer;
+    private static InvalidationBus invalidationBus;
+    private static TradeFeed tradeFeed;
 
     public static void main(String[] args) {
         logger.info("Starting enhanced Javalin API application");
@@ -43,7 +72,7 @@ public class Main {
             logger.info("Using port: {}", port);
 
             // Create Javalin app with enhanced configuration
-            var app = createJavalinApp(properties).start(port);
+            var app = createJavalinApp(properties, injector.getInstance(ResponseCompressor.class)).start(port);
 
             // Get controllers from injector
             BaseController baseController = injector.getInstance(BaseController.class);
@@ -51,15 +80,52 @@ public class Main {
             TradeController tradeController = injector.getInstance(TradeController.class);
             MetricsController metricsController = injector.getInstance(MetricsController.class);
             DocumentationController documentationController = injector.getInstance(DocumentationController.class);
+            SearchController searchController = injector.getInstance(SearchController.class);
+
+            // Build the in-memory search indexes before the search routes go live
+            rebuildSearchIndexes(injector);
+
+            // Build the filters of existing ids that let lookups of missing ids skip the database
+            rebuildExistenceFilters(injector);
+
+            // Reload last run's hottest cache keys; /ready reports 503 until this finishes
+            cacheWarmer = injector.getInstance(CacheWarmer.class);
+            cacheWarmer.warmUp();
+
+            // Broadcast cache invalidations to the other instances, if configured
+            invalidationBus = injector.getInstance(InvalidationBus.class);
+
+            // Push trade changes to live feed subscribers over SSE and WebSocket
+            TradeFeedController tradeFeedController = null;
+            if (properties.getFeed().isEnabled()) {
+                tradeFeed = injector.getInstance(TradeFeed.class);
+                tradeFeedController = injector.getInstance(TradeFeedController.class);
+            }
+
+            // Give every request a deadline that is carried down to the JDBC statements
+            DeadlineFilter.register(app, properties);
+
+            // Protect route groups with adaptive concurrency limits
+            ConcurrencyLimiterRegistry limiterRegistry = injector.getInstance(ConcurrencyLimiterRegistry.class);
+            ConcurrencyLimitFilter.register(app, limiterRegistry, ConcurrencyLimiterRegistry.USERS, "/users", "/api/v1/users");
+            // The trade stream stays open for as long as the client listens and limits its own subscribers
+            ConcurrencyLimitFilter.register(app, limiterRegistry, ConcurrencyLimiterRegistry.TRADES,
+                Set.of(TradeFeedRoutesV1.STREAM_PATH), "/trades", "/api/v1/trades");
+
+            // Deduplicate retried creates carrying an Idempotency-Key
+            IdempotencyFilter.register(app, injector.getInstance(IdempotencyStore.class),
+                "/users", "/api/v1/users", "/trades", "/api/v1/trades");
 
             // Register versioned routes
-            registerRoutes(app, baseController, userController, tradeController, metricsController, documentationController, properties);
+            registerRoutes(app, baseController, userController, tradeController, metricsController, documentationController,
+                searchController, tradeFeedController, properties);
 
             // Register exception handlers
             ExceptionHandler.register(app);
 
             // Initialize async service
             asyncService = injector.getInstance(AsyncService.class);
+            jdbcExecutor = injector.getInstance(JdbcExecutor.class);
 
             // Add shutdown hook
             addShutdownHook();
@@ -86,8 +152,11 @@ public class Main {
         return properties.getServer().getPort();
     }
 
-    private static Javalin createJavalinApp(ApplicationProperties properties) {
+    private static Javalin createJavalinApp(ApplicationProperties properties, ResponseCompressor compressor) {
         return Javalin.create(config -> {
+            // Compress responses with brotli or gzip; cached responses arrive precompressed
+            config.http.customCompression(compressor.strategy());
+
             // Enable CORS for development
             config.bundledPlugins.enableCors(cors -> {
                 cors.addRule(it -> {
@@ -99,8 +168,8 @@ public class Main {
             // Enable request logging
             config.bundledPlugins.enableDevLogging();
 
-            // Configure JSON serialization
-            config.jsonMapper(new JavalinJackson());
+            // Configure JSON serialization, with hand-written serializers for the domain types
+            config.jsonMapper(new JavalinJackson(DomainJsonModule.objectMapper(), false));
 
             logger.info("Javalin configured with enhanced features");
         });
@@ -109,6 +178,7 @@ public class Main {
     private static void registerRoutes(Javalin app, BaseController baseController,
                                      UserController userController, TradeController tradeController,
                                      MetricsController metricsController, DocumentationController documentationController,
+                                     SearchController searchController, TradeFeedController tradeFeedController,
                                      ApplicationProperties properties) {
 
         String apiVersion = properties.getApi().getVersion();
@@ -116,8 +186,10 @@ public class Main {
 
         // Health and metrics endpoints
         app.get("/health", metricsController::getHealth);
+        app.get("/ready", metricsController::getReadiness);
         app.get(properties.getMetrics().getEndpoint(), metricsController::getMetrics);
         app.get("/cache/stats", metricsController::getCacheStats);
+        app.get("/cache/analytics", metricsController::getCacheAnalytics);
 
         // API documentation endpoints
         if (properties.getApi().getDocumentation().isEnabled()) {
@@ -135,18 +207,58 @@ public class Main {
         TradeRoutes.register(app, tradeController);
 
         // Versioned API routes
+        SearchRoutesV1.register(app, searchController);
+        if (tradeFeedController != null) {
+            TradeFeedRoutesV1.register(app, tradeFeedController);
+        }
         UserRoutesV1.register(app, userController);
         TradeRoutesV1.register(app, tradeController);
 
         logger.info("All routes registered successfully");
     }
 
+    private static void rebuildSearchIndexes(Injector injector) {
+        try {
+            List<Trade> trades = injector.getInstance(TradeService.class).getAllTrades();
+            List<User> users = injector.getInstance(UserService.class).getAllUsers();
+            injector.getInstance(TradeSearchIndex.class).rebuild(trades);
+            injector.getInstance(AutocompleteService.class).rebuild(trades, users);
+        } catch (Exception e) {
+            logger.error("Failed to build search indexes, starting with empty indexes", e);
+        }
+    }
+
+    private static void rebuildExistenceFilters(Injector injector) {
+        ExistenceFilters filters = injector.getInstance(ExistenceFilters.class);
+        try {
+            filters.users().rebuild(() -> injector.getInstance(UserService.class).getAllUsers().stream()
+                .map(user -> String.valueOf(user.getId())).toList());
+            filters.trades().rebuild(() -> injector.getInstance(TradeService.class).getAllTrades().stream()
+                .map(trade -> String.valueOf(trade.getId())).toList());
+        } catch (Exception e) {
+            logger.error("Failed to build existence filters, checking every id against the database", e);
+        }
+    }
+
     private static void addShutdownHook() {
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             logger.info("Shutting down application gracefully");
+            // Save the hottest cache keys while the cache is still populated
+            if (cacheWarmer != null) {
+                cacheWarmer.saveHotKeys();
+            }
+            if (invalidationBus != null) {
+                invalidationBus.close();
+            }
+            if (tradeFeed != null) {
+                tradeFeed.close();
+            }
             if (asyncService != null) {
                 asyncService.shutdown();
             }
+            if (jdbcExecutor != null) {
+                jdbcExecutor.shutdown();
+            }
             logger.info("Application shutdown completed");
         }));
     }
@@ -3,14 +3,26 @@ package dev.mars.config;
 import dev.mars.controller.BaseController;
 import dev.mars.controller.TradeController;
 import dev.mars.controller.UserController;
+import dev.mars.dao.instrumentation.QueryInstrumentation;
+import dev.mars.dao.respository.AsyncTradeDaoRepository;
+import dev.mars.dao.respository.AsyncUserDaoRepository;
 import dev.mars.dao.respository.TradeDao;
 import dev.mars.dao.respository.TradeDaoRepository;
 import dev.mars.dao.respository.UserDao;
 import dev.mars.dao.respository.UserDaoRepository;
 import dev.mars.service.TradeService;
 import dev.mars.service.UserService;
+import dev.mars.service.async.JdbcExecutor;
+import dev.mars.service.cache.CacheInvalidator;
+import dev.mars.service.cache.ExistenceFilters;
+import dev.mars.service.cache.ResponseCache;
 import dev.mars.service.cache.CacheService;
 import dev.mars.service.cache.CaffeineCache;
+import dev.mars.service.compression.ResponseCompressor;
+import dev.mars.service.concurrency.ConcurrencyLimiterRegistry;
+import dev.mars.service.events.TradeEvents;
+import dev.mars.service.events.UserEvents;
+import dev.mars.service.format.ResponseFormats;
 import dev.mars.service.metrics.MetricsService;
 import dev.mars.service.validation.ValidationService;
 import org.slf4j.Logger;
@@ -39,6 +51,7 @@ public class AppConfig {
     private final ValidationService validationService;
     private final MetricsService metricsService;
     private final CacheService cacheService;
+    private final JdbcExecutor jdbcExecutor;
 
     /**
      * Creates a new AppConfig instance with all application components.
@@ -55,17 +68,27 @@ public class AppConfig {
         this.validationService = new ValidationService();
         this.metricsService = new MetricsService(properties);
         this.cacheService = new CaffeineCache(properties, metricsService);
+        QueryInstrumentation queryInstrumentation = new QueryInstrumentation(properties, metricsService);
+        this.jdbcExecutor = new JdbcExecutor(properties, new ConcurrencyLimiterRegistry(properties, metricsService));
+
+        // Mutations invalidate the cached entries they affect
+        UserEvents userEvents = new UserEvents();
+        TradeEvents tradeEvents = new TradeEvents();
+        new CacheInvalidator(cacheService, tradeEvents, userEvents);
+        ExistenceFilters existenceFilters = new ExistenceFilters(properties, cacheService, metricsService, userEvents, tradeEvents);
+        ResponseFormats formats = new ResponseFormats(properties);
+        ResponseCache responseCache = new ResponseCache(properties, new ResponseCompressor(properties), formats);
 
         // Initialize User components with dependencies
-        this.userDao = new UserDaoRepository(dataSource);
-        this.userService = new UserService(userDao);
-        this.userController = new UserController(userService, validationService, metricsService, cacheService);
+        this.userDao = new UserDaoRepository(dataSource, queryInstrumentation);
+        this.userService = new UserService(userDao, new AsyncUserDaoRepository(userDao, jdbcExecutor), userEvents, existenceFilters);
+        this.userController = new UserController(userService, validationService, metricsService, cacheService, responseCache, formats);
         this.baseController = new BaseController();
 
         // Initialize Trade components with dependencies
-        this.tradeDao = new TradeDaoRepository(dataSource);
-        this.tradeService = new TradeService(tradeDao);
-        this.tradeController = new TradeController(tradeService, validationService, metricsService, cacheService);
+        this.tradeDao = new TradeDaoRepository(dataSource, queryInstrumentation);
+        this.tradeService = new TradeService(tradeDao, new AsyncTradeDaoRepository(tradeDao, jdbcExecutor), tradeEvents, existenceFilters);
+        this.tradeController = new TradeController(tradeService, validationService, metricsService, cacheService, responseCache, formats);
 
         logger.info("Application configuration initialized");
     }
@@ -2,6 +2,11 @@ package dev.mars.config;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Application configuration properties loaded from YAML.
  */
@@ -22,6 +27,15 @@ public class ApplicationProperties {
     @JsonProperty("api")
     private ApiConfig api = new ApiConfig();
 
+    @JsonProperty("concurrency")
+    private ConcurrencyConfig concurrency = new ConcurrencyConfig();
+
+    @JsonProperty("idempotency")
+    private IdempotencyConfig idempotency = new IdempotencyConfig();
+
+    @JsonProperty("feed")
+    private FeedConfig feed = new FeedConfig();
+
     // Getters and setters
     public ServerConfig getServer() { return server; }
     public void setServer(ServerConfig server) { this.server = server; }
@@ -38,6 +52,15 @@ public class ApplicationProperties {
     public ApiConfig getApi() { return api; }
     public void setApi(ApiConfig api) { this.api = api; }
 
+    public ConcurrencyConfig getConcurrency() { return concurrency; }
+    public void setConcurrency(ConcurrencyConfig concurrency) { this.concurrency = concurrency; }
+
+    public IdempotencyConfig getIdempotency() { return idempotency; }
+    public void setIdempotency(IdempotencyConfig idempotency) { this.idempotency = idempotency; }
+
+    public FeedConfig getFeed() { return feed; }
+    public void setFeed(FeedConfig feed) { this.feed = feed; }
+
     public static class ServerConfig {
         @JsonProperty("port")
         private int port = 8080;
@@ -48,6 +71,15 @@ public class ApplicationProperties {
         @JsonProperty("context-path")
         private String contextPath = "/api";
 
+        @JsonProperty("request-timeout-ms")
+        private long requestTimeoutMs = 10000;
+
+        @JsonProperty("max-request-timeout-ms")
+        private long maxRequestTimeoutMs = 60000;
+
+        @JsonProperty("compression")
+        private CompressionConfig compression = new CompressionConfig();
+
         public int getPort() { return port; }
         public void setPort(int port) { this.port = port; }
         
@@ -56,6 +88,69 @@ public class ApplicationProperties {
         
         public String getContextPath() { return contextPath; }
         public void setContextPath(String contextPath) { this.contextPath = contextPath; }
+
+        public long getRequestTimeoutMs() { return requestTimeoutMs; }
+        public void setRequestTimeoutMs(long requestTimeoutMs) { this.requestTimeoutMs = requestTimeoutMs; }
+
+        public long getMaxRequestTimeoutMs() { return maxRequestTimeoutMs; }
+        public void setMaxRequestTimeoutMs(long maxRequestTimeoutMs) { this.maxRequestTimeoutMs = maxRequestTimeoutMs; }
+
+        public CompressionConfig getCompression() { return compression; }
+        public void setCompression(CompressionConfig compression) { this.compression = compression; }
+
+        /**
+         * Compressing responses with brotli or gzip, whichever the client accepts, brotli first.
+         */
+        public static class CompressionConfig {
+            @JsonProperty("enabled")
+            private boolean enabled = true;
+
+            @JsonProperty("gzip")
+            private boolean gzip = true;
+
+            @JsonProperty("gzip-level")
+            private int gzipLevel = 6;
+
+            @JsonProperty("brotli")
+            private boolean brotli = true;
+
+            @JsonProperty("brotli-level")
+            private int brotliLevel = 4;
+
+            @JsonProperty("precompressed-brotli-level")
+            private int precompressedBrotliLevel = 9;
+
+            @JsonProperty("min-size-bytes")
+            private int minSizeBytes = 1024;
+
+            @JsonProperty("mime-types")
+            private List<String> mimeTypes = new ArrayList<>(List.of("application/json", "text/html", "text/plain",
+                "text/css", "text/javascript", "application/javascript", "image/svg+xml"));
+
+            public boolean isEnabled() { return enabled; }
+            public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+            public boolean isGzip() { return gzip; }
+            public void setGzip(boolean gzip) { this.gzip = gzip; }
+
+            public int getGzipLevel() { return gzipLevel; }
+            public void setGzipLevel(int gzipLevel) { this.gzipLevel = gzipLevel; }
+
+            public boolean isBrotli() { return brotli; }
+            public void setBrotli(boolean brotli) { this.brotli = brotli; }
+
+            public int getBrotliLevel() { return brotliLevel; }
+            public void setBrotliLevel(int brotliLevel) { this.brotliLevel = brotliLevel; }
+
+            public int getPrecompressedBrotliLevel() { return precompressedBrotliLevel; }
+            public void setPrecompressedBrotliLevel(int precompressedBrotliLevel) { this.precompressedBrotliLevel = precompressedBrotliLevel; }
+
+            public int getMinSizeBytes() { return minSizeBytes; }
+            public void setMinSizeBytes(int minSizeBytes) { this.minSizeBytes = minSizeBytes; }
+
+            public List<String> getMimeTypes() { return mimeTypes; }
+            public void setMimeTypes(List<String> mimeTypes) { this.mimeTypes = mimeTypes; }
+        }
     }
 
     public static class DatabaseConfig {
@@ -71,6 +166,24 @@ public class ApplicationProperties {
         @JsonProperty("driver-class-name")
         private String driverClassName = "org.h2.Driver";
 
+        @JsonProperty("async-pool-size")
+        private int asyncPoolSize = 10;
+
+        @JsonProperty("async-queue-capacity")
+        private int asyncQueueCapacity = 200;
+
+        @JsonProperty("slow-query-threshold-ms")
+        private long slowQueryThresholdMs = 200;
+
+        @JsonProperty("explain-slow-queries")
+        private boolean explainSlowQueries = true;
+
+        @JsonProperty("shard-urls")
+        private List<String> shardUrls = new ArrayList<>();
+
+        @JsonProperty("shard-key")
+        private String shardKey = "id";
+
         public String getUrl() { return url; }
         public void setUrl(String url) { this.url = url; }
         
@@ -82,6 +195,24 @@ public class ApplicationProperties {
         
         public String getDriverClassName() { return driverClassName; }
         public void setDriverClassName(String driverClassName) { this.driverClassName = driverClassName; }
+
+        public int getAsyncPoolSize() { return asyncPoolSize; }
+        public void setAsyncPoolSize(int asyncPoolSize) { this.asyncPoolSize = asyncPoolSize; }
+
+        public int getAsyncQueueCapacity() { return asyncQueueCapacity; }
+        public void setAsyncQueueCapacity(int asyncQueueCapacity) { this.asyncQueueCapacity = asyncQueueCapacity; }
+
+        public long getSlowQueryThresholdMs() { return slowQueryThresholdMs; }
+        public void setSlowQueryThresholdMs(long slowQueryThresholdMs) { this.slowQueryThresholdMs = slowQueryThresholdMs; }
+
+        public boolean isExplainSlowQueries() { return explainSlowQueries; }
+        public void setExplainSlowQueries(boolean explainSlowQueries) { this.explainSlowQueries = explainSlowQueries; }
+
+        public List<String> getShardUrls() { return shardUrls; }
+        public void setShardUrls(List<String> shardUrls) { this.shardUrls = shardUrls; }
+
+        public String getShardKey() { return shardKey; }
+        public void setShardKey(String shardKey) { this.shardKey = shardKey; }
     }
 
     public static class CacheConfig {
@@ -94,6 +225,30 @@ public class ApplicationProperties {
         @JsonProperty("expire-after-write-minutes")
         private long expireAfterWriteMinutes = 30;
 
+        @JsonProperty("max-memory-mb")
+        private Long maxMemoryMb;
+
+        @JsonProperty("off-heap-enabled")
+        private boolean offHeapEnabled = true;
+
+        @JsonProperty("response-cache")
+        private ResponseCacheConfig responseCache = new ResponseCacheConfig();
+
+        @JsonProperty("warmup")
+        private WarmupConfig warmup = new WarmupConfig();
+
+        @JsonProperty("invalidation-bus")
+        private InvalidationBusConfig invalidationBus = new InvalidationBusConfig();
+
+        @JsonProperty("existence-filter")
+        private ExistenceFilterConfig existenceFilter = new ExistenceFilterConfig();
+
+        @JsonProperty("analytics")
+        private AnalyticsConfig analytics = new AnalyticsConfig();
+
+        @JsonProperty("regions")
+        private Map<String, RegionConfig> regions = new LinkedHashMap<>();
+
         public boolean isEnabled() { return enabled; }
         public void setEnabled(boolean enabled) { this.enabled = enabled; }
         
@@ -102,6 +257,264 @@ public class ApplicationProperties {
         
         public long getExpireAfterWriteMinutes() { return expireAfterWriteMinutes; }
         public void setExpireAfterWriteMinutes(long expireAfterWriteMinutes) { this.expireAfterWriteMinutes = expireAfterWriteMinutes; }
+
+        public Long getMaxMemoryMb() { return maxMemoryMb; }
+        public void setMaxMemoryMb(Long maxMemoryMb) { this.maxMemoryMb = maxMemoryMb; }
+
+        public boolean isOffHeapEnabled() { return offHeapEnabled; }
+        public void setOffHeapEnabled(boolean offHeapEnabled) { this.offHeapEnabled = offHeapEnabled; }
+
+        public ResponseCacheConfig getResponseCache() { return responseCache; }
+        public void setResponseCache(ResponseCacheConfig responseCache) { this.responseCache = responseCache; }
+
+        public WarmupConfig getWarmup() { return warmup; }
+        public void setWarmup(WarmupConfig warmup) { this.warmup = warmup; }
+
+        public InvalidationBusConfig getInvalidationBus() { return invalidationBus; }
+        public void setInvalidationBus(InvalidationBusConfig invalidationBus) { this.invalidationBus = invalidationBus; }
+
+        public ExistenceFilterConfig getExistenceFilter() { return existenceFilter; }
+        public void setExistenceFilter(ExistenceFilterConfig existenceFilter) { this.existenceFilter = existenceFilter; }
+
+        public AnalyticsConfig getAnalytics() { return analytics; }
+        public void setAnalytics(AnalyticsConfig analytics) { this.analytics = analytics; }
+
+        public Map<String, RegionConfig> getRegions() { return regions; }
+        public void setRegions(Map<String, RegionConfig> regions) { this.regions = regions; }
+
+        /**
+         * Broadcasting cache invalidations to the other instances over UDP, by multicast or to listed peers.
+         */
+        public static class InvalidationBusConfig {
+            @JsonProperty("enabled")
+            private boolean enabled = false;
+
+            @JsonProperty("mode")
+            private String mode = "multicast";
+
+            @JsonProperty("multicast-group")
+            private String multicastGroup = "239.255.77.77";
+
+            @JsonProperty("port")
+            private int port = 4446;
+
+            @JsonProperty("bind-host")
+            private String bindHost = "0.0.0.0";
+
+            @JsonProperty("network-interface")
+            private String networkInterface = "";
+
+            @JsonProperty("peers")
+            private List<String> peers = new ArrayList<>();
+
+            @JsonProperty("secret")
+            private String secret = "";
+
+            @JsonProperty("flush-interval-ms")
+            private long flushIntervalMs = 20;
+
+            @JsonProperty("max-batch-size")
+            private int maxBatchSize = 1000;
+
+            @JsonProperty("max-packet-bytes")
+            private int maxPacketBytes = 1400;
+
+            public boolean isEnabled() { return enabled; }
+            public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+            public String getMode() { return mode; }
+            public void setMode(String mode) { this.mode = mode; }
+
+            public String getMulticastGroup() { return multicastGroup; }
+            public void setMulticastGroup(String multicastGroup) { this.multicastGroup = multicastGroup; }
+
+            public int getPort() { return port; }
+            public void setPort(int port) { this.port = port; }
+
+            public String getBindHost() { return bindHost; }
+            public void setBindHost(String bindHost) { this.bindHost = bindHost; }
+
+            public String getNetworkInterface() { return networkInterface; }
+            public void setNetworkInterface(String networkInterface) { this.networkInterface = networkInterface; }
+
+            public List<String> getPeers() { return peers; }
+            public void setPeers(List<String> peers) { this.peers = peers; }
+
+            public String getSecret() { return secret; }
+            public void setSecret(String secret) { this.secret = secret; }
+
+            public long getFlushIntervalMs() { return flushIntervalMs; }
+            public void setFlushIntervalMs(long flushIntervalMs) { this.flushIntervalMs = flushIntervalMs; }
+
+            public int getMaxBatchSize() { return maxBatchSize; }
+            public void setMaxBatchSize(int maxBatchSize) { this.maxBatchSize = maxBatchSize; }
+
+            public int getMaxPacketBytes() { return maxPacketBytes; }
+            public void setMaxPacketBytes(int maxPacketBytes) { this.maxPacketBytes = maxPacketBytes; }
+        }
+
+        /**
+         * Saving the hottest cache keys at shutdown and loading them again at startup.
+         */
+        public static class WarmupConfig {
+            @JsonProperty("enabled")
+            private boolean enabled = true;
+
+            @JsonProperty("file")
+            private String file = "cache-hot-keys.json";
+
+            @JsonProperty("top-k")
+            private int topK = 1000;
+
+            @JsonProperty("parallelism")
+            private int parallelism = 8;
+
+            @JsonProperty("timeout-seconds")
+            private long timeoutSeconds = 30;
+
+            public boolean isEnabled() { return enabled; }
+            public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+            public String getFile() { return file; }
+            public void setFile(String file) { this.file = file; }
+
+            public int getTopK() { return topK; }
+            public void setTopK(int topK) { this.topK = topK; }
+
+            public int getParallelism() { return parallelism; }
+            public void setParallelism(int parallelism) { this.parallelism = parallelism; }
+
+            public long getTimeoutSeconds() { return timeoutSeconds; }
+            public void setTimeoutSeconds(long timeoutSeconds) { this.timeoutSeconds = timeoutSeconds; }
+        }
+
+        /**
+         * How cached API responses are stored: as encoded JSON bytes or as response objects.
+         */
+        public static class ResponseCacheConfig {
+            @JsonProperty("encoded")
+            private boolean encoded = true;
+
+            @JsonProperty("precompress")
+            private boolean precompress = true;
+
+            @JsonProperty("cache-control")
+            private String cacheControl = "no-cache";
+
+            public boolean isEncoded() { return encoded; }
+            public void setEncoded(boolean encoded) { this.encoded = encoded; }
+
+            public boolean isPrecompress() { return precompress; }
+            public void setPrecompress(boolean precompress) { this.precompress = precompress; }
+
+            public String getCacheControl() { return cacheControl; }
+            public void setCacheControl(String cacheControl) { this.cacheControl = cacheControl; }
+        }
+
+        /**
+         * Bloom filters of existing user and trade ids, consulted before a lookup by id goes to the database.
+         */
+        public static class ExistenceFilterConfig {
+            @JsonProperty("enabled")
+            private boolean enabled = true;
+
+            @JsonProperty("expected-ids")
+            private long expectedIds = 100000;
+
+            @JsonProperty("false-positive-rate")
+            private double falsePositiveRate = 0.01;
+
+            public boolean isEnabled() { return enabled; }
+            public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+            public long getExpectedIds() { return expectedIds; }
+            public void setExpectedIds(long expectedIds) { this.expectedIds = expectedIds; }
+
+            public double getFalsePositiveRate() { return falsePositiveRate; }
+            public void setFalsePositiveRate(double falsePositiveRate) { this.falsePositiveRate = falsePositiveRate; }
+        }
+
+        /**
+         * Recording hot keys, per-prefix hit rates, load latencies and removal causes for /cache/analytics.
+         */
+        public static class AnalyticsConfig {
+            @JsonProperty("enabled")
+            private boolean enabled = true;
+
+            @JsonProperty("top-k")
+            private int topK = 100;
+
+            @JsonProperty("max-prefixes")
+            private int maxPrefixes = 200;
+
+            public boolean isEnabled() { return enabled; }
+            public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+            public int getTopK() { return topK; }
+            public void setTopK(int topK) { this.topK = topK; }
+
+            public int getMaxPrefixes() { return maxPrefixes; }
+            public void setMaxPrefixes(int maxPrefixes) { this.maxPrefixes = maxPrefixes; }
+        }
+
+        /**
+         * Settings of a named cache region. Unset values fall back to the global cache settings.
+         */
+        public static class RegionConfig {
+            @JsonProperty("max-size")
+            private Long maxSize;
+
+            @JsonProperty("max-weight")
+            private Long maxWeight;
+
+            @JsonProperty("expire-after-write-minutes")
+            private Long expireAfterWriteMinutes;
+
+            @JsonProperty("expire-after-write-seconds")
+            private Long expireAfterWriteSeconds;
+
+            @JsonProperty("refresh-after-write-minutes")
+            private Long refreshAfterWriteMinutes;
+
+            @JsonProperty("stale-while-revalidate-minutes")
+            private Long staleWhileRevalidateMinutes;
+
+            @JsonProperty("stale-if-error-minutes")
+            private Long staleIfErrorMinutes;
+
+            @JsonProperty("max-memory-mb")
+            private Long maxMemoryMb;
+
+            @JsonProperty("off-heap-mb")
+            private Long offHeapMb;
+
+            public Long getMaxSize() { return maxSize; }
+            public void setMaxSize(Long maxSize) { this.maxSize = maxSize; }
+
+            public Long getMaxWeight() { return maxWeight; }
+            public void setMaxWeight(Long maxWeight) { this.maxWeight = maxWeight; }
+
+            public Long getExpireAfterWriteMinutes() { return expireAfterWriteMinutes; }
+            public void setExpireAfterWriteMinutes(Long expireAfterWriteMinutes) { this.expireAfterWriteMinutes = expireAfterWriteMinutes; }
+
+            public Long getExpireAfterWriteSeconds() { return expireAfterWriteSeconds; }
+            public void setExpireAfterWriteSeconds(Long expireAfterWriteSeconds) { this.expireAfterWriteSeconds = expireAfterWriteSeconds; }
+
+            public Long getRefreshAfterWriteMinutes() { return refreshAfterWriteMinutes; }
+            public void setRefreshAfterWriteMinutes(Long refreshAfterWriteMinutes) { this.refreshAfterWriteMinutes = refreshAfterWriteMinutes; }
+
+            public Long getStaleWhileRevalidateMinutes() { return staleWhileRevalidateMinutes; }
+            public void setStaleWhileRevalidateMinutes(Long staleWhileRevalidateMinutes) { this.staleWhileRevalidateMinutes = staleWhileRevalidateMinutes; }
+
+            public Long getStaleIfErrorMinutes() { return staleIfErrorMinutes; }
+            public void setStaleIfErrorMinutes(Long staleIfErrorMinutes) { this.staleIfErrorMinutes = staleIfErrorMinutes; }
+
+            public Long getMaxMemoryMb() { return maxMemoryMb; }
+            public void setMaxMemoryMb(Long maxMemoryMb) { this.maxMemoryMb = maxMemoryMb; }
+
+            public Long getOffHeapMb() { return offHeapMb; }
+            public void setOffHeapMb(Long offHeapMb) { this.offHeapMb = offHeapMb; }
+        }
     }
 
     public static class MetricsConfig {
@@ -125,12 +538,19 @@ public class ApplicationProperties {
         @JsonProperty("documentation")
         private DocumentationConfig documentation = new DocumentationConfig();
 
+        /** Formats trade and user endpoints offer through content negotiation; JSON is always offered. */
+        @JsonProperty("formats")
+        private List<String> formats = new ArrayList<>(List.of("json", "cbor", "smile", "msgpack"));
+
         public String getVersion() { return version; }
         public void setVersion(String version) { this.version = version; }
         
         public DocumentationConfig getDocumentation() { return documentation; }
         public void setDocumentation(DocumentationConfig documentation) { this.documentation = documentation; }
 
+        public List<String> getFormats() { return formats; }
+        public void setFormats(List<String> formats) { this.formats = formats; }
+
         public static class DocumentationConfig {
             @JsonProperty("enabled")
             private boolean enabled = true;
@@ -145,4 +565,123 @@ public class ApplicationProperties {
             public void setPath(String path) { this.path = path; }
         }
     }
+
+    public static class ConcurrencyConfig {
+        @JsonProperty("enabled")
+        private boolean enabled = true;
+
+        @JsonProperty("initial-limit")
+        private int initialLimit = 20;
+
+        @JsonProperty("min-limit")
+        private int minLimit = 2;
+
+        @JsonProperty("max-limit")
+        private int maxLimit = 200;
+
+        @JsonProperty("latency-threshold-ms")
+        private long latencyThresholdMs = 250;
+
+        @JsonProperty("backoff-ratio")
+        private double backoffRatio = 0.9;
+
+        @JsonProperty("retry-after-seconds")
+        private int retryAfterSeconds = 1;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+        public int getInitialLimit() { return initialLimit; }
+        public void setInitialLimit(int initialLimit) { this.initialLimit = initialLimit; }
+
+        public int getMinLimit() { return minLimit; }
+        public void setMinLimit(int minLimit) { this.minLimit = minLimit; }
+
+        public int getMaxLimit() { return maxLimit; }
+        public void setMaxLimit(int maxLimit) { this.maxLimit = maxLimit; }
+
+        public long getLatencyThresholdMs() { return latencyThresholdMs; }
+        public void setLatencyThresholdMs(long latencyThresholdMs) { this.latencyThresholdMs = latencyThresholdMs; }
+
+        public double getBackoffRatio() { return backoffRatio; }
+        public void setBackoffRatio(double backoffRatio) { this.backoffRatio = backoffRatio; }
+
+        public int getRetryAfterSeconds() { return retryAfterSeconds; }
+        public void setRetryAfterSeconds(int retryAfterSeconds) { this.retryAfterSeconds = retryAfterSeconds; }
+    }
+
+    public static class IdempotencyConfig {
+        @JsonProperty("enabled")
+        private boolean enabled = true;
+
+        @JsonProperty("window-seconds")
+        private long windowSeconds = 86400;
+
+        @JsonProperty("max-entries")
+        private long maxEntries = 100000;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+        public long getWindowSeconds() { return windowSeconds; }
+        public void setWindowSeconds(long windowSeconds) { this.windowSeconds = windowSeconds; }
+
+        public long getMaxEntries() { return maxEntries; }
+        public void setMaxEntries(long maxEntries) { this.maxEntries = maxEntries; }
+    }
+
+    /**
+     * Live trade feed pushed over Server-Sent Events and WebSocket.
+     */
+    public static class FeedConfig {
+        @JsonProperty("enabled")
+        private boolean enabled = true;
+
+        @JsonProperty("batch-interval-ms")
+        private long batchIntervalMs = 100;
+
+        @JsonProperty("max-batch-size")
+        private int maxBatchSize = 256;
+
+        /** Events waiting for one subscriber; beyond this the subscriber is treated as too slow. */
+        @JsonProperty("queue-capacity")
+        private int queueCapacity = 1024;
+
+        /** What happens to a subscriber whose queue is full: "snapshot" or "disconnect". */
+        @JsonProperty("overflow")
+        private String overflow = "snapshot";
+
+        @JsonProperty("snapshot-max-trades")
+        private int snapshotMaxTrades = 1000;
+
+        @JsonProperty("max-subscribers")
+        private int maxSubscribers = 1000;
+
+        @JsonProperty("heartbeat-seconds")
+        private long heartbeatSeconds = 15;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+        public long getBatchIntervalMs() { return batchIntervalMs; }
+        public void setBatchIntervalMs(long batchIntervalMs) { this.batchIntervalMs = batchIntervalMs; }
+
+        public int getMaxBatchSize() { return maxBatchSize; }
+        public void setMaxBatchSize(int maxBatchSize) { this.maxBatchSize = maxBatchSize; }
+
+        public int getQueueCapacity() { return queueCapacity; }
+        public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+
+        public String getOverflow() { return overflow; }
+        public void setOverflow(String overflow) { this.overflow = overflow; }
+
+        public int getSnapshotMaxTrades() { return snapshotMaxTrades; }
+        public void setSnapshotMaxTrades(int snapshotMaxTrades) { this.snapshotMaxTrades = snapshotMaxTrades; }
+
+        public int getMaxSubscribers() { return maxSubscribers; }
+        public void setMaxSubscribers(int maxSubscribers) { this.maxSubscribers = maxSubscribers; }
+
+        public long getHeartbeatSeconds() { return heartbeatSeconds; }
+        public void setHeartbeatSeconds(long heartbeatSeconds) { this.heartbeatSeconds = heartbeatSeconds; }
+    }
 }
@@ -6,6 +6,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.InputStream;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -59,17 +60,40 @@ public class ConfigurationLoader {
         getEnvAsInt("SERVER_PORT").ifPresent(properties.getServer()::setPort);
         getEnvAsString("SERVER_HOST").ifPresent(properties.getServer()::setHost);
         getEnvAsString("SERVER_CONTEXT_PATH").ifPresent(properties.getServer()::setContextPath);
+        getEnvAsLong("SERVER_REQUEST_TIMEOUT_MS").ifPresent(properties.getServer()::setRequestTimeoutMs);
+        getEnvAsBoolean("SERVER_COMPRESSION_ENABLED").ifPresent(properties.getServer().getCompression()::setEnabled);
+        getEnvAsBoolean("SERVER_COMPRESSION_BROTLI").ifPresent(properties.getServer().getCompression()::setBrotli);
         
         // Database configuration overrides
         getEnvAsString("DATABASE_URL").ifPresent(properties.getDatabase()::setUrl);
         getEnvAsString("DATABASE_USERNAME").ifPresent(properties.getDatabase()::setUsername);
         getEnvAsString("DATABASE_PASSWORD").ifPresent(properties.getDatabase()::setPassword);
         getEnvAsString("DATABASE_DRIVER").ifPresent(properties.getDatabase()::setDriverClassName);
+        getEnvAsInt("DATABASE_ASYNC_POOL_SIZE").ifPresent(properties.getDatabase()::setAsyncPoolSize);
+        getEnvAsInt("DATABASE_ASYNC_QUEUE_CAPACITY").ifPresent(properties.getDatabase()::setAsyncQueueCapacity);
+        getEnvAsLong("DATABASE_SLOW_QUERY_THRESHOLD_MS").ifPresent(properties.getDatabase()::setSlowQueryThresholdMs);
+        getEnvAsString("DATABASE_SHARD_URLS").ifPresent(urls -> properties.getDatabase().setShardUrls(List.of(urls.split(","))));
+        getEnvAsString("DATABASE_SHARD_KEY").ifPresent(properties.getDatabase()::setShardKey);
         
         // Cache configuration overrides
         getEnvAsBoolean("CACHE_ENABLED").ifPresent(properties.getCache()::setEnabled);
         getEnvAsLong("CACHE_MAX_SIZE").ifPresent(properties.getCache()::setMaxSize);
         getEnvAsLong("CACHE_EXPIRE_MINUTES").ifPresent(properties.getCache()::setExpireAfterWriteMinutes);
+        getEnvAsLong("CACHE_MAX_MEMORY_MB").ifPresent(properties.getCache()::setMaxMemoryMb);
+        getEnvAsBoolean("CACHE_OFF_HEAP_ENABLED").ifPresent(properties.getCache()::setOffHeapEnabled);
+        getEnvAsBoolean("CACHE_RESPONSE_ENCODED").ifPresent(properties.getCache().getResponseCache()::setEncoded);
+        getEnvAsBoolean("CACHE_RESPONSE_PRECOMPRESS").ifPresent(properties.getCache().getResponseCache()::setPrecompress);
+        getEnvAsBoolean("CACHE_WARMUP_ENABLED").ifPresent(properties.getCache().getWarmup()::setEnabled);
+        getEnvAsString("CACHE_WARMUP_FILE").ifPresent(properties.getCache().getWarmup()::setFile);
+        getEnvAsBoolean("CACHE_EXISTENCE_FILTER_ENABLED").ifPresent(properties.getCache().getExistenceFilter()::setEnabled);
+        getEnvAsBoolean("CACHE_ANALYTICS_ENABLED").ifPresent(properties.getCache().getAnalytics()::setEnabled);
+        getEnvAsBoolean("CACHE_BUS_ENABLED").ifPresent(properties.getCache().getInvalidationBus()::setEnabled);
+        getEnvAsString("CACHE_BUS_MODE").ifPresent(properties.getCache().getInvalidationBus()::setMode);
+        getEnvAsInt("CACHE_BUS_PORT").ifPresent(properties.getCache().getInvalidationBus()::setPort);
+        getEnvAsString("CACHE_BUS_BIND_HOST").ifPresent(properties.getCache().getInvalidationBus()::setBindHost);
+        getEnvAsString("CACHE_BUS_NETWORK_INTERFACE").ifPresent(properties.getCache().getInvalidationBus()::setNetworkInterface);
+        getEnvAsString("CACHE_BUS_SECRET").ifPresent(properties.getCache().getInvalidationBus()::setSecret);
+        getEnvAsString("CACHE_BUS_PEERS").ifPresent(peers -> properties.getCache().getInvalidationBus().setPeers(List.of(peers.split(","))));
         
         // Metrics configuration overrides
         getEnvAsBoolean("METRICS_ENABLED").ifPresent(properties.getMetrics()::setEnabled);
@@ -79,7 +103,22 @@ public class ConfigurationLoader {
         getEnvAsString("API_VERSION").ifPresent(properties.getApi()::setVersion);
         getEnvAsBoolean("API_DOCS_ENABLED").ifPresent(properties.getApi().getDocumentation()::setEnabled);
         getEnvAsString("API_DOCS_PATH").ifPresent(properties.getApi().getDocumentation()::setPath);
+        getEnvAsString("API_FORMATS").ifPresent(formats -> properties.getApi().setFormats(List.of(formats.split(","))));
         
+        // Concurrency limiter overrides
+        getEnvAsBoolean("CONCURRENCY_ENABLED").ifPresent(properties.getConcurrency()::setEnabled);
+        getEnvAsInt("CONCURRENCY_MAX_LIMIT").ifPresent(properties.getConcurrency()::setMaxLimit);
+        getEnvAsLong("CONCURRENCY_LATENCY_THRESHOLD_MS").ifPresent(properties.getConcurrency()::setLatencyThresholdMs);
+
+        // Idempotency overrides
+        getEnvAsBoolean("IDEMPOTENCY_ENABLED").ifPresent(properties.getIdempotency()::setEnabled);
+        getEnvAsLong("IDEMPOTENCY_WINDOW_SECONDS").ifPresent(properties.getIdempotency()::setWindowSeconds);
+
+        // Trade feed overrides
+        getEnvAsBoolean("FEED_ENABLED").ifPresent(properties.getFeed()::setEnabled);
+        getEnvAsString("FEED_OVERFLOW").ifPresent(properties.getFeed()::setOverflow);
+        getEnvAsInt("FEED_MAX_SUBSCRIBERS").ifPresent(properties.getFeed()::setMaxSubscribers);
+
         logger.debug("Environment variable overrides applied");
     }
     
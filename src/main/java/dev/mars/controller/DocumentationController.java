@@ -2,21 +2,33 @@ package dev.mars.controller;
 
 import com.google.inject.Inject;
 import dev.mars.config.ApplicationProperties;
+import dev.mars.service.compression.ResponseCompressor;
 import io.javalin.http.Context;
+import io.javalin.http.Header;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
+
 /**
  * Controller for API documentation endpoints.
+ * The documents do not change while the application runs, so each is rendered and compressed
+ * once, on its first request, and served from memory afterwards.
  */
 public class DocumentationController {
     private static final Logger logger = LoggerFactory.getLogger(DocumentationController.class);
+    private static final String OPENAPI_CONTENT_TYPE = "application/json";
+    private static final String SWAGGER_UI_CONTENT_TYPE = "text/html";
     
     private final ApplicationProperties properties;
+    private final ResponseCompressor compressor;
+    private volatile ResponseCompressor.Precompressed openApiSpec;
+    private volatile ResponseCompressor.Precompressed swaggerUi;
 
     @Inject
-    public DocumentationController(ApplicationProperties properties) {
+    public DocumentationController(ApplicationProperties properties, ResponseCompressor compressor) {
         this.properties = properties;
+        this.compressor = compressor;
     }
 
     /**
@@ -24,8 +36,12 @@ public class DocumentationController {
      */
     public void getOpenApiSpec(Context ctx) {
         try {
-            String openApiSpec = generateOpenApiSpec();
-            ctx.contentType("application/json").result(openApiSpec);
+            ResponseCompressor.Precompressed spec = openApiSpec;
+            if (spec == null) {
+                spec = compressor.precompress(generateOpenApiSpec().getBytes(StandardCharsets.UTF_8), OPENAPI_CONTENT_TYPE);
+                openApiSpec = spec;
+            }
+            write(ctx, OPENAPI_CONTENT_TYPE, spec);
         } catch (Exception e) {
             logger.error("Error generating OpenAPI spec", e);
             ctx.status(500).json("Error generating API documentation");
@@ -37,14 +53,26 @@ public class DocumentationController {
      */
     public void getSwaggerUi(Context ctx) {
         try {
-            String swaggerHtml = generateSwaggerUiHtml();
-            ctx.contentType("text/html").result(swaggerHtml);
+            ResponseCompressor.Precompressed html = swaggerUi;
+            if (html == null) {
+                html = compressor.precompress(generateSwaggerUiHtml().getBytes(StandardCharsets.UTF_8), SWAGGER_UI_CONTENT_TYPE);
+                swaggerUi = html;
+            }
+            write(ctx, SWAGGER_UI_CONTENT_TYPE, html);
         } catch (Exception e) {
             logger.error("Error generating Swagger UI", e);
             ctx.status(500).result("Error loading API documentation");
         }
     }
 
+    private void write(Context ctx, String contentType, ResponseCompressor.Precompressed document) {
+        ctx.contentType(contentType);
+        if (document.gzip() != null || document.brotli() != null) {
+            ctx.header(Header.VARY, Header.ACCEPT_ENCODING);
+        }
+        compressor.write(ctx, document.body(), document.gzip(), document.brotli());
+    }
+
     private String generateOpenApiSpec() {
         return """
         {
@@ -2,26 +2,33 @@ package dev.mars.controller;
 
 import com.google.inject.Inject;
 import dev.mars.service.cache.CacheService;
+import dev.mars.service.cache.CacheWarmer;
 import dev.mars.service.metrics.MetricsService;
 import io.javalin.http.Context;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * Controller for metrics and health endpoints.
  */
 public class MetricsController {
     private static final Logger logger = LoggerFactory.getLogger(MetricsController.class);
+    private static final int DEFAULT_ANALYTICS_LIMIT = 20;
+    private static final int MAX_ANALYTICS_LIMIT = 1000;
     
     private final MetricsService metricsService;
     private final CacheService cacheService;
+    private final CacheWarmer cacheWarmer;
 
     @Inject
-    public MetricsController(MetricsService metricsService, CacheService cacheService) {
+    public MetricsController(MetricsService metricsService, CacheService cacheService, CacheWarmer cacheWarmer) {
         this.metricsService = metricsService;
         this.cacheService = cacheService;
+        this.cacheWarmer = cacheWarmer;
     }
 
     /**
@@ -60,25 +67,86 @@ public class MetricsController {
         }
     }
 
+    /**
+     * Returns whether the application is ready for traffic: 503 until cache warmup has finished.
+     */
+    public void getReadiness(Context ctx) {
+        if (cacheWarmer.isWarm()) {
+            ctx.json(Map.of("status", "READY"));
+        } else {
+            ctx.status(503).json(Map.of("status", "WARMING_UP"));
+        }
+    }
+
     /**
      * Returns cache statistics.
      */
     public void getCacheStats(Context ctx) {
         try {
             CacheService.CacheStats stats = cacheService.getStats();
-            ctx.json(Map.of(
-                "hitCount", stats.getHitCount(),
-                "missCount", stats.getMissCount(),
-                "evictionCount", stats.getEvictionCount(),
-                "size", stats.getSize(),
-                "hitRate", stats.getHitRate()
-            ));
+            Map<String, Object> regions = new LinkedHashMap<>();
+            cacheService.getRegionStats().forEach((name, regionStats) -> regions.put(name, toMap(regionStats)));
+            Map<String, Object> response = new LinkedHashMap<>(toMap(stats));
+            response.put("regions", regions);
+            ctx.json(response);
         } catch (Exception e) {
             logger.error("Error retrieving cache stats", e);
             ctx.status(500).json(Map.of("error", "Failed to retrieve cache statistics"));
         }
     }
 
+    /**
+     * Returns cache analytics: hot keys, hit rate per key prefix, load latencies and removal causes.
+     * The optional {@code limit} query parameter caps the hot keys and the prefixes per region (default 20).
+     */
+    public void getCacheAnalytics(Context ctx) {
+        int limit;
+        try {
+            limit = Integer.parseInt(Optional.ofNullable(ctx.queryParam("limit")).orElse(String.valueOf(DEFAULT_ANALYTICS_LIMIT)));
+        } catch (NumberFormatException e) {
+            ctx.status(400).json(Map.of("error", "Invalid limit parameter"));
+            return;
+        }
+        if (limit < 1 || limit > MAX_ANALYTICS_LIMIT) {
+            ctx.status(400).json(Map.of("error", "Validation failed",
+                "message", "Limit must be between 1 and " + MAX_ANALYTICS_LIMIT));
+            return;
+        }
+        try {
+            ctx.json(cacheService.getAnalytics(limit));
+        } catch (Exception e) {
+            logger.error("Error retrieving cache analytics", e);
+            ctx.status(500).json(Map.of("error", "Failed to retrieve cache analytics"));
+        }
+    }
+
+    private static Map<String, Object> toMap(CacheService.CacheStats stats) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("hitCount", stats.getHitCount());
+        map.put("missCount", stats.getMissCount());
+        map.put("evictionCount", stats.getEvictionCount());
+        map.put("size", stats.getSize());
+        map.put("hitRate", stats.getHitRate());
+        CacheService.WeightStats weight = stats.getWeight();
+        if (weight != null) {
+            map.put("weightedSize", weight.getWeightedSize());
+            map.put("maxWeight", weight.getMaximum());
+            map.put("weightUnit", weight.getUnit());
+        }
+        CacheService.TierStats offHeap = stats.getOffHeap();
+        if (offHeap != null) {
+            Map<String, Object> tier = new LinkedHashMap<>();
+            tier.put("hitCount", offHeap.getHitCount());
+            tier.put("missCount", offHeap.getMissCount());
+            tier.put("evictionCount", offHeap.getEvictionCount());
+            tier.put("size", offHeap.getSize());
+            tier.put("bytes", offHeap.getBytes());
+            tier.put("hitRate", offHeap.getHitRate());
+            map.put("offHeap", tier);
+        }
+        return map;
+    }
+
     private Map<String, Object> getCacheHealth() {
         try {
             CacheService.CacheStats stats = cacheService.getStats();
@@ -0,0 +1,121 @@
+package dev.mars.controller;
+
+import com.google.inject.Inject;
+import dev.mars.dao.model.Trade;
+import dev.mars.dto.PageRequest;
+import dev.mars.dto.PageResponse;
+import dev.mars.dto.Suggestion;
+import dev.mars.service.metrics.MetricsService;
+import dev.mars.service.search.AutocompleteService;
+import dev.mars.service.search.PrefixIndex;
+import dev.mars.service.search.TradeSearchIndex;
+import dev.mars.service.validation.ValidationService;
+import io.javalin.http.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Controller for search endpoints served from in-memory indexes.
+ */
+public class SearchController {
+    private static final Logger logger = LoggerFactory.getLogger(SearchController.class);
+    private static final int DEFAULT_SUGGESTIONS = 10;
+    private static final ThreadLocal<PrefixIndex.Buffer> SUGGESTION_BUFFERS =
+        ThreadLocal.withInitial(() -> new PrefixIndex.Buffer(AutocompleteService.MAX_SUGGESTIONS));
+
+    private final TradeSearchIndex tradeSearchIndex;
+    private final AutocompleteService autocompleteService;
+    private final ValidationService validationService;
+    private final MetricsService metricsService;
+
+    @Inject
+    public SearchController(TradeSearchIndex tradeSearchIndex, AutocompleteService autocompleteService,
+                            ValidationService validationService, MetricsService metricsService) {
+        this.tradeSearchIndex = tradeSearchIndex;
+        this.autocompleteService = autocompleteService;
+        this.validationService = validationService;
+        this.metricsService = metricsService;
+    }
+
+    public void searchTrades(Context ctx) {
+        Instant start = Instant.now();
+        metricsService.incrementCounter("http.requests.total");
+
+        String query = ctx.queryParam("q");
+        if (query == null || query.isBlank()) {
+            metricsService.incrementCounter("http.requests.errors");
+            ctx.status(400).json(Map.of("error", "Validation failed", "message", "Query parameter 'q' is required"));
+            return;
+        }
+
+        try {
+            PageRequest pageRequest = new PageRequest();
+            pageRequest.setPage(Integer.parseInt(Optional.ofNullable(ctx.queryParam("page")).orElse("0")));
+            pageRequest.setSize(Integer.parseInt(Optional.ofNullable(ctx.queryParam("size")).orElse("20")));
+            validationService.validate(pageRequest);
+
+            logger.debug("Searching trades for '{}': {}", query, pageRequest);
+            TradeSearchIndex.SearchResult result =
+                tradeSearchIndex.search(query, pageRequest.getOffset(), pageRequest.getSize());
+
+            PageResponse<Trade> response = PageResponse.of(result.getTrades(), pageRequest, result.getTotalMatches());
+            response.getMetadata().setTotalElementsLowerBound(result.isTotalLowerBound());
+            metricsService.recordTimer("search.trades.duration", Duration.between(start, Instant.now()));
+            ctx.json(response);
+        } catch (ValidationService.ValidationException e) {
+            logger.warn("Search pagination validation failed", e);
+            metricsService.incrementCounter("http.requests.errors");
+            ctx.status(400).json(Map.of("error", "Validation failed", "message", e.getMessage()));
+        } catch (NumberFormatException e) {
+            logger.error("Invalid pagination parameters", e);
+            metricsService.incrementCounter("http.requests.errors");
+            ctx.status(400).json(Map.of("error", "Invalid pagination parameters"));
+        }
+    }
+
+    public void autocompleteSymbols(Context ctx) {
+        suggest(ctx, true);
+    }
+
+    public void autocompleteUsers(Context ctx) {
+        suggest(ctx, false);
+    }
+
+    private void suggest(Context ctx, boolean symbols) {
+        metricsService.incrementCounter("http.requests.total");
+
+        String prefix = Optional.ofNullable(ctx.queryParam("prefix")).orElse("").trim();
+        int limit;
+        try {
+            limit = Integer.parseInt(Optional.ofNullable(ctx.queryParam("limit")).orElse(String.valueOf(DEFAULT_SUGGESTIONS)));
+        } catch (NumberFormatException e) {
+            metricsService.incrementCounter("http.requests.errors");
+            ctx.status(400).json(Map.of("error", "Invalid limit parameter"));
+            return;
+        }
+        if (limit < 1 || limit > AutocompleteService.MAX_SUGGESTIONS) {
+            metricsService.incrementCounter("http.requests.errors");
+            ctx.status(400).json(Map.of("error", "Validation failed",
+                "message", "Limit must be between 1 and " + AutocompleteService.MAX_SUGGESTIONS));
+            return;
+        }
+
+        PrefixIndex.Buffer buffer = SUGGESTION_BUFFERS.get();
+        int found = symbols
+            ? autocompleteService.suggestSymbols(prefix, limit, buffer)
+            : autocompleteService.suggestUserNames(prefix, limit, buffer);
+
+        List<Suggestion> suggestions = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            suggestions.add(new Suggestion(buffer.value(i), buffer.count(i)));
+        }
+        ctx.json(suggestions);
+    }
+}
@@ -4,8 +4,16 @@ import com.google.inject.Inject;
 import dev.mars.dao.model.Trade;
 import dev.mars.dto.PageRequest;
 import dev.mars.dto.PageResponse;
+import dev.mars.exception.TradeNotFoundException;
 import dev.mars.service.TradeService;
+import dev.mars.service.async.Futures;
+import dev.mars.service.cache.CacheKey;
+import dev.mars.service.cache.CacheRegions;
 import dev.mars.service.cache.CacheService;
+import dev.mars.service.cache.CacheTags;
+import dev.mars.service.cache.LoadingCacheRegion;
+import dev.mars.service.cache.ResponseCache;
+import dev.mars.service.format.ResponseFormats;
 import dev.mars.service.metrics.MetricsService;
 import dev.mars.service.validation.ValidationService;
 import io.javalin.http.Context;
@@ -14,70 +22,97 @@ import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
 import java.time.Instant;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class TradeController {
     private static final Logger logger = LoggerFactory.getLogger(TradeController.class);
+    private static final CacheKey TRADE_COUNT_KEY = CacheKey.of("trades:count");
     private final TradeService tradeService;
     private final ValidationService validationService;
     private final MetricsService metricsService;
     private final CacheService cacheService;
+    private final ResponseCache responseCache;
+    private final ResponseFormats formats;
+    private final LoadingCacheRegion<Trade> tradesById;
 
-    @Inject
     public TradeController(TradeService tradeService, ValidationService validationService,
                           MetricsService metricsService, CacheService cacheService) {
+        this(tradeService, validationService, metricsService, cacheService, ResponseCache.objects(), new ResponseFormats());
+    }
+
+    @Inject
+    public TradeController(TradeService tradeService, ValidationService validationService,
+                          MetricsService metricsService, CacheService cacheService, ResponseCache responseCache,
+                          ResponseFormats formats) {
         this.tradeService = tradeService;
         this.validationService = validationService;
         this.metricsService = metricsService;
         this.cacheService = cacheService;
+        this.responseCache = responseCache;
+        this.formats = formats;
+        this.tradesById = cacheService.loadingRegion(CacheRegions.TRADE_BY_ID, Trade.class,
+            key -> tradeService.getTradeByIdAsync(Integer.parseInt(key)), trade -> Set.of(CacheTags.trade(trade.getId())));
     }
 
     public void getTradeById(Context ctx) {
         int id = Integer.parseInt(ctx.pathParam("id"));
         logger.debug("Fetching trade with id: {}", id);
-        try {
-            Trade trade = tradeService.getTradeById(id);
-            ctx.json(trade);
-        } catch (dev.mars.exception.TradeNotFoundException e) {
-            logger.error("Trade not found", e);
-            ctx.status(404);
-        }
+        ctx.future(() -> responseCache.serve(ctx, tradesById, CacheKey.id(id))
+            .exceptionally(throwable -> {
+                Throwable cause = Futures.unwrap(throwable);
+                if (cause instanceof TradeNotFoundException) {
+                    logger.debug("Trade not found: {}", cause.getMessage());
+                    ctx.status(404);
+                    return null;
+                }
+                throw new CompletionException(cause);
+            }));
     }
 
     public void getAllTrades(Context ctx) {
         logger.debug("Fetching all trades");
-        List<Trade> trades = tradeService.getAllTrades();
-        ctx.json(trades);
+        ctx.future(() -> tradeService.getAllTradesAsync().thenAccept(trades -> formats.write(ctx, trades)));
     }
 
     public void addTrade(Context ctx) {
+        Trade trade;
         try {
-            Trade trade = ctx.bodyAsClass(Trade.class);
-            logger.debug("Adding trade: {}", trade.getSymbol());
-            tradeService.addTrade(trade);
-            ctx.status(201);
+            trade = formats.read(ctx, Trade.class);
         } catch (Exception e) {
             logger.error("Error adding trade", e);
             ctx.status(500).result(e.getMessage());
+            return;
         }
+        logger.debug("Adding trade: {}", trade.getSymbol());
+        ctx.future(() -> tradeService.addTradeAsync(trade)
+            .thenRun(() -> ctx.status(201))
+            .exceptionally(throwable -> {
+                Throwable cause = Futures.unwrap(throwable);
+                if (Futures.isPassThrough(cause)) {
+                    throw new CompletionException(cause);
+                }
+                logger.error("Error adding trade", cause);
+                ctx.status(500).result(cause.getMessage());
+                return null;
+            }));
     }
 
     public void updateTrade(Context ctx) {
         int id = Integer.parseInt(ctx.pathParam("id"));
-        Trade trade = ctx.bodyAsClass(Trade.class);
+        Trade trade = formats.read(ctx, Trade.class);
         trade.setId(id);
         logger.debug("Updating trade with id: {}", id);
-        tradeService.updateTrade(trade);
-        ctx.status(204);
+        ctx.future(() -> tradeService.updateTradeAsync(trade).thenRun(() -> ctx.status(204)));
     }
 
     public void deleteTrade(Context ctx) {
         int id = Integer.parseInt(ctx.pathParam("id"));
         logger.debug("Deleting trade with id: {}", id);
-        tradeService.deleteTrade(id);
-        ctx.status(204);
+        ctx.future(() -> tradeService.deleteTradeAsync(id).thenRun(() -> ctx.status(204)));
     }
 
     public void getTradesPaginated(Context ctx) {
@@ -101,17 +136,22 @@ public class TradeController {
             logger.debug("Fetching trades paginated: {}", pageRequest);
 
             // Try cache first
-            String cacheKey = String.format("trades:page:%d:size:%d:sort:%s:%s",
-                pageRequest.getPage(), pageRequest.getSize(), pageRequest.getSortBy(), pageRequest.getSortDirection());
-
-            PageResponse<Trade> response = cacheService.getOrCompute(cacheKey, PageResponse.class, () -> {
-                List<Trade> trades = tradeService.getTradesPaginated(pageRequest.getPage(), pageRequest.getSize());
-                long totalTrades = tradeService.getTradeCount();
-                return PageResponse.of(trades, pageRequest, totalTrades);
-            });
-
-            metricsService.recordTimer("http.request.duration", Duration.between(start, Instant.now()));
-            ctx.json(response);
+            CacheKey cacheKey = CacheKey.page("trades", pageRequest.getPage(), pageRequest.getSize(),
+                pageRequest.getSortBy(), pageRequest.getSortDirection());
+
+            ctx.future(() -> responseCache.serve(ctx, cacheService.region(CacheRegions.TRADE_PAGES), cacheKey, PageResponse.class,
+                    () -> loadTradesPage(pageRequest).thenApply(PageResponse.class::cast), CacheTags::tradePage)
+                .thenRun(() -> metricsService.recordTimer("http.request.duration", Duration.between(start, Instant.now())))
+                .exceptionally(throwable -> {
+                    Throwable cause = Futures.unwrap(throwable);
+                    if (Futures.isPassThrough(cause)) {
+                        throw new CompletionException(cause);
+                    }
+                    logger.error("Error fetching paginated trades", cause);
+                    metricsService.incrementCounter("http.requests.errors");
+                    ctx.status(500).json(Map.of("error", "Internal server error"));
+                    return null;
+                }));
 
         } catch (ValidationService.ValidationException e) {
             logger.warn("Pagination validation failed", e);
@@ -127,4 +167,11 @@ public class TradeController {
             ctx.status(500).json(Map.of("error", "Internal server error"));
         }
     }
-}
\ No newline at end of file
+
+    private CompletableFuture<PageResponse<Trade>> loadTradesPage(PageRequest pageRequest) {
+        return tradeService.getTradesPaginatedAsync(pageRequest.getPage(), pageRequest.getSize())
+            .thenCombine(cacheService.region(CacheRegions.AGGREGATES)
+                    .getOrComputeAsync(TRADE_COUNT_KEY, Long.class, tradeService::getTradeCountAsync, count -> Set.of(CacheTags.TRADES)),
+                (trades, totalTrades) -> PageResponse.of(trades, pageRequest, totalTrades));
+    }
+}
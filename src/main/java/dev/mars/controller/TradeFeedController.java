@@ -0,0 +1,138 @@
+package dev.mars.controller;
+
+import com.google.inject.Inject;
+import dev.mars.service.feed.TradeFeed;
+import dev.mars.service.feed.TradeFeedFilter;
+import dev.mars.service.feed.TradeFeedSink;
+import dev.mars.service.metrics.MetricsService;
+import io.javalin.http.sse.SseClient;
+import io.javalin.websocket.WsCloseStatus;
+import io.javalin.websocket.WsConfig;
+import io.javalin.websocket.WsContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Controller for the live trade feed, over Server-Sent Events and WebSocket.
+ *
+ * Both take optional comma-separated {@code symbol} and {@code counterparty} filters, and
+ * {@code snapshot=true} to start with the current matching trades.
+ */
+public class TradeFeedController {
+    private static final Logger logger = LoggerFactory.getLogger(TradeFeedController.class);
+    private static final String TOO_MANY_SUBSCRIBERS = "Too many trade feed subscribers, please retry later";
+
+    private final TradeFeed tradeFeed;
+    private final MetricsService metricsService;
+    private final Map<String, TradeFeed.Subscription> sockets = new ConcurrentHashMap<>();
+
+    @Inject
+    public TradeFeedController(TradeFeed tradeFeed, MetricsService metricsService) {
+        this.tradeFeed = tradeFeed;
+        this.metricsService = metricsService;
+    }
+
+    /**
+     * Streams trade changes as SSE events named {@code batch} and {@code snapshot}.
+     */
+    public void stream(SseClient client) {
+        metricsService.incrementCounter("http.requests.total");
+        TradeFeedFilter filter = TradeFeedFilter.of(client.ctx().queryParam("symbol"),
+            client.ctx().queryParam("counterparty"));
+
+        TradeFeed.Subscription subscription = tradeFeed.subscribe(filter, new SseSink(client), snapshot(
+            client.ctx().queryParam("snapshot")));
+        if (subscription == null) {
+            // The 200 and event-stream headers are already sent, so the refusal has to be an event
+            client.sendEvent("error", "{\"error\":\"" + TOO_MANY_SUBSCRIBERS + "\"}");
+            return;
+        }
+        client.keepAlive();
+        client.onClose(() -> tradeFeed.unsubscribe(subscription));
+        logger.debug("SSE trade feed opened: {}", filter);
+    }
+
+    /**
+     * Sends trade changes as WebSocket text messages, each a JSON batch or snapshot.
+     */
+    public void websocket(WsConfig ws) {
+        ws.onConnect(ctx -> {
+            metricsService.incrementCounter("http.requests.total");
+            TradeFeedFilter filter = TradeFeedFilter.of(ctx.queryParam("symbol"), ctx.queryParam("counterparty"));
+            TradeFeed.Subscription subscription = tradeFeed.subscribe(filter, new WebSocketSink(ctx),
+                snapshot(ctx.queryParam("snapshot")));
+            if (subscription == null) {
+                ctx.closeSession(WsCloseStatus.TRY_AGAIN_LATER, TOO_MANY_SUBSCRIBERS);
+                return;
+            }
+            sockets.put(ctx.sessionId(), subscription);
+            ctx.enableAutomaticPings();
+            logger.debug("WebSocket trade feed opened: {}", filter);
+        });
+        ws.onClose(ctx -> tradeFeed.unsubscribe(sockets.remove(ctx.sessionId())));
+        ws.onError(ctx -> tradeFeed.unsubscribe(sockets.remove(ctx.sessionId())));
+    }
+
+    private static boolean snapshot(String parameter) {
+        return Boolean.parseBoolean(parameter);
+    }
+
+    private static final class SseSink implements TradeFeedSink {
+        private final SseClient client;
+
+        private SseSink(SseClient client) {
+            this.client = client;
+        }
+
+        @Override
+        public void send(String type, String json) throws IOException {
+            client.sendEvent(type, json);
+            checkOpen();
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            client.sendComment("heartbeat");
+            checkOpen();
+        }
+
+        @Override
+        public void close() {
+            client.close();
+        }
+
+        // SseClient swallows write failures and marks itself terminated instead
+        private void checkOpen() throws IOException {
+            if (client.terminated()) {
+                throw new IOException("SSE client disconnected");
+            }
+        }
+    }
+
+    private static final class WebSocketSink implements TradeFeedSink {
+        private final WsContext ctx;
+
+        private WebSocketSink(WsContext ctx) {
+            this.ctx = ctx;
+        }
+
+        @Override
+        public void send(String type, String json) throws IOException {
+            if (!ctx.session.isOpen()) {
+                throw new IOException("WebSocket closed");
+            }
+            ctx.send(json);
+        }
+
+        @Override
+        public void close() {
+            if (ctx.session.isOpen()) {
+                ctx.closeSession(WsCloseStatus.TRY_AGAIN_LATER, "Trade feed subscriber fell behind");
+            }
+        }
+    }
+}
@@ -4,8 +4,16 @@ import com.google.inject.Inject;
 import dev.mars.dao.model.User;
 import dev.mars.dto.PageRequest;
 import dev.mars.dto.PageResponse;
+import dev.mars.exception.UserNotFoundException;
 import dev.mars.service.UserService;
+import dev.mars.service.async.Futures;
+import dev.mars.service.cache.CacheKey;
+import dev.mars.service.cache.CacheRegions;
 import dev.mars.service.cache.CacheService;
+import dev.mars.service.cache.CacheTags;
+import dev.mars.service.cache.ResponseCache;
+import dev.mars.service.cache.LoadingCacheRegion;
+import dev.mars.service.format.ResponseFormats;
 import dev.mars.service.metrics.MetricsService;
 import dev.mars.service.validation.ValidationService;
 import io.javalin.http.Context;
@@ -14,24 +22,40 @@ import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
 import java.time.Instant;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class UserController {
     private static final Logger logger = LoggerFactory.getLogger(UserController.class);
+    private static final CacheKey USER_COUNT_KEY = CacheKey.of("users:count");
     private final UserService userService;
     private final ValidationService validationService;
     private final MetricsService metricsService;
     private final CacheService cacheService;
+    private final ResponseCache responseCache;
+    private final ResponseFormats formats;
+    private final LoadingCacheRegion<User> usersById;
 
-    @Inject
     public UserController(UserService userService, ValidationService validationService,
                          MetricsService metricsService, CacheService cacheService) {
+        this(userService, validationService, metricsService, cacheService, ResponseCache.objects(), new ResponseFormats());
+    }
+
+    @Inject
+    public UserController(UserService userService, ValidationService validationService,
+                         MetricsService metricsService, CacheService cacheService, ResponseCache responseCache,
+                         ResponseFormats formats) {
         this.userService = userService;
         this.validationService = validationService;
         this.metricsService = metricsService;
         this.cacheService = cacheService;
+        this.responseCache = responseCache;
+        this.formats = formats;
+        this.usersById = cacheService.loadingRegion(CacheRegions.USER_BY_ID, User.class,
+            key -> userService.getUserByIdAsync(Integer.parseInt(key)), user -> Set.of(CacheTags.user(user.getId())));
     }
 
     public void getUserById(Context ctx) {
@@ -42,27 +66,25 @@ public class UserController {
             int id = Integer.parseInt(ctx.pathParam("id"));
             logger.debug("Fetching user with id: {}", id);
 
-            // Try cache first
-            String cacheKey = "user:" + id;
-            Optional<User> cachedUser = cacheService.get(cacheKey, User.class);
-
-            User user;
-            if (cachedUser.isPresent()) {
-                user = cachedUser.get();
-                logger.trace("User {} found in cache", id);
-            } else {
-                user = userService.getUserById(id);
-                cacheService.put(cacheKey, user);
-                logger.trace("User {} cached", id);
-            }
+            // Try cache first, loading from the database off the request thread on a miss
+            ctx.future(() -> responseCache.serve(ctx, usersById, CacheKey.id(id))
+                .thenRun(() -> metricsService.recordTimer("http.request.duration", Duration.between(start, Instant.now())))
+                .exceptionally(throwable -> {
+                    Throwable cause = Futures.unwrap(throwable);
+                    if (Futures.isPassThrough(cause)) {
+                        throw new CompletionException(cause);
+                    }
+                    metricsService.incrementCounter("http.requests.errors");
+                    if (cause instanceof UserNotFoundException) {
+                        logger.debug("User not found: {}", cause.getMessage());
+                        ctx.status(404).json(Map.of("error", "User not found", "message", cause.getMessage()));
+                    } else {
+                        logger.error("Unexpected error fetching user", cause);
+                        ctx.status(500).json(Map.of("error", "Internal server error"));
+                    }
+                    return null;
+                }));
 
-            ctx.json(user);
-            metricsService.recordTimer("http.request.duration", Duration.between(start, Instant.now()));
-
-        } catch (dev.mars.exception.UserNotFoundException e) {
-            logger.error("User not found", e);
-            metricsService.incrementCounter("http.requests.errors");
-            ctx.status(404).json(Map.of("error", "User not found", "message", e.getMessage()));
         } catch (NumberFormatException e) {
             logger.error("Invalid user ID format", e);
             metricsService.incrementCounter("http.requests.errors");
@@ -76,8 +98,7 @@ public class UserController {
 
     public void getAllUsers(Context ctx) {
         logger.debug("Fetching all users");
-        List<User> users = userService.getAllUsers();
-        ctx.json(users);
+        ctx.future(() -> userService.getAllUsersAsync().thenAccept(users -> formats.write(ctx, users)));
     }
 
     public void addUser(Context ctx) {
@@ -85,20 +106,28 @@ public class UserController {
         metricsService.incrementCounter("http.requests.total");
 
         try {
-            User user = ctx.bodyAsClass(User.class);
+            User user = formats.read(ctx, User.class);
 
             // Validate the user object
             validationService.validate(user);
 
             logger.debug("Adding user: {}", user.getName());
-            userService.addUser(user);
-
-            // Invalidate cache for user lists
-            cacheService.evict("users:all");
-
-            metricsService.incrementCounter("users.created");
-            metricsService.recordTimer("http.request.duration", Duration.between(start, Instant.now()));
-            ctx.status(201).json(Map.of("message", "User created successfully"));
+            ctx.future(() -> userService.addUserAsync(user)
+                .thenRun(() -> {
+                    metricsService.incrementCounter("users.created");
+                    metricsService.recordTimer("http.request.duration", Duration.between(start, Instant.now()));
+                    ctx.status(201).json(Map.of("message", "User created successfully"));
+                })
+                .exceptionally(throwable -> {
+                    Throwable cause = Futures.unwrap(throwable);
+                    if (Futures.isPassThrough(cause)) {
+                        throw new CompletionException(cause);
+                    }
+                    logger.error("Error adding user", cause);
+                    metricsService.incrementCounter("http.requests.errors");
+                    ctx.status(500).json(Map.of("error", "Internal server error"));
+                    return null;
+                }));
 
         } catch (ValidationService.ValidationException e) {
             logger.warn("User validation failed", e);
@@ -113,23 +142,16 @@ public class UserController {
 
     public void updateUser(Context ctx) {
         int id = Integer.parseInt(ctx.pathParam("id"));
-        User user = ctx.bodyAsClass(User.class);
+        User user = formats.read(ctx, User.class);
         user.setId(id);
         logger.debug("Updating user with id: {}", id);
-        userService.updateUser(user);
-        ctx.status(204);
+        ctx.future(() -> userService.updateUserAsync(user).thenRun(() -> ctx.status(204)));
     }
 
     public void deleteUser(Context ctx) {
         int id = Integer.parseInt(ctx.pathParam("id"));
         logger.debug("Deleting user with id: {}", id);
-        userService.deleteUser(id);
-
-        // Invalidate cache for the deleted user
-        cacheService.evict("user:" + id);
-        cacheService.evict("users:all");
-
-        ctx.status(204);
+        ctx.future(() -> userService.deleteUserAsync(id).thenRun(() -> ctx.status(204)));
     }
 
     public void getUsersPaginated(Context ctx) {
@@ -153,17 +175,22 @@ public class UserController {
             logger.debug("Fetching users paginated: {}", pageRequest);
 
             // Try cache first
-            String cacheKey = String.format("users:page:%d:size:%d:sort:%s:%s",
-                pageRequest.getPage(), pageRequest.getSize(), pageRequest.getSortBy(), pageRequest.getSortDirection());
-
-            PageResponse<User> response = cacheService.getOrCompute(cacheKey, PageResponse.class, () -> {
-                List<User> users = userService.getUsersPaginated(pageRequest.getPage(), pageRequest.getSize());
-                long totalUsers = userService.getUserCount();
-                return PageResponse.of(users, pageRequest, totalUsers);
-            });
-
-            metricsService.recordTimer("http.request.duration", Duration.between(start, Instant.now()));
-            ctx.json(response);
+            CacheKey cacheKey = CacheKey.page("users", pageRequest.getPage(), pageRequest.getSize(),
+                pageRequest.getSortBy(), pageRequest.getSortDirection());
+
+            ctx.future(() -> responseCache.serve(ctx, cacheService.region(CacheRegions.USER_PAGES), cacheKey, PageResponse.class,
+                    () -> loadUsersPage(pageRequest).thenApply(PageResponse.class::cast), CacheTags::userPage)
+                .thenRun(() -> metricsService.recordTimer("http.request.duration", Duration.between(start, Instant.now())))
+                .exceptionally(throwable -> {
+                    Throwable cause = Futures.unwrap(throwable);
+                    if (Futures.isPassThrough(cause)) {
+                        throw new CompletionException(cause);
+                    }
+                    logger.error("Error fetching paginated users", cause);
+                    metricsService.incrementCounter("http.requests.errors");
+                    ctx.status(500).json(Map.of("error", "Internal server error"));
+                    return null;
+                }));
 
         } catch (ValidationService.ValidationException e) {
             logger.warn("Pagination validation failed", e);
@@ -179,4 +206,11 @@ public class UserController {
             ctx.status(500).json(Map.of("error", "Internal server error"));
         }
     }
+
+    private CompletableFuture<PageResponse<User>> loadUsersPage(PageRequest pageRequest) {
+        return userService.getUsersPaginatedAsync(pageRequest.getPage(), pageRequest.getSize())
+            .thenCombine(cacheService.region(CacheRegions.AGGREGATES)
+                    .getOrComputeAsync(USER_COUNT_KEY, Long.class, userService::getUserCountAsync, count -> Set.of(CacheTags.USERS)),
+                (users, totalUsers) -> PageResponse.of(users, pageRequest, totalUsers));
+    }
 }
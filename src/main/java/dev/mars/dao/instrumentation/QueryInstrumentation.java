@@ -0,0 +1,276 @@
+package dev.mars.dao.instrumentation;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import dev.mars.config.ApplicationProperties;
+import dev.mars.service.deadline.DeadlineContext;
+import dev.mars.service.metrics.MetricsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JDBC instrumentation for the DAO layer.
+ * Statements are prepared under a DAO operation name (the same names used by
+ * {@link dev.mars.exception.DatabaseException#forOperation}); each execution records a latency
+ * histogram and the number of rows returned or affected, and statements slower than the
+ * configured threshold are logged together with their parameters and the H2 query plan, which is
+ * looked up once per SQL string and then reused.
+ */
+@Singleton
+public class QueryInstrumentation {
+    private static final Logger logger = LoggerFactory.getLogger(QueryInstrumentation.class);
+    private static final Logger slowQueryLogger = LoggerFactory.getLogger("dev.mars.dao.SlowQueryLog");
+    private static final int MAX_CACHED_PLANS = 256;
+
+    private final MetricsService metricsService;
+    private final long slowQueryThresholdNanos;
+    private final boolean explainSlowQueries;
+    private final boolean enabled;
+    private final Map<String, String> plans = new ConcurrentHashMap<>();
+
+    @Inject
+    public QueryInstrumentation(ApplicationProperties properties, MetricsService metricsService) {
+        this(metricsService,
+            properties.getDatabase().getSlowQueryThresholdMs(),
+            properties.getDatabase().isExplainSlowQueries(),
+            true);
+        logger.info("Query instrumentation enabled (slow query threshold={}ms, explain={})",
+            properties.getDatabase().getSlowQueryThresholdMs(), explainSlowQueries);
+    }
+
+    private QueryInstrumentation(MetricsService metricsService, long slowQueryThresholdMs,
+                                 boolean explainSlowQueries, boolean enabled) {
+        this.metricsService = metricsService;
+        this.slowQueryThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryThresholdMs);
+        this.explainSlowQueries = explainSlowQueries;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Gets an instrumentation that prepares plain statements without recording anything.
+     *
+     * @return A pass-through instrumentation
+     */
+    public static QueryInstrumentation disabled() {
+        return new QueryInstrumentation(null, Long.MAX_VALUE, false, false);
+    }
+
+    /**
+     * Prepares a statement for a DAO operation, applying the request deadline as its query timeout.
+     *
+     * @param conn The connection
+     * @param operation The DAO operation name
+     * @param sql The SQL to prepare
+     * @return The (instrumented) statement
+     * @throws SQLException if the statement cannot be prepared
+     */
+    public PreparedStatement prepare(Connection conn, String operation, String sql) throws SQLException {
+        return prepare(conn, operation, sql, java.sql.Statement.NO_GENERATED_KEYS);
+    }
+
+    /**
+     * Prepares a statement for a DAO operation, applying the request deadline as its query timeout.
+     *
+     * @param conn The connection
+     * @param operation The DAO operation name
+     * @param sql The SQL to prepare
+     * @param autoGeneratedKeys Whether generated keys should be returned
+     * @return The (instrumented) statement
+     * @throws SQLException if the statement cannot be prepared
+     */
+    public PreparedStatement prepare(Connection conn, String operation, String sql, int autoGeneratedKeys) throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement(sql, autoGeneratedKeys);
+        try {
+            DeadlineContext.applyQueryTimeout(stmt, operation);
+        } catch (SQLException | RuntimeException e) {
+            stmt.close();
+            throw e;
+        }
+        if (!enabled) {
+            return stmt;
+        }
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+            new Class<?>[]{PreparedStatement.class}, new InstrumentedStatement(conn, stmt, operation, sql));
+    }
+
+    private void record(Connection conn, String operation, String sql, Map<Integer, Object> parameters,
+                        long elapsedNanos, long rows, boolean failed) {
+        if (metricsService != null) {
+            metricsService.recordHistogram("db.query.duration", Duration.ofNanos(elapsedNanos),
+                "operation", operation, "outcome", failed ? "error" : "success");
+            if (rows >= 0) {
+                metricsService.recordDistribution("db.query.rows", rows, "operation", operation);
+            }
+        }
+
+        if (elapsedNanos >= slowQueryThresholdNanos) {
+            if (metricsService != null) {
+                metricsService.incrementCounter("db.query.slow", "operation", operation);
+            }
+            String plan = explainSlowQueries ? plan(conn, sql, parameters) : "(explain disabled)";
+            slowQueryLogger.warn("Slow query [{}] took {}ms, rows={}, sql={}, parameters={}, plan:\n{}",
+                operation, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), rows, sql, parameters, plan);
+        }
+    }
+
+    /**
+     * Gets the plan of a slow statement. Plans are cached per SQL string, so EXPLAIN runs at most
+     * once per statement shape rather than again on every slow execution, which is exactly when
+     * the database can least afford the extra query.
+     */
+    private String plan(Connection conn, String sql, Map<Integer, Object> parameters) {
+        String plan = plans.get(sql);
+        if (plan != null) {
+            return plan;
+        }
+        plan = explain(conn, sql, parameters);
+        if (plans.size() < MAX_CACHED_PLANS) {
+            plans.putIfAbsent(sql, plan);
+        }
+        return plan;
+    }
+
+    /**
+     * Gets the cached plan of a statement, or null if it has not been slow yet.
+     */
+    String cachedPlan(String sql) {
+        return plans.get(sql);
+    }
+
+    private static String explain(Connection conn, String sql, Map<Integer, Object> parameters) {
+        try (PreparedStatement explain = conn.prepareStatement("EXPLAIN " + sql)) {
+            for (Map.Entry<Integer, Object> parameter : parameters.entrySet()) {
+                explain.setObject(parameter.getKey(), parameter.getValue());
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = explain.executeQuery()) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+            }
+            return plan.toString().trim();
+        } catch (SQLException e) {
+            return "(plan unavailable: " + e.getMessage() + ")";
+        }
+    }
+
+    /**
+     * Captures parameters and timing for one prepared statement and reports on close. It sits
+     * behind a {@link Proxy}, so only the calls it observes are handled here and every other JDBC
+     * method is forwarded to the driver's statement as is.
+     */
+    private final class InstrumentedStatement implements InvocationHandler {
+        private final Connection conn;
+        private final PreparedStatement delegate;
+        private final String operation;
+        private final String sql;
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+        private long startNanos;
+        private long rows = -1;
+        private boolean executed;
+        private boolean failed;
+        private boolean closed;
+
+        InstrumentedStatement(Connection conn, PreparedStatement delegate, String operation, String sql) {
+            this.conn = conn;
+            this.delegate = delegate;
+            this.operation = operation;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (name) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> forward(delegate, method, args);
+                };
+            }
+            if (args == null && name.startsWith("execute")) {
+                return execute(method);
+            }
+            if (name.equals("close")) {
+                forward(delegate, method, args);
+                finish();
+                return null;
+            }
+            if (name.equals("clearParameters")) {
+                parameters.clear();
+            } else if (name.startsWith("set") && args != null && args.length >= 2
+                    && method.getParameterTypes()[0] == int.class) {
+                parameters.put((Integer) args[0], name.equals("setNull") ? null : args[1]);
+            }
+            return forward(delegate, method, args);
+        }
+
+        private Object execute(Method method) throws Throwable {
+            executed = true;
+            startNanos = System.nanoTime();
+            try {
+                Object result = forward(delegate, method, null);
+                if (result instanceof ResultSet resultSet) {
+                    rows = 0;
+                    return Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                        (rsProxy, rsMethod, rsArgs) -> countRow(rsProxy, resultSet, rsMethod, rsArgs));
+                }
+                if (result instanceof Number count) {
+                    rows = count.longValue();
+                }
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                failed = true;
+                throw e;
+            }
+        }
+
+        /**
+         * Counts the rows read through a result set into the statement's row count.
+         */
+        private Object countRow(Object proxy, ResultSet resultSet, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class && !method.getName().equals("toString")) {
+                return method.getName().equals("equals") ? proxy == args[0] : System.identityHashCode(proxy);
+            }
+            Object result = forward(resultSet, method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                rows++;
+            }
+            return result;
+        }
+
+        private void finish() {
+            if (closed || !executed) {
+                return;
+            }
+            closed = true;
+            try {
+                record(conn, operation, sql, parameters, System.nanoTime() - startNanos, rows, failed);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to record query metrics for {}", operation, e);
+            }
+        }
+    }
+
+    private static Object forward(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package dev.mars.dao.respository;
+
+import dev.mars.dao.model.Trade;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncTradeDao {
+    CompletableFuture<Trade> getTradeById(int id);
+    CompletableFuture<List<Trade>> getAllTrades();
+    CompletableFuture<Void> addTrade(Trade trade);
+    CompletableFuture<Boolean> updateTrade(Trade trade);
+    CompletableFuture<Void> deleteTrade(int id);
+    CompletableFuture<List<Trade>> getTradesPaginated(int offset, int limit);
+    CompletableFuture<Long> countTrades();
+    CompletableFuture<List<Trade>> getLatestTrades(Set<String> symbols, Set<String> counterparties, int limit);
+}
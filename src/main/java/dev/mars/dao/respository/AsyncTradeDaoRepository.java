@@ -0,0 +1,69 @@
+package dev.mars.dao.respository;
+
+import com.google.inject.Inject;
+import dev.mars.dao.model.Trade;
+import dev.mars.service.async.JdbcExecutor;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking TradeDao that runs the JDBC repository on the dedicated JDBC executor.
+ */
+public class AsyncTradeDaoRepository implements AsyncTradeDao {
+    private final TradeDao tradeDao;
+    private final JdbcExecutor jdbcExecutor;
+
+    @Inject
+    public AsyncTradeDaoRepository(TradeDao tradeDao, JdbcExecutor jdbcExecutor) {
+        this.tradeDao = tradeDao;
+        this.jdbcExecutor = jdbcExecutor;
+    }
+
+    @Override
+    public CompletableFuture<Trade> getTradeById(int id) {
+        return jdbcExecutor.submit(() -> tradeDao.getTradeById(id));
+    }
+
+    @Override
+    public CompletableFuture<List<Trade>> getAllTrades() {
+        return jdbcExecutor.submit(tradeDao::getAllTrades);
+    }
+
+    @Override
+    public CompletableFuture<Void> addTrade(Trade trade) {
+        return jdbcExecutor.submit(() -> {
+            tradeDao.addTrade(trade);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> updateTrade(Trade trade) {
+        return jdbcExecutor.submit(() -> tradeDao.updateTrade(trade));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteTrade(int id) {
+        return jdbcExecutor.submit(() -> {
+            tradeDao.deleteTrade(id);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<Trade>> getTradesPaginated(int offset, int limit) {
+        return jdbcExecutor.submit(() -> tradeDao.getTradesPaginated(offset, limit));
+    }
+
+    @Override
+    public CompletableFuture<Long> countTrades() {
+        return jdbcExecutor.submit(tradeDao::countTrades);
+    }
+
+    @Override
+    public CompletableFuture<List<Trade>> getLatestTrades(Set<String> symbols, Set<String> counterparties, int limit) {
+        return jdbcExecutor.submit(() -> tradeDao.getLatestTrades(symbols, counterparties, limit));
+    }
+}
@@ -0,0 +1,14 @@
+package dev.mars.dao.respository;
+
+import dev.mars.dao.model.User;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncUserDao {
+    CompletableFuture<User> getUserById(int id);
+    CompletableFuture<List<User>> getAllUsers();
+    CompletableFuture<Void> addUser(User user);
+    CompletableFuture<Void> updateUser(User user);
+    CompletableFuture<Void> deleteUser(int id);
+    CompletableFuture<List<User>> getUsersPaginated(int offset, int limit);
+}
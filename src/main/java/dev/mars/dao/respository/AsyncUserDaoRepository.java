@@ -0,0 +1,61 @@
+package dev.mars.dao.respository;
+
+import com.google.inject.Inject;
+import dev.mars.dao.model.User;
+import dev.mars.service.async.JdbcExecutor;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking UserDao that runs the JDBC repository on the dedicated JDBC executor.
+ */
+public class AsyncUserDaoRepository implements AsyncUserDao {
+    private final UserDao userDao;
+    private final JdbcExecutor jdbcExecutor;
+
+    @Inject
+    public AsyncUserDaoRepository(UserDao userDao, JdbcExecutor jdbcExecutor) {
+        this.userDao = userDao;
+        this.jdbcExecutor = jdbcExecutor;
+    }
+
+    @Override
+    public CompletableFuture<User> getUserById(int id) {
+        return jdbcExecutor.submit(() -> userDao.getUserById(id));
+    }
+
+    @Override
+    public CompletableFuture<List<User>> getAllUsers() {
+        return jdbcExecutor.submit(userDao::getAllUsers);
+    }
+
+    @Override
+    public CompletableFuture<Void> addUser(User user) {
+        return jdbcExecutor.submit(() -> {
+            userDao.addUser(user);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> updateUser(User user) {
+        return jdbcExecutor.submit(() -> {
+            userDao.updateUser(user);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteUser(int id) {
+        return jdbcExecutor.submit(() -> {
+            userDao.deleteUser(id);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<User>> getUsersPaginated(int offset, int limit) {
+        return jdbcExecutor.submit(() -> userDao.getUsersPaginated(offset, limit));
+    }
+}
@@ -0,0 +1,223 @@
+package dev.mars.dao.respository;
+
+import dev.mars.dao.model.Trade;
+import dev.mars.exception.ApiException;
+import dev.mars.exception.DatabaseException;
+import dev.mars.service.async.Futures;
+import dev.mars.service.deadline.DeadlineContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * TradeDao that spreads trades over several databases.
+ *
+ * The shard of a trade is always {@code id mod N}, so point reads, updates and deletes go to a
+ * single shard. How ids are allocated decides placement: with {@link ShardKey#ID} ids are handed
+ * out sequentially and trades spread round-robin; with {@link ShardKey#SYMBOL} the id is chosen
+ * from the residue class of the symbol's hash, which keeps all trades of a symbol on one shard.
+ * A trade stays on the shard it was created on even if its symbol is later changed.
+ *
+ * Each shard allocates the ids of its residue class from a database sequence stepping by the
+ * shard count, so ids from either placement, and from every instance sharing the shards, never
+ * collide. Ids start at 1.
+ *
+ * Listings and counts scatter to all shards in parallel and merge the per-shard results, which
+ * are each ordered by id, back into a single id-ordered result.
+ */
+public class ShardedTradeDao implements TradeDao, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ShardedTradeDao.class);
+
+    public enum ShardKey {
+        ID,
+        SYMBOL;
+
+        public static ShardKey from(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private final List<TradeDaoRepository> shards;
+    private final ShardKey shardKey;
+    private final ExecutorService scatterExecutor;
+    private final AtomicInteger nextShard;
+
+    public ShardedTradeDao(List<TradeDaoRepository> shards, ShardKey shardKey) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shards = List.copyOf(shards);
+        this.shardKey = shardKey;
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.scatterExecutor = Executors.newFixedThreadPool(shards.size() * 2, runnable -> {
+            Thread thread = new Thread(runnable, "shard-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // A new sequence starts at the shard's first id above the highest one stored, so shard 0
+        // never issues id 0. An existing sequence, e.g. created by another instance, is kept
+        int shardCount = shards.size();
+        int maxId = 0;
+        for (int shard = 0; shard < shardCount; shard++) {
+            int shardMax = shards.get(shard).getMaxTradeId();
+            int firstId = shardMax + 1 + Math.floorMod(shard - (shardMax + 1), shardCount);
+            shards.get(shard).createIdSequence(firstId, shardCount);
+            maxId = Math.max(maxId, shardMax);
+        }
+        // Round-robin placement continues from the shard that would hold the next sequential id
+        this.nextShard = new AtomicInteger(maxId + 1);
+        logger.info("Sharded trade DAO initialized with {} shards by {}", shardCount, shardKey);
+    }
+
+    @Override
+    public Trade getTradeById(int id) {
+        return shardFor(id).getTradeById(id);
+    }
+
+    @Override
+    public List<Trade> getAllTrades() {
+        return mergeById(scatter(TradeDaoRepository::getAllTrades), 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void addTrade(Trade trade) {
+        trade.setId(allocateId(trade));
+        shardFor(trade.getId()).addTradeWithId(trade);
+    }
+
+    @Override
+    public boolean updateTrade(Trade trade) {
+        return shardFor(trade.getId()).updateTrade(trade);
+    }
+
+    @Override
+    public void deleteTrade(int id) {
+        shardFor(id).deleteTrade(id);
+    }
+
+    @Override
+    public List<Trade> getTradesPaginated(int offset, int limit) {
+        // Any shard may hold every row of the requested page, so each returns its first offset+limit rows
+        int perShard = (int) Math.min(Integer.MAX_VALUE, (long) offset + limit);
+        return mergeById(scatter(shard -> shard.getTradesPaginated(0, perShard)), offset, limit);
+    }
+
+    @Override
+    public long countTrades() {
+        long total = 0;
+        for (Long count : scatter(TradeDaoRepository::countTrades)) {
+            total += count;
+        }
+        return total;
+    }
+
+    @Override
+    public List<Trade> getLatestTrades(Set<String> symbols, Set<String> counterparties, int limit) {
+        List<Trade> latest = new ArrayList<>();
+        scatter(shard -> shard.getLatestTrades(symbols, counterparties, limit)).forEach(latest::addAll);
+        latest.sort(Comparator.comparingInt(Trade::getId).reversed());
+        return latest.size() > limit ? new ArrayList<>(latest.subList(0, limit)) : latest;
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    @Override
+    public void close() {
+        scatterExecutor.shutdown();
+        try {
+            if (!scatterExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                scatterExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            scatterExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    int shardIndex(int id) {
+        return Math.floorMod(id, shards.size());
+    }
+
+    private TradeDaoRepository shardFor(int id) {
+        return shards.get(shardIndex(id));
+    }
+
+    private int allocateId(Trade trade) {
+        int shardCount = shards.size();
+        int shard;
+        if (shardKey == ShardKey.SYMBOL && trade.getSymbol() != null) {
+            shard = Math.floorMod(trade.getSymbol().toUpperCase(Locale.ROOT).hashCode(), shardCount);
+        } else {
+            shard = Math.floorMod(nextShard.getAndIncrement(), shardCount);
+        }
+        return shards.get(shard).nextTradeId();
+    }
+
+    private <T> List<T> scatter(Function<TradeDaoRepository, T> query) {
+        if (shards.size() == 1) {
+            return List.of(query.apply(shards.get(0)));
+        }
+        List<CompletableFuture<T>> futures = new ArrayList<>(shards.size());
+        for (TradeDaoRepository shard : shards) {
+            futures.add(CompletableFuture.supplyAsync(DeadlineContext.propagate(() -> query.apply(shard)), scatterExecutor));
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            Throwable cause = Futures.unwrap(e);
+            if (cause instanceof ApiException apiException) {
+                throw apiException;
+            }
+            throw new DatabaseException("Scatter query failed: " + cause.getMessage());
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<T> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    private static List<Trade> mergeById(List<List<Trade>> perShard, int offset, int limit) {
+        PriorityQueue<int[]> heads = new PriorityQueue<>((a, b) ->
+            Integer.compare(perShard.get(a[0]).get(a[1]).getId(), perShard.get(b[0]).get(b[1]).getId()));
+        int total = 0;
+        for (int shard = 0; shard < perShard.size(); shard++) {
+            total += perShard.get(shard).size();
+            if (!perShard.get(shard).isEmpty()) {
+                heads.add(new int[]{shard, 0});
+            }
+        }
+
+        List<Trade> merged = new ArrayList<>(Math.max(0, Math.min(limit, total - offset)));
+        int skipped = 0;
+        while (!heads.isEmpty() && merged.size() < limit) {
+            int[] head = heads.poll();
+            List<Trade> shardTrades = perShard.get(head[0]);
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                merged.add(shardTrades.get(head[1]));
+            }
+            if (head[1] + 1 < shardTrades.size()) {
+                heads.add(new int[]{head[0], head[1] + 1});
+            }
+        }
+        return merged;
+    }
+}
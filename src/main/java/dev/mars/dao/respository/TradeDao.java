@@ -2,12 +2,27 @@ package dev.mars.dao.respository;
 
 import dev.mars.dao.model.Trade;
 import java.util.List;
+import java.util.Set;
 
 public interface TradeDao {
     Trade getTradeById(int id);
     List<Trade> getAllTrades();
     void addTrade(Trade trade);
-    void updateTrade(Trade trade);
+
+    /**
+     * Updates a trade.
+     *
+     * @return Whether a trade with the id existed
+     */
+    boolean updateTrade(Trade trade);
+
     void deleteTrade(int id);
     List<Trade> getTradesPaginated(int offset, int limit);
+    long countTrades();
+
+    /**
+     * The newest trades, highest id first, with one of the symbols and one of the counterparties.
+     * Both are given in lower case and compared ignoring case; an empty set matches everything.
+     */
+    List<Trade> getLatestTrades(Set<String> symbols, Set<String> counterparties, int limit);
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package dev.mars.dao.respository;
 
 import com.google.inject.Inject;
+import dev.mars.dao.instrumentation.QueryInstrumentation;
 import dev.mars.dao.model.Trade;
 import dev.mars.exception.DatabaseException;
 import org.slf4j.Logger;
@@ -9,22 +10,31 @@ import org.slf4j.LoggerFactory;
 import javax.sql.DataSource;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 public class TradeDaoRepository implements TradeDao {
     private static final Logger logger = LoggerFactory.getLogger(TradeDaoRepository.class);
+    static final String ID_SEQUENCE = "trade_ids";
     private final DataSource dataSource;
+    private final QueryInstrumentation queryInstrumentation;
 
-    @Inject
     public TradeDaoRepository(DataSource dataSource) {
+        this(dataSource, QueryInstrumentation.disabled());
+    }
+
+    @Inject
+    public TradeDaoRepository(DataSource dataSource, QueryInstrumentation queryInstrumentation) {
         this.dataSource = dataSource;
+        this.queryInstrumentation = queryInstrumentation;
     }
 
     @Override
     public Trade getTradeById(int id) {
         logger.debug("Getting trade by id: {}", id);
         try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("SELECT * FROM trades WHERE id = ?")) {
+             PreparedStatement stmt = queryInstrumentation.prepare(conn, "getTradeById", "SELECT * FROM trades WHERE id = ?")) {
             stmt.setInt(1, id);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -42,8 +52,8 @@ public class TradeDaoRepository implements TradeDao {
         logger.debug("Getting all trades");
         List<Trade> trades = new ArrayList<>();
         try (Connection conn = dataSource.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery("SELECT * FROM trades")) {
+             PreparedStatement stmt = queryInstrumentation.prepare(conn, "getAllTrades", "SELECT * FROM trades ORDER BY id")) {
+            ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
                 trades.add(mapResultSetToTrade(rs));
             }
@@ -58,9 +68,9 @@ public class TradeDaoRepository implements TradeDao {
     public void addTrade(Trade trade) {
         logger.debug("Adding trade: {}", trade.getSymbol());
         try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
+             PreparedStatement stmt = queryInstrumentation.prepare(conn, "addTrade",
                      "INSERT INTO trades (symbol, quantity, price, type, status, trade_date, settlement_date, counterparty, notes) " +
-                             "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+                             "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS)) {
             stmt.setString(1, trade.getSymbol());
             stmt.setInt(2, trade.getQuantity());
             stmt.setDouble(3, trade.getPrice());
@@ -71,6 +81,11 @@ public class TradeDaoRepository implements TradeDao {
             stmt.setString(8, trade.getCounterparty());
             stmt.setString(9, trade.getNotes());
             stmt.executeUpdate();
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    trade.setId(keys.getInt(1));
+                }
+            }
         } catch (SQLException e) {
             logger.error("Error adding trade", e);
             throw DatabaseException.forOperation("addTrade", e);
@@ -78,10 +93,10 @@ public class TradeDaoRepository implements TradeDao {
     }
 
     @Override
-    public void updateTrade(Trade trade) {
+    public boolean updateTrade(Trade trade) {
         logger.debug("Updating trade with id: {}", trade.getId());
         try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
+             PreparedStatement stmt = queryInstrumentation.prepare(conn, "updateTrade",
                      "UPDATE trades SET symbol = ?, quantity = ?, price = ?, type = ?, status = ?, " +
                              "trade_date = ?, settlement_date = ?, counterparty = ?, notes = ? WHERE id = ?")) {
             stmt.setString(1, trade.getSymbol());
@@ -94,7 +109,7 @@ public class TradeDaoRepository implements TradeDao {
             stmt.setString(8, trade.getCounterparty());
             stmt.setString(9, trade.getNotes());
             stmt.setInt(10, trade.getId());
-            stmt.executeUpdate();
+            return stmt.executeUpdate() > 0;
         } catch (SQLException e) {
             logger.error("Error updating trade", e);
             throw DatabaseException.forOperation("updateTrade", e);
@@ -105,7 +120,7 @@ public class TradeDaoRepository implements TradeDao {
     public void deleteTrade(int id) {
         logger.debug("Deleting trade with id: {}", id);
         try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("DELETE FROM trades WHERE id = ?")) {
+             PreparedStatement stmt = queryInstrumentation.prepare(conn, "deleteTrade", "DELETE FROM trades WHERE id = ?")) {
             stmt.setInt(1, id);
             stmt.executeUpdate();
         } catch (SQLException e) {
@@ -119,7 +134,7 @@ public class TradeDaoRepository implements TradeDao {
         logger.debug("Getting trades paginated: offset={}, limit={}", offset, limit);
         List<Trade> trades = new ArrayList<>();
         try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("SELECT * FROM trades LIMIT ? OFFSET ?")) {
+             PreparedStatement stmt = queryInstrumentation.prepare(conn, "getTradesPaginated", "SELECT * FROM trades ORDER BY id LIMIT ? OFFSET ?")) {
             stmt.setInt(1, limit);
             stmt.setInt(2, offset);
             ResultSet rs = stmt.executeQuery();
@@ -133,6 +148,137 @@ public class TradeDaoRepository implements TradeDao {
         return trades;
     }
 
+    @Override
+    public long countTrades() {
+        logger.debug("Counting trades");
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = queryInstrumentation.prepare(conn, "countTrades", "SELECT COUNT(*) FROM trades")) {
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            logger.error("Error counting trades", e);
+            throw DatabaseException.forOperation("countTrades", e);
+        }
+    }
+
+    @Override
+    public List<Trade> getLatestTrades(Set<String> symbols, Set<String> counterparties, int limit) {
+        logger.debug("Getting latest trades: symbols={}, counterparties={}, limit={}", symbols, counterparties, limit);
+        StringBuilder sql = new StringBuilder("SELECT * FROM trades WHERE 1 = 1");
+        List<String> values = new ArrayList<>();
+        appendIn(sql, "symbol", symbols, values);
+        appendIn(sql, "counterparty", counterparties, values);
+        sql.append(" ORDER BY id DESC LIMIT ?");
+        List<Trade> trades = new ArrayList<>();
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = queryInstrumentation.prepare(conn, "getLatestTrades", sql.toString())) {
+            int index = 1;
+            for (String value : values) {
+                stmt.setString(index++, value);
+            }
+            stmt.setInt(index, limit);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                trades.add(mapResultSetToTrade(rs));
+            }
+        } catch (SQLException e) {
+            logger.error("Error getting latest trades", e);
+            throw DatabaseException.forOperation("getLatestTrades", e);
+        }
+        return trades;
+    }
+
+    private static void appendIn(StringBuilder sql, String column, Collection<String> lowerCaseValues, List<String> values) {
+        if (lowerCaseValues.isEmpty()) {
+            return;
+        }
+        sql.append(" AND LOWER(").append(column).append(") IN (");
+        sql.append("?, ".repeat(lowerCaseValues.size() - 1)).append("?)");
+        values.addAll(lowerCaseValues);
+    }
+
+    /**
+     * Inserts a trade keeping the id it already carries, for callers that allocate ids themselves.
+     *
+     * @param trade The trade with its id set
+     */
+    void addTradeWithId(Trade trade) {
+        logger.debug("Adding trade with id: {}", trade.getId());
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = queryInstrumentation.prepare(conn, "addTrade",
+                     "INSERT INTO trades (id, symbol, quantity, price, type, status, trade_date, settlement_date, counterparty, notes) " +
+                             "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            stmt.setInt(1, trade.getId());
+            stmt.setString(2, trade.getSymbol());
+            stmt.setInt(3, trade.getQuantity());
+            stmt.setDouble(4, trade.getPrice());
+            stmt.setString(5, trade.getType());
+            stmt.setString(6, trade.getStatus());
+            stmt.setDate(7, trade.getTradeDate() != null ? Date.valueOf(trade.getTradeDate()) : null);
+            stmt.setDate(8, trade.getSettlementDate() != null ? Date.valueOf(trade.getSettlementDate()) : null);
+            stmt.setString(9, trade.getCounterparty());
+            stmt.setString(10, trade.getNotes());
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            logger.error("Error adding trade with id", e);
+            throw DatabaseException.forOperation("addTrade", e);
+        }
+    }
+
+    /**
+     * Gets the highest trade id stored.
+     *
+     * @return The highest id, or 0 if there are no trades
+     */
+    int getMaxTradeId() {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = queryInstrumentation.prepare(conn, "getMaxTradeId", "SELECT COALESCE(MAX(id), 0) FROM trades")) {
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            logger.error("Error getting max trade id", e);
+            throw DatabaseException.forOperation("getMaxTradeId", e);
+        }
+    }
+
+    /**
+     * Creates the sequence trade ids are allocated from, unless it already exists, e.g. because
+     * another instance sharing the database created it first.
+     *
+     * @param start The first id to hand out
+     * @param increment The step between ids
+     */
+    void createIdSequence(int start, int increment) {
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE SEQUENCE IF NOT EXISTS " + ID_SEQUENCE
+                    + " START WITH " + start + " INCREMENT BY " + increment);
+        } catch (SQLException e) {
+            logger.error("Error creating trade id sequence", e);
+            throw DatabaseException.forOperation("createIdSequence", e);
+        }
+    }
+
+    /**
+     * Allocates the next trade id from the sequence created by {@link #createIdSequence}.
+     *
+     * @return The id, unique across every instance using this database
+     */
+    int nextTradeId() {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = queryInstrumentation.prepare(conn, "nextTradeId",
+                     "SELECT NEXT VALUE FOR " + ID_SEQUENCE)) {
+            ResultSet rs = stmt.executeQuery();
+            if (!rs.next()) {
+                throw new SQLException("Sequence " + ID_SEQUENCE + " returned no value");
+            }
+            return rs.getInt(1);
+        } catch (SQLException e) {
+            logger.error("Error allocating trade id", e);
+            throw DatabaseException.forOperation("nextTradeId", e);
+        }
+    }
+
     private Trade mapResultSetToTrade(ResultSet rs) throws SQLException {
         return new Trade(
                 rs.getInt("id"),
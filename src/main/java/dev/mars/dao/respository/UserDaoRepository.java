@@ -1,6 +1,7 @@
 package dev.mars.dao.respository;
 
 import com.google.inject.Inject;
+import dev.mars.dao.instrumentation.QueryInstrumentation;
 import dev.mars.dao.model.User;
 import dev.mars.exception.DatabaseException;
 import org.slf4j.Logger;
@@ -13,17 +14,23 @@ import javax.sql.DataSource;
 public class UserDaoRepository implements UserDao {
     private static final Logger logger = LoggerFactory.getLogger(UserDaoRepository.class);
     private final DataSource dataSource;
+    private final QueryInstrumentation queryInstrumentation;
 
-    @Inject
     public UserDaoRepository(DataSource dataSource) {
+        this(dataSource, QueryInstrumentation.disabled());
+    }
+
+    @Inject
+    public UserDaoRepository(DataSource dataSource, QueryInstrumentation queryInstrumentation) {
         this.dataSource = dataSource;
+        this.queryInstrumentation = queryInstrumentation;
     }
 
     @Override
     public User getUserById(int id) {
         logger.debug("Getting user by id: {}", id);
         try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("SELECT * FROM users WHERE id = ?")) {
+             PreparedStatement stmt = queryInstrumentation.prepare(conn, "getUserById", "SELECT * FROM users WHERE id = ?")) {
             stmt.setInt(1, id);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -41,8 +48,8 @@ public class UserDaoRepository implements UserDao {
         logger.debug("Getting all users");
         List<User> users = new ArrayList<>();
         try (Connection conn = dataSource.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery("SELECT * FROM users")) {
+             PreparedStatement stmt = queryInstrumentation.prepare(conn, "getAllUsers", "SELECT * FROM users")) {
+            ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
                 users.add(new User(rs.getInt("id"), rs.getString("name")));
             }
@@ -57,9 +64,15 @@ public class UserDaoRepository implements UserDao {
     public void addUser(User user) {
         logger.debug("Adding user: {}", user.getName());
         try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("INSERT INTO users (name) VALUES (?)")) {
+             PreparedStatement stmt = queryInstrumentation.prepare(conn, "addUser",
+                     "INSERT INTO users (name) VALUES (?)", Statement.RETURN_GENERATED_KEYS)) {
             stmt.setString(1, user.getName());
             stmt.executeUpdate();
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    user.setId(keys.getInt(1));
+                }
+            }
         } catch (SQLException e) {
             logger.error("Error adding user", e);
             throw DatabaseException.forOperation("addUser", e);
@@ -70,7 +83,7 @@ public class UserDaoRepository implements UserDao {
     public void updateUser(User user) {
         logger.debug("Updating user with id: {}", user.getId());
         try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("UPDATE users SET name = ? WHERE id = ?")) {
+             PreparedStatement stmt = queryInstrumentation.prepare(conn, "updateUser", "UPDATE users SET name = ? WHERE id = ?")) {
             stmt.setString(1, user.getName());
             stmt.setInt(2, user.getId());
             stmt.executeUpdate();
@@ -84,7 +97,7 @@ public class UserDaoRepository implements UserDao {
     public void deleteUser(int id) {
         logger.debug("Deleting user with id: {}", id);
         try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("DELETE FROM users WHERE id = ?")) {
+             PreparedStatement stmt = queryInstrumentation.prepare(conn, "deleteUser", "DELETE FROM users WHERE id = ?")) {
             stmt.setInt(1, id);
             stmt.executeUpdate();
         } catch (SQLException e) {
@@ -98,7 +111,7 @@ public class UserDaoRepository implements UserDao {
         logger.debug("Getting users paginated: offset={}, limit={}", offset, limit);
         List<User> users = new ArrayList<>();
         try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("SELECT * FROM users LIMIT ? OFFSET ?")) {
+             PreparedStatement stmt = queryInstrumentation.prepare(conn, "getUsersPaginated", "SELECT * FROM users LIMIT ? OFFSET ?")) {
             stmt.setInt(1, limit);
             stmt.setInt(2, offset);
             ResultSet rs = stmt.executeQuery();
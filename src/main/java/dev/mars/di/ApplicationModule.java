@@ -10,14 +10,23 @@ import dev.mars.controller.DocumentationController;
 import dev.mars.controller.MetricsController;
 import dev.mars.controller.TradeController;
 import dev.mars.controller.UserController;
+import dev.mars.dao.instrumentation.QueryInstrumentation;
+import dev.mars.dao.respository.AsyncTradeDao;
+import dev.mars.dao.respository.AsyncTradeDaoRepository;
+import dev.mars.dao.respository.AsyncUserDao;
+import dev.mars.dao.respository.AsyncUserDaoRepository;
 import dev.mars.dao.respository.TradeDao;
+import dev.mars.dao.respository.ShardedTradeDao;
 import dev.mars.dao.respository.TradeDaoRepository;
 import dev.mars.dao.respository.UserDao;
 import dev.mars.dao.respository.UserDaoRepository;
 import dev.mars.service.TradeService;
 import dev.mars.service.UserService;
 import dev.mars.service.async.AsyncService;
+import dev.mars.service.async.JdbcExecutor;
+import dev.mars.service.cache.CacheInvalidator;
 import dev.mars.service.cache.CacheService;
+import dev.mars.service.concurrency.ConcurrencyLimiterRegistry;
 import dev.mars.service.cache.CaffeineCache;
 import dev.mars.service.metrics.MetricsService;
 import dev.mars.service.validation.ValidationService;
@@ -25,6 +34,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Guice module for dependency injection configuration.
@@ -38,8 +49,10 @@ public class ApplicationModule extends AbstractModule {
         
         // Bind interfaces to implementations
         bind(UserDao.class).to(UserDaoRepository.class).in(Singleton.class);
-        bind(TradeDao.class).to(TradeDaoRepository.class).in(Singleton.class);
+        bind(AsyncUserDao.class).to(AsyncUserDaoRepository.class).in(Singleton.class);
+        bind(AsyncTradeDao.class).to(AsyncTradeDaoRepository.class).in(Singleton.class);
         bind(CacheService.class).to(CaffeineCache.class).in(Singleton.class);
+        bind(CacheInvalidator.class).asEagerSingleton();
         
         // Bind services
         bind(UserService.class).in(Singleton.class);
@@ -54,8 +67,10 @@ public class ApplicationModule extends AbstractModule {
         bind(MetricsController.class).in(Singleton.class);
         bind(DocumentationController.class).in(Singleton.class);
 
-        // Bind async service
+        // Bind async service and the dedicated JDBC executor
         bind(AsyncService.class).in(Singleton.class);
+        bind(JdbcExecutor.class).in(Singleton.class);
+        bind(ConcurrencyLimiterRegistry.class).in(Singleton.class);
 
         logger.info("Dependency injection configuration completed");
     }
@@ -73,10 +88,31 @@ public class ApplicationModule extends AbstractModule {
         return createDataSource(properties.getDatabase());
     }
 
+    @Provides
+    @Singleton
+    public TradeDao provideTradeDao(ApplicationProperties properties, DataSource dataSource,
+                                    QueryInstrumentation queryInstrumentation) {
+        ApplicationProperties.DatabaseConfig config = properties.getDatabase();
+        if (config.getShardUrls().isEmpty()) {
+            return new TradeDaoRepository(dataSource, queryInstrumentation);
+        }
+
+        logger.info("Creating {} trade shards keyed by {}", config.getShardUrls().size(), config.getShardKey());
+        List<TradeDaoRepository> shards = new ArrayList<>();
+        for (String url : config.getShardUrls()) {
+            shards.add(new TradeDaoRepository(createDataSource(config, url.trim()), queryInstrumentation));
+        }
+        return new ShardedTradeDao(shards, ShardedTradeDao.ShardKey.from(config.getShardKey()));
+    }
+
     private DataSource createDataSource(ApplicationProperties.DatabaseConfig config) {
+        return createDataSource(config, config.getUrl());
+    }
+
+    private DataSource createDataSource(ApplicationProperties.DatabaseConfig config, String url) {
         // Create H2 DataSource
         org.h2.jdbcx.JdbcDataSource dataSource = new org.h2.jdbcx.JdbcDataSource();
-        dataSource.setURL(config.getUrl());
+        dataSource.setURL(url);
         dataSource.setUser(config.getUsername());
         dataSource.setPassword(config.getPassword());
         
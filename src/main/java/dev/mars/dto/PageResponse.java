@@ -58,6 +58,8 @@ public class PageResponse<T> {
         private boolean last;
         private boolean hasNext;
         private boolean hasPrevious;
+        // Set when totalElements was counted only up to a threshold, so there may be more
+        private boolean totalElementsLowerBound;
 
         public PageMetadata() {}
 
@@ -100,5 +102,7 @@ public class PageResponse<T> {
 
         public boolean isHasPrevious() { return hasPrevious; }
         public void setHasPrevious(boolean hasPrevious) { this.hasPrevious = hasPrevious; }
+        public boolean isTotalElementsLowerBound() { return totalElementsLowerBound; }
+        public void setTotalElementsLowerBound(boolean totalElementsLowerBound) { this.totalElementsLowerBound = totalElementsLowerBound; }
     }
 }
@@ -0,0 +1,32 @@
+package dev.mars.dto;
+
+/**
+ * An autocomplete suggestion with how often the value occurs.
+ */
+public class Suggestion {
+    private String value;
+    private int count;
+
+    public Suggestion() {}
+
+    public Suggestion(String value, int count) {
+        this.value = value;
+        this.count = count;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+}
@@ -19,6 +19,19 @@ public class ApiException extends RuntimeException {
         this.statusCode = statusCode;
     }
     
+    /**
+     * Creates a new API exception that may skip capturing a stack trace. Expected outcomes such
+     * as a missing resource are thrown often and the trace is never looked at.
+     * 
+     * @param message The error message
+     * @param statusCode The HTTP status code
+     * @param writableStackTrace Whether to capture a stack trace
+     */
+    protected ApiException(String message, int statusCode, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+        this.statusCode = statusCode;
+    }
+    
     /**
      * Creates a new API exception with the specified message, cause, and status code.
      * 
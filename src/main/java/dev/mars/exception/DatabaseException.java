@@ -6,6 +6,9 @@ import java.sql.SQLException;
  * Exception thrown when a database operation fails.
  */
 public class DatabaseException extends ApiException {
+
+    /** SQLSTATE reported when a statement is cancelled, e.g. because its query timeout expired. */
+    private static final String QUERY_CANCELLED_SQL_STATE = "57014";
     
     /**
      * Creates a new DatabaseException with the specified message.
@@ -25,6 +28,17 @@ public class DatabaseException extends ApiException {
     public DatabaseException(String message, SQLException cause) {
         super(message, cause, 500);
     }
+
+    /**
+     * Creates a new DatabaseException with the specified message, cause and status code.
+     *
+     * @param message The error message
+     * @param cause The cause of the exception
+     * @param statusCode The HTTP status code
+     */
+    protected DatabaseException(String message, SQLException cause, int statusCode) {
+        super(message, cause, statusCode);
+    }
     
     /**
      * Creates a new DatabaseException for a specific operation.
@@ -34,6 +48,9 @@ public class DatabaseException extends ApiException {
      * @return A new DatabaseException
      */
     public static DatabaseException forOperation(String operation, SQLException cause) {
+        if (QUERY_CANCELLED_SQL_STATE.equals(cause.getSQLState())) {
+            return new DatabaseException("Request deadline exceeded during " + operation, cause, 504);
+        }
         return new DatabaseException("Database error during " + operation + ": " + cause.getMessage(), cause);
     }
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package dev.mars.exception;
+
+/**
+ * Exception thrown when a request runs out of its time budget.
+ */
+public class DeadlineExceededException extends ApiException {
+    /**
+     * Creates a new DeadlineExceededException with the specified message.
+     *
+     * @param message The error message
+     */
+    public DeadlineExceededException(String message) {
+        super(message, 504);
+    }
+}
@@ -9,6 +9,12 @@ public class ExceptionHandler {
     private static final Logger logger = LoggerFactory.getLogger(ExceptionHandler.class);
 
     public static void register(Javalin app) {
+        app.exception(ServiceUnavailableException.class, (e, ctx) -> {
+            logger.warn("Service unavailable: {}", e.getMessage());
+            ctx.header("Retry-After", String.valueOf(e.getRetryAfterSeconds()));
+            ctx.status(e.getStatusCode()).json(new ErrorResponse(e.getMessage()));
+        });
+
         app.exception(ApiException.class, (e, ctx) -> {
             logger.error("API exception: {}", e.getMessage(), e);
             ctx.status(e.getStatusCode()).json(new ErrorResponse(e.getMessage()));
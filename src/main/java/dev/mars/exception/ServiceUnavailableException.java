@@ -0,0 +1,38 @@
+package dev.mars.exception;
+
+/**
+ * Exception thrown when the service is temporarily unable to handle a request.
+ */
+public class ServiceUnavailableException extends ApiException {
+
+    private final int retryAfterSeconds;
+
+    /**
+     * Creates a new ServiceUnavailableException with the specified message.
+     *
+     * @param message The error message
+     */
+    public ServiceUnavailableException(String message) {
+        this(message, 1);
+    }
+
+    /**
+     * Creates a new ServiceUnavailableException with the specified message and retry hint.
+     *
+     * @param message The error message
+     * @param retryAfterSeconds Seconds the client should wait before retrying
+     */
+    public ServiceUnavailableException(String message, int retryAfterSeconds) {
+        super(message, 503);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Gets the number of seconds the client should wait before retrying.
+     *
+     * @return The Retry-After value in seconds
+     */
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
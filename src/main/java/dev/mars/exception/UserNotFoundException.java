@@ -1,7 +1,8 @@
 package dev.mars.exception;
 
 /**
- * Exception thrown when a user is not found.
+ * Exception thrown when a user is not found. It carries no stack trace: lookups of missing ids
+ * are routine and can be frequent.
  */
 public class UserNotFoundException extends ApiException {
     /**
@@ -10,6 +11,6 @@ public class UserNotFoundException extends ApiException {
      * @param message The error message
      */
     public UserNotFoundException(String message) {
-        super(message, 404);
+        super(message, 404, false);
     }
 }
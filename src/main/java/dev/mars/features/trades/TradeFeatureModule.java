@@ -3,6 +3,8 @@ package dev.mars.features.trades;
 import com.google.inject.AbstractModule;
 import com.google.inject.Singleton;
 import dev.mars.controller.TradeController;
+import dev.mars.dao.respository.AsyncTradeDao;
+import dev.mars.dao.respository.AsyncTradeDaoRepository;
 import dev.mars.dao.respository.TradeDao;
 import dev.mars.dao.respository.TradeDaoRepository;
 import dev.mars.service.TradeService;
@@ -16,6 +18,7 @@ public class TradeFeatureModule extends AbstractModule {
     protected void configure() {
         // Bind trade-specific dependencies
         bind(TradeDao.class).to(TradeDaoRepository.class).in(Singleton.class);
+        bind(AsyncTradeDao.class).to(AsyncTradeDaoRepository.class).in(Singleton.class);
         bind(TradeService.class).in(Singleton.class);
         bind(TradeController.class).in(Singleton.class);
     }
@@ -3,6 +3,8 @@ package dev.mars.features.users;
 import com.google.inject.AbstractModule;
 import com.google.inject.Singleton;
 import dev.mars.controller.UserController;
+import dev.mars.dao.respository.AsyncUserDao;
+import dev.mars.dao.respository.AsyncUserDaoRepository;
 import dev.mars.dao.respository.UserDao;
 import dev.mars.dao.respository.UserDaoRepository;
 import dev.mars.service.UserService;
@@ -16,6 +18,7 @@ public class UserFeatureModule extends AbstractModule {
     protected void configure() {
         // Bind user-specific dependencies
         bind(UserDao.class).to(UserDaoRepository.class).in(Singleton.class);
+        bind(AsyncUserDao.class).to(AsyncUserDaoRepository.class).in(Singleton.class);
         bind(UserService.class).in(Singleton.class);
         bind(UserController.class).in(Singleton.class);
     }
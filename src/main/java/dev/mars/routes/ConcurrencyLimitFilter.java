@@ -0,0 +1,98 @@
+package dev.mars.routes;
+
+import dev.mars.exception.ServiceUnavailableException;
+import dev.mars.service.concurrency.AdaptiveConcurrencyLimiter;
+import dev.mars.service.concurrency.ConcurrencyLimiterRegistry;
+import io.javalin.Javalin;
+import io.javalin.http.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+
+/**
+ * Guards a route group with an adaptive concurrency limiter.
+ * Requests over the limit are rejected with a 503 and Retry-After before any work is done.
+ * Paths can be exempted by exact match, for event streams that stay open for as long as the
+ * client listens and limit their own subscribers. Exemption never depends on request headers, so a
+ * client cannot opt out of the limit.
+ */
+public class ConcurrencyLimitFilter {
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+    private static final String START_ATTRIBUTE = "concurrency.limiter.start";
+
+    /**
+     * Registers before/after handlers limiting concurrency for every path under the given prefixes.
+     *
+     * @param app The Javalin app
+     * @param registry The limiter registry
+     * @param group The route group (limiter) name
+     * @param pathPrefixes The path prefixes belonging to the group
+     */
+    public static void register(Javalin app, ConcurrencyLimiterRegistry registry, String group, String... pathPrefixes) {
+        register(app, registry, group, Set.of(), pathPrefixes);
+    }
+
+    /**
+     * Registers before/after handlers limiting concurrency for every path under the given prefixes
+     * except the exempt ones.
+     *
+     * @param app The Javalin app
+     * @param registry The limiter registry
+     * @param group The route group (limiter) name
+     * @param exemptPaths Paths under the prefixes that are not limited, matched exactly
+     * @param pathPrefixes The path prefixes belonging to the group
+     */
+    public static void register(Javalin app, ConcurrencyLimiterRegistry registry, String group, Set<String> exemptPaths,
+                                String... pathPrefixes) {
+        AdaptiveConcurrencyLimiter limiter = registry.limiter(group);
+        if (limiter == null) {
+            return;
+        }
+        String attribute = START_ATTRIBUTE + "." + group;
+
+        for (String prefix : pathPrefixes) {
+            for (String path : new String[] {prefix, prefix + "/*"}) {
+                app.before(path, ctx -> {
+                    if (!isExempt(ctx, exemptPaths)) {
+                        acquire(ctx, limiter, attribute, registry.getRetryAfterSeconds());
+                    }
+                });
+                app.after(path, ctx -> release(ctx, limiter, attribute));
+            }
+        }
+        logger.info("Concurrency limit registered for route group {}", group);
+    }
+
+    private static void acquire(Context ctx, AdaptiveConcurrencyLimiter limiter, String attribute, int retryAfterSeconds) {
+        if (ctx.attribute(attribute) != null) {
+            return;
+        }
+        if (!limiter.tryAcquire()) {
+            logger.debug("Rejecting {} {}: {}", ctx.method(), ctx.path(), limiter);
+            throw new ServiceUnavailableException("Too many concurrent requests, please retry later", retryAfterSeconds);
+        }
+        ctx.attribute(attribute, System.nanoTime());
+    }
+
+    private static boolean isExempt(Context ctx, Set<String> exemptPaths) {
+        if (exemptPaths.isEmpty()) {
+            return false;
+        }
+        // Routes also match with a trailing slash
+        String path = ctx.path();
+        if (path.length() > 1 && path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        return exemptPaths.contains(path);
+    }
+
+    private static void release(Context ctx, AdaptiveConcurrencyLimiter limiter, String attribute) {
+        Long start = ctx.attribute(attribute);
+        if (start == null) {
+            return;
+        }
+        ctx.attribute(attribute, null);
+        limiter.release(System.nanoTime() - start, ctx.statusCode() >= 500);
+    }
+}
@@ -0,0 +1,56 @@
+package dev.mars.routes;
+
+import dev.mars.config.ApplicationProperties;
+import dev.mars.service.deadline.Deadline;
+import dev.mars.service.deadline.DeadlineContext;
+import io.javalin.Javalin;
+import io.javalin.http.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+/**
+ * Establishes a deadline for every request, from the X-Request-Timeout header (milliseconds)
+ * or the configured default, capped at the configured maximum. Loads shared with other requests
+ * run under the configured maximum, so a short header only shortens the caller's own wait.
+ */
+public class DeadlineFilter {
+    private static final Logger logger = LoggerFactory.getLogger(DeadlineFilter.class);
+
+    public static final String REQUEST_TIMEOUT_HEADER = "X-Request-Timeout";
+
+    /**
+     * Registers the deadline before/after handlers for all routes.
+     *
+     * @param app The Javalin app
+     * @param properties The application properties
+     */
+    public static void register(Javalin app, ApplicationProperties properties) {
+        ApplicationProperties.ServerConfig config = properties.getServer();
+
+        // Work shared with other requests may run as long as any request could wait for it
+        Duration sharedTimeout = Duration.ofMillis(config.getMaxRequestTimeoutMs());
+        app.before(ctx -> DeadlineContext.set(Deadline.after(resolveTimeout(ctx, config), sharedTimeout)));
+        app.after(ctx -> DeadlineContext.clear());
+
+        logger.info("Request deadlines enabled (default={}ms, max={}ms)",
+            config.getRequestTimeoutMs(), config.getMaxRequestTimeoutMs());
+    }
+
+    private static Duration resolveTimeout(Context ctx, ApplicationProperties.ServerConfig config) {
+        long timeoutMs = config.getRequestTimeoutMs();
+        String header = ctx.header(REQUEST_TIMEOUT_HEADER);
+        if (header != null) {
+            try {
+                long requested = Long.parseLong(header.trim());
+                if (requested > 0) {
+                    timeoutMs = requested;
+                }
+            } catch (NumberFormatException e) {
+                logger.debug("Ignoring invalid {} header: {}", REQUEST_TIMEOUT_HEADER, header);
+            }
+        }
+        return Duration.ofMillis(Math.min(timeoutMs, config.getMaxRequestTimeoutMs()));
+    }
+}
@@ -0,0 +1,139 @@
+package dev.mars.routes;
+
+import dev.mars.exception.ApiException;
+import dev.mars.exception.ServiceUnavailableException;
+import dev.mars.service.async.Futures;
+import dev.mars.service.deadline.DeadlineContext;
+import dev.mars.service.idempotency.IdempotencyStore;
+import dev.mars.service.idempotency.StoredResponse;
+import io.javalin.Javalin;
+import io.javalin.http.Context;
+import io.javalin.http.HandlerType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Makes POST creates safe to retry with an Idempotency-Key header.
+ * A retry replays the stored response without reaching the controller; a duplicate that arrives
+ * while the first request is still running waits for it (bounded by the request deadline).
+ */
+public class IdempotencyFilter {
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyFilter.class);
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final String CLAIM_ATTRIBUTE = "idempotency.claim";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final int MAX_CLAIM_ATTEMPTS = 3;
+
+    /**
+     * Registers before/after handlers for POST requests on the given paths.
+     *
+     * @param app The Javalin app
+     * @param store The idempotency store
+     * @param paths The create endpoints
+     */
+    public static void register(Javalin app, IdempotencyStore store, String... paths) {
+        if (!store.isEnabled()) {
+            return;
+        }
+        app.exception(Replay.class, (replay, ctx) -> {
+            StoredResponse response = replay.response;
+            ctx.status(response.getStatus());
+            if (response.getContentType() != null) {
+                ctx.contentType(response.getContentType());
+            }
+            ctx.header(REPLAYED_HEADER, "true");
+            ctx.result(response.getBody());
+        });
+        for (String path : paths) {
+            app.before(path, ctx -> claim(ctx, store));
+            app.after(path, ctx -> record(ctx, store));
+        }
+        logger.info("Idempotency keys enabled for POST {}", String.join(", ", paths));
+    }
+
+    private static void claim(Context ctx, IdempotencyStore store) {
+        String key = ctx.header(IDEMPOTENCY_KEY_HEADER);
+        if (ctx.method() != HandlerType.POST || key == null || ctx.attribute(CLAIM_ATTRIBUTE) != null) {
+            return;
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ApiException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters", 400);
+        }
+
+        String scopedKey = ctx.path() + "|" + key;
+        String fingerprint = fingerprint(ctx.bodyAsBytes());
+        for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS; attempt++) {
+            IdempotencyStore.Claim claim = store.claim(scopedKey, fingerprint);
+            if (claim.isOwner()) {
+                ctx.attribute(CLAIM_ATTRIBUTE, claim);
+                return;
+            }
+            if (!claim.getFingerprint().equals(fingerprint)) {
+                throw new ApiException("Idempotency-Key has already been used with a different request body", 422);
+            }
+
+            StoredResponse response = await(claim);
+            if (response != null) {
+                logger.debug("Replaying response for idempotency key {}", key);
+                // Thrown rather than skipping handlers so that other after-handlers (e.g. permit release) still run
+                throw new Replay(response);
+            }
+            // The original request failed and released the key; try to take it over
+        }
+        throw new ServiceUnavailableException("A request with the same Idempotency-Key failed, please retry");
+    }
+
+    private static void record(Context ctx, IdempotencyStore store) {
+        IdempotencyStore.Claim claim = ctx.attribute(CLAIM_ATTRIBUTE);
+        if (claim == null) {
+            return;
+        }
+        ctx.attribute(CLAIM_ATTRIBUTE, null);
+        if (ctx.statusCode() >= 500) {
+            store.abandon(claim);
+            return;
+        }
+        String body = ctx.result();
+        store.complete(claim, new StoredResponse(ctx.statusCode(), ctx.res().getContentType(),
+            body != null ? body.getBytes(StandardCharsets.UTF_8) : new byte[0]));
+    }
+
+    private static StoredResponse await(IdempotencyStore.Claim claim) {
+        try {
+            return DeadlineContext.bound(claim.result()).join();
+        } catch (CompletionException e) {
+            if (Futures.unwrap(e) instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Short-circuits the request with a stored response.
+     */
+    private static final class Replay extends RuntimeException {
+        private final transient StoredResponse response;
+
+        Replay(StoredResponse response) {
+            super(null, null, false, false);
+            this.response = response;
+        }
+    }
+
+    private static String fingerprint(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package dev.mars.routes.v1;
+
+import dev.mars.controller.SearchController;
+import io.javalin.Javalin;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Version 1 search routes.
+ * Must be registered before the trade routes so that /trades/text-search is not taken for /trades/{id}.
+ */
+public class SearchRoutesV1 {
+    private static final Logger logger = LoggerFactory.getLogger(SearchRoutesV1.class);
+    private static final String API_VERSION = "/api/v1";
+
+    /**
+     * Registers all search routes for API version 1.
+     *
+     * @param app The Javalin app
+     * @param searchController The search controller
+     */
+    public static void register(Javalin app, SearchController searchController) {
+        logger.info("Registering search routes v1");
+
+        app.get(API_VERSION + "/trades/text-search", searchController::searchTrades);
+        app.get(API_VERSION + "/autocomplete/symbols", searchController::autocompleteSymbols);
+        app.get(API_VERSION + "/autocomplete/users", searchController::autocompleteUsers);
+
+        logger.info("Search routes v1 registered");
+    }
+}
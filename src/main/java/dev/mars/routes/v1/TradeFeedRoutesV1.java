@@ -0,0 +1,31 @@
+package dev.mars.routes.v1;
+
+import dev.mars.controller.TradeFeedController;
+import io.javalin.Javalin;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Version 1 live trade feed routes.
+ * Must be registered before the trade routes so that /trades/stream is not taken for /trades/{id}.
+ */
+public class TradeFeedRoutesV1 {
+    private static final Logger logger = LoggerFactory.getLogger(TradeFeedRoutesV1.class);
+    private static final String API_VERSION = "/api/v1";
+    public static final String STREAM_PATH = API_VERSION + "/trades/stream";
+
+    /**
+     * Registers the SSE and WebSocket trade feed routes for API version 1.
+     *
+     * @param app The Javalin app
+     * @param tradeFeedController The trade feed controller
+     */
+    public static void register(Javalin app, TradeFeedController tradeFeedController) {
+        logger.info("Registering trade feed routes v1");
+
+        app.sse(STREAM_PATH, tradeFeedController::stream);
+        app.ws(API_VERSION + "/trades/ws", tradeFeedController::websocket);
+
+        logger.info("Trade feed routes v1 registered");
+    }
+}
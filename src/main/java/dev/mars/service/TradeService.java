@@ -2,41 +2,107 @@ package dev.mars.service;
 
 import com.google.inject.Inject;
 import dev.mars.dao.model.Trade;
+import dev.mars.dao.respository.AsyncTradeDao;
 import dev.mars.dao.respository.TradeDao;
 import dev.mars.exception.TradeNotFoundException;
+import dev.mars.service.async.Futures;
+import dev.mars.service.cache.ExistenceFilter;
+import dev.mars.service.cache.ExistenceFilters;
+import dev.mars.service.events.TradeEvent;
+import dev.mars.service.events.TradeEvents;
 
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 public class TradeService {
     private final TradeDao tradeDaoRepo;
+    private final AsyncTradeDao asyncTradeDao;
+    private final TradeEvents tradeEvents;
+    private final ExistenceFilter tradeIds;
+
+    public TradeService(TradeDao tradeDaoRepo, AsyncTradeDao asyncTradeDao) {
+        this(tradeDaoRepo, asyncTradeDao, new TradeEvents());
+    }
+
+    public TradeService(TradeDao tradeDaoRepo, AsyncTradeDao asyncTradeDao, TradeEvents tradeEvents) {
+        this(tradeDaoRepo, asyncTradeDao, tradeEvents, ExistenceFilters.disabled());
+    }
 
     @Inject
-    public TradeService(TradeDao tradeDaoRepo) {
+    public TradeService(TradeDao tradeDaoRepo, AsyncTradeDao asyncTradeDao, TradeEvents tradeEvents, ExistenceFilters existenceFilters) {
         this.tradeDaoRepo = tradeDaoRepo;
+        this.asyncTradeDao = asyncTradeDao;
+        this.tradeEvents = tradeEvents;
+        this.tradeIds = existenceFilters.trades();
     }
 
     public Trade getTradeById(int id) {
+        String key = String.valueOf(id);
+        if (!tradeIds.mightExist(key)) {
+            throw notFound(id);
+        }
         Trade trade = tradeDaoRepo.getTradeById(id);
         if (trade == null) {
-            throw new TradeNotFoundException("Trade not found with id: " + id);
+            tradeIds.recordMissing(key);
+            throw notFound(id);
         }
         return trade;
     }
 
+    public CompletableFuture<Trade> getTradeByIdAsync(int id) {
+        String key = String.valueOf(id);
+        // Ids that were never created, or were just found missing, are rejected without a query
+        if (!tradeIds.mightExist(key)) {
+            return CompletableFuture.failedFuture(notFound(id));
+        }
+        return asyncTradeDao.getTradeById(id).thenApply(trade -> {
+            if (trade == null) {
+                tradeIds.recordMissing(key);
+                throw notFound(id);
+            }
+            return trade;
+        });
+    }
+
     public List<Trade> getAllTrades() {
         return tradeDaoRepo.getAllTrades();
     }
 
+    public CompletableFuture<List<Trade>> getAllTradesAsync() {
+        return asyncTradeDao.getAllTrades();
+    }
+
+    // Writes go through the JDBC executor even when called synchronously, so they count
+    // against the database concurrency limit like every other query
+
     public void addTrade(Trade trade) {
-        tradeDaoRepo.addTrade(trade);
+        Futures.join(addTradeAsync(trade));
     }
 
     public void updateTrade(Trade trade) {
-        tradeDaoRepo.updateTrade(trade);
+        Futures.join(updateTradeAsync(trade));
     }
 
     public void deleteTrade(int id) {
-        tradeDaoRepo.deleteTrade(id);
+        Futures.join(deleteTradeAsync(id));
+    }
+
+    public CompletableFuture<Void> addTradeAsync(Trade trade) {
+        return asyncTradeDao.addTrade(trade).thenRun(() -> tradeEvents.publish(TradeEvent.created(trade)));
+    }
+
+    public CompletableFuture<Void> updateTradeAsync(Trade trade) {
+        // An update that matched no trade is not published, so listeners never see a trade that does not exist
+        return asyncTradeDao.updateTrade(trade).thenAccept(updated -> {
+            if (updated) {
+                tradeEvents.publish(TradeEvent.updated(trade));
+            }
+        });
+    }
+
+    public CompletableFuture<Void> deleteTradeAsync(int id) {
+        return asyncTradeDao.deleteTrade(id).thenRun(() -> tradeEvents.publish(TradeEvent.deleted(id)));
     }
 
     public List<Trade> getTradesPaginated(int page, int size) {
@@ -44,7 +110,28 @@ public class TradeService {
         return tradeDaoRepo.getTradesPaginated(offset, size);
     }
 
+    public CompletableFuture<List<Trade>> getTradesPaginatedAsync(int page, int size) {
+        int offset = page * size;
+        return asyncTradeDao.getTradesPaginated(offset, size);
+    }
+
     public long getTradeCount() {
-        return tradeDaoRepo.getAllTrades().size(); // Simple implementation for now
+        return tradeDaoRepo.countTrades();
+    }
+
+    public CompletableFuture<Long> getTradeCountAsync() {
+        return asyncTradeDao.countTrades();
+    }
+
+    /**
+     * The newest trades, highest id first, matching lower-case symbol and counterparty sets; an
+     * empty set matches everything.
+     */
+    public CompletableFuture<List<Trade>> getLatestTradesAsync(Set<String> symbols, Set<String> counterparties, int limit) {
+        return asyncTradeDao.getLatestTrades(symbols, counterparties, limit);
+    }
+
+    private static TradeNotFoundException notFound(int id) {
+        return new TradeNotFoundException("Trade not found with id: " + id);
     }
-}
\ No newline at end of file
+}
@@ -1,42 +1,102 @@
 package dev.mars.service;
 
 import com.google.inject.Inject;
+import dev.mars.dao.respository.AsyncUserDao;
 import dev.mars.dao.respository.UserDao;
 import dev.mars.dao.model.User;
 import dev.mars.exception.UserNotFoundException;
+import dev.mars.service.async.Futures;
+import dev.mars.service.cache.ExistenceFilter;
+import dev.mars.service.cache.ExistenceFilters;
+import dev.mars.service.events.UserEvent;
+import dev.mars.service.events.UserEvents;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class UserService {
     private final UserDao userDaoRepo;
+    private final AsyncUserDao asyncUserDao;
+    private final UserEvents userEvents;
+    private final ExistenceFilter userIds;
+
+    public UserService(UserDao userDaoRepo, AsyncUserDao asyncUserDao) {
+        this(userDaoRepo, asyncUserDao, new UserEvents());
+    }
+
+    public UserService(UserDao userDaoRepo, AsyncUserDao asyncUserDao, UserEvents userEvents) {
+        this(userDaoRepo, asyncUserDao, userEvents, ExistenceFilters.disabled());
+    }
 
     @Inject
-    public UserService(UserDao userDaoRepo) {
+    public UserService(UserDao userDaoRepo, AsyncUserDao asyncUserDao, UserEvents userEvents, ExistenceFilters existenceFilters) {
         this.userDaoRepo = userDaoRepo;
+        this.asyncUserDao = asyncUserDao;
+        this.userEvents = userEvents;
+        this.userIds = existenceFilters.users();
     }
 
     public User getUserById(int id) {
+        String key = String.valueOf(id);
+        if (!userIds.mightExist(key)) {
+            throw notFound(id);
+        }
         User user = userDaoRepo.getUserById(id);
         if (user == null) {
-            throw new UserNotFoundException("User not found with id: " + id);
+            userIds.recordMissing(key);
+            throw notFound(id);
         }
         return user;
     }
 
+    public CompletableFuture<User> getUserByIdAsync(int id) {
+        String key = String.valueOf(id);
+        // Ids that were never created, or were just found missing, are rejected without a query
+        if (!userIds.mightExist(key)) {
+            return CompletableFuture.failedFuture(notFound(id));
+        }
+        return asyncUserDao.getUserById(id).thenApply(user -> {
+            if (user == null) {
+                userIds.recordMissing(key);
+                throw notFound(id);
+            }
+            return user;
+        });
+    }
+
     public List<User> getAllUsers() {
         return userDaoRepo.getAllUsers();
     }
 
+    public CompletableFuture<List<User>> getAllUsersAsync() {
+        return asyncUserDao.getAllUsers();
+    }
+
+    // Writes go through the JDBC executor even when called synchronously, so they count
+    // against the database concurrency limit like every other query
+
     public void addUser(User user) {
-        userDaoRepo.addUser(user);
+        Futures.join(addUserAsync(user));
     }
 
     public void updateUser(User user) {
-        userDaoRepo.updateUser(user);
+        Futures.join(updateUserAsync(user));
     }
 
     public void deleteUser(int id) {
-        userDaoRepo.deleteUser(id);
+        Futures.join(deleteUserAsync(id));
+    }
+
+    public CompletableFuture<Void> addUserAsync(User user) {
+        return asyncUserDao.addUser(user).thenRun(() -> userEvents.publish(UserEvent.created(user)));
+    }
+
+    public CompletableFuture<Void> updateUserAsync(User user) {
+        return asyncUserDao.updateUser(user).thenRun(() -> userEvents.publish(UserEvent.updated(user)));
+    }
+
+    public CompletableFuture<Void> deleteUserAsync(int id) {
+        return asyncUserDao.deleteUser(id).thenRun(() -> userEvents.publish(UserEvent.deleted(id)));
     }
 
     public List<User> getUsersPaginated(int page, int size) {
@@ -44,7 +104,20 @@ public class UserService {
         return userDaoRepo.getUsersPaginated(offset, size);
     }
 
+    public CompletableFuture<List<User>> getUsersPaginatedAsync(int page, int size) {
+        int offset = page * size;
+        return asyncUserDao.getUsersPaginated(offset, size);
+    }
+
     public long getUserCount() {
         return userDaoRepo.getAllUsers().size(); // Simple implementation for now
     }
+
+    public CompletableFuture<Long> getUserCountAsync() {
+        return asyncUserDao.getAllUsers().thenApply(users -> (long) users.size());
+    }
+
+    private static UserNotFoundException notFound(int id) {
+        return new UserNotFoundException("User not found with id: " + id);
+    }
 }
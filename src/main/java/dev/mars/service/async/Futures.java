@@ -0,0 +1,65 @@
+package dev.mars.service.async;
+
+import dev.mars.exception.ApiException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Helpers for working with CompletableFuture results.
+ */
+public final class Futures {
+
+    private Futures() {
+    }
+
+    /**
+     * Unwraps the completion wrappers CompletableFuture puts around the original failure.
+     *
+     * @param throwable The throwable passed to an exceptionally/handle stage
+     * @return The underlying cause
+     */
+    public static Throwable unwrap(Throwable throwable) {
+        Throwable current = throwable;
+        while ((current instanceof CompletionException || current instanceof ExecutionException)
+                && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+
+    /**
+     * Waits for a future and returns its result, rethrowing a failure as the original exception
+     * where it is unchecked.
+     *
+     * @param future The future to wait for
+     * @return The result
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Checks whether a failure should reach the client with its own status code rather than
+     * being reported as a generic 500: overload rejections (503) and exceeded deadlines (504).
+     *
+     * @param cause The unwrapped failure
+     * @return true if the failure should be rethrown to the exception handler
+     */
+    public static boolean isPassThrough(Throwable cause) {
+        return cause instanceof ApiException apiException
+            && (apiException.getStatusCode() == 503 || apiException.getStatusCode() == 504);
+    }
+}
@@ -0,0 +1,143 @@
+package dev.mars.service.async;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import dev.mars.config.ApplicationProperties;
+import dev.mars.exception.DeadlineExceededException;
+import dev.mars.exception.ServiceUnavailableException;
+import dev.mars.service.concurrency.AdaptiveConcurrencyLimiter;
+import dev.mars.service.concurrency.ConcurrencyLimiterRegistry;
+import dev.mars.service.deadline.Deadline;
+import dev.mars.service.deadline.DeadlineContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Dedicated, bounded executor for blocking JDBC work.
+ * Keeps database calls off the Jetty request threads and caps how much work can queue up
+ * in front of the database; submissions beyond the queue capacity or the adaptive database
+ * concurrency limit fail fast with a 503. The caller's request deadline is carried onto the
+ * JDBC thread, and tasks whose deadline passes while queued are dropped without running.
+ */
+@Singleton
+public class JdbcExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(JdbcExecutor.class);
+
+    private final ThreadPoolExecutor executor;
+    private final AdaptiveConcurrencyLimiter databaseLimiter;
+    private final int retryAfterSeconds;
+
+    @Inject
+    public JdbcExecutor(ApplicationProperties properties, ConcurrencyLimiterRegistry limiterRegistry) {
+        ApplicationProperties.DatabaseConfig config = properties.getDatabase();
+        this.executor = new ThreadPoolExecutor(
+            config.getAsyncPoolSize(),
+            config.getAsyncPoolSize(),
+            60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(config.getAsyncQueueCapacity()),
+            new JdbcThreadFactory(),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.databaseLimiter = limiterRegistry.limiter(ConcurrencyLimiterRegistry.DATABASE);
+        this.retryAfterSeconds = limiterRegistry.getRetryAfterSeconds();
+        logger.info("JDBC executor initialized with {} threads and queue capacity {}",
+            config.getAsyncPoolSize(), config.getAsyncQueueCapacity());
+    }
+
+    /**
+     * Runs a blocking database task on the JDBC pool.
+     *
+     * @param task The task to execute
+     * @return CompletableFuture with the result, failed with ServiceUnavailableException if the
+     *         database limiter or the pool is saturated, or with DeadlineExceededException if the
+     *         request deadline has already passed
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        Deadline deadline = DeadlineContext.current();
+        if (deadline != null && deadline.isExpired()) {
+            return CompletableFuture.failedFuture(
+                new DeadlineExceededException("Request deadline exceeded before database call"));
+        }
+
+        if (databaseLimiter != null && !databaseLimiter.tryAcquire()) {
+            logger.debug("Database concurrency limit reached, rejecting task: {}", databaseLimiter);
+            return CompletableFuture.failedFuture(
+                new ServiceUnavailableException("Database is overloaded, please retry later", retryAfterSeconds));
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = CompletableFuture.supplyAsync(DeadlineContext.propagate(task), executor);
+        } catch (RejectedExecutionException e) {
+            logger.warn("JDBC executor saturated, rejecting task");
+            if (databaseLimiter != null) {
+                databaseLimiter.release(System.nanoTime() - start, true);
+            }
+            return CompletableFuture.failedFuture(
+                new ServiceUnavailableException("Database is busy, please retry later", retryAfterSeconds));
+        }
+
+        if (databaseLimiter != null) {
+            future.whenComplete((result, throwable) ->
+                databaseLimiter.release(System.nanoTime() - start, throwable != null));
+        }
+        return future;
+    }
+
+    /**
+     * Gets the number of tasks waiting for a JDBC thread.
+     *
+     * @return The queue depth
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Gets the number of JDBC threads currently running a task.
+     *
+     * @return The active thread count
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * Shuts down the JDBC executor gracefully.
+     */
+    public void shutdown() {
+        logger.info("Shutting down JDBC executor");
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.warn("JDBC executor did not terminate gracefully, forcing shutdown");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            logger.error("Interrupted while waiting for JDBC executor shutdown", e);
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class JdbcThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "jdbc-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package dev.mars.service.cache;
+
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Access, load and removal analytics of one cache region.
+ *
+ * Every lookup is fed to a count-min sketch shared by all regions, which keeps the hottest keys,
+ * and counted as a hit or miss under its key's {@link CacheKey#prefix() prefix}. Prefixes are
+ * counted exactly; once a region has seen {@code maxPrefixes} distinct ones, further prefixes are
+ * counted together under {@value #OTHER_PREFIX}, so a key scheme with unbounded prefixes cannot
+ * grow the table without bound. Loads are timed into a {@link LatencyHistogram}, and entries
+ * leaving the region are counted by the reason they left.
+ */
+final class CacheAnalytics {
+    static final String OTHER_PREFIX = "(other)";
+
+    private final String region;
+    private final HotKeyTracker hotKeys;
+    private final int maxPrefixes;
+    private final ConcurrentMap<String, PrefixCounters> prefixes = new ConcurrentHashMap<>();
+    private final LatencyHistogram loads = new LatencyHistogram();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder[] removals = new LongAdder[RemovalCause.values().length];
+
+    /**
+     * @param region The region name
+     * @param hotKeys Tracks the hottest keys, shared by the regions of a cache
+     * @param maxPrefixes Number of distinct key prefixes counted separately
+     */
+    CacheAnalytics(String region, HotKeyTracker hotKeys, int maxPrefixes) {
+        this.region = region;
+        this.hotKeys = hotKeys;
+        this.maxPrefixes = Math.max(1, maxPrefixes);
+        for (int i = 0; i < removals.length; i++) {
+            removals[i] = new LongAdder();
+        }
+    }
+
+    void recordAccess(CacheKey key, boolean hit) {
+        hotKeys.record(region, key);
+        PrefixCounters counters = countersFor(key.prefix());
+        (hit ? counters.hits : counters.misses).increment();
+    }
+
+    void recordLoad(long nanos, boolean failed) {
+        if (failed) {
+            loadFailures.increment();
+        } else {
+            loads.record(nanos);
+        }
+    }
+
+    void recordRemoval(RemovalCause cause, long count) {
+        removals[cause.ordinal()].add(count);
+    }
+
+    /**
+     * A snapshot of the region's analytics.
+     *
+     * @param limit Maximum number of prefixes, most accessed first
+     */
+    CacheService.RegionAnalytics snapshot(int limit) {
+        List<CacheService.PrefixStats> prefixStats = new ArrayList<>(prefixes.size());
+        prefixes.forEach((prefix, counters) ->
+            prefixStats.add(new CacheService.PrefixStats(prefix, counters.hits.sum(), counters.misses.sum())));
+        prefixStats.sort(Comparator.comparingLong(CacheService.PrefixStats::getAccessCount).reversed());
+
+        CacheService.LoadStats loadStats = new CacheService.LoadStats(loads.count(), loadFailures.sum(),
+            loads.meanMillis(), loads.percentileMillis(0.5), loads.percentileMillis(0.95), loads.percentileMillis(0.99),
+            loads.maxMillis(), loads.buckets());
+
+        Map<String, Long> removalCounts = new LinkedHashMap<>();
+        for (RemovalCause cause : RemovalCause.values()) {
+            removalCounts.put(cause.name().toLowerCase(Locale.ROOT), removals[cause.ordinal()].sum());
+        }
+        return new CacheService.RegionAnalytics(
+            prefixStats.size() > limit ? new ArrayList<>(prefixStats.subList(0, limit)) : prefixStats,
+            loadStats, removalCounts);
+    }
+
+    private PrefixCounters countersFor(String prefix) {
+        PrefixCounters counters = prefixes.get(prefix);
+        if (counters != null) {
+            return counters;
+        }
+        // The bound is checked without locking, so it may be overshot by a few concurrent new prefixes
+        return prefixes.computeIfAbsent(prefixes.size() < maxPrefixes ? prefix : OTHER_PREFIX,
+            ignored -> new PrefixCounters());
+    }
+
+    private static final class PrefixCounters {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+    }
+}
@@ -0,0 +1,47 @@
+package dev.mars.service.cache;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import dev.mars.service.events.TradeEvent;
+import dev.mars.service.events.TradeEventListener;
+import dev.mars.service.events.TradeEvents;
+import dev.mars.service.events.UserEvent;
+import dev.mars.service.events.UserEventListener;
+import dev.mars.service.events.UserEvents;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Invalidates tagged cache entries when users and trades change.
+ */
+@Singleton
+public class CacheInvalidator implements TradeEventListener, UserEventListener {
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidator.class);
+
+    private final CacheService cacheService;
+
+    @Inject
+    public CacheInvalidator(CacheService cacheService, TradeEvents tradeEvents, UserEvents userEvents) {
+        this.cacheService = cacheService;
+        tradeEvents.subscribe(this);
+        userEvents.subscribe(this);
+    }
+
+    @Override
+    public void onTradeEvent(TradeEvent event) {
+        int invalidated = cacheService.invalidateTag(CacheTags.trade(event.getTradeId()));
+        if (event.getType() != TradeEvent.Type.UPDATED) {
+            invalidated += cacheService.invalidateTag(CacheTags.TRADES);
+        }
+        logger.debug("Invalidated {} cache entries for {}", invalidated, event);
+    }
+
+    @Override
+    public void onUserEvent(UserEvent event) {
+        int invalidated = cacheService.invalidateTag(CacheTags.user(event.getUserId()));
+        if (event.getType() != UserEvent.Type.UPDATED) {
+            invalidated += cacheService.invalidateTag(CacheTags.USERS);
+        }
+        logger.debug("Invalidated {} cache entries for {}", invalidated, event);
+    }
+}
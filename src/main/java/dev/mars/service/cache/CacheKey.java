@@ -0,0 +1,292 @@
+package dev.mars.service.cache;
+
+import java.util.Objects;
+
+/**
+ * A cache key built from its parts instead of a formatted string.
+ *
+ * Keys are immutable. Each one stores the hash code and length of its text form, computed from the
+ * parts when the key is created, so hashing is a field read and building a key does no formatting.
+ * The text form (for logs, the off-heap tier, the invalidation bus and the hot-key file) is built
+ * only when it is first asked for.
+ *
+ * A key's hash code is the {@link String#hashCode()} of its text, and keys of different kinds are
+ * equal when their texts are equal. So {@code CacheKey.of("42")} and {@code CacheKey.id(42)} name
+ * the same entry, and callers using plain string keys see the entries cached under structured ones.
+ * Keys of the same kind compare their parts directly.
+ */
+public abstract sealed class CacheKey permits CacheKey.Text, CacheKey.Id, CacheKey.Page, CacheKey.Request {
+    private final int hash;
+    private final int length;
+    private String text;
+
+    private CacheKey(int hash, int length, String text) {
+        this.hash = hash;
+        this.length = length;
+        this.text = text;
+    }
+
+    /**
+     * A key whose text is the given string.
+     */
+    public static CacheKey of(String key) {
+        return new Text(Objects.requireNonNull(key, "key"));
+    }
+
+    /**
+     * A key for an entity id, whose text is the id's decimal digits.
+     */
+    public static CacheKey id(long id) {
+        return new Id("", id);
+    }
+
+    /**
+     * A key for an entity id with a prefix, e.g. {@code id("user:", 42)} for "user:42".
+     */
+    public static CacheKey id(String prefix, long id) {
+        return new Id(Objects.requireNonNull(prefix, "prefix"), id);
+    }
+
+    /**
+     * A key for one page of a listing, whose text is
+     * {@code <namespace>:page:<page>:size:<size>:sort:<sortBy>:<sortDirection>}.
+     *
+     * @param sortBy Sort field, or null
+     * @param sortDirection Sort direction, or null
+     */
+    public static CacheKey page(String namespace, int page, int size, String sortBy, Object sortDirection) {
+        return new Page(Objects.requireNonNull(namespace, "namespace"), page, size, String.valueOf(sortBy),
+            String.valueOf(sortDirection));
+    }
+
+    /**
+     * A key for a response to a request path, whose text is {@code <path>?<query key>}.
+     */
+    public static CacheKey request(String path, CacheKey query) {
+        return new Request(Objects.requireNonNull(path, "path"), Objects.requireNonNull(query, "query"));
+    }
+
+    /**
+     * Length of the key's text.
+     */
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public final int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public final boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof CacheKey key) || hash != key.hash || length != key.length) {
+            return false;
+        }
+        return getClass() == key.getClass() ? samePartsAs(key) : toString().equals(key.toString());
+    }
+
+    /**
+     * The key's text.
+     */
+    @Override
+    public final String toString() {
+        String rendered = text;
+        if (rendered == null) {
+            StringBuilder builder = new StringBuilder(length);
+            appendTo(builder);
+            rendered = builder.toString();
+            text = rendered;
+        }
+        return rendered;
+    }
+
+    /**
+     * The part of the key naming what kind of entry it is: the namespace of a page key, the path of a
+     * request key, the prefix of an id key without its trailing colon, or the text of a string key up
+     * to its first '?' or ':'. Bare ids and string keys without a separator have an empty prefix.
+     */
+    abstract String prefix();
+
+    abstract boolean samePartsAs(CacheKey other);
+
+    abstract void appendTo(StringBuilder builder);
+
+    /**
+     * Continues a {@link String#hashCode()} over more characters.
+     */
+    private static int hash(int hash, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+        return hash;
+    }
+
+    /**
+     * Continues a {@link String#hashCode()} over the decimal digits of a number, without formatting it.
+     */
+    private static int hash(int hash, long value) {
+        // Work with the negated value so Long.MIN_VALUE needs no special case
+        long negated = value < 0 ? value : -value;
+        if (value < 0) {
+            hash = 31 * hash + '-';
+        }
+        long divisor = 1;
+        while (negated / divisor <= -10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            hash = 31 * hash + '0' + (int) -((negated / divisor) % 10);
+        }
+        return hash;
+    }
+
+    private static int digits(long value) {
+        int length = value < 0 ? 2 : 1;
+        for (long negated = value < 0 ? value : -value; negated <= -10; negated /= 10) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * 31 to the power n, with int overflow, as {@link String#hashCode()} uses it.
+     */
+    private static int power31(int n) {
+        int result = 1;
+        int base = 31;
+        while (n > 0) {
+            if ((n & 1) != 0) {
+                result *= base;
+            }
+            base *= base;
+            n >>= 1;
+        }
+        return result;
+    }
+
+    static final class Text extends CacheKey {
+        private final String value;
+
+        private Text(String value) {
+            super(value.hashCode(), value.length(), value);
+            this.value = value;
+        }
+
+        @Override
+        String prefix() {
+            int end = value.indexOf('?');
+            if (end < 0) {
+                end = value.indexOf(':');
+            }
+            return end < 0 ? "" : value.substring(0, end);
+        }
+
+        @Override
+        boolean samePartsAs(CacheKey other) {
+            return value.equals(((Text) other).value);
+        }
+
+        @Override
+        void appendTo(StringBuilder builder) {
+            builder.append(value);
+        }
+    }
+
+    static final class Id extends CacheKey {
+        private final String prefix;
+        private final long id;
+
+        private Id(String prefix, long id) {
+            super(hash(prefix.hashCode(), id), prefix.length() + digits(id), null);
+            this.prefix = prefix;
+            this.id = id;
+        }
+
+        @Override
+        String prefix() {
+            return prefix.endsWith(":") ? prefix.substring(0, prefix.length() - 1) : prefix;
+        }
+
+        @Override
+        boolean samePartsAs(CacheKey other) {
+            Id key = (Id) other;
+            return id == key.id && prefix.equals(key.prefix);
+        }
+
+        @Override
+        void appendTo(StringBuilder builder) {
+            builder.append(prefix).append(id);
+        }
+    }
+
+    static final class Page extends CacheKey {
+        private final String namespace;
+        private final int page;
+        private final int size;
+        private final String sortBy;
+        private final String sortDirection;
+
+        private Page(String namespace, int page, int size, String sortBy, String sortDirection) {
+            super(hash(hash(hash(hash(hash(hash(hash(hash(namespace.hashCode(), ":page:"), page), ":size:"), size), ":sort:"),
+                    sortBy), ":"), sortDirection),
+                namespace.length() + 6 + digits(page) + 6 + digits(size) + 6 + sortBy.length() + 1 + sortDirection.length(),
+                null);
+            this.namespace = namespace;
+            this.page = page;
+            this.size = size;
+            this.sortBy = sortBy;
+            this.sortDirection = sortDirection;
+        }
+
+        @Override
+        String prefix() {
+            return namespace;
+        }
+
+        @Override
+        boolean samePartsAs(CacheKey other) {
+            Page key = (Page) other;
+            return page == key.page && size == key.size && namespace.equals(key.namespace)
+                && sortBy.equals(key.sortBy) && sortDirection.equals(key.sortDirection);
+        }
+
+        @Override
+        void appendTo(StringBuilder builder) {
+            builder.append(namespace).append(":page:").append(page).append(":size:").append(size)
+                .append(":sort:").append(sortBy).append(':').append(sortDirection);
+        }
+    }
+
+    static final class Request extends CacheKey {
+        private final String path;
+        private final CacheKey query;
+
+        private Request(String path, CacheKey query) {
+            super(hash(path.hashCode(), "?") * power31(query.length()) + query.hashCode(),
+                path.length() + 1 + query.length(), null);
+            this.path = path;
+            this.query = query;
+        }
+
+        @Override
+        String prefix() {
+            return path;
+        }
+
+        @Override
+        boolean samePartsAs(CacheKey other) {
+            Request request = (Request) other;
+            return path.equals(request.path) && query.equals(request.query);
+        }
+
+        @Override
+        void appendTo(StringBuilder builder) {
+            builder.append(path).append('?');
+            query.appendTo(builder);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package dev.mars.service.cache;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A named partition of the cache with its own size, weight, TTL and refresh policy.
+ * Keys are {@link CacheKey}s; the string overloads wrap their key with {@link CacheKey#of(String)}.
+ */
+public interface CacheRegion {
+
+    /**
+     * Gets the region name.
+     *
+     * @return The region name
+     */
+    String getName();
+
+    /**
+     * Gets a value from the cache.
+     *
+     * @param key The cache key
+     * @param type The expected type of the cached value
+     * @return Optional containing the cached value if present
+     */
+    <T> Optional<T> get(CacheKey key, Class<T> type);
+
+    /**
+     * Gets a value from the cache.
+     *
+     * @param key The cache key
+     * @param type The expected type of the cached value
+     * @return Optional containing the cached value if present
+     */
+    default <T> Optional<T> get(String key, Class<T> type) {
+        return get(CacheKey.of(key), type);
+    }
+
+    /**
+     * Puts a value into the cache.
+     *
+     * @param key The cache key
+     * @param value The value to cache
+     */
+    default void put(CacheKey key, Object value) {
+        put(key, value, Set.of());
+    }
+
+    /**
+     * Puts a value into the cache.
+     *
+     * @param key The cache key
+     * @param value The value to cache
+     */
+    default void put(String key, Object value) {
+        put(CacheKey.of(key), value);
+    }
+
+    /**
+     * Puts a tagged value into the cache.
+     *
+     * @param key The cache key
+     * @param value The value to cache
+     * @param tags Tags through which the entry can be invalidated
+     */
+    void put(CacheKey key, Object value, Set<String> tags);
+
+    /**
+     * Puts a tagged value into the cache.
+     *
+     * @param key The cache key
+     * @param value The value to cache
+     * @param tags Tags through which the entry can be invalidated
+     */
+    default void put(String key, Object value, Set<String> tags) {
+        put(CacheKey.of(key), value, tags);
+    }
+
+    /**
+     * Gets a value from cache or computes it if not present.
+     *
+     * @param key The cache key
+     * @param type The expected type of the value
+     * @param supplier The supplier to compute the value if not cached
+     * @return The cached or computed value
+     */
+    <T> T getOrCompute(CacheKey key, Class<T> type, Supplier<T> supplier);
+
+    /**
+     * Gets a value from cache or computes it if not present.
+     *
+     * @param key The cache key
+     * @param type The expected type of the value
+     * @param supplier The supplier to compute the value if not cached
+     * @return The cached or computed value
+     */
+    default <T> T getOrCompute(String key, Class<T> type, Supplier<T> supplier) {
+        return getOrCompute(CacheKey.of(key), type, supplier);
+    }
+
+    /**
+     * Gets a value from cache or computes it asynchronously if not present.
+     * If the region has a refresh interval, an entry older than it is returned as is while the
+     * supplier reloads it in the background.
+     *
+     * @param key The cache key
+     * @param type The expected type of the value
+     * @param supplier The supplier to compute the value if not cached
+     * @return CompletableFuture with the cached or computed value
+     */
+    default <T> CompletableFuture<T> getOrComputeAsync(CacheKey key, Class<T> type, Supplier<CompletableFuture<T>> supplier) {
+        return getOrComputeAsync(key, type, supplier, value -> Set.of());
+    }
+
+    /**
+     * Gets a value from cache or computes it asynchronously if not present.
+     *
+     * @see #getOrComputeAsync(CacheKey, Class, Supplier)
+     */
+    default <T> CompletableFuture<T> getOrComputeAsync(String key, Class<T> type, Supplier<CompletableFuture<T>> supplier) {
+        return getOrComputeAsync(CacheKey.of(key), type, supplier);
+    }
+
+    /**
+     * Gets a value from cache or computes it asynchronously if not present, tagging the computed value.
+     * A computed value is not cached if one of its tags was invalidated while it was being computed.
+     *
+     * @param key The cache key
+     * @param type The expected type of the value
+     * @param supplier The supplier to compute the value if not cached
+     * @param tagger Derives the entry's tags from the computed value
+     * @return CompletableFuture with the cached or computed value
+     */
+    <T> CompletableFuture<T> getOrComputeAsync(CacheKey key, Class<T> type, Supplier<CompletableFuture<T>> supplier,
+                                               Function<? super T, Set<String>> tagger);
+
+    /**
+     * Gets a value from cache or computes it asynchronously if not present, tagging the computed value.
+     *
+     * @see #getOrComputeAsync(CacheKey, Class, Supplier, Function)
+     */
+    default <T> CompletableFuture<T> getOrComputeAsync(String key, Class<T> type, Supplier<CompletableFuture<T>> supplier,
+                                                       Function<? super T, Set<String>> tagger) {
+        return getOrComputeAsync(CacheKey.of(key), type, supplier, tagger);
+    }
+
+    /**
+     * Removes a value from the cache.
+     *
+     * @param key The cache key
+     */
+    void evict(CacheKey key);
+
+    /**
+     * Removes a value from the cache.
+     *
+     * @param key The cache key
+     */
+    default void evict(String key) {
+        evict(CacheKey.of(key));
+    }
+
+    /**
+     * Removes every entry carrying a tag.
+     *
+     * @param tag The tag
+     * @return The number of entries removed
+     */
+    int invalidateTag(String tag);
+
+    /**
+     * Removes all values from the cache.
+     */
+    void evictAll();
+
+    /**
+     * Gets cache statistics.
+     *
+     * @return CacheStats object with cache metrics
+     */
+    CacheService.CacheStats getStats();
+}
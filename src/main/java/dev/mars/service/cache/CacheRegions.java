@@ -0,0 +1,18 @@
+package dev.mars.service.cache;
+
+/**
+ * Names of the cache regions used by the application.
+ */
+public final class CacheRegions {
+    public static final String DEFAULT = "default";
+    public static final String USER_BY_ID = "user-by-id";
+    public static final String USER_PAGES = "user-pages";
+    public static final String TRADE_BY_ID = "trade-by-id";
+    public static final String TRADE_PAGES = "trade-pages";
+    public static final String AGGREGATES = "aggregates";
+    public static final String USER_MISSES = "user-misses";
+    public static final String TRADE_MISSES = "trade-misses";
+
+    private CacheRegions() {
+    }
+}
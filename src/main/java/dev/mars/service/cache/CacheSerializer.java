@@ -0,0 +1,41 @@
+package dev.mars.service.cache;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+
+/**
+ * Serializes cached values for the off-heap tier.
+ * Type information is written for every value so that generic containers such as
+ * {@code PageResponse<Trade>} come back with their element types; only application, JDK
+ * collection and java.time types may be instantiated when reading.
+ */
+final class CacheSerializer {
+    private final ObjectMapper mapper;
+
+    @SuppressWarnings("deprecation")
+    CacheSerializer() {
+        BasicPolymorphicTypeValidator validator = BasicPolymorphicTypeValidator.builder()
+            .allowIfSubType("dev.mars.")
+            .allowIfSubType("java.util.")
+            .allowIfSubType("java.lang.")
+            .allowIfSubType("java.time.")
+            .allowIfSubTypeIsArray()
+            .build();
+        this.mapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .activateDefaultTyping(validator, ObjectMapper.DefaultTyping.EVERYTHING);
+    }
+
+    byte[] serialize(Object value) throws IOException {
+        return mapper.writeValueAsBytes(value);
+    }
+
+    Object deserialize(byte[] bytes) throws IOException {
+        return mapper.readValue(bytes, Object.class);
+    }
+}
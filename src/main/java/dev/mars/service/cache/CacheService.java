@@ -1,90 +1,141 @@
 package dev.mars.service.cache;
 
-import java.util.Optional;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.function.Supplier;
+import java.util.function.Function;
 
 /**
  * Interface for cache operations.
+ * The service itself is the default region; callers pick a dedicated region through {@link #region(String)}.
  */
-public interface CacheService {
-    
+public interface CacheService extends CacheRegion {
+
+    /**
+     * Gets a named cache region. Regions without explicit configuration use the global cache settings.
+     *
+     * @param name The region name
+     * @return The cache region
+     */
+    CacheRegion region(String name);
+
+    /**
+     * Gets a named cache region backed by a loader. Entries due for refresh, or stale within the
+     * region's stale-while-revalidate window, are served while the loader reloads them in the background.
+     *
+     * @param name The region name
+     * @param type The type of cached values
+     * @param loader Loads the value for a key
+     * @param tagger Derives the tags of a loaded value
+     * @return The loading region
+     */
+    <T> LoadingCacheRegion<T> loadingRegion(String name, Class<T> type, Function<String, CompletableFuture<T>> loader,
+                                            Function<? super T, Set<String>> tagger);
+
     /**
-     * Gets a value from the cache.
-     * 
-     * @param key The cache key
-     * @param type The expected type of the cached value
-     * @return Optional containing the cached value if present
+     * Gets the most accessed keys of the loader-backed regions.
+     *
+     * @param limit Maximum number of keys
+     * @return Keys with their estimated recent access counts, hottest first
      */
-    <T> Optional<T> get(String key, Class<T> type);
-    
+    List<HotKey> getHotKeys(int limit);
+
     /**
-     * Puts a value into the cache.
-     * 
-     * @param key The cache key
-     * @param value The value to cache
+     * Loads a key through its region's loader ahead of demand.
+     *
+     * @param key The key and its region
+     * @return CompletableFuture with true once the value is cached, or false if the region has no loader
      */
-    void put(String key, Object value);
-    
+    CompletableFuture<Boolean> warm(HotKey key);
+
     /**
-     * Gets a value from cache or computes it if not present.
-     * 
-     * @param key The cache key
-     * @param type The expected type of the value
-     * @param supplier The supplier to compute the value if not cached
-     * @return The cached or computed value
+     * Registers a listener for the invalidations made on this node: evicts, tag invalidations and
+     * clears, of any region. Invalidations applied with {@link #applyInvalidation} are not reported.
+     *
+     * @param listener The listener, called synchronously on the invalidating thread
      */
-    <T> T getOrCompute(String key, Class<T> type, Supplier<T> supplier);
-    
+    void addInvalidationListener(InvalidationListener listener);
+
     /**
-     * Gets a value from cache or computes it asynchronously if not present.
-     * 
-     * @param key The cache key
-     * @param type The expected type of the value
-     * @param supplier The supplier to compute the value if not cached
-     * @return CompletableFuture with the cached or computed value
+     * Applies an invalidation made on another node, without reporting it to invalidation listeners.
+     *
+     * @param invalidation The invalidation
+     * @return The number of entries removed, where known
      */
-    <T> CompletableFuture<T> getOrComputeAsync(String key, Class<T> type, Supplier<CompletableFuture<T>> supplier);
-    
+    int applyInvalidation(Invalidation invalidation);
+
     /**
-     * Removes a value from the cache.
-     * 
-     * @param key The cache key
+     * Removes every entry carrying a tag, in every region.
+     *
+     * @param tag The tag
+     * @return The number of entries removed
      */
-    void evict(String key);
-    
+    @Override
+    int invalidateTag(String tag);
+
     /**
-     * Removes all values from the cache.
+     * Removes all values from every region.
      */
+    @Override
     void evictAll();
-    
+
     /**
-     * Gets cache statistics.
-     * 
+     * Gets cache statistics summed over all regions.
+     *
      * @return CacheStats object with cache metrics
      */
+    @Override
     CacheStats getStats();
-    
+
+    /**
+     * Gets cache statistics per region.
+     *
+     * @return Region name to statistics, ordered by name
+     */
+    Map<String, CacheStats> getRegionStats();
+
     /**
-     * Cache statistics holder.
+     * Gets where cache traffic goes: the most accessed keys of all regions and, per region, hit rates
+     * by key prefix, load latencies and why entries were removed. Empty when analytics are disabled.
+     *
+     * @param limit Maximum number of hot keys, and of prefixes per region
+     * @return The analytics, with regions ordered by name
+     */
+    Analytics getAnalytics(int limit);
+
+    /**
+     * Cache statistics holder. Counts are for the on-heap tier; the off-heap tier, when there is one,
+     * is reported separately.
      */
     class CacheStats {
         private final long hitCount;
         private final long missCount;
         private final long evictionCount;
         private final long size;
+        private final WeightStats weight;
+        private final TierStats offHeap;
         
         public CacheStats(long hitCount, long missCount, long evictionCount, long size) {
+            this(hitCount, missCount, evictionCount, size, null, null);
+        }
+
+        public CacheStats(long hitCount, long missCount, long evictionCount, long size,
+                          WeightStats weight, TierStats offHeap) {
             this.hitCount = hitCount;
             this.missCount = missCount;
             this.evictionCount = evictionCount;
             this.size = size;
+            this.weight = weight;
+            this.offHeap = offHeap;
         }
         
         public long getHitCount() { return hitCount; }
         public long getMissCount() { return missCount; }
         public long getEvictionCount() { return evictionCount; }
         public long getSize() { return size; }
+        public WeightStats getWeight() { return weight; }
+        public TierStats getOffHeap() { return offHeap; }
         public double getHitRate() { 
             long total = hitCount + missCount;
             return total == 0 ? 0.0 : (double) hitCount / total;
@@ -96,4 +147,156 @@ public interface CacheService {
                 hitCount, missCount, evictionCount, size, getHitRate() * 100);
         }
     }
+
+    /**
+     * How full a region is against its bound, in the unit it is bounded by: entries, element weight or bytes.
+     */
+    class WeightStats {
+        private final long weightedSize;
+        private final long maximum;
+        private final String unit;
+
+        public WeightStats(long weightedSize, long maximum, String unit) {
+            this.weightedSize = weightedSize;
+            this.maximum = maximum;
+            this.unit = unit;
+        }
+
+        public long getWeightedSize() { return weightedSize; }
+        public long getMaximum() { return maximum; }
+        public String getUnit() { return unit; }
+    }
+
+    /**
+     * Statistics of the off-heap tier, which is only consulted on an on-heap miss.
+     */
+    class TierStats {
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+        private final long size;
+        private final long bytes;
+
+        public TierStats(long hitCount, long missCount, long evictionCount, long size, long bytes) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+            this.size = size;
+            this.bytes = bytes;
+        }
+
+        public long getHitCount() { return hitCount; }
+        public long getMissCount() { return missCount; }
+        public long getEvictionCount() { return evictionCount; }
+        public long getSize() { return size; }
+        public long getBytes() { return bytes; }
+        public double getHitRate() {
+            long total = hitCount + missCount;
+            return total == 0 ? 0.0 : (double) hitCount / total;
+        }
+
+        TierStats plus(TierStats other) {
+            if (other == null) {
+                return this;
+            }
+            return new TierStats(hitCount + other.hitCount, missCount + other.missCount,
+                evictionCount + other.evictionCount, size + other.size, bytes + other.bytes);
+        }
+    }
+
+    /**
+     * Cache analytics: the hottest keys across all regions, and the analytics of each region.
+     */
+    class Analytics {
+        private final List<HotKey> hotKeys;
+        private final Map<String, RegionAnalytics> regions;
+
+        public Analytics(List<HotKey> hotKeys, Map<String, RegionAnalytics> regions) {
+            this.hotKeys = hotKeys;
+            this.regions = regions;
+        }
+
+        public List<HotKey> getHotKeys() { return hotKeys; }
+        public Map<String, RegionAnalytics> getRegions() { return regions; }
+    }
+
+    /**
+     * Analytics of one region: hit rates by key prefix, most accessed first; how long loads took;
+     * and how many entries were removed, by cause (explicit, replaced, collected, expired, size).
+     */
+    class RegionAnalytics {
+        private final List<PrefixStats> prefixes;
+        private final LoadStats loads;
+        private final Map<String, Long> removals;
+
+        public RegionAnalytics(List<PrefixStats> prefixes, LoadStats loads, Map<String, Long> removals) {
+            this.prefixes = prefixes;
+            this.loads = loads;
+            this.removals = removals;
+        }
+
+        public List<PrefixStats> getPrefixes() { return prefixes; }
+        public LoadStats getLoads() { return loads; }
+        public Map<String, Long> getRemovals() { return removals; }
+    }
+
+    /**
+     * Lookups of the keys sharing a prefix, such as "users" for page keys of the users listing.
+     */
+    class PrefixStats {
+        private final String prefix;
+        private final long hitCount;
+        private final long missCount;
+
+        public PrefixStats(String prefix, long hitCount, long missCount) {
+            this.prefix = prefix;
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+        }
+
+        public String getPrefix() { return prefix; }
+        public long getHitCount() { return hitCount; }
+        public long getMissCount() { return missCount; }
+        public long getAccessCount() { return hitCount + missCount; }
+        public double getHitRate() {
+            long total = hitCount + missCount;
+            return total == 0 ? 0.0 : (double) hitCount / total;
+        }
+    }
+
+    /**
+     * Latencies of successful loads, in milliseconds. Percentiles are bucket upper bounds; buckets
+     * map each non-empty bucket's upper bound to its count.
+     */
+    class LoadStats {
+        private final long count;
+        private final long failureCount;
+        private final double meanMillis;
+        private final double p50Millis;
+        private final double p95Millis;
+        private final double p99Millis;
+        private final double maxMillis;
+        private final Map<Double, Long> buckets;
+
+        public LoadStats(long count, long failureCount, double meanMillis, double p50Millis, double p95Millis,
+                         double p99Millis, double maxMillis, Map<Double, Long> buckets) {
+            this.count = count;
+            this.failureCount = failureCount;
+            this.meanMillis = meanMillis;
+            this.p50Millis = p50Millis;
+            this.p95Millis = p95Millis;
+            this.p99Millis = p99Millis;
+            this.maxMillis = maxMillis;
+            this.buckets = buckets;
+        }
+
+        public long getCount() { return count; }
+        public long getFailureCount() { return failureCount; }
+        public double getMeanMillis() { return meanMillis; }
+        public double getP50Millis() { return p50Millis; }
+        public double getP95Millis() { return p95Millis; }
+        public double getP99Millis() { return p99Millis; }
+        public double getMaxMillis() { return maxMillis; }
+        public Map<Double, Long> getBuckets() { return buckets; }
+    }
 }
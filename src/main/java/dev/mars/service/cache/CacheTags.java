@@ -0,0 +1,52 @@
+package dev.mars.service.cache;
+
+import dev.mars.dao.model.Trade;
+import dev.mars.dao.model.User;
+import dev.mars.dto.PageResponse;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Tags attached to cache entries so that mutations can invalidate exactly the entries they affect.
+ *
+ * An entity tag ({@code user:42}) is carried by every entry containing that entity; a collection
+ * tag ({@code users}) is carried by every entry whose contents depend on which entities exist,
+ * such as pages and counts. Updating an entity invalidates its entity tag; creating or deleting
+ * one also invalidates the collection tag.
+ */
+public final class CacheTags {
+    public static final String USERS = "users";
+    public static final String TRADES = "trades";
+
+    private CacheTags() {
+    }
+
+    public static String user(int id) {
+        return "user:" + id;
+    }
+
+    public static String trade(int id) {
+        return "trade:" + id;
+    }
+
+    public static Set<String> userPage(PageResponse<?> page) {
+        return page(USERS, page, item -> user(((User) item).getId()));
+    }
+
+    public static Set<String> tradePage(PageResponse<?> page) {
+        return page(TRADES, page, item -> trade(((Trade) item).getId()));
+    }
+
+    private static Set<String> page(String collectionTag, PageResponse<?> page, Function<Object, String> entityTag) {
+        List<?> content = page.getContent() != null ? page.getContent() : List.of();
+        Set<String> tags = new HashSet<>(content.size() * 2 + 2);
+        tags.add(collectionTag);
+        for (Object item : content) {
+            tags.add(entityTag.apply(item));
+        }
+        return tags;
+    }
+}
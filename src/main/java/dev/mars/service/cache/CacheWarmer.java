@@ -0,0 +1,167 @@
+package dev.mars.service.cache;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import dev.mars.config.ApplicationProperties;
+import dev.mars.service.async.Futures;
+import dev.mars.service.metrics.MetricsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Carries the hottest cache keys across restarts.
+ *
+ * At shutdown the top-K keys of the loader-backed regions are written to a local file. At startup
+ * they are read back and loaded through their regions' loaders, at most {@code parallelism} at a
+ * time, hottest first. The application reports ready once every key has been tried or the
+ * warmup times out; a missing or unreadable file just means a cold start.
+ */
+@Singleton
+public class CacheWarmer {
+    private static final Logger logger = LoggerFactory.getLogger(CacheWarmer.class);
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final CacheService cacheService;
+    private final MetricsService metricsService;
+    private final ApplicationProperties.CacheConfig.WarmupConfig config;
+    private final boolean enabled;
+    private final Path file;
+    private volatile CompletableFuture<Void> warmup;
+
+    @Inject
+    public CacheWarmer(ApplicationProperties properties, CacheService cacheService, MetricsService metricsService) {
+        this.cacheService = cacheService;
+        this.metricsService = metricsService;
+        this.config = properties.getCache().getWarmup();
+        this.enabled = config.isEnabled() && properties.getCache().isEnabled();
+        this.file = Path.of(config.getFile());
+    }
+
+    /**
+     * Starts loading the keys saved by the previous run. Calling it again returns the same warmup.
+     *
+     * @return Future that completes when warmup has finished or timed out; it never completes exceptionally
+     */
+    public synchronized CompletableFuture<Void> warmUp() {
+        if (warmup != null) {
+            return warmup;
+        }
+        List<HotKey> keys = enabled ? readHotKeys() : List.of();
+        if (keys.isEmpty()) {
+            warmup = CompletableFuture.completedFuture(null);
+            return warmup;
+        }
+
+        logger.info("Warming cache with {} hot keys from {}", keys.size(), file);
+        long start = System.nanoTime();
+        AtomicInteger loaded = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        Iterator<HotKey> remaining = keys.iterator();
+        List<CompletableFuture<Void>> workers = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, config.getParallelism()); i++) {
+            workers.add(loadNext(remaining, loaded, failed));
+        }
+        warmup = CompletableFuture.allOf(workers.toArray(new CompletableFuture<?>[0]))
+            .orTimeout(config.getTimeoutSeconds(), TimeUnit.SECONDS)
+            .handle((ignored, throwable) -> {
+                if (throwable != null) {
+                    logger.warn("Cache warmup stopped after {}s with {} of {} keys loaded",
+                        config.getTimeoutSeconds(), loaded.get(), keys.size());
+                } else {
+                    logger.info("Cache warmup loaded {} of {} keys in {}ms ({} failed)", loaded.get(), keys.size(),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), failed.get());
+                }
+                return null;
+            });
+        return warmup;
+    }
+
+    /**
+     * Whether startup warmup has finished. True when warmup is disabled or has not been started.
+     */
+    public boolean isWarm() {
+        CompletableFuture<Void> current = warmup;
+        return current == null || current.isDone();
+    }
+
+    /**
+     * Writes the current hottest keys to the warmup file, replacing the previous one.
+     *
+     * @return The number of keys written
+     */
+    public int saveHotKeys() {
+        if (!enabled) {
+            return 0;
+        }
+        List<HotKey> keys = cacheService.getHotKeys(config.getTopK());
+        try {
+            Path absolute = file.toAbsolutePath();
+            Files.createDirectories(absolute.getParent());
+            Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+            mapper.writeValue(temp.toFile(), keys);
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Saved {} hot cache keys to {}", keys.size(), file);
+            return keys.size();
+        } catch (IOException e) {
+            logger.warn("Failed to save hot cache keys to {}", file, e);
+            return 0;
+        }
+    }
+
+    private CompletableFuture<Void> loadNext(Iterator<HotKey> remaining, AtomicInteger loaded, AtomicInteger failed) {
+        HotKey key;
+        synchronized (remaining) {
+            if (!remaining.hasNext()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            key = remaining.next();
+        }
+        CompletableFuture<Boolean> load;
+        try {
+            load = cacheService.warm(key);
+        } catch (RuntimeException e) {
+            load = CompletableFuture.failedFuture(e);
+        }
+        return load.handle((warmed, throwable) -> {
+                if (throwable == null && Boolean.TRUE.equals(warmed)) {
+                    loaded.incrementAndGet();
+                    metricsService.incrementCounter("cache.warmup.loaded", "region", key.region());
+                } else {
+                    failed.incrementAndGet();
+                    metricsService.incrementCounter("cache.warmup.failed", "region", key.region());
+                    if (throwable != null) {
+                        logger.debug("Failed to warm key {} of region {}: {}", key.key(), key.region(),
+                            Futures.unwrap(throwable).getMessage());
+                    }
+                }
+                return null;
+            })
+            .thenCompose(ignored -> loadNext(remaining, loaded, failed));
+    }
+
+    private List<HotKey> readHotKeys() {
+        if (!Files.isRegularFile(file)) {
+            return List.of();
+        }
+        try {
+            List<HotKey> keys = mapper.readValue(file.toFile(), new TypeReference<List<HotKey>>() { });
+            return keys.size() > config.getTopK() ? keys.subList(0, config.getTopK()) : keys;
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable hot cache key file {}", file, e);
+            return List.of();
+        }
+    }
+}
@@ -1,186 +1,322 @@
 package dev.mars.service.cache;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import dev.mars.config.ApplicationProperties;
+import dev.mars.service.async.AsyncService;
 import dev.mars.service.metrics.MetricsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
  * Caffeine-based cache implementation.
+ * Entries live in named regions, each a separate Caffeine cache sized and expired independently
+ * from {@code cache.regions}, so that large page responses cannot push out single-entity entries.
+ * The CacheService methods themselves operate on the {@link CacheRegions#DEFAULT} region.
+ * Lookups in loader-backed regions feed a {@link HotKeyTracker}, so the hottest keys can be
+ * saved and loaded again after a restart. Lookups in every region feed a second tracker for the
+ * {@link #getAnalytics cache analytics}, along with per-region prefix, load and removal counts.
  */
 @Singleton
 public class CaffeineCache implements CacheService {
     private static final Logger logger = LoggerFactory.getLogger(CaffeineCache.class);
     
-    private final Cache<String, Object> cache;
+    private final ConcurrentMap<String, CacheRegion> regions = new ConcurrentHashMap<>();
+    private final ApplicationProperties.CacheConfig config;
     private final MetricsService metricsService;
+    private final Executor backgroundExecutor;
+    private final ConcurrentMap<String, LoadingCacheRegion<?>> loadingRegions = new ConcurrentHashMap<>();
+    private final CacheRegion defaultRegion;
     private final boolean cacheEnabled;
+    private final HotKeyTracker hotKeys;
+    private final HotKeyTracker analyticsHotKeys;
+    private final List<InvalidationListener> invalidationListeners = new CopyOnWriteArrayList<>();
 
-    @Inject
     public CaffeineCache(ApplicationProperties properties, MetricsService metricsService) {
+        this(properties, metricsService, Runnable::run);
+    }
+
+    @Inject
+    public CaffeineCache(ApplicationProperties properties, MetricsService metricsService, AsyncService asyncService) {
+        this(properties, metricsService, (Executor) asyncService::executeAsync);
+    }
+
+    private CaffeineCache(ApplicationProperties properties, MetricsService metricsService, Executor backgroundExecutor) {
         this.metricsService = metricsService;
-        this.cacheEnabled = properties.getCache().isEnabled();
+        this.backgroundExecutor = backgroundExecutor;
+        this.config = properties.getCache();
+        this.cacheEnabled = config.isEnabled();
+        this.hotKeys = cacheEnabled && config.getWarmup().isEnabled()
+            ? new HotKeyTracker(config.getWarmup().getTopK())
+            : null;
+        this.analyticsHotKeys = cacheEnabled && config.getAnalytics().isEnabled()
+            ? new HotKeyTracker(config.getAnalytics().getTopK())
+            : null;
         
         if (cacheEnabled) {
-            ApplicationProperties.CacheConfig config = properties.getCache();
-            this.cache = Caffeine.newBuilder()
-                .maximumSize(config.getMaxSize())
-                .expireAfterWrite(Duration.ofMinutes(config.getExpireAfterWriteMinutes()))
-                .recordStats()
-                .build();
-            
-            logger.info("Caffeine cache initialized with maxSize={}, expireAfterWrite={}min", 
-                config.getMaxSize(), config.getExpireAfterWriteMinutes());
+            config.getRegions().keySet().forEach(this::region);
+            logger.info("Caffeine cache initialized with maxSize={}, expireAfterWrite={}min, regions={}",
+                config.getMaxSize(), config.getExpireAfterWriteMinutes(), config.getRegions().keySet());
         } else {
-            this.cache = null;
             logger.info("Cache disabled");
         }
+        this.defaultRegion = region(CacheRegions.DEFAULT);
     }
 
     @Override
-    public <T> Optional<T> get(String key, Class<T> type) {
-        if (!cacheEnabled) {
-            return Optional.empty();
-        }
-        
-        try {
-            Object value = cache.getIfPresent(key);
-            if (value != null) {
-                metricsService.incrementCounter("cache.hits");
-                logger.trace("Cache hit for key: {}", key);
-                return Optional.of(type.cast(value));
-            } else {
-                metricsService.incrementCounter("cache.misses");
-                logger.trace("Cache miss for key: {}", key);
-                return Optional.empty();
-            }
-        } catch (Exception e) {
-            logger.warn("Cache get operation failed for key: {}", key, e);
-            metricsService.incrementCounter("cache.errors");
-            return Optional.empty();
-        }
+    public CacheRegion region(String name) {
+        return regions.computeIfAbsent(name, this::createRegion);
     }
 
     @Override
-    public void put(String key, Object value) {
-        if (!cacheEnabled || value == null) {
-            return;
-        }
-        
-        try {
-            cache.put(key, value);
-            logger.trace("Cached value for key: {}", key);
-        } catch (Exception e) {
-            logger.warn("Cache put operation failed for key: {}", key, e);
-            metricsService.incrementCounter("cache.errors");
-        }
+    public <T> LoadingCacheRegion<T> loadingRegion(String name, Class<T> type, Function<String, CompletableFuture<T>> loader,
+                                                   Function<? super T, Set<String>> tagger) {
+        LoadingCacheRegion<T> loadingRegion = new LoadingCacheRegion<>(region(name), type, loader, tagger,
+            hotKeys != null ? key -> hotKeys.record(name, key) : key -> { });
+        loadingRegions.put(name, loadingRegion);
+        return loadingRegion;
     }
 
     @Override
-    public <T> T getOrCompute(String key, Class<T> type, Supplier<T> supplier) {
-        if (!cacheEnabled) {
-            return supplier.get();
-        }
-        
-        return metricsService.timeOperation("cache.operation.duration", () -> {
-            Optional<T> cached = get(key, type);
-            if (cached.isPresent()) {
-                return cached.get();
-            }
-            
-            T computed = supplier.get();
-            if (computed != null) {
-                put(key, computed);
-            }
-            return computed;
-        });
+    public List<HotKey> getHotKeys(int limit) {
+        return hotKeys != null ? hotKeys.top(limit) : List.of();
     }
 
     @Override
-    public <T> CompletableFuture<T> getOrComputeAsync(String key, Class<T> type, Supplier<CompletableFuture<T>> supplier) {
-        if (!cacheEnabled) {
-            return supplier.get();
+    public CompletableFuture<Boolean> warm(HotKey key) {
+        LoadingCacheRegion<?> loadingRegion = loadingRegions.get(key.region());
+        if (loadingRegion == null || !cacheEnabled) {
+            return CompletableFuture.completedFuture(false);
         }
-        
-        Optional<T> cached = get(key, type);
-        if (cached.isPresent()) {
-            return CompletableFuture.completedFuture(cached.get());
-        }
-        
-        return supplier.get().thenApply(computed -> {
-            if (computed != null) {
-                put(key, computed);
-            }
-            return computed;
-        });
+        return loadingRegion.warm(key.key()).thenApply(value -> true);
     }
 
     @Override
-    public void evict(String key) {
-        if (!cacheEnabled) {
-            return;
-        }
-        
-        try {
-            cache.invalidate(key);
-            logger.trace("Evicted cache entry for key: {}", key);
-        } catch (Exception e) {
-            logger.warn("Cache eviction failed for key: {}", key, e);
-            metricsService.incrementCounter("cache.errors");
-        }
+    public String getName() {
+        return defaultRegion.getName();
+    }
+
+    @Override
+    public <T> Optional<T> get(CacheKey key, Class<T> type) {
+        return defaultRegion.get(key, type);
+    }
+
+    @Override
+    public void put(CacheKey key, Object value, Set<String> tags) {
+        defaultRegion.put(key, value, tags);
+    }
+
+    @Override
+    public <T> T getOrCompute(CacheKey key, Class<T> type, Supplier<T> supplier) {
+        return defaultRegion.getOrCompute(key, type, supplier);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getOrComputeAsync(CacheKey key, Class<T> type, Supplier<CompletableFuture<T>> supplier,
+                                                      Function<? super T, Set<String>> tagger) {
+        return defaultRegion.getOrComputeAsync(key, type, supplier, tagger);
+    }
+
+    @Override
+    public void evict(CacheKey key) {
+        invalidate(Invalidation.key(CacheRegions.DEFAULT, key.toString()));
+    }
+
+    @Override
+    public int invalidateTag(String tag) {
+        return invalidate(Invalidation.tag(tag));
     }
 
     @Override
     public void evictAll() {
-        if (!cacheEnabled) {
-            return;
+        invalidate(Invalidation.all());
+    }
+
+    @Override
+    public void addInvalidationListener(InvalidationListener listener) {
+        invalidationListeners.add(listener);
+    }
+
+    @Override
+    public int applyInvalidation(Invalidation invalidation) {
+        int removed = 0;
+        switch (invalidation.scope()) {
+            case KEY -> {
+                if (regions.get(invalidation.region()) instanceof CaffeineCacheRegion region) {
+                    region.evictLocally(CacheKey.of(invalidation.value()));
+                }
+            }
+            case TAG -> {
+                for (CacheRegion region : regions.values()) {
+                    if (region instanceof CaffeineCacheRegion caffeineRegion
+                            && (invalidation.region() == null || invalidation.region().equals(region.getName()))) {
+                        removed += caffeineRegion.invalidateTagLocally(invalidation.value());
+                    }
+                }
+            }
+            case REGION -> {
+                if (regions.get(invalidation.region()) instanceof CaffeineCacheRegion region) {
+                    region.evictAllLocally();
+                }
+            }
+            case ALL -> regions.values().forEach(region -> {
+                if (region instanceof CaffeineCacheRegion caffeineRegion) {
+                    caffeineRegion.evictAllLocally();
+                }
+            });
         }
-        
-        try {
-            cache.invalidateAll();
-            logger.info("Evicted all cache entries");
-        } catch (Exception e) {
-            logger.warn("Cache clear operation failed", e);
-            metricsService.incrementCounter("cache.errors");
+        return removed;
+    }
+
+    private int invalidate(Invalidation invalidation) {
+        int removed = applyInvalidation(invalidation);
+        publish(invalidation);
+        return removed;
+    }
+
+    private void publish(Invalidation invalidation) {
+        for (InvalidationListener listener : invalidationListeners) {
+            try {
+                listener.onInvalidation(invalidation);
+            } catch (RuntimeException e) {
+                logger.warn("Invalidation listener failed for {}", invalidation, e);
+            }
         }
     }
 
     @Override
     public CacheService.CacheStats getStats() {
+        long hits = 0, misses = 0, evictions = 0, size = 0, memoryBytes = 0, memoryBudget = 0;
+        CacheService.TierStats offHeap = null;
+        for (CacheService.CacheStats stats : getRegionStats().values()) {
+            hits += stats.getHitCount();
+            misses += stats.getMissCount();
+            evictions += stats.getEvictionCount();
+            size += stats.getSize();
+            CacheService.WeightStats weight = stats.getWeight();
+            if (weight != null && CaffeineCacheRegion.WEIGHT_UNIT_BYTES.equals(weight.getUnit())) {
+                memoryBytes += weight.getWeightedSize();
+                memoryBudget += weight.getMaximum();
+            }
+            if (stats.getOffHeap() != null) {
+                offHeap = stats.getOffHeap().plus(offHeap);
+            }
+        }
+        // Only memory-budgeted regions are summed; other units do not add up meaningfully
+        CacheService.WeightStats memory = memoryBudget > 0
+            ? new CacheService.WeightStats(memoryBytes, memoryBudget, CaffeineCacheRegion.WEIGHT_UNIT_BYTES)
+            : null;
+        return new CacheService.CacheStats(hits, misses, evictions, size, memory, offHeap);
+    }
+
+    @Override
+    public Map<String, CacheService.CacheStats> getRegionStats() {
         if (!cacheEnabled) {
-            return new CacheService.CacheStats(0, 0, 0, 0);
+            return Collections.emptyMap();
         }
+        Map<String, CacheService.CacheStats> stats = new LinkedHashMap<>();
+        regions.values().stream()
+            .sorted((a, b) -> a.getName().compareTo(b.getName()))
+            .forEach(region -> stats.put(region.getName(), region.getStats()));
+        return stats;
+    }
 
-        try {
-            com.github.benmanes.caffeine.cache.stats.CacheStats caffeineStats = cache.stats();
-            return new CacheService.CacheStats(
-                caffeineStats.hitCount(),
-                caffeineStats.missCount(),
-                caffeineStats.evictionCount(),
-                cache.estimatedSize()
-            );
-        } catch (Exception e) {
-            logger.warn("Failed to get cache stats", e);
-            return new CacheService.CacheStats(0, 0, 0, 0);
+    @Override
+    public CacheService.Analytics getAnalytics(int limit) {
+        if (analyticsHotKeys == null) {
+            return new CacheService.Analytics(List.of(), Collections.emptyMap());
         }
+        Map<String, CacheService.RegionAnalytics> regionAnalytics = new LinkedHashMap<>();
+        regions.values().stream()
+            .sorted((a, b) -> a.getName().compareTo(b.getName()))
+            .forEach(region -> {
+                if (region instanceof CaffeineCacheRegion caffeineRegion) {
+                    regionAnalytics.put(region.getName(), caffeineRegion.analytics(limit));
+                }
+            });
+        return new CacheService.Analytics(analyticsHotKeys.top(limit), regionAnalytics);
     }
 
     /**
      * Force cache cleanup to trigger evictions (for testing purposes).
      */
     public void forceCleanup() {
-        if (cacheEnabled) {
-            cache.cleanUp();
+        regions.values().forEach(region -> {
+            if (region instanceof CaffeineCacheRegion caffeineRegion) {
+                caffeineRegion.cleanUp();
+            }
+        });
+    }
+
+    private CacheRegion createRegion(String name) {
+        if (!cacheEnabled) {
+            return new DisabledCacheRegion(name);
         }
+        ApplicationProperties.CacheConfig.RegionConfig regionConfig = config.getRegions()
+            .getOrDefault(name, new ApplicationProperties.CacheConfig.RegionConfig());
+        CaffeineCacheRegion.Settings settings = new CaffeineCacheRegion.Settings(
+            Optional.ofNullable(regionConfig.getMaxSize()).orElse(config.getMaxSize()),
+            regionConfig.getMaxWeight(),
+            memoryBudget(regionConfig),
+            expireAfterWrite(regionConfig),
+            minutes(regionConfig.getRefreshAfterWriteMinutes()),
+            minutes(regionConfig.getStaleWhileRevalidateMinutes()),
+            minutes(regionConfig.getStaleIfErrorMinutes()),
+            offHeapBytes(regionConfig.getOffHeapMb()));
+        CacheAnalytics analytics = analyticsHotKeys != null
+            ? new CacheAnalytics(name, analyticsHotKeys, config.getAnalytics().getMaxPrefixes())
+            : null;
+        CaffeineCacheRegion region = new CaffeineCacheRegion(name, settings, metricsService, backgroundExecutor, analytics);
+        region.setInvalidationListener(this::publish);
+        return region;
+    }
+
+    /**
+     * The region's TTL; seconds, for short-lived regions, take precedence over minutes.
+     */
+    private Duration expireAfterWrite(ApplicationProperties.CacheConfig.RegionConfig regionConfig) {
+        if (regionConfig.getExpireAfterWriteSeconds() != null) {
+            return Duration.ofSeconds(regionConfig.getExpireAfterWriteSeconds());
+        }
+        return Duration.ofMinutes(Optional.ofNullable(regionConfig.getExpireAfterWriteMinutes())
+            .orElse(config.getExpireAfterWriteMinutes()));
+    }
+
+    /**
+     * The region's own memory budget, else the global one unless the region sets an entry or weight bound.
+     */
+    private Long memoryBudget(ApplicationProperties.CacheConfig.RegionConfig regionConfig) {
+        Long megabytes = regionConfig.getMaxMemoryMb();
+        if (megabytes == null && regionConfig.getMaxSize() == null && regionConfig.getMaxWeight() == null) {
+            megabytes = config.getMaxMemoryMb();
+        }
+        return megabytes != null && megabytes > 0 ? megabytes * 1024 * 1024 : null;
+    }
+
+    private long offHeapBytes(Long megabytes) {
+        if (!config.isOffHeapEnabled() || megabytes == null || megabytes <= 0) {
+            return 0;
+        }
+        // A single direct buffer backs each region's off-heap tier
+        return Math.min(megabytes * 1024 * 1024, Integer.MAX_VALUE);
+    }
+
+    private static Duration minutes(Long minutes) {
+        return minutes != null && minutes > 0 ? Duration.ofMinutes(minutes) : null;
     }
 }
@@ -0,0 +1,779 @@
+package dev.mars.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import dev.mars.dto.PageResponse;
+import dev.mars.service.deadline.DeadlineContext;
+import dev.mars.service.metrics.MetricsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * One Caffeine cache backing a {@link CacheRegion}.
+ * Cache misses are loaded single-flight: concurrent getOrCompute/getOrComputeAsync calls for the
+ * same key share one in-flight load instead of each hitting the database.
+ *
+ * Tagged entries are indexed tag to keys (and key to tags, for cleanup), so invalidating a tag
+ * touches only the entries carrying it. Index updates for a key happen inside the cache's atomic
+ * operation on that key, and eviction cleans the index from a synchronous eviction listener, so
+ * the index never loses a cached key. To stop a load that raced with an invalidation from caching
+ * stale data, each invalidation stamps a sequence number on the tag's stripe; a load whose result
+ * carries a tag stamped after the load started is returned but not cached.
+ *
+ * Entries go through up to four stages as they age: fresh; due for refresh (served, reloaded in
+ * the background); stale-while-revalidate, after the time to live (still served, reloaded in the
+ * background); and stale-if-error (callers wait for a reload, but get the stale value if it fails).
+ * Background reloads run on the background executor, detached from the request that triggered them.
+ * Ages are measured from when the value was loaded, so they survive a trip through the off-heap tier.
+ *
+ * With an {@link OffHeapStore}, entries evicted from the heap for size are serialized into it
+ * instead of being dropped, and keep their tags indexed while they are there. A heap miss checks
+ * the off-heap tier before loading and moves a hit back onto the heap. All moves of a key between
+ * the tiers happen inside the heap cache's atomic operation on that key. Keys the off-heap tier
+ * overwrites are queued and unindexed on the next region call, outside any cache operation.
+ *
+ * A region is bounded by entry count, by element weight (a page weighs its row count), or by a
+ * memory budget, in which case each entry weighs its {@link SizeEstimator estimated} heap bytes.
+ *
+ * With {@link CacheAnalytics}, lookups, load times and removals (by cause) are also recorded for
+ * the cache analytics report.
+ */
+final class CaffeineCacheRegion implements CacheRegion {
+    private static final Logger logger = LoggerFactory.getLogger(CaffeineCacheRegion.class);
+    private static final int INVALIDATION_STRIPES = 1024;
+    static final String WEIGHT_UNIT_ENTRIES = "entries";
+    static final String WEIGHT_UNIT_ELEMENTS = "elements";
+    static final String WEIGHT_UNIT_BYTES = "bytes";
+
+    private final String name;
+    private final Cache<CacheKey, Entry> cache;
+    private final OffHeapStore offHeap;
+    private final CacheSerializer serializer;
+    private final Queue<String> offHeapEvictions = new ConcurrentLinkedQueue<>();
+    private final ConcurrentMap<CacheKey, CompletableFuture<Object>> inFlightLoads = new ConcurrentHashMap<>();
+    private final MetricsService metricsService;
+    private final Executor backgroundExecutor;
+    private final Duration timeToLive;
+    private final long retentionNanos;
+    private final Policy.Eviction<CacheKey, Entry> eviction;
+    private final String weightUnit;
+    private final Duration refreshAfterWrite;
+    private final Duration staleWhileRevalidate;
+    private final Duration staleIfError;
+    private final ConcurrentMap<String, Set<CacheKey>> keysByTag = new ConcurrentHashMap<>();
+    private final ConcurrentMap<CacheKey, Set<String>> tagsByKey = new ConcurrentHashMap<>();
+    private final AtomicLong invalidationSequence = new AtomicLong();
+    private final AtomicLongArray invalidatedAt = new AtomicLongArray(INVALIDATION_STRIPES);
+    private final CacheAnalytics analytics;
+    private volatile InvalidationListener invalidationListener = invalidation -> { };
+
+    /**
+     * Creates a region.
+     *
+     * @param name The region name
+     * @param settings The resolved region settings
+     * @param metricsService Receives per-region hit, miss and load counters
+     * @param backgroundExecutor Runs refreshes and stale-while-revalidate reloads
+     */
+    CaffeineCacheRegion(String name, Settings settings, MetricsService metricsService, Executor backgroundExecutor) {
+        this(name, settings, metricsService, backgroundExecutor, null);
+    }
+
+    /**
+     * Creates a region that records analytics.
+     *
+     * @param analytics Records lookups, loads and removals, or null for none
+     */
+    CaffeineCacheRegion(String name, Settings settings, MetricsService metricsService, Executor backgroundExecutor,
+                        CacheAnalytics analytics) {
+        this.name = name;
+        this.analytics = analytics;
+        this.metricsService = metricsService;
+        this.backgroundExecutor = backgroundExecutor;
+        this.timeToLive = settings.expireAfterWrite();
+        this.refreshAfterWrite = settings.refreshAfterWrite();
+        this.staleWhileRevalidate = orZero(settings.staleWhileRevalidate());
+        this.staleIfError = orZero(settings.staleIfError());
+
+        // Entries are kept past their time to live for as long as they may still be served stale
+        Duration retention = timeToLive.plus(staleWhileRevalidate.compareTo(staleIfError) > 0 ? staleWhileRevalidate : staleIfError);
+        this.retentionNanos = retention.toNanos();
+        this.offHeap = settings.offHeapBytes() > 0
+            ? new OffHeapStore((int) Math.min(Integer.MAX_VALUE, settings.offHeapBytes()), offHeapEvictions::add)
+            : null;
+        this.serializer = offHeap != null ? new CacheSerializer() : null;
+
+        Caffeine<CacheKey, Entry> builder = Caffeine.newBuilder()
+            .recordStats()
+            .expireAfter(new RetentionExpiry(retentionNanos))
+            .evictionListener((CacheKey key, Entry entry, RemovalCause cause) -> onEvicted(key, entry, cause));
+        if (settings.maxBytes() != null) {
+            builder = builder.maximumWeight(settings.maxBytes()).weigher((CacheKey key, Entry entry) ->
+                (int) Math.min(Integer.MAX_VALUE, SizeEstimator.entry(key, entry.value())));
+            this.weightUnit = WEIGHT_UNIT_BYTES;
+        } else if (settings.maxWeight() != null) {
+            builder = builder.maximumWeight(settings.maxWeight()).weigher((CacheKey key, Entry entry) -> weigh(entry.value()));
+            this.weightUnit = WEIGHT_UNIT_ELEMENTS;
+        } else {
+            builder = builder.maximumSize(settings.maxSize());
+            this.weightUnit = WEIGHT_UNIT_ENTRIES;
+        }
+        this.cache = builder.build();
+        this.eviction = cache.policy().eviction().orElseThrow();
+
+        metricsService.registerGauge("cache.size", "Entries in the cache region", cache::estimatedSize, "region", name);
+        metricsService.registerGauge("cache.evictions", "Entries evicted from the cache region",
+            () -> cache.stats().evictionCount(), "region", name);
+        if (settings.maxBytes() != null) {
+            metricsService.registerGauge("cache.memory.bytes", "Estimated heap retained by the cache region",
+                () -> eviction.weightedSize().orElse(0), "region", name);
+        }
+        if (offHeap != null) {
+            metricsService.registerGauge("cache.offheap.size", "Entries in the off-heap tier", offHeap::size, "region", name);
+            metricsService.registerGauge("cache.offheap.bytes", "Bytes used in the off-heap tier", offHeap::bytesUsed, "region", name);
+        }
+        logger.info("Cache region '{}' initialized with max {} {}, expireAfterWrite={}, refreshAfterWrite={}, "
+                + "staleWhileRevalidate={}, staleIfError={}, offHeap={}", name, eviction.getMaximum(), weightUnit,
+            timeToLive, refreshAfterWrite != null ? refreshAfterWrite : "off", staleWhileRevalidate, staleIfError,
+            offHeap != null ? offHeap.capacity() + " bytes" : "off");
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public <T> Optional<T> get(CacheKey key, Class<T> type) {
+        try {
+            Entry entry = lookup(key);
+            if (entry != null && freshnessOf(entry).isUsable()) {
+                recordHit(key);
+                return Optional.of(type.cast(entry.value()));
+            } else {
+                recordMiss(key);
+                return Optional.empty();
+            }
+        } catch (Exception e) {
+            logger.warn("Cache get operation failed for key: {}", key, e);
+            metricsService.incrementCounter("cache.errors", "region", name);
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void put(CacheKey key, Object value, Set<String> tags) {
+        if (value == null) {
+            return;
+        }
+
+        try {
+            drainOffHeapEvictions();
+            Entry entry = new Entry(value, System.nanoTime());
+            cache.asMap().compute(key, (k, previous) -> {
+                if (previous != null) {
+                    recordRemoval(RemovalCause.REPLACED, 1);
+                }
+                index(k, tags);
+                if (offHeap != null) {
+                    offHeap.remove(k.toString());
+                }
+                return entry;
+            });
+            logger.trace("Cached value for key: {} with tags: {}", key, tags);
+        } catch (Exception e) {
+            logger.warn("Cache put operation failed for key: {}", key, e);
+            metricsService.incrementCounter("cache.errors", "region", name);
+        }
+    }
+
+    @Override
+    public <T> T getOrCompute(CacheKey key, Class<T> type, Supplier<T> supplier) {
+        return metricsService.timeOperation("cache.operation.duration", () -> {
+            Entry cached = lookup(key);
+            Freshness freshness = freshnessOf(cached);
+            // The caller gives no tags, so a reload keeps the ones the entry was cached with
+            Set<String> tags = tagsByKey.getOrDefault(key, Set.of());
+            if (freshness.isUsable()) {
+                recordHit(key);
+                if (freshness.needsReload()) {
+                    refresh(key, () -> CompletableFuture.supplyAsync(supplier, backgroundExecutor), value -> tags);
+                }
+                return type.cast(cached.value());
+            }
+            recordMiss(key);
+
+            CompletableFuture<Object> load = new CompletableFuture<>();
+            CompletableFuture<Object> existing = inFlightLoads.putIfAbsent(key, load);
+            try {
+                if (existing != null) {
+                    metricsService.incrementCounter("cache.loads.coalesced", "region", name);
+                    logger.trace("Joining in-flight load for key: {}", key);
+                    return type.cast(awaitLoad(existing));
+                }
+
+                // Another load may have finished between our miss and registering this one
+                Object value = usableValue(key);
+                if (value != null) {
+                    inFlightLoads.remove(key, load);
+                    load.complete(value);
+                    return type.cast(value);
+                }
+                // Loaded on this thread, then cached like an async load unless a tag was invalidated meanwhile
+                startLoad(key, load, () -> {
+                    try {
+                        return CompletableFuture.completedFuture(supplier.get());
+                    } catch (RuntimeException | Error e) {
+                        return CompletableFuture.failedFuture(e);
+                    }
+                }, loaded -> tags);
+                return type.cast(awaitLoad(load));
+            } catch (RuntimeException e) {
+                if (freshness == Freshness.STALE_IF_ERROR) {
+                    serveStaleOnError(key, e);
+                    return type.cast(cached.value());
+                }
+                throw e;
+            }
+        });
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getOrComputeAsync(CacheKey key, Class<T> type, Supplier<CompletableFuture<T>> supplier,
+                                                      Function<? super T, Set<String>> tagger) {
+        Entry cached = lookup(key);
+        Freshness freshness = freshnessOf(cached);
+        if (freshness.isUsable()) {
+            recordHit(key);
+            if (freshness.needsReload()) {
+                refresh(key, () -> CompletableFuture.supplyAsync(supplier, backgroundExecutor).thenCompose(Function.identity()),
+                    tagger);
+            }
+            return CompletableFuture.completedFuture(type.cast(cached.value()));
+        }
+        recordMiss(key);
+
+        CompletableFuture<T> result = loadAsync(key, type, supplier, tagger);
+        if (freshness == Freshness.STALE_IF_ERROR) {
+            return result.exceptionally(throwable -> {
+                serveStaleOnError(key, throwable);
+                return type.cast(cached.value());
+            });
+        }
+        return result;
+    }
+
+    @Override
+    public void evict(CacheKey key) {
+        evictLocally(key);
+        invalidationListener.onInvalidation(Invalidation.key(name, key.toString()));
+    }
+
+    void evictLocally(CacheKey key) {
+        try {
+            remove(key);
+            logger.trace("Evicted cache entry for key: {}", key);
+        } catch (Exception e) {
+            logger.warn("Cache eviction failed for key: {}", key, e);
+            metricsService.incrementCounter("cache.errors", "region", name);
+        }
+    }
+
+    @Override
+    public int invalidateTag(String tag) {
+        int removed = invalidateTagLocally(tag);
+        invalidationListener.onInvalidation(Invalidation.tag(name, tag));
+        return removed;
+    }
+
+    int invalidateTagLocally(String tag) {
+        drainOffHeapEvictions();
+        // Stamp first so that loads already running cannot cache a value carrying this tag
+        invalidatedAt.accumulateAndGet(stripe(tag), invalidationSequence.incrementAndGet(), Math::max);
+        Set<CacheKey> keys = keysByTag.remove(tag);
+        if (keys == null) {
+            return 0;
+        }
+        int removed = 0;
+        for (CacheKey key : keys) {
+            if (remove(key)) {
+                removed++;
+            }
+        }
+        metricsService.incrementCounter("cache.invalidations", "region", name);
+        logger.trace("Invalidated {} entries tagged {}", removed, tag);
+        return removed;
+    }
+
+    @Override
+    public void evictAll() {
+        evictAllLocally();
+        invalidationListener.onInvalidation(Invalidation.region(name));
+    }
+
+    void evictAllLocally() {
+        try {
+            recordRemoval(RemovalCause.EXPLICIT, cache.estimatedSize());
+            cache.invalidateAll();
+            if (offHeap != null) {
+                offHeap.clear();
+                offHeapEvictions.clear();
+            }
+            keysByTag.clear();
+            tagsByKey.clear();
+            logger.info("Evicted all entries of cache region '{}'", name);
+        } catch (Exception e) {
+            logger.warn("Cache clear operation failed for region '{}'", name, e);
+            metricsService.incrementCounter("cache.errors", "region", name);
+        }
+    }
+
+    @Override
+    public CacheService.CacheStats getStats() {
+        try {
+            com.github.benmanes.caffeine.cache.stats.CacheStats caffeineStats = cache.stats();
+            CacheService.TierStats offHeapStats = offHeap == null ? null : new CacheService.TierStats(
+                offHeap.hitCount(), offHeap.missCount(), offHeap.evictionCount(), offHeap.size(), offHeap.bytesUsed());
+            return new CacheService.CacheStats(
+                caffeineStats.hitCount(),
+                caffeineStats.missCount(),
+                caffeineStats.evictionCount(),
+                cache.estimatedSize(),
+                new CacheService.WeightStats(eviction.weightedSize().orElse(cache.estimatedSize()),
+                    eviction.getMaximum(), weightUnit),
+                offHeapStats
+            );
+        } catch (Exception e) {
+            logger.warn("Failed to get cache stats for region '{}'", name, e);
+            return new CacheService.CacheStats(0, 0, 0, 0);
+        }
+    }
+
+    /**
+     * Sets the listener told about evicts, tag invalidations and clears made through this region's
+     * public methods. The package-private {@code *Locally} variants do not report.
+     */
+    void setInvalidationListener(InvalidationListener invalidationListener) {
+        this.invalidationListener = invalidationListener;
+    }
+
+    void cleanUp() {
+        cache.cleanUp();
+    }
+
+    /**
+     * The region's analytics, or null if it does not record any.
+     *
+     * @param limit Maximum number of key prefixes
+     */
+    CacheService.RegionAnalytics analytics(int limit) {
+        return analytics != null ? analytics.snapshot(limit) : null;
+    }
+
+    /**
+     * How an entry may be used, by its age relative to the region's refresh, expiry and stale windows.
+     */
+    private enum Freshness {
+        FRESH, REFRESH_DUE, STALE_WHILE_REVALIDATE, STALE_IF_ERROR, ABSENT;
+
+        boolean isUsable() {
+            return this == FRESH || this == REFRESH_DUE || this == STALE_WHILE_REVALIDATE;
+        }
+
+        boolean needsReload() {
+            return this == REFRESH_DUE || this == STALE_WHILE_REVALIDATE;
+        }
+    }
+
+    private Freshness freshnessOf(Entry entry) {
+        if (entry == null) {
+            return Freshness.ABSENT;
+        }
+        Duration entryAge = Duration.ofNanos(System.nanoTime() - entry.writtenAt());
+        if (entryAge.compareTo(timeToLive) < 0) {
+            return refreshAfterWrite != null && entryAge.compareTo(refreshAfterWrite) >= 0 ? Freshness.REFRESH_DUE : Freshness.FRESH;
+        }
+        Duration pastExpiry = entryAge.minus(timeToLive);
+        if (pastExpiry.compareTo(staleWhileRevalidate) < 0) {
+            return Freshness.STALE_WHILE_REVALIDATE;
+        }
+        return pastExpiry.compareTo(staleIfError) < 0 ? Freshness.STALE_IF_ERROR : Freshness.ABSENT;
+    }
+
+    private Object usableValue(CacheKey key) {
+        Entry entry = cache.asMap().get(key);
+        return entry != null && freshnessOf(entry).isUsable() ? entry.value() : null;
+    }
+
+    /**
+     * Looks a key up on the heap, then off-heap, moving an off-heap hit back onto the heap.
+     */
+    private Entry lookup(CacheKey key) {
+        drainOffHeapEvictions();
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null || offHeap == null) {
+            return entry;
+        }
+        return cache.asMap().compute(key, (k, current) -> current != null ? current : promote(k));
+    }
+
+    private Entry promote(CacheKey key) {
+        String offHeapKey = key.toString();
+        OffHeapStore.Record record = offHeap.get(offHeapKey);
+        if (record == null) {
+            return null;
+        }
+        offHeap.remove(offHeapKey);
+        if (System.nanoTime() - record.writtenAt() >= retentionNanos) {
+            unindex(key);
+            return null;
+        }
+        try {
+            Object value = serializer.deserialize(record.bytes());
+            metricsService.incrementCounter("cache.offheap.promotions", "region", name);
+            return new Entry(value, record.writtenAt());
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to read off-heap cache entry for key: {}", key, e);
+            metricsService.incrementCounter("cache.errors", "region", name);
+            unindex(key);
+            return null;
+        }
+    }
+
+    private void onEvicted(CacheKey key, Entry entry, RemovalCause cause) {
+        recordRemoval(cause, 1);
+        // Entries pushed out for space move off-heap with their tags; anything else is gone for good
+        if (offHeap != null && cause == RemovalCause.SIZE && spill(key, entry)) {
+            return;
+        }
+        unindex(key);
+    }
+
+    private boolean spill(CacheKey key, Entry entry) {
+        try {
+            return offHeap.put(key.toString(), serializer.serialize(entry.value()), entry.writtenAt());
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to move cache entry off-heap for key: {}", key, e);
+            metricsService.incrementCounter("cache.errors", "region", name);
+            return false;
+        }
+    }
+
+    private void drainOffHeapEvictions() {
+        if (offHeap == null) {
+            return;
+        }
+        String evicted;
+        while ((evicted = offHeapEvictions.poll()) != null) {
+            cache.asMap().compute(CacheKey.of(evicted), (k, current) -> {
+                if (current == null && !offHeap.contains(k.toString())) {
+                    unindex(k);
+                }
+                return current;
+            });
+        }
+    }
+
+    private void recordHit(CacheKey key) {
+        metricsService.incrementCounter("cache.hits", "region", name);
+        if (analytics != null) {
+            analytics.recordAccess(key, true);
+        }
+        logger.trace("Cache hit for key: {}", key);
+    }
+
+    private void recordMiss(CacheKey key) {
+        metricsService.incrementCounter("cache.misses", "region", name);
+        if (analytics != null) {
+            analytics.recordAccess(key, false);
+        }
+        logger.trace("Cache miss for key: {}", key);
+    }
+
+    private void recordLoad(long startedAt, boolean failed) {
+        long nanos = System.nanoTime() - startedAt;
+        if (failed) {
+            metricsService.incrementCounter("cache.load.failures", "region", name);
+        } else {
+            metricsService.recordHistogram("cache.load.duration", Duration.ofNanos(nanos), "region", name);
+        }
+        if (analytics != null) {
+            analytics.recordLoad(nanos, failed);
+        }
+    }
+
+    private void recordRemoval(RemovalCause cause, long count) {
+        if (count <= 0) {
+            return;
+        }
+        metricsService.incrementCounterBy("cache.removals", count, "region", name,
+            "cause", cause.name().toLowerCase(Locale.ROOT));
+        if (analytics != null) {
+            analytics.recordRemoval(cause, count);
+        }
+    }
+
+    private void serveStaleOnError(CacheKey key, Throwable failure) {
+        metricsService.incrementCounter("cache.stale.on.error", "region", name);
+        logger.warn("Serving stale cache entry for key {} after load failure: {}", key, failure.getMessage());
+    }
+
+    private <T> CompletableFuture<T> loadAsync(CacheKey key, Class<T> type, Supplier<CompletableFuture<T>> supplier,
+                                               Function<? super T, Set<String>> tagger) {
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlightLoads.putIfAbsent(key, load);
+        if (existing != null) {
+            metricsService.incrementCounter("cache.loads.coalesced", "region", name);
+            logger.trace("Joining in-flight load for key: {}", key);
+            return DeadlineContext.bound(existing).thenApply(type::cast);
+        }
+
+        Object value = usableValue(key);
+        if (value != null) {
+            inFlightLoads.remove(key, load);
+            load.complete(value);
+            return CompletableFuture.completedFuture(type.cast(value));
+        }
+
+        try {
+            startLoad(key, load, supplier, tagger);
+        } catch (RuntimeException | Error e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return DeadlineContext.bound(load).thenApply(type::cast);
+    }
+
+    /**
+     * Reloads an entry in the background while callers keep getting the current value.
+     * At most one reload per key runs at a time; a failed reload leaves the current value in place.
+     */
+    private <T> void refresh(CacheKey key, Supplier<CompletableFuture<T>> supplier, Function<? super T, Set<String>> tagger) {
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        if (inFlightLoads.putIfAbsent(key, load) != null) {
+            return;
+        }
+        metricsService.incrementCounter("cache.refreshes", "region", name);
+        logger.trace("Refreshing cache entry for key: {}", key);
+        // The current value has already been served and stays cached; a later hit retries a failed refresh
+        load.exceptionally(throwable -> {
+            logger.warn("Cache refresh failed for key: {}", key, throwable);
+            return null;
+        });
+        try {
+            startLoad(key, load, supplier, tagger);
+        } catch (RuntimeException e) {
+            // Already reported through the load future
+        }
+    }
+
+    private <T> void startLoad(CacheKey key, CompletableFuture<Object> load, Supplier<CompletableFuture<T>> supplier,
+                               Function<? super T, Set<String>> tagger) {
+        long startedAt = invalidationSequence.get();
+        long loadStartedAt = System.nanoTime();
+        CompletableFuture<T> computation;
+        try {
+            // Coalesced callers share this load, so it must not run under only the starter's deadline
+            computation = DeadlineContext.shared(supplier);
+        } catch (RuntimeException | Error e) {
+            recordLoad(loadStartedAt, true);
+            inFlightLoads.remove(key, load);
+            load.completeExceptionally(e);
+            throw e;
+        }
+
+        computation.whenComplete((computed, throwable) -> {
+            recordLoad(loadStartedAt, throwable != null);
+            if (throwable == null && computed != null) {
+                putIfNotInvalidated(key, computed, tagger, startedAt);
+            }
+            // Deregister before completing so later callers see the cached value, not a finished load
+            inFlightLoads.remove(key, load);
+            if (throwable != null) {
+                load.completeExceptionally(throwable);
+            } else {
+                load.complete(computed);
+            }
+        });
+    }
+
+    private <T> void putIfNotInvalidated(CacheKey key, T value, Function<? super T, Set<String>> tagger, long startedAt) {
+        Set<String> tags;
+        try {
+            tags = tagger.apply(value);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to tag cache entry for key: {}", key, e);
+            metricsService.incrementCounter("cache.errors", "region", name);
+            return;
+        }
+        if (invalidatedSince(tags, startedAt)) {
+            logger.trace("Not caching key {}: a tag was invalidated while it loaded", key);
+            return;
+        }
+        put(key, value, tags);
+        // An invalidation may have run between the check and the put without seeing the new index entry
+        if (invalidatedSince(tags, startedAt)) {
+            remove(key);
+        }
+    }
+
+    private boolean invalidatedSince(Set<String> tags, long sequence) {
+        for (String tag : tags) {
+            if (invalidatedAt.get(stripe(tag)) > sequence) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean remove(CacheKey key) {
+        boolean[] removed = new boolean[1];
+        cache.asMap().compute(key, (k, current) -> {
+            boolean removedOffHeap = offHeap != null && offHeap.remove(k.toString());
+            if (current != null) {
+                recordRemoval(RemovalCause.EXPLICIT, 1);
+            }
+            if (current != null || removedOffHeap) {
+                unindex(k);
+                removed[0] = true;
+            }
+            return null;
+        });
+        return removed[0];
+    }
+
+    private void index(CacheKey key, Set<String> tags) {
+        Set<String> previous = tags.isEmpty() ? tagsByKey.remove(key) : tagsByKey.put(key, Set.copyOf(tags));
+        if (previous != null) {
+            for (String tag : previous) {
+                if (!tags.contains(tag)) {
+                    unindexTag(tag, key);
+                }
+            }
+        }
+        for (String tag : tags) {
+            keysByTag.compute(tag, (t, keys) -> {
+                Set<CacheKey> updated = keys != null ? keys : ConcurrentHashMap.newKeySet();
+                updated.add(key);
+                return updated;
+            });
+        }
+    }
+
+    private void unindex(CacheKey key) {
+        Set<String> tags = tagsByKey.remove(key);
+        if (tags != null) {
+            for (String tag : tags) {
+                unindexTag(tag, key);
+            }
+        }
+    }
+
+    private void unindexTag(String tag, CacheKey key) {
+        keysByTag.computeIfPresent(tag, (t, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private static Duration orZero(Duration duration) {
+        return duration != null ? duration : Duration.ZERO;
+    }
+
+    private static int stripe(String tag) {
+        return (tag.hashCode() & Integer.MAX_VALUE) % INVALIDATION_STRIPES;
+    }
+
+    private static Object awaitLoad(CompletableFuture<Object> load) {
+        try {
+            return DeadlineContext.bound(load).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Weighs a value by the number of elements it holds, so that a region bounded by weight keeps
+     * fewer large pages than small entities.
+     */
+    static int weigh(Object value) {
+        if (value instanceof EncodedResponse encoded) {
+            return encoded.getWeight();
+        }
+        if (value instanceof PageResponse<?> page && page.getContent() != null) {
+            return 1 + page.getContent().size();
+        }
+        if (value instanceof Collection<?> collection) {
+            return 1 + collection.size();
+        }
+        return 1;
+    }
+
+    /**
+     * Region settings after falling back to the global cache configuration.
+     */
+    record Settings(long maxSize, Long maxWeight, Long maxBytes, Duration expireAfterWrite, Duration refreshAfterWrite,
+                    Duration staleWhileRevalidate, Duration staleIfError, long offHeapBytes) {
+
+        Settings(long maxSize, Long maxWeight, Duration expireAfterWrite, Duration refreshAfterWrite) {
+            this(maxSize, maxWeight, null, expireAfterWrite, refreshAfterWrite, null, null, 0);
+        }
+
+        Settings(long maxSize, Long maxWeight, Duration expireAfterWrite, Duration refreshAfterWrite,
+                 Duration staleWhileRevalidate, Duration staleIfError) {
+            this(maxSize, maxWeight, null, expireAfterWrite, refreshAfterWrite, staleWhileRevalidate, staleIfError, 0);
+        }
+    }
+
+    /**
+     * A cached value and the time (System.nanoTime) it was loaded.
+     */
+    record Entry(Object value, long writtenAt) {
+    }
+
+    /**
+     * Expires entries a fixed retention after they were loaded, including entries promoted from off-heap.
+     */
+    private record RetentionExpiry(long retentionNanos) implements Expiry<CacheKey, Entry> {
+        @Override
+        public long expireAfterCreate(CacheKey key, Entry entry, long currentTime) {
+            return Math.max(0, retentionNanos - (currentTime - entry.writtenAt()));
+        }
+
+        @Override
+        public long expireAfterUpdate(CacheKey key, Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(CacheKey key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
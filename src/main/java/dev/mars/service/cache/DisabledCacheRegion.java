@@ -0,0 +1,61 @@
+package dev.mars.service.cache;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Region used when caching is disabled: nothing is stored and every lookup goes to the supplier.
+ */
+final class DisabledCacheRegion implements CacheRegion {
+    private final String name;
+
+    DisabledCacheRegion(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public <T> Optional<T> get(CacheKey key, Class<T> type) {
+        return Optional.empty();
+    }
+
+    @Override
+    public void put(CacheKey key, Object value, Set<String> tags) {
+    }
+
+    @Override
+    public <T> T getOrCompute(CacheKey key, Class<T> type, Supplier<T> supplier) {
+        return supplier.get();
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getOrComputeAsync(CacheKey key, Class<T> type, Supplier<CompletableFuture<T>> supplier,
+                                                      Function<? super T, Set<String>> tagger) {
+        return supplier.get();
+    }
+
+    @Override
+    public void evict(CacheKey key) {
+    }
+
+    @Override
+    public int invalidateTag(String tag) {
+        return 0;
+    }
+
+    @Override
+    public void evictAll() {
+    }
+
+    @Override
+    public CacheService.CacheStats getStats() {
+        return new CacheService.CacheStats(0, 0, 0, 0);
+    }
+}
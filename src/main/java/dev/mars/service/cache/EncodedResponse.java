@@ -0,0 +1,57 @@
+package dev.mars.service.cache;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Set;
+
+/**
+ * A response body cached as encoded JSON, with gzipped and brotli-compressed copies when
+ * compression pays off, and the ETag of the body so that conditional requests are answered without hashing it again.
+ *
+ * The tags are those of the value the body was encoded from. They are only needed when the entry
+ * is first stored, so they are not kept when the entry moves off-heap.
+ */
+final class EncodedResponse {
+    private final byte[] body;
+    private final byte[] gzipBody;
+    private final byte[] brotliBody;
+    private final int weight;
+    private final String etag;
+    private final transient Set<String> tags;
+
+    @JsonCreator
+    EncodedResponse(@JsonProperty("body") byte[] body, @JsonProperty("gzipBody") byte[] gzipBody,
+                    @JsonProperty("brotliBody") byte[] brotliBody, @JsonProperty("weight") int weight,
+                    @JsonProperty("etag") String etag) {
+        this(body, gzipBody, brotliBody, weight, etag != null ? etag : ResponseCache.etag(body), Set.of());
+    }
+
+    EncodedResponse(byte[] body, byte[] gzipBody, byte[] brotliBody, int weight, String etag, Set<String> tags) {
+        this.body = body;
+        this.gzipBody = gzipBody;
+        this.brotliBody = brotliBody;
+        this.weight = weight;
+        this.etag = etag;
+        this.tags = tags;
+    }
+
+    @JsonProperty("body")
+    byte[] getBody() { return body; }
+
+    @JsonProperty("gzipBody")
+    byte[] getGzipBody() { return gzipBody; }
+
+    @JsonProperty("brotliBody")
+    byte[] getBrotliBody() { return brotliBody; }
+
+    @JsonProperty("weight")
+    int getWeight() { return weight; }
+
+    @JsonProperty("etag")
+    String getEtag() { return etag; }
+
+    @JsonIgnore
+    Set<String> getTags() { return tags; }
+}
@@ -0,0 +1,154 @@
+package dev.mars.service.cache;
+
+import dev.mars.service.metrics.MetricsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Answers "might this id exist?" before a lookup goes to the database.
+ *
+ * Two checks are made. A Bloom filter of every existing id, built by {@link #rebuild} and extended
+ * as rows are created, rejects ids that were never created. A short-lived negative cache region
+ * remembers ids that were looked up and not found, which also covers deleted ids and Bloom false
+ * positives. Creating an id clears its negative entry; the clear is an ordinary cache eviction, so
+ * the invalidation bus carries it to other nodes, which add the id to their own filters.
+ *
+ * Until the first rebuild the Bloom filter is not consulted, so a filter that was never built
+ * only adds the negative cache.
+ */
+public class ExistenceFilter {
+    private static final Logger logger = LoggerFactory.getLogger(ExistenceFilter.class);
+
+    private final String name;
+    private final CacheRegion misses;
+    private final MetricsService metricsService;
+    private final boolean bloomEnabled;
+    private final long expectedIds;
+    private final double falsePositiveRate;
+    private volatile BloomFilter bloom;
+    private List<String> addedDuringRebuild;
+
+    /**
+     * @param name Name used in logs and metric tags, e.g. "users"
+     * @param misses Region holding ids recently found missing; its TTL bounds how long a miss is trusted
+     * @param bloomEnabled Whether to build and consult the Bloom filter
+     * @param expectedIds Smallest number of ids the Bloom filter is sized for
+     * @param falsePositiveRate Target Bloom filter false-positive rate
+     */
+    public ExistenceFilter(String name, CacheRegion misses, MetricsService metricsService, boolean bloomEnabled,
+                           long expectedIds, double falsePositiveRate) {
+        this.name = name;
+        this.misses = misses;
+        this.metricsService = metricsService;
+        this.bloomEnabled = bloomEnabled;
+        this.expectedIds = expectedIds;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Name of the negative cache region.
+     */
+    public String getMissRegion() {
+        return misses.getName();
+    }
+
+    /**
+     * Whether the id may exist and is worth looking up. False means it certainly was never created
+     * or was recently looked up and not found.
+     */
+    public boolean mightExist(String id) {
+        BloomFilter current = bloom;
+        if (current != null && !current.mightContain(id)) {
+            metricsService.incrementCounter("cache.existence.rejected", "filter", name);
+            return false;
+        }
+        if (misses.get(id, Boolean.class).isPresent()) {
+            metricsService.incrementCounter("cache.negative.hits", "filter", name);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Remembers that a lookup of the id found nothing.
+     */
+    public void recordMissing(String id) {
+        misses.put(id, Boolean.TRUE);
+    }
+
+    /**
+     * Records an id created on this node and clears its negative entry here and, through the
+     * invalidation bus, on other nodes.
+     */
+    public void added(String id) {
+        addToBloom(id);
+        misses.evict(id);
+    }
+
+    /**
+     * Records an id created on another node. Its negative entry has already been cleared.
+     */
+    public void addedRemotely(String id) {
+        addToBloom(id);
+    }
+
+    /**
+     * Rebuilds the Bloom filter from every existing id. Ids created while the ids are being read
+     * are carried over into the new filter.
+     *
+     * @param ids Reads every existing id
+     * @return The number of ids in the new filter
+     */
+    public int rebuild(Supplier<? extends Collection<String>> ids) {
+        if (!bloomEnabled) {
+            return 0;
+        }
+        synchronized (this) {
+            addedDuringRebuild = new ArrayList<>();
+        }
+        Collection<String> existing;
+        try {
+            existing = ids.get();
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                addedDuringRebuild = null;
+            }
+            throw e;
+        }
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedIds, 2L * existing.size()), falsePositiveRate);
+        existing.forEach(rebuilt::add);
+        synchronized (this) {
+            addedDuringRebuild.forEach(rebuilt::add);
+            addedDuringRebuild = null;
+            bloom = rebuilt;
+        }
+        logger.info("Built {} existence filter over {} ids ({} bits, {} hashes)", name, existing.size(),
+            rebuilt.bitSize(), rebuilt.hashCount());
+        return existing.size();
+    }
+
+    /**
+     * Whether the Bloom filter has been built and is being consulted.
+     */
+    public boolean isReady() {
+        return bloom != null;
+    }
+
+    private synchronized void addToBloom(String id) {
+        if (bloom != null) {
+            bloom.add(id);
+        }
+        if (addedDuringRebuild != null) {
+            addedDuringRebuild.add(id);
+        }
+    }
+}
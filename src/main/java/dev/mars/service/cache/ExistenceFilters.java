@@ -0,0 +1,89 @@
+package dev.mars.service.cache;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import dev.mars.config.ApplicationProperties;
+import dev.mars.service.cache.bus.InvalidationBus;
+import dev.mars.service.events.TradeEvent;
+import dev.mars.service.events.TradeEventListener;
+import dev.mars.service.events.TradeEvents;
+import dev.mars.service.events.UserEvent;
+import dev.mars.service.events.UserEventListener;
+import dev.mars.service.events.UserEvents;
+import dev.mars.service.metrics.MetricsService;
+
+/**
+ * The existence filters for user and trade ids, kept up to date from creation events on this
+ * node and from the invalidation bus for creations on other nodes.
+ */
+@Singleton
+public class ExistenceFilters implements TradeEventListener, UserEventListener {
+    private final ExistenceFilter users;
+    private final ExistenceFilter trades;
+
+    @Inject
+    public ExistenceFilters(ApplicationProperties properties, CacheService cacheService, MetricsService metricsService,
+                            UserEvents userEvents, TradeEvents tradeEvents, InvalidationBus invalidationBus) {
+        this(properties, cacheService, metricsService, userEvents, tradeEvents);
+        invalidationBus.addReceiveListener(this::onRemoteInvalidation);
+    }
+
+    public ExistenceFilters(ApplicationProperties properties, CacheService cacheService, MetricsService metricsService,
+                            UserEvents userEvents, TradeEvents tradeEvents) {
+        ApplicationProperties.CacheConfig.ExistenceFilterConfig config = properties.getCache().getExistenceFilter();
+        this.users = new ExistenceFilter("users", cacheService.region(CacheRegions.USER_MISSES), metricsService,
+            config.isEnabled(), config.getExpectedIds(), config.getFalsePositiveRate());
+        this.trades = new ExistenceFilter("trades", cacheService.region(CacheRegions.TRADE_MISSES), metricsService,
+            config.isEnabled(), config.getExpectedIds(), config.getFalsePositiveRate());
+        userEvents.subscribe(this);
+        tradeEvents.subscribe(this);
+    }
+
+    private ExistenceFilters(ExistenceFilter users, ExistenceFilter trades) {
+        this.users = users;
+        this.trades = trades;
+    }
+
+    /**
+     * Filters that let every lookup through, for services built without caching.
+     */
+    public static ExistenceFilters disabled() {
+        MetricsService metricsService = new MetricsService(new ApplicationProperties());
+        return new ExistenceFilters(
+            new ExistenceFilter("users", new DisabledCacheRegion(CacheRegions.USER_MISSES), metricsService, false, 0, 0.01),
+            new ExistenceFilter("trades", new DisabledCacheRegion(CacheRegions.TRADE_MISSES), metricsService, false, 0, 0.01));
+    }
+
+    public ExistenceFilter users() {
+        return users;
+    }
+
+    public ExistenceFilter trades() {
+        return trades;
+    }
+
+    @Override
+    public void onUserEvent(UserEvent event) {
+        if (event.getType() == UserEvent.Type.CREATED) {
+            users.added(String.valueOf(event.getUserId()));
+        }
+    }
+
+    @Override
+    public void onTradeEvent(TradeEvent event) {
+        if (event.getType() == TradeEvent.Type.CREATED) {
+            trades.added(String.valueOf(event.getTradeId()));
+        }
+    }
+
+    private void onRemoteInvalidation(Invalidation invalidation) {
+        if (invalidation.scope() != Invalidation.Scope.KEY) {
+            return;
+        }
+        for (ExistenceFilter filter : new ExistenceFilter[] {users, trades}) {
+            if (filter.getMissRegion().equals(invalidation.region())) {
+                filter.addedRemotely(invalidation.value());
+            }
+        }
+    }
+}
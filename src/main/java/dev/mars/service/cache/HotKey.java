@@ -0,0 +1,11 @@
+package dev.mars.service.cache;
+
+/**
+ * A frequently accessed key of a loader-backed cache region.
+ *
+ * @param region The region name
+ * @param key The cache key within the region
+ * @param frequency Estimated recent access count
+ */
+public record HotKey(String region, String key, int frequency) {
+}
@@ -0,0 +1,114 @@
+package dev.mars.service.cache;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Tracks the most frequently accessed cache keys in bounded memory.
+ *
+ * Access frequencies are estimated with a count-min sketch: four rows of counters, each indexed
+ * by a different hash of the key, where a key's estimate is its smallest counter. Keys whose
+ * estimate reaches the current top-K threshold are kept as candidates; candidates are pruned
+ * back to K when they reach twice that. Once the sketch has seen ten samples per counter, all
+ * counters are halved so that keys that stop being accessed fall out of the top-K.
+ *
+ * Counts are approximate by design: concurrent increments are not coordinated beyond the
+ * atomicity of each counter.
+ */
+final class HotKeyTracker {
+    private static final int DEPTH = 4;
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    private final int limit;
+    private final int mask;
+    private final AtomicIntegerArray counters;
+    private final long resetSampleCount;
+    private final AtomicLong samples = new AtomicLong();
+    private final ConcurrentMap<Key, Integer> candidates = new ConcurrentHashMap<>();
+    private volatile int threshold;
+
+    /**
+     * @param limit Number of hottest keys to keep
+     */
+    HotKeyTracker(int limit) {
+        this.limit = Math.max(1, limit);
+        int width = Integer.highestOneBit(Math.max(1024, this.limit * 16) - 1) << 1;
+        this.mask = width - 1;
+        this.counters = new AtomicIntegerArray(DEPTH * width);
+        this.resetSampleCount = 10L * width;
+    }
+
+    /**
+     * Records one access to a key.
+     */
+    void record(String region, CacheKey key) {
+        Key candidate = new Key(region, key);
+        int hash = spread(candidate.hashCode());
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = row * (mask + 1) + (spread(hash ^ SEEDS[row]) & mask);
+            int count = counters.get(index);
+            if (count < Integer.MAX_VALUE) {
+                count = counters.incrementAndGet(index);
+            }
+            estimate = Math.min(estimate, count);
+        }
+        if (estimate >= threshold || candidates.size() < limit) {
+            candidates.put(candidate, estimate);
+            if (candidates.size() >= 2 * limit) {
+                prune();
+            }
+        }
+        if (samples.incrementAndGet() >= resetSampleCount) {
+            age();
+        }
+    }
+
+    /**
+     * The hottest keys, hottest first.
+     *
+     * @param max Maximum number of keys to return
+     */
+    List<HotKey> top(int max) {
+        List<HotKey> keys = new ArrayList<>(candidates.size());
+        candidates.forEach((key, frequency) -> keys.add(new HotKey(key.region(), key.key().toString(), frequency)));
+        keys.sort(Comparator.comparingInt(HotKey::frequency).reversed());
+        return keys.size() > max ? new ArrayList<>(keys.subList(0, max)) : keys;
+    }
+
+    private synchronized void prune() {
+        if (candidates.size() < 2 * limit) {
+            return;
+        }
+        List<HotKey> hottest = top(limit);
+        candidates.keySet().retainAll(hottest.stream().map(key -> new Key(key.region(), CacheKey.of(key.key()))).collect(Collectors.toSet()));
+        threshold = hottest.get(hottest.size() - 1).frequency();
+    }
+
+    private synchronized void age() {
+        if (samples.get() < resetSampleCount) {
+            return;
+        }
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, counters.get(i) >>> 1);
+        }
+        candidates.replaceAll((key, frequency) -> frequency >>> 1);
+        threshold >>>= 1;
+        samples.set(0);
+    }
+
+    private record Key(String region, CacheKey key) {
+    }
+
+    private static int spread(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x45D9F3B;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,42 @@
+package dev.mars.service.cache;
+
+/**
+ * A removal of cache entries, as reported to {@link InvalidationListener}s and applied on other nodes.
+ *
+ * @param scope What is removed
+ * @param region The region, or null for a tag invalidated in every region or for {@link Scope#ALL}
+ * @param value The key for {@link Scope#KEY}, the tag for {@link Scope#TAG}, otherwise null
+ */
+public record Invalidation(Scope scope, String region, String value) {
+
+    public enum Scope {
+        /** One key of one region. */
+        KEY,
+        /** Every entry carrying a tag, in one region or in all of them. */
+        TAG,
+        /** Every entry of one region. */
+        REGION,
+        /** Every entry of every region. */
+        ALL
+    }
+
+    public static Invalidation key(String region, String key) {
+        return new Invalidation(Scope.KEY, region, key);
+    }
+
+    public static Invalidation tag(String tag) {
+        return new Invalidation(Scope.TAG, null, tag);
+    }
+
+    public static Invalidation tag(String region, String tag) {
+        return new Invalidation(Scope.TAG, region, tag);
+    }
+
+    public static Invalidation region(String region) {
+        return new Invalidation(Scope.REGION, region, null);
+    }
+
+    public static Invalidation all() {
+        return new Invalidation(Scope.ALL, null, null);
+    }
+}
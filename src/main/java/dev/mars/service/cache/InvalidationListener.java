@@ -0,0 +1,9 @@
+package dev.mars.service.cache;
+
+/**
+ * Receives the invalidations made on this node, after they have been applied to the local cache.
+ */
+@FunctionalInterface
+public interface InvalidationListener {
+    void onInvalidation(Invalidation invalidation);
+}
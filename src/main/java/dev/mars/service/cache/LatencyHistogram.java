@@ -0,0 +1,101 @@
+package dev.mars.service.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size latency histogram with power-of-two microsecond buckets.
+ *
+ * Bucket i counts durations above 2^(i-1) and up to 2^i microseconds; the last bucket takes
+ * everything longer. Percentiles are reported as the upper bound of the bucket they fall in, so
+ * they overstate the true value by at most a factor of two.
+ */
+final class LatencyHistogram {
+    private static final int BUCKETS = 32;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    void record(long nanos) {
+        long duration = Math.max(0, nanos);
+        buckets.incrementAndGet(bucket(duration));
+        count.increment();
+        totalNanos.add(duration);
+        maxNanos.accumulateAndGet(duration, Math::max);
+    }
+
+    long count() {
+        return count.sum();
+    }
+
+    double meanMillis() {
+        long recorded = count.sum();
+        return recorded == 0 ? 0.0 : totalNanos.sum() / (double) recorded / 1_000_000;
+    }
+
+    double maxMillis() {
+        return maxNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * The upper bound, in milliseconds, of the bucket holding the given quantile, or 0 when empty.
+     *
+     * @param quantile Between 0 and 1
+     */
+    double percentileMillis(double quantile) {
+        long[] counts = snapshot();
+        long total = 0;
+        for (long bucketCount : counts) {
+            total += bucketCount;
+        }
+        if (total == 0) {
+            return 0.0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundMillis(i), maxMillis());
+            }
+        }
+        return maxMillis();
+    }
+
+    /**
+     * Non-empty buckets, keyed by their upper bound in milliseconds, shortest first.
+     */
+    Map<Double, Long> buckets() {
+        long[] counts = snapshot();
+        Map<Double, Long> nonEmpty = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                nonEmpty.put(i == BUCKETS - 1 ? Double.POSITIVE_INFINITY : upperBoundMillis(i), counts[i]);
+            }
+        }
+        return nonEmpty;
+    }
+
+    private long[] snapshot() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+        }
+        return counts;
+    }
+
+    private static int bucket(long nanos) {
+        long micros = nanos / 1000;
+        int bucket = micros <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(micros - 1);
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    private static double upperBoundMillis(int bucket) {
+        return (1L << bucket) / 1000.0;
+    }
+}
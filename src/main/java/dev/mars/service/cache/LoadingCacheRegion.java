@@ -0,0 +1,122 @@
+package dev.mars.service.cache;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A cache region with a loader attached, so entries can be loaded, refreshed and reloaded by key
+ * alone. Lookups follow the region's refresh and stale policies.
+ *
+ * @param <T> The type of cached values
+ */
+public final class LoadingCacheRegion<T> {
+    private final CacheRegion region;
+    private final Class<T> type;
+    private final Function<String, CompletableFuture<T>> loader;
+    private final Function<? super T, Set<String>> tagger;
+    private final Consumer<CacheKey> accessListener;
+
+    /**
+     * Creates a loader-backed view over a region.
+     *
+     * @param region The underlying region
+     * @param type The type of cached values
+     * @param loader Loads the value for a key, given the key's text
+     * @param tagger Derives the tags of a loaded value
+     */
+    public LoadingCacheRegion(CacheRegion region, Class<T> type, Function<String, CompletableFuture<T>> loader,
+                              Function<? super T, Set<String>> tagger) {
+        this(region, type, loader, tagger, key -> { });
+    }
+
+    /**
+     * Creates a loader-backed view over a region that reports every lookup.
+     *
+     * @param accessListener Called with the key of every lookup, hit or miss
+     */
+    LoadingCacheRegion(CacheRegion region, Class<T> type, Function<String, CompletableFuture<T>> loader,
+                       Function<? super T, Set<String>> tagger, Consumer<CacheKey> accessListener) {
+        this.region = region;
+        this.type = type;
+        this.loader = loader;
+        this.tagger = tagger;
+        this.accessListener = accessListener;
+    }
+
+    public String getName() {
+        return region.getName();
+    }
+
+    /**
+     * Gets a value, loading it on a miss.
+     *
+     * @param key The cache key
+     * @return CompletableFuture with the cached or loaded value
+     */
+    public CompletableFuture<T> get(CacheKey key) {
+        accessListener.accept(key);
+        return load(key);
+    }
+
+    /**
+     * Gets a value, loading it on a miss.
+     *
+     * @param key The cache key
+     * @return CompletableFuture with the cached or loaded value
+     */
+    public CompletableFuture<T> get(String key) {
+        return get(CacheKey.of(key));
+    }
+
+    /**
+     * Loads a value ahead of demand without counting it as an access.
+     *
+     * @param key The cache key
+     * @return CompletableFuture with the cached or loaded value
+     */
+    CompletableFuture<T> warm(String key) {
+        return load(CacheKey.of(key));
+    }
+
+    /**
+     * Gets a value, loading it on a miss, without counting it as an access.
+     */
+    CompletableFuture<T> load(CacheKey key) {
+        return region.getOrComputeAsync(key, type, () -> loader.apply(key.toString()), tagger);
+    }
+
+    /**
+     * Counts an access to a key that is served from somewhere other than this view.
+     */
+    void recordAccess(CacheKey key) {
+        accessListener.accept(key);
+    }
+
+    Set<String> tagsOf(T value) {
+        return tagger.apply(value);
+    }
+
+    /**
+     * Removes a value so that the next lookup loads it again.
+     *
+     * @param key The cache key
+     */
+    public void evict(CacheKey key) {
+        region.evict(key);
+    }
+
+    /**
+     * Removes a value so that the next lookup loads it again.
+     *
+     * @param key The cache key
+     */
+    public void evict(String key) {
+        region.evict(key);
+    }
+
+    public CacheRegion getRegion() {
+        return region;
+    }
+}
@@ -0,0 +1,190 @@
+package dev.mars.service.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Fixed-capacity byte store in a direct (off-heap) buffer, used as the second cache tier.
+ *
+ * Records are appended to a ring over the buffer. When the ring wraps, the oldest records are
+ * overwritten, so eviction is FIFO and costs nothing beyond dropping their index entries. A record
+ * never straddles the end of the buffer; the tail is skipped instead. Reads copy the bytes out
+ * under a shared lock; writes hold the exclusive lock only for the copy in and index update.
+ */
+final class OffHeapStore {
+    private final ByteBuffer arena;
+    private final int capacity;
+    private final Map<String, Slot> index = new HashMap<>();
+    private final ArrayDeque<Slot> log = new ArrayDeque<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Consumer<String> evictionListener;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long head;
+    private long bytesUsed;
+
+    /**
+     * A stored value and the time (System.nanoTime) it was originally written to the cache.
+     */
+    record Record(byte[] bytes, long writtenAt) {
+    }
+
+    private record Slot(String key, long position, int length, long writtenAt) {
+    }
+
+    /**
+     * Creates a store.
+     *
+     * @param capacity Size of the off-heap buffer in bytes
+     * @param evictionListener Called, outside the store's lock, with keys overwritten to make room
+     */
+    OffHeapStore(int capacity, Consumer<String> evictionListener) {
+        this.capacity = capacity;
+        this.arena = ByteBuffer.allocateDirect(capacity);
+        this.evictionListener = evictionListener;
+    }
+
+    /**
+     * Stores a value, replacing any previous value for the key.
+     *
+     * @return false if the value is larger than the whole store
+     */
+    boolean put(String key, byte[] bytes, long writtenAt) {
+        if (bytes.length > capacity) {
+            return false;
+        }
+        List<String> evicted = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            removeSlot(index.remove(key));
+            long position = head;
+            int offset = (int) (position % capacity);
+            if (offset + bytes.length > capacity) {
+                position += capacity - offset;
+                offset = 0;
+            }
+            long end = position + bytes.length;
+            // Drop every record the new one is about to overwrite
+            while (!log.isEmpty() && log.peekFirst().position() < end - capacity) {
+                Slot oldest = log.pollFirst();
+                if (index.remove(oldest.key(), oldest)) {
+                    bytesUsed -= oldest.length();
+                    evictions.increment();
+                    evicted.add(oldest.key());
+                }
+            }
+            arena.put(offset, bytes);
+            Slot slot = new Slot(key, position, bytes.length, writtenAt);
+            index.put(key, slot);
+            log.addLast(slot);
+            bytesUsed += bytes.length;
+            head = end;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        evicted.forEach(evictionListener);
+        return true;
+    }
+
+    /**
+     * Reads a value.
+     *
+     * @return The record, or null if the key is not stored
+     */
+    Record get(String key) {
+        lock.readLock().lock();
+        try {
+            Slot slot = index.get(key);
+            if (slot == null) {
+                misses.increment();
+                return null;
+            }
+            byte[] bytes = new byte[slot.length()];
+            arena.get((int) (slot.position() % capacity), bytes);
+            hits.increment();
+            return new Record(bytes, slot.writtenAt());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    boolean contains(String key) {
+        lock.readLock().lock();
+        try {
+            return index.containsKey(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    boolean remove(String key) {
+        lock.writeLock().lock();
+        try {
+            Slot slot = index.remove(key);
+            removeSlot(slot);
+            return slot != null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            index.clear();
+            log.clear();
+            bytesUsed = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long bytesUsed() {
+        lock.readLock().lock();
+        try {
+            return bytesUsed;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long hitCount() {
+        return hits.sum();
+    }
+
+    long missCount() {
+        return misses.sum();
+    }
+
+    long evictionCount() {
+        return evictions.sum();
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    private void removeSlot(Slot slot) {
+        // The slot stays in the log until the ring passes it; the index check there skips it
+        if (slot != null) {
+            bytesUsed -= slot.length();
+        }
+    }
+}
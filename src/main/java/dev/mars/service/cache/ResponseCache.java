@@ -0,0 +1,204 @@
+package dev.mars.service.cache;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import dev.mars.config.ApplicationProperties;
+import dev.mars.service.compression.ResponseCompressor;
+import dev.mars.service.format.ResponseFormats;
+import dev.mars.service.format.WireFormat;
+import io.javalin.http.Context;
+import io.javalin.http.Header;
+import io.javalin.http.HttpStatus;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Serves cacheable responses from a cache region, in the format {@link ResponseFormats} negotiates.
+ *
+ * In encoded mode the region holds the serialized response body, plus its gzipped and brotli forms
+ * when {@link ResponseCompressor} finds compression worthwhile, keyed by route, normalized query
+ * and format; each format a page is requested in is cached separately and shares its tags.
+ * Each form is compressed once, when the body is cached. A hit writes those bytes to
+ * the response as they are, without building or serializing the object graph. Otherwise the region
+ * holds the response objects and every hit is serialized again.
+ *
+ * Entities from a loading region, such as a user by id, are cached the same way: the encoded body
+ * is kept in the entity's region next to the entity, under the request path and format, and
+ * shares the entity's tags, so invalidating the entity drops both.
+ *
+ * Encoded responses carry a weak ETag, a 64-bit hash of the body computed when the body is
+ * encoded and cached with it, and the configured Cache-Control. A request whose If-None-Match
+ * names that ETag gets a 304 without a body. The ETag is weak because the compressed and plain
+ * bodies share it. Responses in object mode carry no validators.
+ */
+@Singleton
+public class ResponseCache {
+    private final boolean encoded;
+    private final ResponseCompressor compressor;
+    private final boolean precompress;
+    private final String cacheControl;
+    private final ResponseFormats formats;
+
+    public ResponseCache(ApplicationProperties properties) {
+        this(properties, new ResponseCompressor(properties), new ResponseFormats(properties));
+    }
+
+    @Inject
+    public ResponseCache(ApplicationProperties properties, ResponseCompressor compressor, ResponseFormats formats) {
+        ApplicationProperties.CacheConfig.ResponseCacheConfig config = properties.getCache().getResponseCache();
+        this.encoded = config.isEncoded();
+        this.compressor = compressor;
+        this.formats = formats;
+        this.precompress = config.isPrecompress();
+        this.cacheControl = config.getCacheControl();
+    }
+
+    private ResponseCache() {
+        this.encoded = false;
+        this.compressor = null;
+        this.precompress = false;
+        this.cacheControl = null;
+        this.formats = new ResponseFormats();
+    }
+
+    /**
+     * A response cache that keeps response objects and serializes them on every hit.
+     */
+    public static ResponseCache objects() {
+        return new ResponseCache();
+    }
+
+    public boolean isEncoded() {
+        return encoded;
+    }
+
+    /**
+     * Writes the cached response for a request, loading and caching it on a miss.
+     *
+     * @param ctx Request to respond to
+     * @param region Region holding the responses
+     * @param queryKey Normalized query parameters; the request path is added in encoded mode
+     * @param type Type of the response object
+     * @param loader Loads the response object on a miss
+     * @param tagger Tags of a loaded response object
+     * @return Future that completes once the response has been written
+     */
+    public <T> CompletableFuture<Void> serve(Context ctx, CacheRegion region, CacheKey queryKey, Class<T> type,
+                                             Supplier<CompletableFuture<T>> loader,
+                                             Function<? super T, Set<String>> tagger) {
+        if (!encoded) {
+            return region.getOrComputeAsync(queryKey, type, loader, tagger).thenAccept(value -> formats.write(ctx, value));
+        }
+        WireFormat format = formats.negotiate(ctx);
+        return region.getOrComputeAsync(CacheKey.request(path(ctx, format), queryKey), EncodedResponse.class,
+                () -> loader.get().thenApply(value -> encode(format, value, tagger.apply(value))), EncodedResponse::getTags)
+            .thenAccept(response -> write(ctx, format, response));
+    }
+
+    /**
+     * Writes an entity from a loading region in the negotiated format. In encoded mode a hit
+     * writes the cached body, or a 304 if If-None-Match names its ETag, without serializing or
+     * hashing; on a miss the entity is read through the region and encoded once. In object mode
+     * the entity is written as {@link ResponseFormats#write} writes it.
+     *
+     * @param ctx Request to respond to
+     * @param entities Region holding the entities, and their encoded responses in encoded mode
+     * @param key Key of the entity
+     * @return Future that completes once the response has been written
+     */
+    public <T> CompletableFuture<Void> serve(Context ctx, LoadingCacheRegion<T> entities, CacheKey key) {
+        if (!encoded) {
+            return entities.get(key).thenAccept(value -> formats.write(ctx, value));
+        }
+        WireFormat format = formats.negotiate(ctx);
+        entities.recordAccess(key);
+        return entities.getRegion().getOrComputeAsync(CacheKey.request(path(ctx, format), key), EncodedResponse.class,
+                () -> entities.load(key).thenApply(value -> encode(format, value, entities.tagsOf(value))),
+                EncodedResponse::getTags)
+            .thenAccept(response -> write(ctx, format, response));
+    }
+
+    EncodedResponse encode(WireFormat format, Object value, Set<String> tags) {
+        byte[] body = formats.serialize(format, value);
+        ResponseCompressor.Precompressed compressed = precompress
+            ? compressor.precompress(body, format.mediaType())
+            : new ResponseCompressor.Precompressed(body, null, null);
+        return new EncodedResponse(body, compressed.gzip(), compressed.brotli(), CaffeineCacheRegion.weigh(value),
+            etag(body), tags);
+    }
+
+    void write(Context ctx, WireFormat format, EncodedResponse response) {
+        formats.vary(ctx, response.getGzipBody() != null || response.getBrotliBody() != null);
+        if (notModified(ctx, response.getEtag())) {
+            return;
+        }
+        ctx.contentType(format.mediaType());
+        compressor.write(ctx, response.getBody(), response.getGzipBody(), response.getBrotliBody());
+    }
+
+    /**
+     * The request path that keys cached responses; JSON keeps the bare path.
+     */
+    private static String path(Context ctx, WireFormat format) {
+        return format == WireFormat.JSON ? ctx.path() : ctx.path() + "." + format.name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Sets the validators of a response and, if the request's If-None-Match names its ETag,
+     * answers it with a 304.
+     *
+     * @return Whether the response was answered with a 304
+     */
+    private boolean notModified(Context ctx, String etag) {
+        ctx.header(Header.ETAG, etag);
+        if (cacheControl != null && !cacheControl.isBlank()) {
+            ctx.header(Header.CACHE_CONTROL, cacheControl);
+        }
+        if (!matches(ctx.header(Header.IF_NONE_MATCH), etag)) {
+            return false;
+        }
+        ctx.status(HttpStatus.NOT_MODIFIED);
+        return true;
+    }
+
+    /**
+     * Whether an If-None-Match header names an ETag, comparing weakly as RFC 9110 requires.
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        String opaqueTag = opaqueTag(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || opaqueTag(trimmed).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A weak ETag of a response body: its FNV-1a hash, finished with the MurmurHash3 mix, in hex.
+     */
+    static String etag(byte[] body) {
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : body) {
+            hash = (hash ^ (b & 0xFF)) * 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return "W/\"" + Long.toHexString(hash) + "-" + Integer.toHexString(body.length) + "\"";
+    }
+
+    private static String opaqueTag(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+}
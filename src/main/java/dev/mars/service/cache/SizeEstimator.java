@@ -0,0 +1,107 @@
+package dev.mars.service.cache;
+
+import dev.mars.dao.model.Trade;
+import dev.mars.dao.model.User;
+import dev.mars.dto.PageResponse;
+
+import java.time.temporal.Temporal;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Estimates the heap retained by cached values, for regions bounded by a memory budget.
+ *
+ * Sizes assume a 64-bit JVM with compressed references and compact strings: 12-byte object
+ * headers, 4-byte references and 8-byte alignment. Known value types are sized field by field;
+ * large collections are sized from a sample of their elements. The estimate is meant to keep a
+ * region's footprint predictable, not to be exact.
+ */
+final class SizeEstimator {
+    private static final int HEADER = 12;
+    private static final int REFERENCE = 4;
+    private static final int ARRAY_HEADER = 16;
+    /** Caffeine node, hash table slot and the region's entry wrapper around each value. */
+    static final int ENTRY_OVERHEAD = 96;
+    private static final int UNKNOWN_OBJECT = 64;
+    private static final int SAMPLE_SIZE = 16;
+
+    private SizeEstimator() {
+    }
+
+    /**
+     * Estimated bytes retained by a cache entry, including its key.
+     */
+    static long entry(CacheKey key, Object value) {
+        return ENTRY_OVERHEAD + of(key) + of(value);
+    }
+
+    /**
+     * Estimated bytes retained by a value.
+     */
+    static long of(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String string) {
+            // String object plus its latin-1 backing array
+            return align(HEADER + 12) + align(ARRAY_HEADER + string.length());
+        }
+        if (value instanceof CacheKey key) {
+            // Key object with its parts, plus the text form once it has been built
+            return align(HEADER + 8 + 4 * REFERENCE) + align(HEADER + 12) + align(ARRAY_HEADER + key.length());
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+            return 16 + (value instanceof Long || value instanceof Double ? 8 : 0);
+        }
+        if (value instanceof byte[] bytes) {
+            return align(ARRAY_HEADER + bytes.length);
+        }
+        if (value instanceof EncodedResponse encoded) {
+            return align(HEADER + 5 * REFERENCE + 4) + of(encoded.getBody()) + of(encoded.getGzipBody())
+                + of(encoded.getBrotliBody()) + of(encoded.getEtag());
+        }
+        if (value instanceof Trade trade) {
+            return align(HEADER + 2 * 4 + 8 + 7 * REFERENCE)
+                + of(trade.getSymbol()) + of(trade.getType()) + of(trade.getStatus())
+                + of(trade.getTradeDate()) + of(trade.getSettlementDate())
+                + of(trade.getCounterparty()) + of(trade.getNotes());
+        }
+        if (value instanceof User user) {
+            return align(HEADER + 4 + 2 * REFERENCE) + of(user.getName()) + of(user.getEmail());
+        }
+        if (value instanceof Temporal) {
+            return 24;
+        }
+        if (value instanceof PageResponse<?> page) {
+            // Page object plus its metadata, which holds only primitives
+            return align(HEADER + 2 * REFERENCE) + align(HEADER + 5 * 4 + 8 + 4) + of(page.getContent());
+        }
+        if (value instanceof Collection<?> collection) {
+            return align(HEADER + 12) + align(ARRAY_HEADER + (long) collection.size() * REFERENCE)
+                + sampled(collection.iterator(), collection.size());
+        }
+        if (value instanceof Map<?, ?> map) {
+            // Hash table plus a node per mapping
+            return align(HEADER + 28) + align(ARRAY_HEADER + (long) map.size() * 2 * REFERENCE)
+                + (long) map.size() * 32
+                + sampled(map.keySet().iterator(), map.size())
+                + sampled(map.values().iterator(), map.size());
+        }
+        return UNKNOWN_OBJECT;
+    }
+
+    private static long sampled(Iterator<?> elements, int size) {
+        long sampledBytes = 0;
+        int sampled = 0;
+        while (sampled < SAMPLE_SIZE && elements.hasNext()) {
+            sampledBytes += of(elements.next());
+            sampled++;
+        }
+        return sampled == 0 ? 0 : sampledBytes * size / sampled;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
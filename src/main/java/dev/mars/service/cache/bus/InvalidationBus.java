@@ -0,0 +1,223 @@
+package dev.mars.service.cache.bus;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import dev.mars.config.ApplicationProperties;
+import dev.mars.service.cache.CacheService;
+import dev.mars.service.cache.Invalidation;
+import dev.mars.service.cache.InvalidationListener;
+import dev.mars.service.metrics.MetricsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the caches of several nodes consistent by broadcasting invalidations between them.
+ *
+ * Every invalidation made on this node (evicts, tag invalidations from mutation events, clears)
+ * is queued and sent to the other nodes in batches, every {@code flush-interval-ms} or as soon as
+ * {@code max-batch-size} distinct invalidations are waiting. Repeats of a queued invalidation are
+ * dropped, and a queued clear of everything replaces the rest of the batch, so a burst of writes
+ * to the same rows costs one packet. Received invalidations are applied to the local cache
+ * without being broadcast again; this node's own packets are recognised by node id and ignored.
+ *
+ * Every packet carries an HMAC of the shared {@code secret}; packets whose tag does not verify are
+ * dropped and counted in {@code cache.bus.rejected}, so only nodes holding the secret can evict
+ * entries on others.
+ *
+ * Delivery is best effort. A lost packet leaves entries stale on some node until their TTL, as
+ * before this bus existed.
+ */
+@Singleton
+public class InvalidationBus implements InvalidationListener, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(InvalidationBus.class);
+
+    private final CacheService cacheService;
+    private final MetricsService metricsService;
+    private final InvalidationTransport transport;
+    private final PacketAuthenticator authenticator;
+    private final int maxBatchSize;
+    private final int maxPacketBytes;
+    private final long nodeId = UUID.randomUUID().getMostSignificantBits();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ScheduledExecutorService flusher;
+    private final List<InvalidationListener> receiveListeners = new CopyOnWriteArrayList<>();
+    private Set<Invalidation> pending = new LinkedHashSet<>();
+
+    @Inject
+    public InvalidationBus(ApplicationProperties properties, CacheService cacheService, MetricsService metricsService)
+            throws IOException {
+        this(cacheService, metricsService, createTransport(properties.getCache().getInvalidationBus()),
+            properties.getCache().getInvalidationBus());
+    }
+
+    private InvalidationBus(CacheService cacheService, MetricsService metricsService, InvalidationTransport transport,
+                            ApplicationProperties.CacheConfig.InvalidationBusConfig config) throws IOException {
+        this(cacheService, metricsService, transport, config.getSecret(), Duration.ofMillis(config.getFlushIntervalMs()),
+            config.getMaxBatchSize(), config.getMaxPacketBytes());
+    }
+
+    /**
+     * Creates a bus over a transport, or a bus that does nothing if the transport is null.
+     *
+     * @param secret Secret shared by every node, used to sign and verify packets
+     * @param flushInterval Longest time an invalidation waits before it is sent
+     * @param maxBatchSize Number of queued invalidations that triggers an early send
+     * @param maxPacketBytes Largest packet handed to the transport, including its tag
+     * @throws IllegalArgumentException if there is a transport and the secret is blank
+     */
+    public InvalidationBus(CacheService cacheService, MetricsService metricsService, InvalidationTransport transport,
+                           String secret, Duration flushInterval, int maxBatchSize, int maxPacketBytes) throws IOException {
+        this.cacheService = cacheService;
+        this.metricsService = metricsService;
+        this.transport = transport;
+        this.maxBatchSize = maxBatchSize;
+        this.maxPacketBytes = maxPacketBytes - PacketAuthenticator.TAG_BYTES;
+        if (transport == null) {
+            this.authenticator = null;
+            this.flusher = null;
+            return;
+        }
+        try {
+            this.authenticator = new PacketAuthenticator(secret);
+        } catch (IllegalArgumentException e) {
+            transport.close();
+            throw e;
+        }
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-bus-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        transport.start(this::receive);
+        cacheService.addInvalidationListener(this);
+        logger.info("Cache invalidation bus started as node {}", Long.toHexString(nodeId));
+    }
+
+    @Override
+    public void onInvalidation(Invalidation invalidation) {
+        boolean full;
+        synchronized (this) {
+            if (pending.contains(Invalidation.all())) {
+                metricsService.incrementCounter("cache.bus.deduplicated");
+                return;
+            }
+            if (invalidation.scope() == Invalidation.Scope.ALL) {
+                metricsService.incrementCounterBy("cache.bus.deduplicated", pending.size());
+                pending.clear();
+            }
+            if (!pending.add(invalidation)) {
+                metricsService.incrementCounter("cache.bus.deduplicated");
+                return;
+            }
+            full = pending.size() >= maxBatchSize;
+        }
+        if (full) {
+            flusher.execute(this::flush);
+        }
+    }
+
+    /**
+     * Registers a listener called with each invalidation received from another node, after it has
+     * been applied to the local cache.
+     */
+    public void addReceiveListener(InvalidationListener listener) {
+        receiveListeners.add(listener);
+    }
+
+    /**
+     * Sends every queued invalidation now.
+     */
+    public void flush() {
+        List<Invalidation> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(pending);
+            pending = new LinkedHashSet<>();
+        }
+        try {
+            List<byte[]> packets = InvalidationCodec.encode(nodeId, sequence, batch, maxPacketBytes);
+            for (byte[] packet : packets) {
+                transport.send(authenticator.sign(packet));
+            }
+            metricsService.incrementCounterBy("cache.bus.sent", batch.size());
+            metricsService.incrementCounterBy("cache.bus.packets", packets.size());
+            logger.debug("Broadcast {} cache invalidations in {} packets", batch.size(), packets.size());
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to broadcast {} cache invalidations", batch.size(), e);
+            metricsService.incrementCounter("cache.bus.errors");
+        }
+    }
+
+    @Override
+    public void close() {
+        if (transport == null) {
+            return;
+        }
+        flusher.shutdown();
+        flush();
+        transport.close();
+    }
+
+    private void receive(byte[] data) {
+        byte[] verified = authenticator.verify(data);
+        if (verified == null) {
+            logger.debug("Dropping cache invalidation packet that failed verification");
+            metricsService.incrementCounter("cache.bus.rejected");
+            return;
+        }
+        InvalidationCodec.Packet packet;
+        try {
+            packet = InvalidationCodec.decode(verified);
+        } catch (IOException e) {
+            logger.warn("Ignoring malformed cache invalidation packet: {}", e.getMessage());
+            metricsService.incrementCounter("cache.bus.errors");
+            return;
+        }
+        if (packet.nodeId() == nodeId) {
+            return;
+        }
+        for (Invalidation invalidation : packet.invalidations()) {
+            cacheService.applyInvalidation(invalidation);
+            for (InvalidationListener listener : receiveListeners) {
+                listener.onInvalidation(invalidation);
+            }
+        }
+        metricsService.incrementCounterBy("cache.bus.received", packet.invalidations().size());
+        logger.debug("Applied {} cache invalidations from node {}", packet.invalidations().size(),
+            Long.toHexString(packet.nodeId()));
+    }
+
+    private static InvalidationTransport createTransport(ApplicationProperties.CacheConfig.InvalidationBusConfig config)
+            throws IOException {
+        if (!config.isEnabled()) {
+            return null;
+        }
+        if ("unicast".equalsIgnoreCase(config.getMode())) {
+            List<InetSocketAddress> peers = new ArrayList<>();
+            for (String peer : config.getPeers()) {
+                int separator = peer.lastIndexOf(':');
+                peers.add(new InetSocketAddress(peer.substring(0, separator).trim(),
+                    Integer.parseInt(peer.substring(separator + 1).trim())));
+            }
+            return UdpInvalidationTransport.unicast(new InetSocketAddress(config.getBindHost(), config.getPort()), peers);
+        }
+        return UdpInvalidationTransport.multicast(config.getMulticastGroup(), config.getPort(), config.getNetworkInterface());
+    }
+}
@@ -0,0 +1,126 @@
+package dev.mars.service.cache.bus;
+
+import dev.mars.service.cache.Invalidation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Binary encoding of invalidation batches.
+ *
+ * A packet is a header (magic, version, sender node id, sender sequence number, item count)
+ * followed by its items, each a scope byte and optional region and value strings. A batch that
+ * does not fit in one packet is split over several, each decodable on its own.
+ */
+final class InvalidationCodec {
+    private static final int MAGIC = 0x43494E56;
+    private static final byte VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 1 + 8 + 8 + 2;
+    private static final Invalidation.Scope[] SCOPES = Invalidation.Scope.values();
+
+    private InvalidationCodec() {
+    }
+
+    /**
+     * A decoded packet.
+     */
+    record Packet(long nodeId, long sequence, List<Invalidation> invalidations) {
+    }
+
+    /**
+     * Encodes a batch into as few packets of at most {@code maxPacketBytes} as it needs.
+     *
+     * @param sequence The sender's packet counter; each packet takes the next number
+     */
+    static List<byte[]> encode(long nodeId, AtomicLong sequence, Collection<Invalidation> invalidations, int maxPacketBytes) {
+        List<byte[]> packets = new ArrayList<>();
+        List<byte[]> items = new ArrayList<>();
+        int size = HEADER_BYTES;
+        for (Invalidation invalidation : invalidations) {
+            byte[] item = encodeItem(invalidation);
+            if (item.length + HEADER_BYTES > maxPacketBytes) {
+                throw new IllegalArgumentException("Invalidation too large for one packet: " + invalidation);
+            }
+            if (size + item.length > maxPacketBytes || items.size() == Short.MAX_VALUE) {
+                packets.add(packet(nodeId, sequence.incrementAndGet(), items, size));
+                items.clear();
+                size = HEADER_BYTES;
+            }
+            items.add(item);
+            size += item.length;
+        }
+        if (!items.isEmpty()) {
+            packets.add(packet(nodeId, sequence.incrementAndGet(), items, size));
+        }
+        return packets;
+    }
+
+    static Packet decode(byte[] packet) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(packet));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a cache invalidation packet");
+        }
+        byte version = in.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported cache invalidation packet version " + version);
+        }
+        long nodeId = in.readLong();
+        long sequence = in.readLong();
+        int count = in.readShort();
+        List<Invalidation> invalidations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int scope = in.readByte();
+            if (scope < 0 || scope >= SCOPES.length) {
+                throw new IOException("Unknown invalidation scope " + scope);
+            }
+            String region = in.readBoolean() ? in.readUTF() : null;
+            String value = in.readBoolean() ? in.readUTF() : null;
+            invalidations.add(new Invalidation(SCOPES[scope], region, value));
+        }
+        return new Packet(nodeId, sequence, invalidations);
+    }
+
+    private static byte[] encodeItem(Invalidation invalidation) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(invalidation.scope().ordinal());
+            writeOptional(out, invalidation.region());
+            writeOptional(out, invalidation.value());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeOptional(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static byte[] packet(long nodeId, long sequence, List<byte[]> items, int size) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(size);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(nodeId);
+            out.writeLong(sequence);
+            out.writeShort(items.size());
+            for (byte[] item : items) {
+                out.write(item);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,26 @@
+package dev.mars.service.cache.bus;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Carries encoded invalidation batches between nodes. Delivery is best effort: packets may be
+ * lost, duplicated or reordered, and a node may receive its own packets back.
+ */
+public interface InvalidationTransport extends AutoCloseable {
+
+    /**
+     * Starts receiving packets.
+     *
+     * @param receiver Called with each received packet, on a transport thread
+     */
+    void start(Consumer<byte[]> receiver) throws IOException;
+
+    /**
+     * Sends one packet to every other node.
+     */
+    void send(byte[] packet) throws IOException;
+
+    @Override
+    void close();
+}
@@ -0,0 +1,70 @@
+package dev.mars.service.cache.bus;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * Signs invalidation packets with an HMAC-SHA256 of a secret shared by every node, so a node only
+ * applies invalidations from senders that know the secret. The tag is appended to the packet.
+ */
+final class PacketAuthenticator {
+    static final int TAG_BYTES = 32;
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final ThreadLocal<Mac> macs;
+
+    /**
+     * @throws IllegalArgumentException if the secret is blank
+     */
+    PacketAuthenticator(String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalArgumentException("A shared secret is required to sign cache invalidation packets");
+        }
+        SecretKeySpec key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Failed to initialise " + ALGORITHM, e);
+            }
+        });
+    }
+
+    /**
+     * The packet followed by its tag.
+     */
+    byte[] sign(byte[] packet) {
+        byte[] signed = Arrays.copyOf(packet, packet.length + TAG_BYTES);
+        Mac mac = macs.get();
+        mac.update(packet);
+        try {
+            mac.doFinal(signed, packet.length);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to sign cache invalidation packet", e);
+        }
+        return signed;
+    }
+
+    /**
+     * The packet without its tag, or null if the tag does not match.
+     */
+    byte[] verify(byte[] signed) {
+        if (signed.length < TAG_BYTES) {
+            return null;
+        }
+        int length = signed.length - TAG_BYTES;
+        Mac mac = macs.get();
+        mac.update(signed, 0, length);
+        byte[] expected = mac.doFinal();
+        if (!MessageDigest.isEqual(expected, Arrays.copyOfRange(signed, length, signed.length))) {
+            return null;
+        }
+        return Arrays.copyOf(signed, length);
+    }
+}
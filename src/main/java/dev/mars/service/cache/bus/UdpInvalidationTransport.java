@@ -0,0 +1,132 @@
+package dev.mars.service.cache.bus;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Sends invalidation packets over UDP, either to a multicast group that every node joins or to a
+ * fixed list of peer addresses. Unicast to peers on 127.0.0.1 lets several nodes share one machine.
+ * Multicast can be pinned to one network interface, so packets stay on the cluster network.
+ */
+public class UdpInvalidationTransport implements InvalidationTransport {
+    private static final Logger logger = LoggerFactory.getLogger(UdpInvalidationTransport.class);
+    private static final int MAX_DATAGRAM = 65507;
+
+    private final DatagramSocket socket;
+    private final List<InetSocketAddress> destinations;
+    private final InetSocketAddress group;
+    private final NetworkInterface networkInterface;
+    private volatile boolean closed;
+
+    private UdpInvalidationTransport(DatagramSocket socket, List<InetSocketAddress> destinations, InetSocketAddress group,
+                                     NetworkInterface networkInterface) {
+        this.socket = socket;
+        this.destinations = List.copyOf(destinations);
+        this.group = group;
+        this.networkInterface = networkInterface;
+    }
+
+    /**
+     * A transport sending to and receiving from a multicast group.
+     *
+     * @param group Multicast group address, e.g. 239.255.77.77
+     * @param port Port every node listens on
+     * @param networkInterface Name of the interface to join the group and send on, e.g. eth1, or
+     *                         null or blank for the system default
+     */
+    public static UdpInvalidationTransport multicast(String group, int port, String networkInterface) throws IOException {
+        InetSocketAddress groupAddress = new InetSocketAddress(InetAddress.getByName(group), port);
+        NetworkInterface nif = null;
+        if (networkInterface != null && !networkInterface.isBlank()) {
+            nif = NetworkInterface.getByName(networkInterface.trim());
+            if (nif == null) {
+                throw new SocketException("No such network interface: " + networkInterface);
+            }
+        }
+        MulticastSocket socket = new MulticastSocket(port);
+        try {
+            if (nif != null) {
+                socket.setNetworkInterface(nif);
+            }
+            socket.joinGroup(groupAddress, nif);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+        return new UdpInvalidationTransport(socket, List.of(groupAddress), groupAddress, nif);
+    }
+
+    /**
+     * A transport sending to each peer and receiving on its own address.
+     *
+     * @param bind Local address to receive on
+     * @param peers Addresses of the other nodes
+     */
+    public static UdpInvalidationTransport unicast(InetSocketAddress bind, List<InetSocketAddress> peers) throws SocketException {
+        return new UdpInvalidationTransport(new DatagramSocket(bind), peers, null, null);
+    }
+
+    public int getLocalPort() {
+        return socket.getLocalPort();
+    }
+
+    @Override
+    public void start(Consumer<byte[]> receiver) {
+        Thread thread = new Thread(() -> receive(receiver), "cache-bus-receiver");
+        thread.setDaemon(true);
+        thread.start();
+        logger.info("Cache invalidation transport listening on port {} ({})", socket.getLocalPort(),
+            group != null ? "multicast " + group + (networkInterface != null ? " on " + networkInterface.getName() : "")
+                : "unicast to " + destinations);
+    }
+
+    @Override
+    public void send(byte[] packet) throws IOException {
+        for (InetSocketAddress destination : destinations) {
+            socket.send(new DatagramPacket(packet, packet.length, destination));
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        if (group != null && socket instanceof MulticastSocket multicastSocket) {
+            try {
+                multicastSocket.leaveGroup(group, networkInterface);
+            } catch (IOException e) {
+                logger.debug("Failed to leave multicast group {}", group, e);
+            }
+        }
+        socket.close();
+    }
+
+    private void receive(Consumer<byte[]> receiver) {
+        byte[] buffer = new byte[MAX_DATAGRAM];
+        while (!closed) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+                byte[] data = new byte[packet.getLength()];
+                System.arraycopy(packet.getData(), packet.getOffset(), data, 0, packet.getLength());
+                receiver.accept(data);
+            } catch (IOException e) {
+                if (!closed) {
+                    logger.warn("Failed to receive cache invalidation packet", e);
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Failed to handle cache invalidation packet", e);
+            }
+        }
+    }
+}
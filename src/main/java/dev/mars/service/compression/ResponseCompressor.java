@@ -0,0 +1,196 @@
+package dev.mars.service.compression;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import dev.mars.config.ApplicationProperties;
+import io.javalin.compression.Brotli;
+import io.javalin.compression.CompressionStrategy;
+import io.javalin.compression.Gzip;
+import io.javalin.http.Context;
+import io.javalin.http.Header;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses HTTP responses with brotli or gzip, whichever the client accepts, brotli first.
+ *
+ * Dynamic responses are compressed on the fly by Javalin, configured through {@link #strategy()}.
+ * Bodies served many times, such as cached API responses and the API documentation, are
+ * {@link #precompress precompressed} once, at the highest gzip level and the precompressed brotli
+ * level, and {@link #write written} in the form the client accepts; Javalin leaves responses that
+ * already carry a Content-Encoding alone. Only bodies of a listed content type and at least
+ * {@code min-size-bytes} are compressed.
+ *
+ * Brotli is used only when the brotli4j native library loads on this platform; otherwise gzip alone.
+ */
+@Singleton
+public class ResponseCompressor {
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCompressor.class);
+    public static final String GZIP = "gzip";
+    public static final String BROTLI = "br";
+
+    private final boolean enabled;
+    private final boolean gzip;
+    private final int gzipLevel;
+    private final boolean brotli;
+    private final int brotliLevel;
+    private final int precompressedBrotliLevel;
+    private final int minSizeBytes;
+    private final List<String> mimeTypes;
+
+    @Inject
+    public ResponseCompressor(ApplicationProperties properties) {
+        ApplicationProperties.ServerConfig.CompressionConfig config = properties.getServer().getCompression();
+        this.enabled = config.isEnabled();
+        this.gzip = config.isGzip();
+        this.gzipLevel = config.getGzipLevel();
+        this.brotli = config.isBrotli() && brotliAvailable();
+        this.brotliLevel = config.getBrotliLevel();
+        this.precompressedBrotliLevel = config.getPrecompressedBrotliLevel();
+        this.minSizeBytes = config.getMinSizeBytes();
+        this.mimeTypes = config.getMimeTypes().stream().map(type -> type.toLowerCase(Locale.ROOT)).toList();
+        if (config.isBrotli() && !brotli) {
+            logger.warn("Brotli compression unavailable on this platform; compressing with gzip only");
+        }
+    }
+
+    /**
+     * Javalin's compression of dynamic responses, following the same settings.
+     */
+    public CompressionStrategy strategy() {
+        if (!enabled || (!gzip && !brotli)) {
+            return CompressionStrategy.NONE;
+        }
+        CompressionStrategy strategy = new CompressionStrategy(brotli ? new Brotli(brotliLevel) : null,
+            gzip ? new Gzip(gzipLevel) : null);
+        strategy.setDefaultMinSizeForCompression(minSizeBytes);
+        strategy.setAllowedMimeTypes(mimeTypes);
+        return strategy;
+    }
+
+    /**
+     * Compresses a body in every enabled encoding, if it is large enough and of a compressible type.
+     *
+     * @param body The uncompressed body
+     * @param contentType The body's content type
+     * @return The body with its compressed forms, which are null where not worthwhile
+     */
+    public Precompressed precompress(byte[] body, String contentType) {
+        if (!enabled || body.length < minSizeBytes || !isCompressible(contentType)) {
+            return new Precompressed(body, null, null);
+        }
+        return new Precompressed(body, gzip ? gzip(body) : null, brotli ? brotli(body) : null);
+    }
+
+    /**
+     * Writes a body in the preferred encoding the client accepts and that was precompressed,
+     * or uncompressed. The caller sets Vary, which must name Accept-Encoding when either
+     * compressed form is given.
+     *
+     * @param ctx Request to respond to
+     * @param body The uncompressed body
+     * @param gzipBody The gzipped body, or null
+     * @param brotliBody The brotli-compressed body, or null
+     */
+    public void write(Context ctx, byte[] body, byte[] gzipBody, byte[] brotliBody) {
+        String acceptEncoding = ctx.header(Header.ACCEPT_ENCODING);
+        if (brotliBody != null && accepts(acceptEncoding, BROTLI)) {
+            ctx.header(Header.CONTENT_ENCODING, BROTLI);
+            ctx.result(brotliBody);
+        } else if (gzipBody != null && accepts(acceptEncoding, GZIP)) {
+            ctx.header(Header.CONTENT_ENCODING, GZIP);
+            ctx.result(gzipBody);
+        } else {
+            ctx.result(body);
+        }
+    }
+
+    public boolean isBrotliEnabled() {
+        return brotli;
+    }
+
+    boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        int parameters = contentType.indexOf(';');
+        String mimeType = (parameters < 0 ? contentType : contentType.substring(0, parameters)).trim()
+            .toLowerCase(Locale.ROOT);
+        return mimeTypes.contains(mimeType);
+    }
+
+    /**
+     * Whether an Accept-Encoding header accepts a content coding, explicitly or through "*",
+     * with a non-zero quality.
+     */
+    static boolean accepts(String acceptEncoding, String coding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String name = parts[0].trim();
+            if (!name.equalsIgnoreCase(coding) && !name.equals("*")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=") && parameter.substring(2).matches("0(\\.0*)?")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzipOut.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] brotli(byte[] body) {
+        try {
+            return Encoder.compress(body, new Encoder.Parameters().setQuality(precompressedBrotliLevel));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean brotliAvailable() {
+        try {
+            return Brotli4jLoader.isAvailable();
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * A body with its precompressed forms.
+     *
+     * @param body The uncompressed body
+     * @param gzip The gzipped body, or null
+     * @param brotli The brotli-compressed body, or null
+     */
+    public record Precompressed(byte[] body, byte[] gzip, byte[] brotli) {
+    }
+}
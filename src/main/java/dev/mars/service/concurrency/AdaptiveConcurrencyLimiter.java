@@ -0,0 +1,115 @@
+package dev.mars.service.concurrency;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * AIMD concurrency limiter driven by observed latency.
+ * The limit grows additively (roughly +1 per limit's worth of fast completions) while latency
+ * stays under the threshold and is cut multiplicatively as soon as a call is slow or fails,
+ * so the number of requests allowed into the database tracks what it can actually absorb.
+ *
+ * The limit is cut at most once per congestion episode: a slow or failed call only cuts it if the
+ * call started after the previous cut. A burst of slow calls that were all in flight together
+ * therefore costs one cut, as TCP reduces its window once per round trip, rather than one each.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final LongSupplier nanoClock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejections = new LongAdder();
+    private double limit;
+    private long lastDecreaseNanos;
+    private boolean decreased;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                                      long latencyThresholdMillis, double backoffRatio) {
+        this(name, initialLimit, minLimit, maxLimit, latencyThresholdMillis, backoffRatio, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                               long latencyThresholdMillis, double backoffRatio, LongSupplier nanoClock) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid limits for " + name + ": min=" + minLimit + ", max=" + maxLimit);
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMillis);
+        this.backoffRatio = backoffRatio;
+        this.nanoClock = nanoClock;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Tries to reserve a slot.
+     *
+     * @return true if the caller may proceed and must later call {@link #release}
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                rejections.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a slot and feeds the observed latency back into the limit.
+     *
+     * @param latencyNanos How long the protected call took
+     * @param failed Whether the call failed (treated as a congestion signal)
+     */
+    public void release(long latencyNanos, boolean failed) {
+        int outstanding = inFlight.getAndDecrement();
+        long now = nanoClock.getAsLong();
+        synchronized (this) {
+            if (failed || latencyNanos > latencyThresholdNanos) {
+                // Calls that were already running when the limit was last cut say nothing new
+                if (!decreased || now - latencyNanos - lastDecreaseNanos >= 0) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    lastDecreaseNanos = now;
+                    decreased = true;
+                }
+            } else if (outstanding * 2 >= limit) {
+                // Only probe upwards when the limit is actually being used
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejections() {
+        return rejections.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AdaptiveConcurrencyLimiter{name=%s, limit=%d, inFlight=%d, rejections=%d}",
+            name, getLimit(), getInFlight(), getRejections());
+    }
+}
@@ -0,0 +1,75 @@
+package dev.mars.service.concurrency;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import dev.mars.config.ApplicationProperties;
+import dev.mars.service.metrics.MetricsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Holds the named concurrency limiters (the database and each route group) and exports
+ * their limit, in-flight count and rejections through the metrics service.
+ */
+@Singleton
+public class ConcurrencyLimiterRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimiterRegistry.class);
+
+    public static final String DATABASE = "database";
+    public static final String USERS = "users";
+    public static final String TRADES = "trades";
+
+    private final ApplicationProperties.ConcurrencyConfig config;
+    private final MetricsService metricsService;
+    private final ConcurrentMap<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    @Inject
+    public ConcurrencyLimiterRegistry(ApplicationProperties properties, MetricsService metricsService) {
+        this.config = properties.getConcurrency();
+        this.metricsService = metricsService;
+        logger.info("Concurrency limiting {} (initial={}, min={}, max={}, latencyThreshold={}ms)",
+            config.isEnabled() ? "enabled" : "disabled", config.getInitialLimit(), config.getMinLimit(),
+            config.getMaxLimit(), config.getLatencyThresholdMs());
+    }
+
+    /**
+     * Gets (or lazily creates) the limiter for a name.
+     *
+     * @param name The limiter name
+     * @return The limiter, or null when concurrency limiting is disabled
+     */
+    public AdaptiveConcurrencyLimiter limiter(String name) {
+        if (!config.isEnabled()) {
+            return null;
+        }
+        return limiters.computeIfAbsent(name, this::createLimiter);
+    }
+
+    public Collection<AdaptiveConcurrencyLimiter> getLimiters() {
+        return limiters.values();
+    }
+
+    public int getRetryAfterSeconds() {
+        return config.getRetryAfterSeconds();
+    }
+
+    private AdaptiveConcurrencyLimiter createLimiter(String name) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(name, config.getInitialLimit(),
+            config.getMinLimit(), config.getMaxLimit(), config.getLatencyThresholdMs(), config.getBackoffRatio());
+
+        if (metricsService != null) {
+            metricsService.registerGauge("concurrency.limit", "Current adaptive concurrency limit",
+                limiter::getLimit, "limiter", name);
+            metricsService.registerGauge("concurrency.inflight", "Requests currently holding a concurrency permit",
+                limiter::getInFlight, "limiter", name);
+            metricsService.registerGauge("concurrency.rejections", "Requests rejected by the concurrency limiter",
+                limiter::getRejections, "limiter", name);
+        }
+        logger.debug("Created concurrency limiter: {}", limiter);
+        return limiter;
+    }
+}
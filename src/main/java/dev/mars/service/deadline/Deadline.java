@@ -0,0 +1,82 @@
+package dev.mars.service.deadline;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A point in time by which a request must be finished.
+ * Measured on the monotonic clock so it is unaffected by wall-clock adjustments.
+ */
+public final class Deadline {
+
+    private final long deadlineNanos;
+    // Deadline for work other requests may also wait on, such as a coalesced cache load
+    private final long sharedDeadlineNanos;
+
+    private Deadline(long deadlineNanos, long sharedDeadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+        this.sharedDeadlineNanos = sharedDeadlineNanos;
+    }
+
+    /**
+     * Creates a deadline the given duration from now.
+     *
+     * @param timeout The time budget
+     * @return The deadline
+     */
+    public static Deadline after(Duration timeout) {
+        return after(timeout, timeout);
+    }
+
+    /**
+     * Creates a deadline the given duration from now, whose shared work may run for longer.
+     *
+     * @param timeout The request's own time budget
+     * @param sharedTimeout The budget for work other requests may also wait on, at least the
+     *                      request's own
+     * @return The deadline
+     */
+    public static Deadline after(Duration timeout, Duration sharedTimeout) {
+        long now = System.nanoTime();
+        return new Deadline(now + timeout.toNanos(), now + Math.max(timeout.toNanos(), sharedTimeout.toNanos()));
+    }
+
+    /**
+     * Gets the deadline for work other requests may also wait on, which this request's own
+     * budget must not cut short.
+     *
+     * @return The deadline for shared work
+     */
+    public Deadline forSharedWork() {
+        return sharedDeadlineNanos == deadlineNanos ? this : new Deadline(sharedDeadlineNanos, sharedDeadlineNanos);
+    }
+
+    public long remainingNanos() {
+        return deadlineNanos - System.nanoTime();
+    }
+
+    public long remainingMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(remainingNanos());
+    }
+
+    public boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+
+    /**
+     * Gets the remaining budget as a JDBC query timeout, which only has second granularity.
+     * Rounds up so that a query is never cut off before the deadline actually passes.
+     *
+     * @return The remaining time in whole seconds, at least 1
+     */
+    public int remainingQueryTimeoutSeconds() {
+        long remaining = remainingNanos();
+        long seconds = (remaining + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, seconds));
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline{remaining=" + remainingMillis() + "ms}";
+    }
+}
@@ -0,0 +1,149 @@
+package dev.mars.service.deadline;
+
+import dev.mars.exception.DeadlineExceededException;
+import dev.mars.service.async.Futures;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Carries the current request's deadline through service and DAO calls.
+ * The deadline lives in a thread-local on the request thread and is handed over explicitly
+ * whenever work hops to another executor (see {@link #propagate(Supplier)}).
+ */
+public final class DeadlineContext {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private DeadlineContext() {
+    }
+
+    /**
+     * Gets the deadline of the request running on this thread.
+     *
+     * @return The deadline, or null if none is set
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    public static void set(Deadline deadline) {
+        CURRENT.set(deadline);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Fails fast if the current request has already run out of time.
+     *
+     * @param operation The operation about to start
+     * @throws DeadlineExceededException if the deadline has passed
+     */
+    public static void checkNotExpired(String operation) {
+        Deadline deadline = CURRENT.get();
+        if (deadline != null && deadline.isExpired()) {
+            throw new DeadlineExceededException("Request deadline exceeded before " + operation);
+        }
+    }
+
+    /**
+     * Applies the remaining request budget to a JDBC statement so the database cancels it
+     * once nobody is waiting for the result any more.
+     *
+     * @param statement The statement about to be executed
+     * @param operation The DAO operation name
+     * @throws SQLException if the timeout cannot be set
+     */
+    public static void applyQueryTimeout(Statement statement, String operation) throws SQLException {
+        Deadline deadline = CURRENT.get();
+        if (deadline == null) {
+            return;
+        }
+        checkNotExpired(operation);
+        statement.setQueryTimeout(deadline.remainingQueryTimeoutSeconds());
+    }
+
+    /**
+     * Wraps a task so that it runs under the caller's deadline on whatever thread executes it,
+     * and is skipped entirely if the deadline passes while the task is still queued.
+     *
+     * @param task The task to wrap
+     * @return The wrapped task
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        Deadline deadline = CURRENT.get();
+        if (deadline == null) {
+            return task;
+        }
+        return () -> {
+            if (deadline.isExpired()) {
+                throw new DeadlineExceededException("Request deadline exceeded while queued for the database");
+            }
+            Deadline previous = CURRENT.get();
+            CURRENT.set(deadline);
+            try {
+                return task.get();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+
+    /**
+     * Starts work other requests may also wait on, such as a coalesced cache load, under the
+     * deadline for shared work rather than the current request's own, so one caller's short
+     * timeout does not fail everyone waiting on the result. Each caller bounds its own wait with
+     * {@link #bound(CompletableFuture)}.
+     *
+     * @param task The task that starts the shared work
+     * @return The task's result
+     */
+    public static <T> T shared(Supplier<T> task) {
+        Deadline deadline = CURRENT.get();
+        if (deadline == null) {
+            return task.get();
+        }
+        CURRENT.set(deadline.forSharedWork());
+        try {
+            return task.get();
+        } finally {
+            CURRENT.set(deadline);
+        }
+    }
+
+    /**
+     * Bounds a wait on a future by the current deadline. The future itself is left running.
+     *
+     * @param future The future to wait on
+     * @return A future that fails with DeadlineExceededException if the deadline passes first
+     */
+    public static <T> CompletableFuture<T> bound(CompletableFuture<T> future) {
+        Deadline deadline = CURRENT.get();
+        if (deadline == null || future.isDone()) {
+            return future;
+        }
+        if (deadline.isExpired()) {
+            return CompletableFuture.failedFuture(new DeadlineExceededException("Request deadline exceeded"));
+        }
+
+        // The timeout is cancelled as soon as the copy completes, so finished waits hold no timer
+        return future.copy()
+            .orTimeout(deadline.remainingNanos(), TimeUnit.NANOSECONDS)
+            .exceptionallyCompose(throwable -> {
+                Throwable cause = Futures.unwrap(throwable);
+                return CompletableFuture.failedFuture(cause instanceof TimeoutException
+                    ? new DeadlineExceededException("Request deadline exceeded while waiting for a load")
+                    : cause);
+            });
+    }
+}
@@ -0,0 +1,59 @@
+package dev.mars.service.events;
+
+import dev.mars.dao.model.Trade;
+
+/**
+ * A committed change to a trade.
+ */
+public final class TradeEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Type type;
+    private final int tradeId;
+    private final Trade trade;
+
+    private TradeEvent(Type type, int tradeId, Trade trade) {
+        this.type = type;
+        this.tradeId = tradeId;
+        this.trade = trade;
+    }
+
+    public static TradeEvent created(Trade trade) {
+        return new TradeEvent(Type.CREATED, trade.getId(), trade);
+    }
+
+    public static TradeEvent updated(Trade trade) {
+        return new TradeEvent(Type.UPDATED, trade.getId(), trade);
+    }
+
+    public static TradeEvent deleted(int tradeId) {
+        return new TradeEvent(Type.DELETED, tradeId, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getTradeId() {
+        return tradeId;
+    }
+
+    /**
+     * Gets the trade as written.
+     *
+     * @return The trade, or null for deletions
+     */
+    public Trade getTrade() {
+        return trade;
+    }
+
+    @Override
+    public String toString() {
+        return "TradeEvent{type=" + type + ", tradeId=" + tradeId + "}";
+    }
+}
@@ -0,0 +1,9 @@
+package dev.mars.service.events;
+
+/**
+ * Receives trade changes after they have been written to the database.
+ */
+@FunctionalInterface
+public interface TradeEventListener {
+    void onTradeEvent(TradeEvent event);
+}
@@ -0,0 +1,38 @@
+package dev.mars.service.events;
+
+import com.google.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-process publisher for trade changes.
+ * Listeners are called synchronously on the writing thread, so they must be cheap;
+ * a failing listener is logged and does not affect the write or other listeners.
+ */
+@Singleton
+public class TradeEvents {
+    private static final Logger logger = LoggerFactory.getLogger(TradeEvents.class);
+
+    private final List<TradeEventListener> listeners = new CopyOnWriteArrayList<>();
+
+    public void subscribe(TradeEventListener listener) {
+        listeners.add(listener);
+    }
+
+    public void unsubscribe(TradeEventListener listener) {
+        listeners.remove(listener);
+    }
+
+    public void publish(TradeEvent event) {
+        for (TradeEventListener listener : listeners) {
+            try {
+                listener.onTradeEvent(event);
+            } catch (RuntimeException e) {
+                logger.warn("Trade event listener failed for {}", event, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package dev.mars.service.events;
+
+import dev.mars.dao.model.User;
+
+/**
+ * A committed change to a user.
+ */
+public final class UserEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Type type;
+    private final int userId;
+    private final User user;
+
+    private UserEvent(Type type, int userId, User user) {
+        this.type = type;
+        this.userId = userId;
+        this.user = user;
+    }
+
+    public static UserEvent created(User user) {
+        return new UserEvent(Type.CREATED, user.getId(), user);
+    }
+
+    public static UserEvent updated(User user) {
+        return new UserEvent(Type.UPDATED, user.getId(), user);
+    }
+
+    public static UserEvent deleted(int userId) {
+        return new UserEvent(Type.DELETED, userId, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    /**
+     * Gets the user as written.
+     *
+     * @return The user, or null for deletions
+     */
+    public User getUser() {
+        return user;
+    }
+
+    @Override
+    public String toString() {
+        return "UserEvent{type=" + type + ", userId=" + userId + "}";
+    }
+}
@@ -0,0 +1,9 @@
+package dev.mars.service.events;
+
+/**
+ * Receives user changes after they have been written to the database.
+ */
+@FunctionalInterface
+public interface UserEventListener {
+    void onUserEvent(UserEvent event);
+}
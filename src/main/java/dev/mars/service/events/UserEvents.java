@@ -0,0 +1,38 @@
+package dev.mars.service.events;
+
+import com.google.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-process publisher for user changes.
+ * Listeners are called synchronously on the writing thread, so they must be cheap;
+ * a failing listener is logged and does not affect the write or other listeners.
+ */
+@Singleton
+public class UserEvents {
+    private static final Logger logger = LoggerFactory.getLogger(UserEvents.class);
+
+    private final List<UserEventListener> listeners = new CopyOnWriteArrayList<>();
+
+    public void subscribe(UserEventListener listener) {
+        listeners.add(listener);
+    }
+
+    public void unsubscribe(UserEventListener listener) {
+        listeners.remove(listener);
+    }
+
+    public void publish(UserEvent event) {
+        for (UserEventListener listener : listeners) {
+            try {
+                listener.onUserEvent(event);
+            } catch (RuntimeException e) {
+                logger.warn("User event listener failed for {}", event, e);
+            }
+        }
+    }
+}
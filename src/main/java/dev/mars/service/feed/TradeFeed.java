@@ -0,0 +1,429 @@
+package dev.mars.service.feed;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import dev.mars.config.ApplicationProperties;
+import dev.mars.dao.model.Trade;
+import dev.mars.service.TradeService;
+import dev.mars.service.async.Futures;
+import dev.mars.service.events.TradeEvent;
+import dev.mars.service.events.TradeEventListener;
+import dev.mars.service.events.TradeEvents;
+import dev.mars.service.json.DomainJsonModule;
+import dev.mars.service.metrics.MetricsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes trade changes to subscribers of the live trade feed, so clients can stop polling
+ * the paginated trade list.
+ *
+ * Each committed change is queued for every subscriber whose filter it matches. Every
+ * {@code batch-interval-ms}, or as soon as {@code max-batch-size} changes are waiting, a
+ * subscriber's queue is drained into one {@code batch} message. Sends run on virtual threads, one
+ * at a time per subscriber, so a slow client only holds up itself. When a subscriber's queue of
+ * {@code queue-capacity} changes fills up, its queued changes are dropped and, depending on
+ * {@code overflow}, it is either sent a {@code snapshot} of the current matching trades in their
+ * place or disconnected.
+ *
+ * A snapshot holds the newest {@code snapshot-max-trades} matching trades, oldest first, read with
+ * one filtered query through the JDBC executor. If that query fails, for example because the
+ * database limit is reached, the snapshot is retried on the next flush.
+ *
+ * A filtered subscription remembers the last {@code snapshot-max-trades} trades it has been sent.
+ * When an update moves one of them out of the filter, the subscriber is sent a {@code REMOVED}
+ * event for it, so its view does not keep the old version. Older trades are forgotten, so memory
+ * stays bounded however long the subscriber stays connected.
+ *
+ * Messages are JSON: {@code {"type":"batch","events":[{"type":"CREATED","tradeId":1,"trade":{...}}]}}
+ * and {@code {"type":"snapshot","trades":[...]}}.
+ */
+@Singleton
+public class TradeFeed implements TradeEventListener, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(TradeFeed.class);
+    private static final String REMOVED = "REMOVED";
+
+    /**
+     * What happens to a subscriber whose queue is full.
+     */
+    public enum Overflow {
+        SNAPSHOT,
+        DISCONNECT;
+
+        /**
+         * The policy with a configuration name, such as {@code snapshot}.
+         *
+         * @throws IllegalArgumentException if there is no such policy
+         */
+        public static Overflow named(String name) {
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown feed overflow policy: " + name, e);
+            }
+        }
+    }
+
+    /**
+     * Reads the trades a snapshot starts from.
+     */
+    @FunctionalInterface
+    public interface SnapshotSource {
+
+        /**
+         * The newest trades matching a filter, highest id first.
+         */
+        CompletableFuture<List<Trade>> latest(TradeFeedFilter filter, int limit);
+    }
+
+    private final TradeEvents tradeEvents;
+    private final SnapshotSource snapshots;
+    private final MetricsService metricsService;
+    private final ObjectMapper mapper = DomainJsonModule.objectMapper();
+    private final int maxBatchSize;
+    private final int queueCapacity;
+    private final Overflow overflow;
+    private final int snapshotMaxTrades;
+    private final int maxSubscribers;
+    private final long heartbeatNanos;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService flusher;
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Inject
+    public TradeFeed(ApplicationProperties properties, TradeEvents tradeEvents, TradeService tradeService,
+                     MetricsService metricsService) {
+        this(tradeEvents, (filter, limit) -> tradeService.getLatestTradesAsync(filter.getSymbols(),
+            filter.getCounterparties(), limit), metricsService, properties.getFeed());
+    }
+
+    /**
+     * Creates a feed and subscribes it to trade changes.
+     *
+     * @param snapshots Reads the trades for snapshots
+     * @param config The feed settings
+     */
+    public TradeFeed(TradeEvents tradeEvents, SnapshotSource snapshots, MetricsService metricsService,
+                     ApplicationProperties.FeedConfig config) {
+        this.tradeEvents = tradeEvents;
+        this.snapshots = snapshots;
+        this.metricsService = metricsService;
+        this.maxBatchSize = config.getMaxBatchSize();
+        this.queueCapacity = config.getQueueCapacity();
+        this.overflow = Overflow.named(config.getOverflow());
+        this.snapshotMaxTrades = config.getSnapshotMaxTrades();
+        this.maxSubscribers = config.getMaxSubscribers();
+        this.heartbeatNanos = Duration.ofSeconds(config.getHeartbeatSeconds()).toNanos();
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "trade-feed-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, config.getBatchIntervalMs(), config.getBatchIntervalMs(),
+            TimeUnit.MILLISECONDS);
+        metricsService.registerGauge("feed.subscribers", "Live trade feed subscribers", subscriptions::size);
+        tradeEvents.subscribe(this);
+        logger.info("Trade feed started (overflow={}, queue capacity={})", overflow, queueCapacity);
+    }
+
+    /**
+     * Subscribes a client to the feed.
+     *
+     * @param filter Which trades to send
+     * @param sink Where to send them
+     * @param snapshot Whether to start with a snapshot of the current matching trades
+     * @return The subscription, or null if the feed already has {@code max-subscribers} subscribers
+     */
+    public Subscription subscribe(TradeFeedFilter filter, TradeFeedSink sink, boolean snapshot) {
+        Subscription subscription = new Subscription(filter, sink, queueCapacity, snapshotMaxTrades);
+        synchronized (subscriptions) {
+            if (subscriptions.size() >= maxSubscribers) {
+                metricsService.incrementCounter("feed.subscribers.rejected");
+                return null;
+            }
+            subscriptions.add(subscription);
+        }
+        logger.debug("Trade feed subscriber added: {}", filter);
+        if (snapshot) {
+            subscription.snapshotDue.set(true);
+            dispatch(subscription);
+        }
+        return subscription;
+    }
+
+    /**
+     * Stops sending to a subscription. The sink is not closed; the caller owns it.
+     */
+    public void unsubscribe(Subscription subscription) {
+        if (subscription != null && subscriptions.remove(subscription)) {
+            subscription.queue.clear();
+            logger.debug("Trade feed subscriber removed: {}", subscription.filter);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    @Override
+    public void onTradeEvent(TradeEvent event) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.filter.matches(event)) {
+                subscription.hold(event);
+            } else if (!subscription.mayHold(event.getTradeId())) {
+                continue;
+            }
+            if (!subscription.queue.offer(event)) {
+                overflow(subscription);
+            } else if (subscription.queue.size() >= maxBatchSize) {
+                dispatch(subscription);
+            }
+        }
+    }
+
+    /**
+     * Starts a send to every subscriber with queued changes, a snapshot due or a heartbeat due.
+     */
+    public void flush() {
+        long now = System.nanoTime();
+        for (Subscription subscription : subscriptions) {
+            if (!subscription.queue.isEmpty() || subscription.snapshotDue.get()
+                    || now - subscription.lastSent >= heartbeatNanos) {
+                dispatch(subscription);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        tradeEvents.unsubscribe(this);
+        flusher.shutdownNow();
+        for (Subscription subscription : List.copyOf(subscriptions)) {
+            drop(subscription);
+        }
+        senders.shutdown();
+    }
+
+    private void overflow(Subscription subscription) {
+        if (overflow == Overflow.DISCONNECT) {
+            logger.info("Disconnecting slow trade feed subscriber: {}", subscription.filter);
+            metricsService.incrementCounter("feed.subscribers.dropped", "reason", "overflow");
+            drop(subscription);
+            return;
+        }
+        // Everything queued is superseded by the snapshot, which is read after the queue is cleared
+        if (!subscription.snapshotDue.getAndSet(true)) {
+            logger.debug("Trade feed subscriber fell behind, sending a snapshot: {}", subscription.filter);
+        }
+        subscription.queue.clear();
+        dispatch(subscription);
+    }
+
+    private void dispatch(Subscription subscription) {
+        if (subscription.sending.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> deliver(subscription));
+            } catch (RuntimeException e) {
+                subscription.sending.set(false);
+            }
+        }
+    }
+
+    private void deliver(Subscription subscription) {
+        try {
+            if (subscription.snapshotDue.getAndSet(false)) {
+                subscription.queue.clear();
+                if (!sendSnapshot(subscription)) {
+                    return;
+                }
+            }
+            List<TradeEvent> batch = new ArrayList<>();
+            while (subscriptions.contains(subscription) && subscription.queue.drainTo(batch, maxBatchSize) > 0) {
+                sendBatch(subscription, batch);
+                batch.clear();
+            }
+            if (System.nanoTime() - subscription.lastSent >= heartbeatNanos) {
+                subscription.sink.heartbeat();
+                subscription.lastSent = System.nanoTime();
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Trade feed subscriber disconnected: {}", e.getMessage());
+            metricsService.incrementCounter("feed.subscribers.dropped", "reason", "closed");
+            drop(subscription);
+        } finally {
+            subscription.sending.set(false);
+        }
+    }
+
+    /**
+     * Sends a snapshot, or marks it due again if the trades cannot be read.
+     *
+     * @return Whether the snapshot was sent
+     */
+    private boolean sendSnapshot(Subscription subscription) throws IOException {
+        List<Trade> trades;
+        // Updates published while the snapshot is read are queued even if they leave the filter,
+        // since the snapshot may still hold the old version
+        subscription.snapshotting = true;
+        try {
+            trades = new ArrayList<>(snapshots.latest(subscription.filter, snapshotMaxTrades).join());
+            // Oldest first, which is also the order the held trades age in
+            Collections.reverse(trades);
+            if (subscription.held != null) {
+                subscription.held.clear();
+                trades.forEach(trade -> subscription.held.add(trade.getId()));
+                subscription.queue.forEach(subscription::hold);
+            }
+        } catch (RuntimeException e) {
+            logger.debug("Trade feed snapshot failed, retrying on the next flush: {}", Futures.unwrap(e).getMessage());
+            metricsService.incrementCounter("feed.snapshots.failed");
+            subscription.snapshotDue.set(true);
+            return false;
+        } finally {
+            subscription.snapshotting = false;
+        }
+        send(subscription, "snapshot", new SnapshotMessage("snapshot", trades));
+        metricsService.incrementCounter("feed.snapshots");
+        return true;
+    }
+
+    private void sendBatch(Subscription subscription, List<TradeEvent> batch) throws IOException {
+        List<EventMessage> events = new ArrayList<>(batch.size());
+        for (TradeEvent event : batch) {
+            EventMessage message = message(subscription, event);
+            if (message != null) {
+                events.add(message);
+            }
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+        send(subscription, "batch", new BatchMessage("batch", events));
+        metricsService.incrementCounterBy("feed.events.sent", events.size());
+    }
+
+    /**
+     * The message a subscriber is sent for a change, or null if the change does not concern it.
+     */
+    private static EventMessage message(Subscription subscription, TradeEvent event) {
+        int tradeId = event.getTradeId();
+        Set<Integer> held = subscription.held;
+        if (event.getType() == TradeEvent.Type.DELETED) {
+            if (held != null) {
+                held.remove(tradeId);
+            }
+            return new EventMessage(event.getType().name(), tradeId, null);
+        }
+        if (subscription.filter.matches(event.getTrade())) {
+            if (held != null) {
+                held.add(tradeId);
+            }
+            return new EventMessage(event.getType().name(), tradeId, event.getTrade());
+        }
+        // The trade has left the filter; only a subscriber that was sent it needs to drop it
+        return held != null && held.remove(tradeId) ? new EventMessage(REMOVED, tradeId, null) : null;
+    }
+
+    private void send(Subscription subscription, String type, Object message) throws IOException {
+        String json;
+        try {
+            json = mapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to encode trade feed " + type, e);
+        }
+        subscription.sink.send(type, json);
+        subscription.lastSent = System.nanoTime();
+    }
+
+    private void drop(Subscription subscription) {
+        unsubscribe(subscription);
+        try {
+            subscription.sink.close();
+        } catch (RuntimeException e) {
+            logger.debug("Failed to close trade feed subscriber", e);
+        }
+    }
+
+    /**
+     * A subscriber's filter, connection and queue of changes waiting to be sent.
+     */
+    public static final class Subscription {
+        private final TradeFeedFilter filter;
+        private final TradeFeedSink sink;
+        private final BlockingQueue<TradeEvent> queue;
+        private final AtomicBoolean snapshotDue = new AtomicBoolean();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        // Ids of the latest matching trades the subscriber was sent, least recent first; null when
+        // no trade can leave the filter
+        private final Set<Integer> held;
+        private volatile boolean snapshotting;
+        private volatile long lastSent = System.nanoTime();
+
+        private Subscription(TradeFeedFilter filter, TradeFeedSink sink, int capacity, int maxHeld) {
+            this.filter = filter;
+            this.sink = sink;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.held = filter.isAll() ? null : Collections.synchronizedSet(Collections.newSetFromMap(
+                new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<Integer, Boolean> eldest) {
+                        return size() > maxHeld;
+                    }
+                }));
+        }
+
+        /**
+         * Whether the subscriber may have been sent a trade, so a change taking it out of the
+         * filter has to be delivered.
+         */
+        private boolean mayHold(int tradeId) {
+            return held != null && (snapshotting || held.contains(tradeId));
+        }
+
+        /**
+         * Records a matching trade as sent once it is queued, so a later change taking it out of
+         * the filter is queued behind it.
+         */
+        private void hold(TradeEvent event) {
+            if (held != null && event.getType() != TradeEvent.Type.DELETED) {
+                held.add(event.getTradeId());
+            }
+        }
+
+        public TradeFeedFilter getFilter() {
+            return filter;
+        }
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record EventMessage(String type, int tradeId, Trade trade) {
+    }
+
+    record BatchMessage(String type, List<EventMessage> events) {
+    }
+
+    record SnapshotMessage(String type, List<Trade> trades) {
+    }
+}
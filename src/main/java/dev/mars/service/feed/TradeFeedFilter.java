@@ -0,0 +1,84 @@
+package dev.mars.service.feed;
+
+import dev.mars.dao.model.Trade;
+import dev.mars.service.events.TradeEvent;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Which trades a feed subscriber is sent: those with one of the given symbols and one of the given
+ * counterparties, compared ignoring case. An empty list matches everything.
+ *
+ * Deletions carry only the trade id, so they are sent to every subscriber; clients ignore ids
+ * they do not hold. The sets are held in lower case.
+ */
+public final class TradeFeedFilter {
+    private static final TradeFeedFilter ALL = new TradeFeedFilter(Set.of(), Set.of());
+
+    private final Set<String> symbols;
+    private final Set<String> counterparties;
+
+    private TradeFeedFilter(Set<String> symbols, Set<String> counterparties) {
+        this.symbols = symbols;
+        this.counterparties = counterparties;
+    }
+
+    public static TradeFeedFilter all() {
+        return ALL;
+    }
+
+    /**
+     * Parses comma-separated {@code symbol} and {@code counterparty} query parameters.
+     *
+     * @param symbols Symbols to match, or null for all
+     * @param counterparties Counterparties to match, or null for all
+     */
+    public static TradeFeedFilter of(String symbols, String counterparties) {
+        return new TradeFeedFilter(parse(symbols), parse(counterparties));
+    }
+
+    /**
+     * Whether this filter matches every trade, so no trade can leave it.
+     */
+    public boolean isAll() {
+        return symbols.isEmpty() && counterparties.isEmpty();
+    }
+
+    public Set<String> getSymbols() {
+        return symbols;
+    }
+
+    public Set<String> getCounterparties() {
+        return counterparties;
+    }
+
+    public boolean matches(TradeEvent event) {
+        return event.getType() == TradeEvent.Type.DELETED || matches(event.getTrade());
+    }
+
+    public boolean matches(Trade trade) {
+        return matches(symbols, trade.getSymbol()) && matches(counterparties, trade.getCounterparty());
+    }
+
+    private static boolean matches(Set<String> values, String value) {
+        return values.isEmpty() || (value != null && values.contains(value.toLowerCase(Locale.ROOT)));
+    }
+
+    private static Set<String> parse(String list) {
+        if (list == null || list.isBlank()) {
+            return Set.of();
+        }
+        return Arrays.stream(list.split(","))
+            .map(value -> value.trim().toLowerCase(Locale.ROOT))
+            .filter(value -> !value.isEmpty())
+            .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public String toString() {
+        return "TradeFeedFilter{symbols=" + symbols + ", counterparties=" + counterparties + "}";
+    }
+}
@@ -0,0 +1,32 @@
+package dev.mars.service.feed;
+
+import java.io.IOException;
+
+/**
+ * The connection a feed subscriber receives its messages on, such as an SSE stream or a WebSocket.
+ * Sends for one subscriber never overlap, and may block while the client is slow to read.
+ */
+public interface TradeFeedSink {
+
+    /**
+     * Sends one feed message.
+     *
+     * @param type The message type, {@code batch}, {@code snapshot} or {@code error}
+     * @param json The message as JSON; it carries its type as well
+     * @throws IOException if the connection has gone
+     */
+    void send(String type, String json) throws IOException;
+
+    /**
+     * Tells the client the connection is alive while there is nothing to send.
+     *
+     * @throws IOException if the connection has gone
+     */
+    default void heartbeat() throws IOException {
+    }
+
+    /**
+     * Closes the connection. Called when the subscriber is dropped or the feed shuts down.
+     */
+    void close();
+}
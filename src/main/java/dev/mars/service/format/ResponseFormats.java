@@ -0,0 +1,183 @@
+package dev.mars.service.format;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import dev.mars.config.ApplicationProperties;
+import io.javalin.http.BadRequestResponse;
+import io.javalin.http.Context;
+import io.javalin.http.Header;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Content negotiation between JSON and the binary formats CBOR, Smile and MessagePack.
+ *
+ * A response is written in the offered format the Accept header rates highest; wildcards, a
+ * missing header or one naming only formats not offered get JSON, as before. A request body is read
+ * in the format its Content-Type names, or as JSON. JSON bodies are still written and read through
+ * Javalin's JSON mapper, so JSON clients see no difference except a {@code Vary: Accept} header
+ * once a binary format is offered. Error responses stay JSON.
+ */
+@Singleton
+public class ResponseFormats {
+    private final Set<WireFormat> offered;
+    private final Map<WireFormat, ObjectMapper> mappers = new EnumMap<>(WireFormat.class);
+
+    /**
+     * Offers every format.
+     */
+    public ResponseFormats() {
+        this(Arrays.asList(WireFormat.values()));
+    }
+
+    @Inject
+    public ResponseFormats(ApplicationProperties properties) {
+        this(properties.getApi().getFormats().stream().map(WireFormat::named).toList());
+    }
+
+    private ResponseFormats(List<WireFormat> formats) {
+        this.offered = EnumSet.of(WireFormat.JSON);
+        this.offered.addAll(formats);
+        for (WireFormat format : offered) {
+            mappers.put(format, format.newMapper());
+        }
+    }
+
+    /**
+     * The format to respond to a request in.
+     */
+    public WireFormat negotiate(Context ctx) {
+        if (offered.size() == 1) {
+            return WireFormat.JSON;
+        }
+        String accept = ctx.header(Header.ACCEPT);
+        if (accept == null || accept.isBlank()) {
+            return WireFormat.JSON;
+        }
+        WireFormat best = WireFormat.JSON;
+        double bestQuality = 0;
+        for (String range : accept.split(",")) {
+            String[] parts = range.split(";");
+            WireFormat format = formatOf(parts[0], true);
+            double quality = quality(parts);
+            if (format != null && quality > bestQuality) {
+                best = format;
+                bestQuality = quality;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * The format a request body is in, from its Content-Type.
+     */
+    public WireFormat requestFormat(Context ctx) {
+        String contentType = ctx.contentType();
+        if (contentType == null) {
+            return WireFormat.JSON;
+        }
+        WireFormat format = formatOf(contentType.split(";", 2)[0], false);
+        return format == null ? WireFormat.JSON : format;
+    }
+
+    /**
+     * Writes a response object in the negotiated format.
+     *
+     * @param ctx Request to respond to
+     * @param value The response object
+     */
+    public void write(Context ctx, Object value) {
+        WireFormat format = negotiate(ctx);
+        vary(ctx, false);
+        if (format == WireFormat.JSON) {
+            ctx.json(value);
+            return;
+        }
+        ctx.contentType(format.mediaType());
+        ctx.result(serialize(format, value));
+    }
+
+    /**
+     * Reads a request body in the format its Content-Type names.
+     *
+     * @throws BadRequestResponse if a binary body cannot be decoded
+     */
+    public <T> T read(Context ctx, Class<T> type) {
+        WireFormat format = requestFormat(ctx);
+        if (format == WireFormat.JSON) {
+            return ctx.bodyAsClass(type);
+        }
+        try {
+            return mappers.get(format).readValue(ctx.bodyAsBytes(), type);
+        } catch (JsonProcessingException e) {
+            throw new BadRequestResponse("Invalid " + format.mediaType() + " body: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Encodes a response object.
+     */
+    public byte[] serialize(WireFormat format, Object value) {
+        try {
+            return mappers.get(format).writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode response as " + format.mediaType(), e);
+        }
+    }
+
+    /**
+     * Sets the Vary header of a negotiated response.
+     *
+     * @param ctx Request to respond to
+     * @param acceptEncoding Whether the body also depends on Accept-Encoding
+     */
+    public void vary(Context ctx, boolean acceptEncoding) {
+        boolean accept = offered.size() > 1;
+        if (accept || acceptEncoding) {
+            ctx.header(Header.VARY, accept && acceptEncoding ? Header.ACCEPT + ", " + Header.ACCEPT_ENCODING
+                : accept ? Header.ACCEPT : Header.ACCEPT_ENCODING);
+        }
+    }
+
+    /**
+     * The offered format a media type names, or null; wildcards name JSON when allowed.
+     */
+    private WireFormat formatOf(String mediaType, boolean wildcards) {
+        String type = mediaType.trim().toLowerCase(Locale.ROOT);
+        if (wildcards && (type.equals("*/*") || type.equals("application/*"))) {
+            return WireFormat.JSON;
+        }
+        for (WireFormat format : offered) {
+            if (format.isNamedBy(type)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    return 1.0;
+                }
+            }
+        }
+        return 1.0;
+    }
+}
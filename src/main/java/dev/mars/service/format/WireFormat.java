@@ -0,0 +1,73 @@
+package dev.mars.service.format;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import dev.mars.service.json.DomainJsonModule;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * A representation the API can encode its DTOs in. Every format is written through Jackson with
+ * the {@link DomainJsonModule} serializers, so requests and responses share the same DTOs and
+ * field names in every format.
+ */
+public enum WireFormat {
+    JSON("application/json", List.of(), DomainJsonModule::objectMapper),
+    CBOR("application/cbor", List.of(), () -> binary(new CBORMapper())),
+    SMILE("application/x-jackson-smile", List.of(), () -> binary(new SmileMapper())),
+    MSGPACK("application/msgpack", List.of("application/x-msgpack", "application/vnd.msgpack"),
+        () -> binary(new ObjectMapper(new MessagePackFactory())));
+
+    private final String mediaType;
+    private final List<String> aliases;
+    private final Supplier<ObjectMapper> mapperFactory;
+
+    WireFormat(String mediaType, List<String> aliases, Supplier<ObjectMapper> mapperFactory) {
+        this.mediaType = mediaType;
+        this.aliases = aliases;
+        this.mapperFactory = mapperFactory;
+    }
+
+    /**
+     * The media type responses in this format are labelled with.
+     */
+    public String mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Whether a media type, without parameters and in lower case, names this format.
+     */
+    boolean isNamedBy(String type) {
+        return mediaType.equals(type) || aliases.contains(type);
+    }
+
+    /**
+     * A new object mapper for this format, with the domain serializers registered.
+     */
+    public ObjectMapper newMapper() {
+        return mapperFactory.get();
+    }
+
+    /**
+     * The format with a configuration name, such as {@code cbor}.
+     *
+     * @throws IllegalArgumentException if there is no such format
+     */
+    public static WireFormat named(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown response format: " + name, e);
+        }
+    }
+
+    private static ObjectMapper binary(ObjectMapper mapper) {
+        return mapper.registerModule(new JavaTimeModule()).registerModule(new DomainJsonModule());
+    }
+}
@@ -0,0 +1,117 @@
+package dev.mars.service.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import dev.mars.config.ApplicationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Bounded, time-windowed store of idempotency keys and the responses they produced.
+ *
+ * The first request for a key claims it and runs; requests arriving with the same key while it
+ * runs wait on the owner's result instead of executing again. Once the owner completes, retries
+ * within the window get the stored response. If the owner fails with a server error it abandons
+ * the key, so a retry or a waiting duplicate can try again. Under extreme key volume the size bound
+ * may evict a key before its window ends, after which a retry would execute again.
+ */
+@Singleton
+public class IdempotencyStore {
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    private final Cache<String, Entry> entries;
+    private final boolean enabled;
+
+    @Inject
+    public IdempotencyStore(ApplicationProperties properties) {
+        ApplicationProperties.IdempotencyConfig config = properties.getIdempotency();
+        this.enabled = config.isEnabled();
+        this.entries = Caffeine.newBuilder()
+            .maximumSize(config.getMaxEntries())
+            .expireAfterWrite(Duration.ofSeconds(config.getWindowSeconds()))
+            .build();
+        logger.info("Idempotency store initialized (enabled={}, window={}s, max entries={})",
+            enabled, config.getWindowSeconds(), config.getMaxEntries());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Claims a key for a request, or joins the request that already holds it.
+     *
+     * @param key The scoped idempotency key
+     * @param fingerprint Fingerprint of the request payload
+     * @return The claim; {@link Claim#isOwner()} tells whether the caller should execute the request
+     */
+    public Claim claim(String key, String fingerprint) {
+        Entry candidate = new Entry(fingerprint);
+        Entry existing = entries.asMap().putIfAbsent(key, candidate);
+        return existing == null ? new Claim(key, candidate, true) : new Claim(key, existing, false);
+    }
+
+    /**
+     * Records the response of an owned claim and releases anyone waiting on it.
+     *
+     * @param claim The owned claim
+     * @param response The response to replay for retries
+     */
+    public void complete(Claim claim, StoredResponse response) {
+        claim.entry.result.complete(response);
+    }
+
+    /**
+     * Gives up an owned claim so that the key can be used again.
+     * Waiting duplicates are released with no response and should claim again.
+     *
+     * @param claim The owned claim
+     */
+    public void abandon(Claim claim) {
+        entries.asMap().remove(claim.key, claim.entry);
+        claim.entry.result.complete(null);
+    }
+
+    public long size() {
+        return entries.estimatedSize();
+    }
+
+    /**
+     * A request's hold on an idempotency key.
+     */
+    public static final class Claim {
+        private final String key;
+        private final Entry entry;
+        private final boolean owner;
+
+        private Claim(String key, Entry entry, boolean owner) {
+            this.key = key;
+            this.entry = entry;
+            this.owner = owner;
+        }
+
+        public boolean isOwner() { return owner; }
+        public String getFingerprint() { return entry.fingerprint; }
+
+        /**
+         * Gets the owner's outcome.
+         *
+         * @return Future completing with the stored response, or with null if the owner abandoned the key
+         */
+        public CompletableFuture<StoredResponse> result() { return entry.result; }
+    }
+
+    private static final class Entry {
+        final String fingerprint;
+        final CompletableFuture<StoredResponse> result = new CompletableFuture<>();
+
+        Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
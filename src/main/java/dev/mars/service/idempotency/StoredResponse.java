@@ -0,0 +1,20 @@
+package dev.mars.service.idempotency;
+
+/**
+ * The response recorded for an idempotent request, replayed verbatim on retries.
+ */
+public final class StoredResponse {
+    private final int status;
+    private final String contentType;
+    private final byte[] body;
+
+    public StoredResponse(int status, String contentType, byte[] body) {
+        this.status = status;
+        this.contentType = contentType;
+        this.body = body;
+    }
+
+    public int getStatus() { return status; }
+    public String getContentType() { return contentType; }
+    public byte[] getBody() { return body; }
+}
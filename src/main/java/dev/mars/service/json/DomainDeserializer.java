@@ -0,0 +1,62 @@
+package dev.mars.service.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Base of the hand-written deserializers: walks an object's fields and leaves each value to
+ * {@link #readField}, with the coercion and unknown-property handling of Jackson's bean
+ * deserializer.
+ */
+abstract class DomainDeserializer<T> extends StdDeserializer<T> {
+
+    DomainDeserializer(Class<T> type) {
+        super(type);
+    }
+
+    /**
+     * A new, empty instance to read fields into.
+     */
+    abstract T create();
+
+    /**
+     * Reads the value at the parser's current token into the named field.
+     *
+     * @return false if the type has no such field
+     */
+    abstract boolean readField(JsonParser p, DeserializationContext ctxt, T value, String name) throws IOException;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (!p.isExpectedStartObjectToken()) {
+            return (T) ctxt.handleUnexpectedToken(handledType(), p);
+        }
+        T value = create();
+        for (String name = p.nextFieldName(); name != null; name = p.nextFieldName()) {
+            p.nextToken();
+            if (!readField(p, ctxt, value, name)) {
+                handleUnknownProperty(p, ctxt, value, name);
+            }
+        }
+        return value;
+    }
+
+    static String readString(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_STRING) {
+            return p.getText();
+        }
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token.isScalarValue()) {
+            return p.getValueAsString();
+        }
+        return (String) ctxt.handleUnexpectedToken(String.class, p);
+    }
+}
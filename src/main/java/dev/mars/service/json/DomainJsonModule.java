@@ -0,0 +1,41 @@
+package dev.mars.service.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import dev.mars.dao.model.Trade;
+import dev.mars.dao.model.User;
+import io.javalin.json.JavalinJackson;
+
+/**
+ * Hand-written serializers for the types the API returns most: trades, users and pages of them.
+ *
+ * Jackson's bean serializers find properties reflectively and call getters through generic
+ * property writers; list endpoints spend a large share of their CPU there, and in formatting
+ * dates through {@link java.time.format.DateTimeFormatter}. These write each field directly,
+ * with precomputed field names and the {@link IsoDates} fast path, into the generator's recycled
+ * buffers. The output is byte for byte what the bean serializers write; dates follow
+ * {@link com.fasterxml.jackson.databind.SerializationFeature#WRITE_DATES_AS_TIMESTAMPS} as
+ * Jackson's own date serializer does. Trades and users are read back by hand as well; other types
+ * keep the bean serializers.
+ *
+ * See {@code JsonSerializationBenchmark} for the difference.
+ */
+public class DomainJsonModule extends SimpleModule {
+
+    public DomainJsonModule() {
+        super(DomainJsonModule.class.getSimpleName());
+        addSerializer(new TradeJson.Serializer());
+        addSerializer(new UserJson.Serializer());
+        addSerializer(new PageResponseJson.Serializer());
+        addSerializer(new PageResponseJson.MetadataSerializer());
+        addDeserializer(Trade.class, new TradeJson.Deserializer());
+        addDeserializer(User.class, new UserJson.Deserializer());
+    }
+
+    /**
+     * Javalin's default object mapper with this module registered, as used for API responses.
+     */
+    public static ObjectMapper objectMapper() {
+        return JavalinJackson.defaultMapper().registerModule(new DomainJsonModule());
+    }
+}
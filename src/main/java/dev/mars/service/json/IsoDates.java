@@ -0,0 +1,114 @@
+package dev.mars.service.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateDeserializer;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+/**
+ * Writes and reads {@link LocalDate}s as ISO-8601 strings ({@code yyyy-MM-dd}) without going
+ * through {@link java.time.format.DateTimeFormatter}.
+ *
+ * When {@link SerializationFeature#WRITE_DATES_AS_TIMESTAMPS} is enabled, as it is on Javalin's
+ * default mapper, dates are written as {@code [2024,1,15]} arrays instead, exactly as Jackson's
+ * own date serializer writes them. Otherwise they are written digit by digit into a per-thread buffer that the generator copies straight
+ * into its output. Reading parses the parser's own character buffer in place. Anything the fast
+ * path does not cover, such as years outside 0000-9999, other string forms or the
+ * {@code [2024,1,15]} arrays the API used to write, is handed to Jackson's own date deserializer,
+ * so accepted input and error messages are unchanged.
+ */
+final class IsoDates {
+    private static final int LENGTH = 10;
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[LENGTH]);
+
+    private IsoDates() {
+    }
+
+    static void write(LocalDate date, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (date == null) {
+            gen.writeNull();
+            return;
+        }
+        if (provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)) {
+            gen.writeStartArray();
+            gen.writeNumber(date.getYear());
+            gen.writeNumber(date.getMonthValue());
+            gen.writeNumber(date.getDayOfMonth());
+            gen.writeEndArray();
+            return;
+        }
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            gen.writeString(date.toString());
+            return;
+        }
+        char[] buffer = BUFFER.get();
+        buffer[0] = digit(year / 1000);
+        buffer[1] = digit(year / 100 % 10);
+        buffer[2] = digit(year / 10 % 10);
+        buffer[3] = digit(year % 10);
+        buffer[4] = '-';
+        buffer[5] = digit(date.getMonthValue() / 10);
+        buffer[6] = digit(date.getMonthValue() % 10);
+        buffer[7] = '-';
+        buffer[8] = digit(date.getDayOfMonth() / 10);
+        buffer[9] = digit(date.getDayOfMonth() % 10);
+        gen.writeString(buffer, 0, LENGTH);
+    }
+
+    /**
+     * Reads the date at the parser's current token.
+     */
+    static LocalDate read(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (p.currentToken() == JsonToken.VALUE_STRING && p.getTextLength() == LENGTH) {
+            LocalDate date = parse(p.getTextCharacters(), p.getTextOffset());
+            if (date != null) {
+                return date;
+            }
+        }
+        return LocalDateDeserializer.INSTANCE.deserialize(p, ctxt);
+    }
+
+    private static LocalDate parse(char[] text, int offset) {
+        if (text[offset + 4] != '-' || text[offset + 7] != '-') {
+            return null;
+        }
+        int year = number(text, offset, 4);
+        int month = number(text, offset + 5, 2);
+        int day = number(text, offset + 8, 2);
+        if (year < 0 || month < 0 || day < 0) {
+            return null;
+        }
+        try {
+            return LocalDate.of(year, month, day);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    private static int number(char[] text, int offset, int digits) {
+        int value = 0;
+        for (int i = offset; i < offset + digits; i++) {
+            int digit = text[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static char digit(int value) {
+        return (char) ('0' + value);
+    }
+}
@@ -0,0 +1,122 @@
+package dev.mars.service.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import dev.mars.dto.PageResponse;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * JSON form of {@link PageResponse} and its metadata, field for field what Jackson's bean
+ * serializer writes.
+ */
+final class PageResponseJson {
+    private static final SerializableString CONTENT = new SerializedString("content");
+    private static final SerializableString METADATA = new SerializedString("metadata");
+    private static final SerializableString PAGE = new SerializedString("page");
+    private static final SerializableString SIZE = new SerializedString("size");
+    private static final SerializableString TOTAL_ELEMENTS = new SerializedString("totalElements");
+    private static final SerializableString NUMBER_OF_ELEMENTS = new SerializedString("numberOfElements");
+    private static final SerializableString TOTAL_PAGES = new SerializedString("totalPages");
+    private static final SerializableString FIRST = new SerializedString("first");
+    private static final SerializableString LAST = new SerializedString("last");
+    private static final SerializableString HAS_NEXT = new SerializedString("hasNext");
+    private static final SerializableString HAS_PREVIOUS = new SerializedString("hasPrevious");
+    private static final SerializableString TOTAL_ELEMENTS_LOWER_BOUND = new SerializedString("totalElementsLowerBound");
+
+    private PageResponseJson() {
+    }
+
+    /**
+     * Writes the content elements with the serializer of their class, looked up once per run of
+     * elements of the same class rather than once per element.
+     */
+    @SuppressWarnings("rawtypes")
+    static final class Serializer extends StdSerializer<PageResponse> {
+
+        Serializer() {
+            super(PageResponse.class);
+        }
+
+        @Override
+        public void serialize(PageResponse page, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(page);
+            gen.writeFieldName(CONTENT);
+            writeContent(page.getContent(), gen, provider);
+            gen.writeFieldName(METADATA);
+            PageResponse.PageMetadata metadata = page.getMetadata();
+            if (metadata == null) {
+                gen.writeNull();
+            } else {
+                MetadataSerializer.write(metadata, gen);
+            }
+            gen.writeEndObject();
+        }
+
+        private static void writeContent(List<?> content, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            if (content == null) {
+                gen.writeNull();
+                return;
+            }
+            gen.writeStartArray(content, content.size());
+            Class<?> elementType = null;
+            JsonSerializer<Object> serializer = null;
+            for (Object element : content) {
+                if (element == null) {
+                    provider.defaultSerializeNull(gen);
+                    continue;
+                }
+                if (element.getClass() != elementType) {
+                    elementType = element.getClass();
+                    serializer = provider.findValueSerializer(elementType);
+                }
+                serializer.serialize(element, gen, provider);
+            }
+            gen.writeEndArray();
+        }
+    }
+
+    static final class MetadataSerializer extends StdSerializer<PageResponse.PageMetadata> {
+
+        MetadataSerializer() {
+            super(PageResponse.PageMetadata.class);
+        }
+
+        @Override
+        public void serialize(PageResponse.PageMetadata metadata, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            write(metadata, gen);
+        }
+
+        static void write(PageResponse.PageMetadata metadata, JsonGenerator gen) throws IOException {
+            gen.writeStartObject(metadata);
+            gen.writeFieldName(PAGE);
+            gen.writeNumber(metadata.getPage());
+            gen.writeFieldName(SIZE);
+            gen.writeNumber(metadata.getSize());
+            gen.writeFieldName(TOTAL_ELEMENTS);
+            gen.writeNumber(metadata.getTotalElements());
+            gen.writeFieldName(NUMBER_OF_ELEMENTS);
+            gen.writeNumber(metadata.getNumberOfElements());
+            gen.writeFieldName(TOTAL_PAGES);
+            gen.writeNumber(metadata.getTotalPages());
+            gen.writeFieldName(FIRST);
+            gen.writeBoolean(metadata.isFirst());
+            gen.writeFieldName(LAST);
+            gen.writeBoolean(metadata.isLast());
+            gen.writeFieldName(HAS_NEXT);
+            gen.writeBoolean(metadata.isHasNext());
+            gen.writeFieldName(HAS_PREVIOUS);
+            gen.writeBoolean(metadata.isHasPrevious());
+            gen.writeFieldName(TOTAL_ELEMENTS_LOWER_BOUND);
+            gen.writeBoolean(metadata.isTotalElementsLowerBound());
+            gen.writeEndObject();
+        }
+    }
+}
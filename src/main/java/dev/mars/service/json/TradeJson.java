@@ -0,0 +1,97 @@
+package dev.mars.service.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import dev.mars.dao.model.Trade;
+
+import java.io.IOException;
+
+/**
+ * JSON form of {@link Trade}, field for field what Jackson's bean serializer writes, with dates
+ * as ISO strings.
+ */
+final class TradeJson {
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString SYMBOL = new SerializedString("symbol");
+    private static final SerializableString QUANTITY = new SerializedString("quantity");
+    private static final SerializableString PRICE = new SerializedString("price");
+    private static final SerializableString TYPE = new SerializedString("type");
+    private static final SerializableString STATUS = new SerializedString("status");
+    private static final SerializableString TRADE_DATE = new SerializedString("tradeDate");
+    private static final SerializableString SETTLEMENT_DATE = new SerializedString("settlementDate");
+    private static final SerializableString COUNTERPARTY = new SerializedString("counterparty");
+    private static final SerializableString NOTES = new SerializedString("notes");
+
+    private TradeJson() {
+    }
+
+    static final class Serializer extends StdSerializer<Trade> {
+
+        Serializer() {
+            super(Trade.class);
+        }
+
+        @Override
+        public void serialize(Trade trade, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(trade);
+            gen.writeFieldName(ID);
+            gen.writeNumber(trade.getId());
+            gen.writeFieldName(SYMBOL);
+            gen.writeString(trade.getSymbol());
+            gen.writeFieldName(QUANTITY);
+            gen.writeNumber(trade.getQuantity());
+            gen.writeFieldName(PRICE);
+            gen.writeNumber(trade.getPrice());
+            gen.writeFieldName(TYPE);
+            gen.writeString(trade.getType());
+            gen.writeFieldName(STATUS);
+            gen.writeString(trade.getStatus());
+            gen.writeFieldName(TRADE_DATE);
+            IsoDates.write(trade.getTradeDate(), gen, provider);
+            gen.writeFieldName(SETTLEMENT_DATE);
+            IsoDates.write(trade.getSettlementDate(), gen, provider);
+            gen.writeFieldName(COUNTERPARTY);
+            gen.writeString(trade.getCounterparty());
+            gen.writeFieldName(NOTES);
+            gen.writeString(trade.getNotes());
+            gen.writeEndObject();
+        }
+    }
+
+    static final class Deserializer extends DomainDeserializer<Trade> {
+
+        Deserializer() {
+            super(Trade.class);
+        }
+
+        @Override
+        Trade create() {
+            return new Trade();
+        }
+
+        @Override
+        boolean readField(JsonParser p, DeserializationContext ctxt, Trade trade, String name) throws IOException {
+            switch (name) {
+                case "id" -> trade.setId(_parseIntPrimitive(p, ctxt));
+                case "symbol" -> trade.setSymbol(readString(p, ctxt));
+                case "quantity" -> trade.setQuantity(_parseIntPrimitive(p, ctxt));
+                case "price" -> trade.setPrice(_parseDoublePrimitive(p, ctxt));
+                case "type" -> trade.setType(readString(p, ctxt));
+                case "status" -> trade.setStatus(readString(p, ctxt));
+                case "tradeDate" -> trade.setTradeDate(IsoDates.read(p, ctxt));
+                case "settlementDate" -> trade.setSettlementDate(IsoDates.read(p, ctxt));
+                case "counterparty" -> trade.setCounterparty(readString(p, ctxt));
+                case "notes" -> trade.setNotes(readString(p, ctxt));
+                default -> {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
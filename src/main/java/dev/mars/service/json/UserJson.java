@@ -0,0 +1,68 @@
+package dev.mars.service.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import dev.mars.dao.model.User;
+
+import java.io.IOException;
+
+/**
+ * JSON form of {@link User}, field for field what Jackson's bean serializer writes.
+ */
+final class UserJson {
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString EMAIL = new SerializedString("email");
+
+    private UserJson() {
+    }
+
+    static final class Serializer extends StdSerializer<User> {
+
+        Serializer() {
+            super(User.class);
+        }
+
+        @Override
+        public void serialize(User user, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(user);
+            gen.writeFieldName(ID);
+            gen.writeNumber(user.getId());
+            gen.writeFieldName(NAME);
+            gen.writeString(user.getName());
+            gen.writeFieldName(EMAIL);
+            gen.writeString(user.getEmail());
+            gen.writeEndObject();
+        }
+    }
+
+    static final class Deserializer extends DomainDeserializer<User> {
+
+        Deserializer() {
+            super(User.class);
+        }
+
+        @Override
+        User create() {
+            return new User();
+        }
+
+        @Override
+        boolean readField(JsonParser p, DeserializationContext ctxt, User user, String name) throws IOException {
+            switch (name) {
+                case "id" -> user.setId(_parseIntPrimitive(p, ctxt));
+                case "name" -> user.setName(readString(p, ctxt));
+                case "email" -> user.setEmail(readString(p, ctxt));
+                default -> {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -4,6 +4,8 @@ import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import dev.mars.config.ApplicationProperties;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import io.micrometer.prometheus.PrometheusConfig;
@@ -14,6 +16,7 @@ import org.slf4j.LoggerFactory;
 import java.time.Duration;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
 
 /**
  * Service for managing application metrics and monitoring.
@@ -25,6 +28,8 @@ public class MetricsService {
     private final MeterRegistry meterRegistry;
     private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
     private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> histograms = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
     private final boolean metricsEnabled;
 
     @Inject
@@ -55,9 +60,7 @@ public class MetricsService {
         getCounter("trades.updated", "Total trades updated");
         getCounter("trades.deleted", "Total trades deleted");
         
-        // Cache metrics
-        getCounter("cache.hits", "Cache hits");
-        getCounter("cache.misses", "Cache misses");
+        // Cache metrics (hit, miss and load counters are tagged by region and created on first use)
         getTimer("cache.operation.duration", "Cache operation duration");
         
         logger.debug("Default metrics initialized");
@@ -73,13 +76,31 @@ public class MetricsService {
         if (!metricsEnabled) return;
         
         try {
-            getCounter(name, "Counter metric").increment();
+            getCounter(name, "Counter metric", tags).increment();
             logger.trace("Incremented counter: {}", name);
         } catch (Exception e) {
             logger.warn("Failed to increment counter: {}", name, e);
         }
     }
 
+    /**
+     * Increments a counter metric by an amount.
+     * 
+     * @param name The metric name
+     * @param amount The amount to add
+     * @param tags Optional tags as key-value pairs
+     */
+    public void incrementCounterBy(String name, double amount, String... tags) {
+        if (!metricsEnabled) return;
+        
+        try {
+            getCounter(name, "Counter metric", tags).increment(amount);
+            logger.trace("Incremented counter: {} by {}", name, amount);
+        } catch (Exception e) {
+            logger.warn("Failed to increment counter: {}", name, e);
+        }
+    }
+
     /**
      * Records a timer metric.
      * 
@@ -91,13 +112,62 @@ public class MetricsService {
         if (!metricsEnabled) return;
         
         try {
-            getTimer(name, "Timer metric").record(duration);
+            getTimer(name, "Timer metric", tags).record(duration);
             logger.trace("Recorded timer: {} with duration: {}", name, duration);
         } catch (Exception e) {
             logger.warn("Failed to record timer: {}", name, e);
         }
     }
 
+    /**
+     * Records a duration into a latency histogram, publishing percentile buckets so that
+     * tail latencies can be aggregated across instances.
+     *
+     * @param name The metric name
+     * @param duration The duration to record
+     * @param tags Optional tags as key-value pairs
+     */
+    public void recordHistogram(String name, Duration duration, String... tags) {
+        if (!metricsEnabled) return;
+
+        try {
+            histograms.computeIfAbsent(meterKey(name, tags), key ->
+                Timer.builder(name)
+                    .description("Latency histogram")
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry)
+            ).record(duration);
+            logger.trace("Recorded histogram: {} with duration: {}", name, duration);
+        } catch (Exception e) {
+            logger.warn("Failed to record histogram: {}", name, e);
+        }
+    }
+
+    /**
+     * Records a value into a distribution summary.
+     *
+     * @param name The metric name
+     * @param amount The value to record
+     * @param tags Optional tags as key-value pairs
+     */
+    public void recordDistribution(String name, double amount, String... tags) {
+        if (!metricsEnabled) return;
+
+        try {
+            summaries.computeIfAbsent(meterKey(name, tags), key ->
+                DistributionSummary.builder(name)
+                    .description("Distribution metric")
+                    .tags(tags)
+                    .register(meterRegistry)
+            ).record(amount);
+            logger.trace("Recorded distribution: {} with amount: {}", name, amount);
+        } catch (Exception e) {
+            logger.warn("Failed to record distribution: {}", name, e);
+        }
+    }
+
     /**
      * Times an operation and records the duration.
      * 
@@ -125,6 +195,28 @@ public class MetricsService {
         }
     }
 
+    /**
+     * Registers a gauge that samples its value from a supplier on every scrape.
+     *
+     * @param name The metric name
+     * @param description The metric description
+     * @param supplier Supplies the current value
+     * @param tags Optional tags as key-value pairs
+     */
+    public void registerGauge(String name, String description, Supplier<Number> supplier, String... tags) {
+        if (!metricsEnabled) return;
+
+        try {
+            Gauge.builder(name, supplier)
+                .description(description)
+                .tags(tags)
+                .register(meterRegistry);
+            logger.trace("Registered gauge: {}", name);
+        } catch (Exception e) {
+            logger.warn("Failed to register gauge: {}", name, e);
+        }
+    }
+
     /**
      * Gets the Prometheus metrics as a string.
      * 
@@ -138,22 +230,28 @@ public class MetricsService {
         return ((PrometheusMeterRegistry) meterRegistry).scrape();
     }
 
-    private Counter getCounter(String name, String description) {
-        return counters.computeIfAbsent(name, key -> 
-            Counter.builder(key)
+    private Counter getCounter(String name, String description, String... tags) {
+        return counters.computeIfAbsent(meterKey(name, tags), key ->
+            Counter.builder(name)
                 .description(description)
+                .tags(tags)
                 .register(meterRegistry)
         );
     }
 
-    private Timer getTimer(String name, String description) {
-        return timers.computeIfAbsent(name, key ->
-            Timer.builder(key)
+    private Timer getTimer(String name, String description, String... tags) {
+        return timers.computeIfAbsent(meterKey(name, tags), key ->
+            Timer.builder(name)
                 .description(description)
+                .tags(tags)
                 .register(meterRegistry)
         );
     }
 
+    private static String meterKey(String name, String... tags) {
+        return tags.length == 0 ? name : name + "|" + String.join("|", tags);
+    }
+
     @FunctionalInterface
     public interface TimedOperation<T> {
         T execute() throws Exception;
@@ -0,0 +1,138 @@
+package dev.mars.service.search;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import dev.mars.dao.model.Trade;
+import dev.mars.dao.model.User;
+import dev.mars.service.events.TradeEvent;
+import dev.mars.service.events.TradeEventListener;
+import dev.mars.service.events.TradeEvents;
+import dev.mars.service.events.UserEvent;
+import dev.mars.service.events.UserEventListener;
+import dev.mars.service.events.UserEvents;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Typeahead over distinct trade symbols (ranked by number of trades) and user names
+ * (ranked by number of users with that name).
+ * Built at startup and maintained incrementally from trade and user events.
+ */
+@Singleton
+public class AutocompleteService implements TradeEventListener, UserEventListener {
+    private static final Logger logger = LoggerFactory.getLogger(AutocompleteService.class);
+
+    public static final int MAX_SUGGESTIONS = 50;
+
+    private final PrefixIndex symbols = new PrefixIndex();
+    private final PrefixIndex userNames = new PrefixIndex();
+    private final Map<Integer, String> symbolByTradeId = new ConcurrentHashMap<>();
+    private final Map<Integer, String> nameByUserId = new ConcurrentHashMap<>();
+    private final Object tradeLock = new Object();
+    private final Object userLock = new Object();
+
+    @Inject
+    public AutocompleteService(TradeEvents tradeEvents, UserEvents userEvents) {
+        tradeEvents.subscribe(this);
+        userEvents.subscribe(this);
+    }
+
+    /**
+     * Rebuilds both indexes from the full trade and user lists.
+     *
+     * @param trades All trades
+     * @param users All users
+     */
+    public void rebuild(Collection<Trade> trades, Collection<User> users) {
+        synchronized (tradeLock) {
+            symbolByTradeId.clear();
+            trades.parallelStream()
+                .filter(trade -> trade.getSymbol() != null)
+                .forEach(trade -> symbolByTradeId.put(trade.getId(), trade.getSymbol()));
+            symbols.rebuild(countValues(symbolByTradeId));
+        }
+        synchronized (userLock) {
+            nameByUserId.clear();
+            users.parallelStream()
+                .filter(user -> user.getName() != null)
+                .forEach(user -> nameByUserId.put(user.getId(), user.getName()));
+            userNames.rebuild(countValues(nameByUserId));
+        }
+        logger.info("Autocomplete indexes rebuilt: {} symbols, {} user names", symbols.size(), userNames.size());
+    }
+
+    /**
+     * Suggests symbols starting with the prefix, most traded first.
+     *
+     * @param prefix The prefix typed so far
+     * @param limit Maximum number of suggestions
+     * @param buffer Receives the suggestions
+     * @return The number of suggestions
+     */
+    public int suggestSymbols(String prefix, int limit, PrefixIndex.Buffer buffer) {
+        return symbols.lookup(prefix, limit, buffer);
+    }
+
+    /**
+     * Suggests user names starting with the prefix, most common first.
+     *
+     * @param prefix The prefix typed so far
+     * @param limit Maximum number of suggestions
+     * @param buffer Receives the suggestions
+     * @return The number of suggestions
+     */
+    public int suggestUserNames(String prefix, int limit, PrefixIndex.Buffer buffer) {
+        return userNames.lookup(prefix, limit, buffer);
+    }
+
+    @Override
+    public void onTradeEvent(TradeEvent event) {
+        synchronized (tradeLock) {
+            switch (event.getType()) {
+                case CREATED -> track(symbols, symbolByTradeId, event.getTradeId(), event.getTrade().getSymbol());
+                case UPDATED -> {
+                    if (symbolByTradeId.containsKey(event.getTradeId())) {
+                        track(symbols, symbolByTradeId, event.getTradeId(), event.getTrade().getSymbol());
+                    }
+                }
+                case DELETED -> symbols.decrement(symbolByTradeId.remove(event.getTradeId()));
+            }
+        }
+    }
+
+    @Override
+    public void onUserEvent(UserEvent event) {
+        synchronized (userLock) {
+            switch (event.getType()) {
+                case CREATED -> track(userNames, nameByUserId, event.getUserId(), event.getUser().getName());
+                case UPDATED -> {
+                    if (nameByUserId.containsKey(event.getUserId())) {
+                        track(userNames, nameByUserId, event.getUserId(), event.getUser().getName());
+                    }
+                }
+                case DELETED -> userNames.decrement(nameByUserId.remove(event.getUserId()));
+            }
+        }
+    }
+
+    private static void track(PrefixIndex index, Map<Integer, String> valueById, int id, String value) {
+        String previous = value != null ? valueById.put(id, value) : valueById.remove(id);
+        if (!Objects.equals(previous, value)) {
+            index.decrement(previous);
+            index.increment(value);
+        }
+    }
+
+    private static Map<String, Long> countValues(Map<Integer, String> valueById) {
+        Map<String, Long> counts = valueById.values().parallelStream()
+            .collect(Collectors.groupingByConcurrent(value -> value, Collectors.counting()));
+        return new HashMap<>(counts);
+    }
+}
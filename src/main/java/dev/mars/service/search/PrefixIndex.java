@@ -0,0 +1,221 @@
+package dev.mars.service.search;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Case-insensitive prefix index of distinct values with occurrence counts.
+ *
+ * Values live in a sorted array snapshot that readers use without locking; adding a new value
+ * or dropping one whose count reached zero swaps in a new snapshot, while count changes for
+ * existing values are applied in place. Lookups binary-search the prefix range and select the
+ * most frequent values into a caller-supplied {@link Buffer}, so they do not allocate.
+ */
+public class PrefixIndex {
+
+    private static final Snapshot EMPTY = new Snapshot(new String[0], new String[0], new int[0]);
+
+    private final Object writeLock = new Object();
+    private volatile Snapshot snapshot = EMPTY;
+
+    /**
+     * Replaces the contents of the index.
+     *
+     * @param valueCounts Occurrence count per value
+     */
+    public void rebuild(Map<String, ? extends Number> valueCounts) {
+        TreeMap<String, String> displayByKey = new TreeMap<>();
+        TreeMap<String, Integer> countByKey = new TreeMap<>();
+        valueCounts.forEach((value, count) -> {
+            if (value != null && count.intValue() > 0) {
+                String key = normalize(value);
+                displayByKey.putIfAbsent(key, value);
+                countByKey.merge(key, count.intValue(), Integer::sum);
+            }
+        });
+
+        String[] keys = countByKey.keySet().toArray(new String[0]);
+        String[] values = new String[keys.length];
+        int[] counts = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            values[i] = displayByKey.get(keys[i]);
+            counts[i] = countByKey.get(keys[i]);
+        }
+        synchronized (writeLock) {
+            snapshot = new Snapshot(keys, values, counts);
+        }
+    }
+
+    /**
+     * Records one more occurrence of a value.
+     *
+     * @param value The value
+     */
+    public void increment(String value) {
+        if (value == null) {
+            return;
+        }
+        String key = normalize(value);
+        synchronized (writeLock) {
+            Snapshot current = snapshot;
+            int index = Arrays.binarySearch(current.keys, key);
+            if (index >= 0) {
+                current.counts.incrementAndGet(index);
+                return;
+            }
+            int insertAt = -index - 1;
+            int length = current.keys.length;
+            String[] keys = new String[length + 1];
+            String[] values = new String[length + 1];
+            int[] counts = new int[length + 1];
+            for (int i = 0, j = 0; i <= length; i++) {
+                if (i == insertAt) {
+                    keys[i] = key;
+                    values[i] = value;
+                    counts[i] = 1;
+                } else {
+                    keys[i] = current.keys[j];
+                    values[i] = current.values[j];
+                    counts[i] = current.counts.get(j);
+                    j++;
+                }
+            }
+            snapshot = new Snapshot(keys, values, counts);
+        }
+    }
+
+    /**
+     * Records one occurrence fewer of a value, removing it when none are left.
+     *
+     * @param value The value
+     */
+    public void decrement(String value) {
+        if (value == null) {
+            return;
+        }
+        String key = normalize(value);
+        synchronized (writeLock) {
+            Snapshot current = snapshot;
+            int index = Arrays.binarySearch(current.keys, key);
+            if (index < 0 || current.counts.decrementAndGet(index) > 0) {
+                return;
+            }
+            int length = current.keys.length;
+            String[] keys = new String[length - 1];
+            String[] values = new String[length - 1];
+            int[] counts = new int[length - 1];
+            for (int i = 0, j = 0; i < length; i++) {
+                if (i != index) {
+                    keys[j] = current.keys[i];
+                    values[j] = current.values[i];
+                    counts[j] = current.counts.get(i);
+                    j++;
+                }
+            }
+            snapshot = new Snapshot(keys, values, counts);
+        }
+    }
+
+    /**
+     * Finds the most frequent values starting with the prefix, ignoring case.
+     * Ties are broken alphabetically.
+     *
+     * @param prefix The prefix; empty matches everything
+     * @param limit Maximum number of suggestions, at most the buffer capacity
+     * @param buffer Receives the suggestions, most frequent first
+     * @return The number of suggestions written to the buffer
+     */
+    public int lookup(String prefix, int limit, Buffer buffer) {
+        Snapshot current = snapshot;
+        int wanted = Math.min(limit, buffer.capacity());
+        if (wanted <= 0) {
+            return 0;
+        }
+
+        int filled = 0;
+        for (int i = lowerBound(current.keys, prefix); i < current.keys.length; i++) {
+            String key = current.keys[i];
+            if (!key.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                break;
+            }
+            int count = current.counts.get(i);
+            if (count <= 0 || (filled == wanted && count <= buffer.counts[filled - 1])) {
+                continue;
+            }
+            int position = filled < wanted ? filled++ : filled - 1;
+            while (position > 0 && buffer.counts[position - 1] < count) {
+                buffer.values[position] = buffer.values[position - 1];
+                buffer.counts[position] = buffer.counts[position - 1];
+                position--;
+            }
+            buffer.values[position] = current.values[i];
+            buffer.counts[position] = count;
+        }
+        return filled;
+    }
+
+    public int size() {
+        return snapshot.keys.length;
+    }
+
+    private static int lowerBound(String[] keys, String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareToPrefix(keys[mid], prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int compareToPrefix(String key, String prefix) {
+        int length = Math.min(key.length(), prefix.length());
+        for (int i = 0; i < length; i++) {
+            int diff = key.charAt(i) - Character.toLowerCase(prefix.charAt(i));
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return key.length() - prefix.length();
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Reusable output arrays for lookups; keep one per thread.
+     */
+    public static final class Buffer {
+        private final String[] values;
+        private final int[] counts;
+
+        public Buffer(int capacity) {
+            this.values = new String[capacity];
+            this.counts = new int[capacity];
+        }
+
+        public int capacity() { return values.length; }
+        public String value(int index) { return values[index]; }
+        public int count(int index) { return counts[index]; }
+    }
+
+    private static final class Snapshot {
+        final String[] keys;
+        final String[] values;
+        final AtomicIntegerArray counts;
+
+        Snapshot(String[] keys, String[] values, int[] counts) {
+            this.keys = keys;
+            this.values = values;
+            this.counts = new AtomicIntegerArray(counts);
+        }
+    }
+}
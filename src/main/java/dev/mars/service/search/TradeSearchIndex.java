@@ -0,0 +1,663 @@
+package dev.mars.service.search;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import dev.mars.dao.model.Trade;
+import dev.mars.service.events.TradeEvent;
+import dev.mars.service.events.TradeEventListener;
+import dev.mars.service.events.TradeEvents;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory inverted index over trade notes and counterparty names.
+ *
+ * Each term maps to a posting list of trade ids (kept sorted) with a per-trade weight, where
+ * counterparty occurrences weigh more than notes. Queries are AND-ed word by word; a word also
+ * matches indexed terms it is a prefix of, so partial counterparty names work. Matches are scored
+ * with a simple tf-idf, each word counting once with the best of the terms it matched, and ranked
+ * by score, newest trade first on ties.
+ *
+ * The rarest word drives candidate selection. Its posting lists are walked backwards, newest trade
+ * first, into a fixed-size heap of the best {@code offset + limit} candidates; once the heap is
+ * full and its weakest entry scores at least the best score any trade could reach, no older trade
+ * can displace it and scoring stops. A common term whose matches mostly score the same is then
+ * answered after a page's worth of trades. When the query is a single word with a single posting
+ * list, the match count is the list length; otherwise the remaining candidates are counted without
+ * being scored, up to {@link #TOTAL_COUNT_THRESHOLD} matches, beyond which the total is reported
+ * as a lower bound.
+ *
+ * The index is rebuilt in parallel at startup and kept current from {@link TradeEvents}.
+ */
+@Singleton
+public class TradeSearchIndex implements TradeEventListener {
+    private static final Logger logger = LoggerFactory.getLogger(TradeSearchIndex.class);
+
+    static final int NOTES_WEIGHT = 1;
+    static final int COUNTERPARTY_WEIGHT = 3;
+    static final int MIN_PREFIX_LENGTH = 2;
+    static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final float PREFIX_MATCH_BOOST = 0.5f;
+    private static final int REBUILD_CHUNK_SIZE = 8192;
+    static final int TOTAL_COUNT_THRESHOLD = 1000;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private NavigableMap<String, Postings> terms = new TreeMap<>();
+    private Map<Integer, Trade> documents = new HashMap<>();
+
+    @Inject
+    public TradeSearchIndex(TradeEvents tradeEvents) {
+        tradeEvents.subscribe(this);
+    }
+
+    /**
+     * Replaces the index contents with the given trades, tokenizing in parallel.
+     *
+     * @param trades All trades
+     */
+    public void rebuild(Collection<Trade> trades) {
+        long start = System.nanoTime();
+        List<Trade> sorted = new ArrayList<>(trades);
+        sorted.sort(Comparator.comparingInt(Trade::getId));
+
+        // Chunks cover contiguous id ranges, so merging them in order keeps posting lists sorted
+        int chunks = Math.max(1, (sorted.size() + REBUILD_CHUNK_SIZE - 1) / REBUILD_CHUNK_SIZE);
+        List<Map<String, Postings>> partials = IntStream.range(0, chunks)
+            .parallel()
+            .mapToObj(chunk -> buildPartial(sorted.subList(
+                chunk * REBUILD_CHUNK_SIZE, Math.min(sorted.size(), (chunk + 1) * REBUILD_CHUNK_SIZE))))
+            .toList();
+
+        Map<String, Postings> merged = new HashMap<>();
+        for (Map<String, Postings> partial : partials) {
+            partial.forEach((term, postings) -> merged.merge(term, postings, Postings::appendAll));
+        }
+        Map<Integer, Trade> newDocuments = new HashMap<>(sorted.size() * 4 / 3 + 1);
+        for (Trade trade : sorted) {
+            newDocuments.put(trade.getId(), trade);
+        }
+        NavigableMap<String, Postings> newTerms = new TreeMap<>(merged);
+
+        lock.writeLock().lock();
+        try {
+            terms = newTerms;
+            documents = newDocuments;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Trade search index rebuilt: {} trades, {} terms in {}ms",
+            newDocuments.size(), newTerms.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    @Override
+    public void onTradeEvent(TradeEvent event) {
+        switch (event.getType()) {
+            case CREATED -> index(event.getTrade());
+            // Only updates to stored trades are published, so an update for a trade the index has
+            // not seen (e.g. created during a rebuild) adds it
+            case UPDATED -> index(event.getTrade());
+            case DELETED -> remove(event.getTradeId());
+        }
+    }
+
+    /**
+     * Adds or replaces a trade in the index.
+     *
+     * @param trade The trade
+     */
+    public void index(Trade trade) {
+        Map<String, Integer> weights = termWeights(trade);
+        lock.writeLock().lock();
+        try {
+            Trade previous = documents.put(trade.getId(), trade);
+            if (previous != null) {
+                removeTerms(previous);
+            }
+            weights.forEach((term, weight) -> terms.computeIfAbsent(term, t -> new Postings()).add(trade.getId(), weight));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a trade from the index.
+     *
+     * @param tradeId The trade id
+     */
+    public void remove(int tradeId) {
+        lock.writeLock().lock();
+        try {
+            Trade previous = documents.remove(tradeId);
+            if (previous != null) {
+                removeTerms(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(int tradeId) {
+        lock.readLock().lock();
+        try {
+            return documents.containsKey(tradeId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Searches notes and counterparty for all words of the query.
+     *
+     * @param query Free text query
+     * @param offset Number of ranked results to skip
+     * @param limit Maximum number of results to return
+     * @return The page of ranked results and the total number of matches
+     */
+    public SearchResult search(String query, int offset, int limit) {
+        List<String> words = new ArrayList<>(tokenize(query));
+        if (words.isEmpty() || limit <= 0) {
+            return SearchResult.EMPTY;
+        }
+
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            List<TermMatch[]> matches = new ArrayList<>(words.size());
+            for (String word : words) {
+                TermMatch[] wordMatches = expand(word, documentCount);
+                if (wordMatches.length == 0) {
+                    return SearchResult.EMPTY;
+                }
+                matches.add(wordMatches);
+            }
+            matches.sort(Comparator.comparingLong(TradeSearchIndex::documentFrequency));
+            return rank(matches, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private SearchResult rank(List<TermMatch[]> matches, int offset, int limit) {
+        float bestPossible = 0;
+        for (TermMatch[] wordMatches : matches) {
+            float wordBest = 0;
+            for (TermMatch match : wordMatches) {
+                wordBest = Math.max(wordBest, match.postings.maxWeight * match.boost);
+            }
+            bestPossible += wordBest;
+        }
+
+        ReverseUnion candidates = new ReverseUnion(matches.get(0));
+        ReverseUnion[] others = new ReverseUnion[matches.size() - 1];
+        for (int w = 0; w < others.length; w++) {
+            others[w] = new ReverseUnion(matches.get(w + 1));
+        }
+        TopK top = new TopK((int) Math.min(Integer.MAX_VALUE - 8, (long) offset + limit));
+        long total = 0;
+        boolean totalIsLowerBound = false;
+        while (candidates.next()) {
+            float score = candidates.score;
+            for (int w = 0; w < others.length && score > 0; w++) {
+                float wordScore = others[w].scoreOf(candidates.doc);
+                score = wordScore > 0 ? score + wordScore : 0;
+            }
+            if (score <= 0) {
+                continue;
+            }
+            total++;
+            top.offer(candidates.doc, score);
+            if (top.isFull() && top.minScore() >= bestPossible) {
+                total += countRemaining(candidates, others, Math.max(0, TOTAL_COUNT_THRESHOLD - total));
+                totalIsLowerBound = !candidates.isExhausted();
+                break;
+            }
+        }
+        return top.page(offset, total, totalIsLowerBound, documents);
+    }
+
+    /**
+     * Counts the remaining matches, stopping at {@code limit} unless they are the rest of a single
+     * posting list.
+     */
+    private static long countRemaining(ReverseUnion candidates, ReverseUnion[] others, long limit) {
+        if (others.length == 0 && candidates.lists.length == 1) {
+            return candidates.remainingInSingleList();
+        }
+        long count = 0;
+        while (count < limit && candidates.next()) {
+            boolean matchesAll = true;
+            for (int w = 0; w < others.length && matchesAll; w++) {
+                matchesAll = others[w].scoreOf(candidates.doc) > 0;
+            }
+            if (matchesAll) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private TermMatch[] expand(String word, int documentCount) {
+        List<TermMatch> result = new ArrayList<>();
+        Postings exact = terms.get(word);
+        if (exact != null) {
+            result.add(new TermMatch(exact, idf(documentCount, exact.size)));
+        }
+        if (word.length() >= MIN_PREFIX_LENGTH) {
+            for (Postings postings : terms.subMap(word, false, word + Character.MAX_VALUE, false).values()) {
+                if (result.size() >= MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+                result.add(new TermMatch(postings, idf(documentCount, postings.size) * PREFIX_MATCH_BOOST));
+            }
+        }
+        return result.toArray(new TermMatch[0]);
+    }
+
+    private static long documentFrequency(TermMatch[] matches) {
+        long total = 0;
+        for (TermMatch match : matches) {
+            total += match.postings.size;
+        }
+        return total;
+    }
+
+    private static float idf(int documentCount, int documentFrequency) {
+        return (float) Math.log(1.0 + (double) documentCount / Math.max(1, documentFrequency));
+    }
+
+    private void removeTerms(Trade trade) {
+        for (String term : termWeights(trade).keySet()) {
+            Postings postings = terms.get(term);
+            if (postings != null && postings.remove(trade.getId()) && postings.size == 0) {
+                terms.remove(term);
+            }
+        }
+    }
+
+    private static Map<String, Postings> buildPartial(List<Trade> trades) {
+        Map<String, Postings> partial = new HashMap<>();
+        for (Trade trade : trades) {
+            termWeights(trade).forEach((term, weight) ->
+                partial.computeIfAbsent(term, t -> new Postings()).add(trade.getId(), weight));
+        }
+        return partial;
+    }
+
+    private static Map<String, Integer> termWeights(Trade trade) {
+        Map<String, Integer> weights = new HashMap<>();
+        for (String term : tokenizeAll(trade.getNotes())) {
+            weights.merge(term, NOTES_WEIGHT, Integer::sum);
+        }
+        for (String term : tokenizeAll(trade.getCounterparty())) {
+            weights.merge(term, COUNTERPARTY_WEIGHT, Integer::sum);
+        }
+        return weights;
+    }
+
+    static Set<String> tokenize(String text) {
+        return new LinkedHashSet<>(tokenizeAll(text));
+    }
+
+    private static List<String> tokenizeAll(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * A page of search results.
+     */
+    public static class SearchResult {
+        static final SearchResult EMPTY = new SearchResult(Collections.emptyList(), 0);
+
+        private final List<Trade> trades;
+        private final long totalMatches;
+        private final boolean totalIsLowerBound;
+
+        public SearchResult(List<Trade> trades, long totalMatches) {
+            this(trades, totalMatches, false);
+        }
+
+        public SearchResult(List<Trade> trades, long totalMatches, boolean totalIsLowerBound) {
+            this.trades = trades;
+            this.totalMatches = totalMatches;
+            this.totalIsLowerBound = totalIsLowerBound;
+        }
+
+        public List<Trade> getTrades() { return trades; }
+        public long getTotalMatches() { return totalMatches; }
+
+        /**
+         * Whether counting stopped at {@link TradeSearchIndex#TOTAL_COUNT_THRESHOLD} and there may
+         * be more matches than {@link #getTotalMatches()}.
+         */
+        public boolean isTotalLowerBound() { return totalIsLowerBound; }
+    }
+
+    private static final class TermMatch {
+        final Postings postings;
+        final float boost;
+
+        TermMatch(Postings postings, float boost) {
+            this.postings = postings;
+            this.boost = boost;
+        }
+    }
+
+    /**
+     * Sorted trade ids with the term weight for each.
+     */
+    private static final class Postings {
+        int[] docs = new int[4];
+        int[] weights = new int[4];
+        int size;
+        // Upper bound on the weights in the list; not lowered on removal
+        int maxWeight;
+
+        void add(int doc, int weight) {
+            maxWeight = Math.max(maxWeight, weight);
+            if (size == 0 || docs[size - 1] < doc) {
+                ensureCapacity(size + 1);
+                docs[size] = doc;
+                weights[size] = weight;
+                size++;
+                return;
+            }
+            int index = Arrays.binarySearch(docs, 0, size, doc);
+            if (index >= 0) {
+                weights[index] = weight;
+                return;
+            }
+            int insertAt = -index - 1;
+            ensureCapacity(size + 1);
+            System.arraycopy(docs, insertAt, docs, insertAt + 1, size - insertAt);
+            System.arraycopy(weights, insertAt, weights, insertAt + 1, size - insertAt);
+            docs[insertAt] = doc;
+            weights[insertAt] = weight;
+            size++;
+        }
+
+        boolean remove(int doc) {
+            int index = Arrays.binarySearch(docs, 0, size, doc);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(docs, index + 1, docs, index, size - index - 1);
+            System.arraycopy(weights, index + 1, weights, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        /**
+         * The last index at or before {@code from} whose trade id is at most {@code doc}, or -1.
+         * Gallops backwards, so a sequence of descending lookups costs little more than a merge.
+         */
+        int seekBackward(int from, int doc) {
+            if (from < 0 || docs[from] <= doc) {
+                return from;
+            }
+            int high = from;
+            int step = 1;
+            int low = from - step;
+            while (low >= 0 && docs[low] > doc) {
+                high = low;
+                step <<= 1;
+                low = from - step;
+            }
+            // docs[high] > doc, and docs[low] <= doc when low >= 0
+            int found = Arrays.binarySearch(docs, Math.max(low, 0), high, doc);
+            if (found >= 0) {
+                return found;
+            }
+            return -found - 2;
+        }
+
+        Postings appendAll(Postings other) {
+            ensureCapacity(size + other.size);
+            System.arraycopy(other.docs, 0, docs, size, other.size);
+            System.arraycopy(other.weights, 0, weights, size, other.size);
+            size += other.size;
+            maxWeight = Math.max(maxWeight, other.maxWeight);
+            return this;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > docs.length) {
+                int newLength = Math.max(capacity, docs.length * 2);
+                docs = Arrays.copyOf(docs, newLength);
+                weights = Arrays.copyOf(weights, newLength);
+            }
+        }
+    }
+
+    /**
+     * Walks the union of one word's posting lists from the newest trade to the oldest, scoring each
+     * trade with the best boosted weight of the lists it appears in. Lookups through {@link #scoreOf}
+     * move the same positions, so a union serves either one walk or one series of descending lookups.
+     */
+    private static final class ReverseUnion {
+        final TermMatch[] lists;
+        final int[] positions;
+        int doc;
+        float score;
+
+        ReverseUnion(TermMatch[] lists) {
+            this.lists = lists;
+            this.positions = new int[lists.length];
+            for (int m = 0; m < lists.length; m++) {
+                positions[m] = lists[m].postings.size - 1;
+            }
+        }
+
+        boolean next() {
+            if (lists.length == 1) {
+                int position = positions[0];
+                if (position < 0) {
+                    return false;
+                }
+                Postings postings = lists[0].postings;
+                doc = postings.docs[position];
+                score = postings.weights[position] * lists[0].boost;
+                positions[0] = position - 1;
+                return true;
+            }
+            int newest = -1;
+            boolean found = false;
+            for (int m = 0; m < lists.length; m++) {
+                if (positions[m] >= 0) {
+                    int candidate = lists[m].postings.docs[positions[m]];
+                    if (!found || candidate > newest) {
+                        newest = candidate;
+                        found = true;
+                    }
+                }
+            }
+            if (!found) {
+                return false;
+            }
+            float best = 0;
+            for (int m = 0; m < lists.length; m++) {
+                int position = positions[m];
+                if (position >= 0 && lists[m].postings.docs[position] == newest) {
+                    best = Math.max(best, lists[m].postings.weights[position] * lists[m].boost);
+                    positions[m] = position - 1;
+                }
+            }
+            doc = newest;
+            score = best;
+            return true;
+        }
+
+        /**
+         * The boosted weight of a trade no newer than the last one looked up, or 0 if it does not
+         * match.
+         */
+        float scoreOf(int doc) {
+            float best = 0;
+            for (int m = 0; m < lists.length; m++) {
+                Postings postings = lists[m].postings;
+                int position = postings.seekBackward(positions[m], doc);
+                positions[m] = position;
+                if (position >= 0 && postings.docs[position] == doc) {
+                    best = Math.max(best, postings.weights[position] * lists[m].boost);
+                }
+            }
+            return best;
+        }
+
+        int remainingInSingleList() {
+            return positions[0] + 1;
+        }
+
+        boolean isExhausted() {
+            for (int position : positions) {
+                if (position >= 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The best candidates seen so far, as a binary min-heap over parallel primitive arrays with
+     * the lowest score, then the oldest trade, at the root.
+     */
+    private static final class TopK {
+        final int capacity;
+        int[] docs;
+        float[] scores;
+        int size;
+
+        TopK(int capacity) {
+            this.capacity = capacity;
+            int initial = Math.min(capacity, 64);
+            this.docs = new int[initial];
+            this.scores = new float[initial];
+        }
+
+        boolean isFull() {
+            return size == capacity;
+        }
+
+        float minScore() {
+            return scores[0];
+        }
+
+        void offer(int doc, float score) {
+            if (size < capacity) {
+                if (size == docs.length) {
+                    int newLength = (int) Math.min(capacity, docs.length * 2L);
+                    docs = Arrays.copyOf(docs, newLength);
+                    scores = Arrays.copyOf(scores, newLength);
+                }
+                docs[size] = doc;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (ranksAbove(score, doc, scores[0], docs[0])) {
+                docs[0] = doc;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        SearchResult page(int offset, long total, boolean totalIsLowerBound, Map<Integer, Trade> documents) {
+            if (offset >= size) {
+                return new SearchResult(Collections.emptyList(), total, totalIsLowerBound);
+            }
+            // Popping the min-heap yields the ranking from last to first
+            int[] ranked = new int[size];
+            for (int i = size - 1; i >= 0; i--) {
+                ranked[i] = docs[0];
+                size--;
+                docs[0] = docs[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+            List<Trade> trades = new ArrayList<>(ranked.length - offset);
+            for (int i = offset; i < ranked.length; i++) {
+                trades.add(documents.get(ranked[i]));
+            }
+            return new SearchResult(trades, total, totalIsLowerBound);
+        }
+
+        private static boolean ranksAbove(float score, int doc, float otherScore, int otherDoc) {
+            return score > otherScore || (score == otherScore && doc > otherDoc);
+        }
+
+        private void siftUp(int index) {
+            int doc = docs[index];
+            float score = scores[index];
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!ranksAbove(scores[parent], docs[parent], score, doc)) {
+                    break;
+                }
+                docs[index] = docs[parent];
+                scores[index] = scores[parent];
+                index = parent;
+            }
+            docs[index] = doc;
+            scores[index] = score;
+        }
+
+        private void siftDown(int index) {
+            int doc = docs[index];
+            float score = scores[index];
+            int half = size >>> 1;
+            while (index < half) {
+                int child = 2 * index + 1;
+                int right = child + 1;
+                if (right < size && ranksAbove(scores[child], docs[child], scores[right], docs[right])) {
+                    child = right;
+                }
+                if (!ranksAbove(score, doc, scores[child], docs[child])) {
+                    break;
+                }
+                docs[index] = docs[child];
+                scores[index] = scores[child];
+                index = child;
+            }
+            docs[index] = doc;
+            scores[index] = score;
+        }
+    }
+}
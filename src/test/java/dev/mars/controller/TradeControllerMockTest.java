@@ -3,7 +3,9 @@ package dev.mars.controller;
 import dev.mars.dao.model.Trade;
 import dev.mars.exception.TradeNotFoundException;
 import dev.mars.service.TradeService;
+import dev.mars.service.cache.CacheKey;
 import dev.mars.service.cache.CacheService;
+import dev.mars.service.cache.LoadingCacheRegion;
 import dev.mars.service.metrics.MetricsService;
 import dev.mars.service.validation.ValidationService;
 import io.javalin.http.BadRequestResponse;
@@ -17,6 +19,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import static org.mockito.Mockito.*;
 
@@ -35,10 +39,34 @@ public class TradeControllerMockTest {
         validationService = mock(ValidationService.class);
         metricsService = mock(MetricsService.class);
         cacheService = mock(CacheService.class);
+        when(cacheService.loadingRegion(anyString(), any(), any(), any())).thenAnswer(invocation ->
+            new LoadingCacheRegion<>(cacheService, invocation.getArgument(1), invocation.getArgument(2), invocation.getArgument(3)));
         tradeController = new TradeController(tradeService, validationService, metricsService, cacheService);
 
         // Setup default mock behaviors
+        // Regions behave like the (pass-through) default region
+        when(cacheService.region(anyString())).thenReturn(cacheService);
         when(cacheService.get(anyString(), any())).thenReturn(Optional.empty());
+        when(cacheService.getOrComputeAsync(anyString(), any(), any())).thenAnswer(invocation -> {
+            Supplier<CompletableFuture<?>> supplier = invocation.getArgument(2);
+            return supplier.get();
+        });
+        when(cacheService.getOrComputeAsync(anyString(), any(), any(), any())).thenAnswer(invocation -> {
+            Supplier<CompletableFuture<?>> supplier = invocation.getArgument(2);
+            return supplier.get();
+        });
+        when(cacheService.get(any(CacheKey.class), any())).thenReturn(Optional.empty());
+        when(cacheService.getOrComputeAsync(any(CacheKey.class), any(), any(), any())).thenAnswer(invocation -> {
+            Supplier<CompletableFuture<?>> supplier = invocation.getArgument(2);
+            return supplier.get();
+        });
+
+        // Complete ctx.future(...) handlers inline so the response is written before assertions run
+        doAnswer(invocation -> {
+            Supplier<CompletableFuture<?>> supplier = invocation.getArgument(0);
+            supplier.get().join();
+            return null;
+        }).when(ctx).future(any());
     }
 
     @Test
@@ -49,7 +77,7 @@ public class TradeControllerMockTest {
                 LocalDate.now(), LocalDate.now().plusDays(2), "Broker XYZ", "Test trade");
 
         when(ctx.pathParam("id")).thenReturn(String.valueOf(tradeId));
-        when(tradeService.getTradeById(tradeId)).thenReturn(mockTrade);
+        when(tradeService.getTradeByIdAsync(tradeId)).thenReturn(CompletableFuture.completedFuture(mockTrade));
 
         // Act
         tradeController.getTradeById(ctx);
@@ -64,7 +92,7 @@ public class TradeControllerMockTest {
         // Arrange
         int tradeId = 999;
         when(ctx.pathParam("id")).thenReturn(String.valueOf(tradeId));
-        when(tradeService.getTradeById(tradeId)).thenThrow(new TradeNotFoundException("Trade not found"));
+        when(tradeService.getTradeByIdAsync(tradeId)).thenReturn(CompletableFuture.failedFuture(new TradeNotFoundException("Trade not found")));
 
         // Act
         tradeController.getTradeById(ctx);
@@ -83,7 +111,7 @@ public class TradeControllerMockTest {
         mockTrades.add(new Trade(2, "GOOG", 50, 2500.75, "BUY", "EXECUTED", 
                 LocalDate.now(), LocalDate.now().plusDays(2), "Broker ABC", "Test trade 2"));
 
-        when(tradeService.getAllTrades()).thenReturn(mockTrades);
+        when(tradeService.getAllTradesAsync()).thenReturn(CompletableFuture.completedFuture(mockTrades));
 
         // Act
         tradeController.getAllTrades(ctx);
@@ -99,15 +127,35 @@ public class TradeControllerMockTest {
                 LocalDate.now(), LocalDate.now().plusDays(2), "Broker XYZ", "Test trade");
 
         when(ctx.bodyAsClass(Trade.class)).thenReturn(mockTrade);
+        when(tradeService.addTradeAsync(mockTrade)).thenReturn(CompletableFuture.completedFuture(null));
 
         // Act
         tradeController.addTrade(ctx);
 
         // Assert
-        verify(tradeService).addTrade(mockTrade);
+        verify(tradeService).addTradeAsync(mockTrade);
+        verify(tradeService, never()).addTrade(any());
         verify(ctx).status(201);
     }
 
+    @Test
+    public void testAddTrade_DatabaseError() {
+        // Arrange
+        Trade mockTrade = new Trade(0, "AAPL", 100, 150.5, "BUY", "PENDING",
+                LocalDate.now(), LocalDate.now().plusDays(2), "Broker XYZ", "Test trade");
+        when(ctx.bodyAsClass(Trade.class)).thenReturn(mockTrade);
+        when(tradeService.addTradeAsync(mockTrade))
+            .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Insert failed")));
+        when(ctx.status(500)).thenReturn(ctx);
+
+        // Act
+        tradeController.addTrade(ctx);
+
+        // Assert
+        verify(ctx).status(500);
+        verify(ctx).result("Insert failed");
+    }
+
     @Test
     public void testAddTrade_Error() {
         // Arrange
@@ -131,6 +179,7 @@ public class TradeControllerMockTest {
 
         when(ctx.pathParam("id")).thenReturn(String.valueOf(tradeId));
         when(ctx.bodyAsClass(Trade.class)).thenReturn(mockTrade);
+        when(tradeService.updateTradeAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
 
         // Act
         tradeController.updateTrade(ctx);
@@ -141,7 +190,7 @@ public class TradeControllerMockTest {
         // Verify that the ID was set on the trade
         Trade expectedTrade = new Trade(tradeId, "AAPL", 100, 150.5, "BUY", "PENDING", 
                 LocalDate.now(), LocalDate.now().plusDays(2), "Broker XYZ", "Test trade");
-        verify(tradeService).updateTrade(Mockito.argThat(trade -> trade.getId() == tradeId));
+        verify(tradeService).updateTradeAsync(Mockito.argThat(trade -> trade.getId() == tradeId));
     }
 
     @Test
@@ -149,12 +198,13 @@ public class TradeControllerMockTest {
         // Arrange
         int tradeId = 1;
         when(ctx.pathParam("id")).thenReturn(String.valueOf(tradeId));
+        when(tradeService.deleteTradeAsync(tradeId)).thenReturn(CompletableFuture.completedFuture(null));
 
         // Act
         tradeController.deleteTrade(ctx);
 
         // Assert
-        verify(tradeService).deleteTrade(tradeId);
+        verify(tradeService).deleteTradeAsync(tradeId);
         verify(ctx).status(204);
     }
 
@@ -173,8 +223,8 @@ public class TradeControllerMockTest {
         when(ctx.queryParam("size")).thenReturn(String.valueOf(size));
         when(ctx.queryParam("sortBy")).thenReturn(null);
         when(ctx.queryParam("sortDirection")).thenReturn(null);
-        when(tradeService.getTradesPaginated(page, size)).thenReturn(mockTrades);
-        when(tradeService.getTradeCount()).thenReturn(10L);
+        when(tradeService.getTradesPaginatedAsync(page, size)).thenReturn(CompletableFuture.completedFuture(mockTrades));
+        when(tradeService.getTradeCountAsync()).thenReturn(CompletableFuture.completedFuture(10L));
 
         // Act
         tradeController.getTradesPaginated(ctx);
@@ -196,8 +246,8 @@ public class TradeControllerMockTest {
         when(ctx.queryParam("size")).thenReturn(null);
         when(ctx.queryParam("sortBy")).thenReturn(null);
         when(ctx.queryParam("sortDirection")).thenReturn(null);
-        when(tradeService.getTradesPaginated(defaultPage, defaultSize)).thenReturn(mockTrades);
-        when(tradeService.getTradeCount()).thenReturn(1L);
+        when(tradeService.getTradesPaginatedAsync(defaultPage, defaultSize)).thenReturn(CompletableFuture.completedFuture(mockTrades));
+        when(tradeService.getTradeCountAsync()).thenReturn(CompletableFuture.completedFuture(1L));
 
         // Act
         tradeController.getTradesPaginated(ctx);
@@ -1,9 +1,12 @@
 package dev.mars.controller;
 
 import dev.mars.dao.model.User;
+import dev.mars.exception.ServiceUnavailableException;
 import dev.mars.exception.UserNotFoundException;
 import dev.mars.service.UserService;
+import dev.mars.service.cache.CacheKey;
 import dev.mars.service.cache.CacheService;
+import dev.mars.service.cache.LoadingCacheRegion;
 import dev.mars.service.metrics.MetricsService;
 import dev.mars.service.validation.ValidationService;
 import io.javalin.http.BadRequestResponse;
@@ -16,7 +19,12 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.*;
 
 public class UserControllerMockTest {
@@ -34,10 +42,35 @@ public class UserControllerMockTest {
         validationService = mock(ValidationService.class);
         metricsService = mock(MetricsService.class);
         cacheService = mock(CacheService.class);
-        userController = new UserController(userService, validationService, metricsService, cacheService);
 
         // Setup default mock behaviors
+        // Regions behave like the (pass-through) default region
+        when(cacheService.region(anyString())).thenReturn(cacheService);
+        when(cacheService.loadingRegion(anyString(), any(), any(), any())).thenAnswer(invocation ->
+            new LoadingCacheRegion<>(cacheService, invocation.getArgument(1), invocation.getArgument(2), invocation.getArgument(3)));
         when(cacheService.get(anyString(), any())).thenReturn(Optional.empty());
+        when(cacheService.getOrComputeAsync(anyString(), any(), any())).thenAnswer(invocation -> {
+            Supplier<CompletableFuture<?>> supplier = invocation.getArgument(2);
+            return supplier.get();
+        });
+        when(cacheService.getOrComputeAsync(anyString(), any(), any(), any())).thenAnswer(invocation -> {
+            Supplier<CompletableFuture<?>> supplier = invocation.getArgument(2);
+            return supplier.get();
+        });
+        when(cacheService.get(any(CacheKey.class), any())).thenReturn(Optional.empty());
+        when(cacheService.getOrComputeAsync(any(CacheKey.class), any(), any(), any())).thenAnswer(invocation -> {
+            Supplier<CompletableFuture<?>> supplier = invocation.getArgument(2);
+            return supplier.get();
+        });
+
+        // Complete ctx.future(...) handlers inline so the response is written before assertions run
+        doAnswer(invocation -> {
+            Supplier<CompletableFuture<?>> supplier = invocation.getArgument(0);
+            supplier.get().join();
+            return null;
+        }).when(ctx).future(any());
+
+        userController = new UserController(userService, validationService, metricsService, cacheService);
     }
 
     @Test
@@ -47,7 +80,7 @@ public class UserControllerMockTest {
         User mockUser = new User(userId, "John Doe");
 
         when(ctx.pathParam("id")).thenReturn(String.valueOf(userId));
-        when(userService.getUserById(userId)).thenReturn(mockUser);
+        when(userService.getUserByIdAsync(userId)).thenReturn(CompletableFuture.completedFuture(mockUser));
 
         // Act
         userController.getUserById(ctx);
@@ -62,7 +95,7 @@ public class UserControllerMockTest {
         // Arrange
         int userId = 999;
         when(ctx.pathParam("id")).thenReturn(String.valueOf(userId));
-        when(userService.getUserById(userId)).thenThrow(new UserNotFoundException("User not found"));
+        when(userService.getUserByIdAsync(userId)).thenReturn(CompletableFuture.failedFuture(new UserNotFoundException("User not found")));
         when(ctx.status(404)).thenReturn(ctx); // Mock the chained method call
 
         // Act
@@ -73,6 +106,35 @@ public class UserControllerMockTest {
         verify(ctx).json(Map.of("error", "User not found", "message", "User not found"));
     }
 
+    @Test
+    public void testGetUserById_PassThroughFailureIsNotCounted() {
+        // Arrange
+        int userId = 1;
+        when(ctx.pathParam("id")).thenReturn(String.valueOf(userId));
+        when(userService.getUserByIdAsync(userId)).thenReturn(CompletableFuture.failedFuture(new ServiceUnavailableException("Database unavailable")));
+        // Keep the handler's future so the pass-through failure reaches the test instead of the outer catch
+        List<CompletableFuture<?>> handled = new ArrayList<>();
+        doAnswer(invocation -> {
+            Supplier<CompletableFuture<?>> supplier = invocation.getArgument(0);
+            handled.add(supplier.get());
+            return null;
+        }).when(ctx).future(any());
+
+        // Act
+        userController.getUserById(ctx);
+
+        try {
+            handled.get(0).join();
+            fail("Expected the 503 to be passed through to the exception handler");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof ServiceUnavailableException);
+        }
+
+        // Assert
+        verify(metricsService, never()).incrementCounter("http.requests.errors");
+        verify(ctx, never()).status(500);
+    }
+
     @Test
     public void testGetAllUsers() {
         // Arrange
@@ -80,7 +142,7 @@ public class UserControllerMockTest {
         mockUsers.add(new User(1, "John Doe"));
         mockUsers.add(new User(2, "Jane Smith"));
 
-        when(userService.getAllUsers()).thenReturn(mockUsers);
+        when(userService.getAllUsersAsync()).thenReturn(CompletableFuture.completedFuture(mockUsers));
 
         // Act
         userController.getAllUsers(ctx);
@@ -96,12 +158,13 @@ public class UserControllerMockTest {
 
         when(ctx.bodyAsClass(User.class)).thenReturn(mockUser);
         when(ctx.status(201)).thenReturn(ctx); // Mock the chained method call
+        when(userService.addUserAsync(mockUser)).thenReturn(CompletableFuture.completedFuture(null));
 
         // Act
         userController.addUser(ctx);
 
         // Assert
-        verify(userService).addUser(mockUser);
+        verify(userService).addUserAsync(mockUser);
         verify(ctx).status(201);
         verify(ctx).json(Map.of("message", "User created successfully"));
     }
@@ -128,6 +191,7 @@ public class UserControllerMockTest {
 
         when(ctx.pathParam("id")).thenReturn(String.valueOf(userId));
         when(ctx.bodyAsClass(User.class)).thenReturn(mockUser);
+        when(userService.updateUserAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
 
         // Act
         userController.updateUser(ctx);
@@ -136,7 +200,7 @@ public class UserControllerMockTest {
         verify(ctx).status(204);
 
         // Verify that the ID was set on the user
-        verify(userService).updateUser(Mockito.argThat(user -> user.getId() == userId));
+        verify(userService).updateUserAsync(Mockito.argThat(user -> user.getId() == userId));
     }
 
     @Test
@@ -144,12 +208,13 @@ public class UserControllerMockTest {
         // Arrange
         int userId = 1;
         when(ctx.pathParam("id")).thenReturn(String.valueOf(userId));
+        when(userService.deleteUserAsync(userId)).thenReturn(CompletableFuture.completedFuture(null));
 
         // Act
         userController.deleteUser(ctx);
 
         // Assert
-        verify(userService).deleteUser(userId);
+        verify(userService).deleteUserAsync(userId);
         verify(ctx).status(204);
     }
 
@@ -166,8 +231,8 @@ public class UserControllerMockTest {
         when(ctx.queryParam("size")).thenReturn(String.valueOf(size));
         when(ctx.queryParam("sortBy")).thenReturn(null);
         when(ctx.queryParam("sortDirection")).thenReturn(null);
-        when(userService.getUsersPaginated(page, size)).thenReturn(mockUsers);
-        when(userService.getUserCount()).thenReturn(10L);
+        when(userService.getUsersPaginatedAsync(page, size)).thenReturn(CompletableFuture.completedFuture(mockUsers));
+        when(userService.getUserCountAsync()).thenReturn(CompletableFuture.completedFuture(10L));
 
         // Act
         userController.getUsersPaginated(ctx);
@@ -188,8 +253,8 @@ public class UserControllerMockTest {
         when(ctx.queryParam("size")).thenReturn(null);
         when(ctx.queryParam("sortBy")).thenReturn(null);
         when(ctx.queryParam("sortDirection")).thenReturn(null);
-        when(userService.getUsersPaginated(defaultPage, defaultSize)).thenReturn(mockUsers);
-        when(userService.getUserCount()).thenReturn(1L);
+        when(userService.getUsersPaginatedAsync(defaultPage, defaultSize)).thenReturn(CompletableFuture.completedFuture(mockUsers));
+        when(userService.getUserCountAsync()).thenReturn(CompletableFuture.completedFuture(1L));
 
         // Act
         userController.getUsersPaginated(ctx);
@@ -0,0 +1,117 @@
+package dev.mars.dao.instrumentation;
+
+import dev.mars.config.ApplicationProperties;
+import dev.mars.dao.model.User;
+import dev.mars.dao.respository.UserDaoRepository;
+import dev.mars.service.metrics.MetricsService;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the JDBC query instrumentation, using a real H2 in-memory database.
+ */
+public class QueryInstrumentationTest {
+
+    private JdbcDataSource dataSource;
+    private MetricsService metricsService;
+    private QueryInstrumentation instrumentation;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:instrumentation;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        dataSource.setPassword("");
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS users");
+            stmt.execute("CREATE TABLE users (id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(255))");
+        }
+
+        ApplicationProperties properties = new ApplicationProperties();
+        // Treat every statement as slow so the slow-query path, including EXPLAIN, is exercised
+        properties.getDatabase().setSlowQueryThresholdMs(0);
+        metricsService = new MetricsService(properties);
+        instrumentation = new QueryInstrumentation(properties, metricsService);
+    }
+
+    @Test
+    void testRecordsLatencyAndRowsPerOperation() {
+        UserDaoRepository repository = new UserDaoRepository(dataSource, instrumentation);
+        repository.addUser(new User(0, "Alice"));
+        repository.addUser(new User(0, "Bob"));
+
+        assertEquals(2, repository.getAllUsers().size());
+
+        String scrape = metricsService.getPrometheusMetrics();
+        assertTrue(scrape.contains("db_query_duration_seconds_count{operation=\"addUser\",outcome=\"success\",} 2.0"), scrape);
+        assertTrue(scrape.contains("db_query_duration_seconds_bucket{operation=\"getAllUsers\""), scrape);
+        assertTrue(scrape.contains("db_query_rows_sum{operation=\"getAllUsers\",} 2.0"), scrape);
+        assertTrue(scrape.contains("db_query_slow_total{operation=\"getAllUsers\",} 1.0"), scrape);
+    }
+
+    @Test
+    void testInstrumentedStatementBehavesLikeThePlainOne() throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            try (PreparedStatement insert = instrumentation.prepare(conn, "addUser", "INSERT INTO users (name) VALUES (?)")) {
+                insert.setString(1, "Carol");
+                assertEquals(1, insert.executeUpdate());
+            }
+            try (PreparedStatement select = instrumentation.prepare(conn, "getUserById", "SELECT * FROM users WHERE name = ?")) {
+                select.setString(1, "Carol");
+                ResultSet rs = select.executeQuery();
+                assertTrue(rs.next());
+                assertEquals("Carol", rs.getString("name"));
+                assertFalse(rs.next());
+            }
+        }
+
+        String scrape = metricsService.getPrometheusMetrics();
+        assertTrue(scrape.contains("db_query_rows_sum{operation=\"getUserById\",} 1.0"), scrape);
+    }
+
+    @Test
+    void testSlowQueryPlanIsExplainedOncePerStatement() throws SQLException {
+        String sql = "SELECT * FROM users WHERE name = ?";
+        try (Connection conn = dataSource.getConnection()) {
+            try (PreparedStatement first = instrumentation.prepare(conn, "getUserByName", sql)) {
+                first.setString(1, "Dave");
+                first.executeQuery().close();
+            }
+            String plan = instrumentation.cachedPlan(sql);
+            assertNotNull(plan);
+            assertTrue(plan.contains("SELECT"), plan);
+
+            // Changing the table does not trigger a second EXPLAIN for the same SQL
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE INDEX users_name ON users (name)");
+            }
+            try (PreparedStatement second = instrumentation.prepare(conn, "getUserByName", sql)) {
+                second.setString(1, "Dave");
+                second.executeQuery().close();
+            }
+            assertSame(plan, instrumentation.cachedPlan(sql));
+        }
+    }
+
+    @Test
+    void testFailedStatementsAreTaggedAsErrors() throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = instrumentation.prepare(conn, "getTradeById", "SELECT * FROM users WHERE id = ?")) {
+            stmt.setString(1, "not a number");
+            assertThrows(SQLException.class, stmt::executeQuery);
+        }
+
+        String scrape = metricsService.getPrometheusMetrics();
+        assertTrue(scrape.contains("db_query_duration_seconds_count{operation=\"getTradeById\",outcome=\"error\",} 1.0"), scrape);
+    }
+}
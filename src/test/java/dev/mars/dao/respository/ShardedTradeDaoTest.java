@@ -0,0 +1,218 @@
+package dev.mars.dao.respository;
+
+import dev.mars.dao.model.Trade;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the ShardedTradeDao class.
+ * These tests spread trades over three separate H2 in-memory databases.
+ */
+public class ShardedTradeDaoTest {
+
+    private static final int SHARDS = 3;
+
+    private List<TradeDaoRepository> shards;
+    private ShardedTradeDao shardedTradeDao;
+
+    @Before
+    public void setup() throws SQLException {
+        shards = new ArrayList<>();
+        for (int i = 0; i < SHARDS; i++) {
+            JdbcDataSource dataSource = new JdbcDataSource();
+            dataSource.setURL("jdbc:h2:mem:shard" + i + ";DB_CLOSE_DELAY=-1");
+            dataSource.setUser("sa");
+            dataSource.setPassword("");
+            try (Connection conn = dataSource.getConnection();
+                 Statement stmt = conn.createStatement()) {
+                stmt.execute("DROP TABLE IF EXISTS trades");
+                stmt.execute("DROP SEQUENCE IF EXISTS " + TradeDaoRepository.ID_SEQUENCE);
+                stmt.execute("CREATE TABLE trades (" +
+                        "id INT AUTO_INCREMENT PRIMARY KEY, " +
+                        "symbol VARCHAR(20), " +
+                        "quantity INT, " +
+                        "price DOUBLE, " +
+                        "type VARCHAR(10), " +
+                        "status VARCHAR(20), " +
+                        "trade_date DATE, " +
+                        "settlement_date DATE, " +
+                        "counterparty VARCHAR(100), " +
+                        "notes VARCHAR(500)" +
+                        ")");
+            }
+            shards.add(new TradeDaoRepository(dataSource));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        if (shardedTradeDao != null) {
+            shardedTradeDao.close();
+        }
+    }
+
+    @Test
+    public void testTradesSpreadByIdAndPointReadsHitOneShard() {
+        shardedTradeDao = new ShardedTradeDao(shards, ShardedTradeDao.ShardKey.ID);
+        for (int i = 0; i < 30; i++) {
+            shardedTradeDao.addTrade(createTrade("SYM" + i));
+        }
+
+        for (TradeDaoRepository shard : shards) {
+            assertEquals(10, shard.countTrades());
+        }
+        assertEquals(30, shardedTradeDao.countTrades());
+
+        Trade trade = shardedTradeDao.getTradeById(17);
+        assertNotNull(trade);
+        assertEquals("SYM16", trade.getSymbol());
+        assertNotNull("Trade lives on the shard its id maps to", shards.get(17 % SHARDS).getTradeById(17));
+    }
+
+    @Test
+    public void testSymbolKeyColocatesTradesOfASymbol() {
+        shardedTradeDao = new ShardedTradeDao(shards, ShardedTradeDao.ShardKey.SYMBOL);
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Trade trade = createTrade("AAPL");
+            shardedTradeDao.addTrade(trade);
+            ids.add(trade.getId());
+        }
+        shardedTradeDao.addTrade(createTrade("MSFT"));
+
+        int shard = shardedTradeDao.shardIndex(ids.get(0));
+        assertEquals(5, shards.get(shard).getAllTrades().stream().filter(t -> t.getSymbol().equals("AAPL")).count());
+        for (int id : ids) {
+            assertEquals(shard, shardedTradeDao.shardIndex(id));
+            assertEquals("AAPL", shardedTradeDao.getTradeById(id).getSymbol());
+        }
+    }
+
+    @Test
+    public void testPaginationMergesShardsInIdOrder() {
+        shardedTradeDao = new ShardedTradeDao(shards, ShardedTradeDao.ShardKey.SYMBOL);
+        String[] symbols = {"AAPL", "MSFT", "GOOG", "AMZN", "TSLA", "IBM", "ORCL"};
+        for (int i = 0; i < 40; i++) {
+            shardedTradeDao.addTrade(createTrade(symbols[i % symbols.length]));
+        }
+
+        List<Integer> allIds = shardedTradeDao.getAllTrades().stream().map(Trade::getId).toList();
+        assertEquals(40, allIds.size());
+        assertEquals(allIds.stream().sorted().toList(), allIds);
+
+        List<Integer> paged = new ArrayList<>();
+        for (int page = 0; page < 5; page++) {
+            shardedTradeDao.getTradesPaginated(page * 9, 9).forEach(t -> paged.add(t.getId()));
+        }
+        assertEquals(allIds, paged);
+    }
+
+    @Test
+    public void testUpdateAndDeleteRouteToOwningShard() {
+        shardedTradeDao = new ShardedTradeDao(shards, ShardedTradeDao.ShardKey.ID);
+        Trade trade = createTrade("AAPL");
+        shardedTradeDao.addTrade(trade);
+
+        trade.setStatus("SETTLED");
+        shardedTradeDao.updateTrade(trade);
+        assertEquals("SETTLED", shardedTradeDao.getTradeById(trade.getId()).getStatus());
+
+        shardedTradeDao.deleteTrade(trade.getId());
+        assertNull(shardedTradeDao.getTradeById(trade.getId()));
+        assertEquals(0, shardedTradeDao.countTrades());
+    }
+
+    @Test
+    public void testIdAllocationResumesAfterExistingTrades() {
+        shardedTradeDao = new ShardedTradeDao(shards, ShardedTradeDao.ShardKey.ID);
+        for (int i = 0; i < 4; i++) {
+            shardedTradeDao.addTrade(createTrade("AAPL"));
+        }
+        shardedTradeDao.close();
+
+        shardedTradeDao = new ShardedTradeDao(shards, ShardedTradeDao.ShardKey.ID);
+        Trade trade = createTrade("MSFT");
+        shardedTradeDao.addTrade(trade);
+
+        assertEquals(5, trade.getId());
+        assertEquals(5, shardedTradeDao.countTrades());
+    }
+
+    @Test
+    public void testSymbolIdAllocationResumesWithoutReusingIds() {
+        shardedTradeDao = new ShardedTradeDao(shards, ShardedTradeDao.ShardKey.SYMBOL);
+        String symbolOnShardZero = symbolOnShard(0);
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Trade trade = createTrade(symbolOnShardZero);
+            shardedTradeDao.addTrade(trade);
+            ids.add(trade.getId());
+        }
+        assertFalse("Id 0 is never issued", ids.contains(0));
+        shardedTradeDao.close();
+
+        shardedTradeDao = new ShardedTradeDao(shards, ShardedTradeDao.ShardKey.SYMBOL);
+        Trade trade = createTrade(symbolOnShardZero);
+        shardedTradeDao.addTrade(trade);
+
+        assertFalse(ids.contains(trade.getId()));
+        assertEquals(0, shardedTradeDao.shardIndex(trade.getId()));
+        assertEquals(4, shardedTradeDao.countTrades());
+    }
+
+    @Test
+    public void testTradesWithoutSymbolShareTheShardAllocators() {
+        shardedTradeDao = new ShardedTradeDao(shards, ShardedTradeDao.ShardKey.SYMBOL);
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            Trade trade = createTrade(i % 2 == 0 ? symbolOnShard(1) : null);
+            shardedTradeDao.addTrade(trade);
+            ids.add(trade.getId());
+        }
+
+        assertEquals(12, ids.stream().distinct().count());
+        assertEquals(12, shardedTradeDao.countTrades());
+    }
+
+    @Test
+    public void testInstancesSharingShardsNeverIssueTheSameId() {
+        shardedTradeDao = new ShardedTradeDao(shards, ShardedTradeDao.ShardKey.SYMBOL);
+        try (ShardedTradeDao other = new ShardedTradeDao(shards, ShardedTradeDao.ShardKey.SYMBOL)) {
+            List<Integer> ids = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                ShardedTradeDao instance = i % 2 == 0 ? shardedTradeDao : other;
+                Trade trade = createTrade(i % 3 == 0 ? null : symbolOnShard(i % SHARDS));
+                instance.addTrade(trade);
+                ids.add(trade.getId());
+            }
+
+            assertEquals(10, ids.stream().distinct().count());
+            assertEquals(10, other.countTrades());
+        }
+    }
+
+    private String symbolOnShard(int shard) {
+        for (int i = 0; ; i++) {
+            String symbol = "SYM" + i;
+            if (Math.floorMod(symbol.hashCode(), SHARDS) == shard) {
+                return symbol;
+            }
+        }
+    }
+
+    private Trade createTrade(String symbol) {
+        return new Trade(0, symbol, 100, 150.50, "BUY", "PENDING",
+                LocalDate.of(2023, 1, 1), LocalDate.of(2023, 1, 3), "Counterparty", "Notes");
+    }
+}
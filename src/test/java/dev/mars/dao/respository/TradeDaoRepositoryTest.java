@@ -139,7 +139,7 @@ public class TradeDaoRepositoryTest {
                 "Broker ABC",
                 "Updated trade"
         );
-        tradeDaoRepository.updateTrade(updatedTrade);
+        assertTrue(tradeDaoRepository.updateTrade(updatedTrade));
 
         // Get the trade by ID
         Trade retrievedTrade = tradeDaoRepository.getTradeById(tradeId);
@@ -153,6 +153,9 @@ public class TradeDaoRepositoryTest {
         assertEquals("EXECUTED", retrievedTrade.getStatus());
         assertEquals("Broker ABC", retrievedTrade.getCounterparty());
         assertEquals("Updated trade", retrievedTrade.getNotes());
+
+        updatedTrade.setId(tradeId + 1000);
+        assertFalse("No trade has the id", tradeDaoRepository.updateTrade(updatedTrade));
     }
 
     @Test
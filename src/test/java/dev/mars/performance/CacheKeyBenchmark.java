@@ -0,0 +1,113 @@
+package dev.mars.performance;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.mars.dto.PageRequest;
+import dev.mars.service.cache.CacheKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares building and looking up cache keys as formatted strings, as the controllers used to,
+ * with building them as {@link CacheKey}s.
+ *
+ * Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main CacheKeyBenchmark
+ * </pre>
+ * Add {@code -prof gc} to see allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheKeyBenchmark {
+    private static final int ENTRIES = 10_000;
+
+    private final Cache<String, Object> stringKeyed = Caffeine.newBuilder().maximumSize(2 * ENTRIES).build();
+    private final Cache<CacheKey, Object> structured = Caffeine.newBuilder().maximumSize(2 * ENTRIES).build();
+    private int id;
+    private int page;
+    private final PageRequest.SortDirection direction = PageRequest.SortDirection.ASC;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < ENTRIES; i++) {
+            stringKeyed.put(String.valueOf(i), i);
+            structured.put(CacheKey.id(i), i);
+            stringKeyed.put(String.format("trades:page:%d:size:%d:sort:%s:%s", i, 20, "symbol", direction), i);
+            structured.put(CacheKey.page("trades", i, 20, "symbol", direction), i);
+        }
+    }
+
+    @Benchmark
+    public String buildIdKeyAsString() {
+        return String.valueOf(nextId());
+    }
+
+    @Benchmark
+    public CacheKey buildIdKey() {
+        return CacheKey.id(nextId());
+    }
+
+    @Benchmark
+    public String buildPageKeyAsString() {
+        return String.format("trades:page:%d:size:%d:sort:%s:%s", nextPage(), 20, "symbol", direction);
+    }
+
+    @Benchmark
+    public CacheKey buildPageKey() {
+        return CacheKey.page("trades", nextPage(), 20, "symbol", direction);
+    }
+
+    @Benchmark
+    public Object lookUpIdByString() {
+        return stringKeyed.getIfPresent(String.valueOf(nextId()));
+    }
+
+    @Benchmark
+    public Object lookUpId() {
+        return structured.getIfPresent(CacheKey.id(nextId()));
+    }
+
+    @Benchmark
+    public Object lookUpPageByString() {
+        return stringKeyed.getIfPresent(
+            String.format("trades:page:%d:size:%d:sort:%s:%s", nextPage(), 20, "symbol", direction));
+    }
+
+    @Benchmark
+    public Object lookUpPage() {
+        return structured.getIfPresent(CacheKey.page("trades", nextPage(), 20, "symbol", direction));
+    }
+
+    private int nextId() {
+        id = id + 1 == ENTRIES ? 0 : id + 1;
+        return id;
+    }
+
+    private int nextPage() {
+        page = page + 1 == ENTRIES ? 0 : page + 1;
+        return page;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CacheKeyBenchmark.class.getSimpleName()).build()).run();
+    }
+}
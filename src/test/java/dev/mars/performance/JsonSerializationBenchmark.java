@@ -0,0 +1,109 @@
+package dev.mars.performance;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.mars.dao.model.Trade;
+import dev.mars.dao.model.User;
+import dev.mars.dto.PageRequest;
+import dev.mars.dto.PageResponse;
+import dev.mars.service.json.DomainJsonModule;
+import io.javalin.json.JavalinJackson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares writing pages of trades and users, and reading trades, with plain Javalin Jackson
+ * and with the {@link DomainJsonModule} serializers, which write the same bytes.
+ *
+ * Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main JsonSerializationBenchmark
+ * </pre>
+ * Add {@code -prof gc} to see allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private final ObjectMapper javalinJackson = JavalinJackson.defaultMapper();
+    private final ObjectMapper domain = DomainJsonModule.objectMapper();
+    private PageResponse<Trade> trades;
+    private PageResponse<User> users;
+    private byte[] tradeJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        List<Trade> tradeContent = new ArrayList<>(pageSize);
+        List<User> userContent = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            tradeContent.add(new Trade(i, "SYM" + i % 50, 10 * i + 1, 100.25 + i, i % 2 == 0 ? "BUY" : "SELL", "SETTLED",
+                LocalDate.of(2024, 1, 1).plusDays(i), LocalDate.of(2024, 1, 3).plusDays(i), "Counterparty " + i % 7,
+                i % 3 == 0 ? null : "Trade note " + i));
+            User user = new User(i, "User Name " + i);
+            user.setEmail("user" + i + "@example.com");
+            userContent.add(user);
+        }
+        PageRequest request = new PageRequest(0, pageSize);
+        trades = PageResponse.of(tradeContent, request, 10_000);
+        users = PageResponse.of(userContent, request, 10_000);
+        tradeJson = domain.writeValueAsBytes(tradeContent.get(1));
+    }
+
+    @Benchmark
+    public byte[] writeTradePageJavalinJackson() throws Exception {
+        return javalinJackson.writeValueAsBytes(trades);
+    }
+
+    @Benchmark
+    public byte[] writeTradePage() throws Exception {
+        return domain.writeValueAsBytes(trades);
+    }
+
+    @Benchmark
+    public byte[] writeUserPageJavalinJackson() throws Exception {
+        return javalinJackson.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public byte[] writeUserPage() throws Exception {
+        return domain.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public Trade readTradeJavalinJackson() throws Exception {
+        return javalinJackson.readValue(tradeJson, Trade.class);
+    }
+
+    @Benchmark
+    public Trade readTrade() throws Exception {
+        return domain.readValue(tradeJson, Trade.class);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JsonSerializationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
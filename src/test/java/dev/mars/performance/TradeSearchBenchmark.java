@@ -0,0 +1,79 @@
+package dev.mars.performance;
+
+import dev.mars.dao.model.Trade;
+import dev.mars.service.events.TradeEvents;
+import dev.mars.service.search.TradeSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a page of trade search results over an index of a million trades, for a common
+ * counterparty, a prefix, two words and a rare word.
+ *
+ * Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -Xmx2g -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main TradeSearchBenchmark
+ * </pre>
+ * Add {@code -prof gc} to see allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class TradeSearchBenchmark {
+    private static final int TRADES = 1_000_000;
+
+    @Param({"goldman", "gold", "deutsche urgent", "escalated"})
+    private String query;
+
+    private TradeSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        String[] counterparties = {"Goldman Sachs", "Goldberg Capital", "Morgan Stanley", "Barclays", "Deutsche Bank"};
+        String[] words = {"hedge", "rebalance", "settlement", "late", "urgent", "block", "client", "review"};
+        List<Trade> trades = new ArrayList<>(TRADES);
+        for (int id = 1; id <= TRADES; id++) {
+            String notes = words[id % words.length] + " " + words[(id / 7) % words.length]
+                + (id % 10_000 == 0 ? " escalated" : "");
+            trades.add(new Trade(id, "SYM" + id % 50, 100, 150.0, "BUY", "PENDING",
+                LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 4), counterparties[id % counterparties.length], notes));
+        }
+        index = new TradeSearchIndex(new TradeEvents());
+        index.rebuild(trades);
+    }
+
+    @Benchmark
+    public TradeSearchIndex.SearchResult firstPage() {
+        return index.search(query, 0, 20);
+    }
+
+    @Benchmark
+    public TradeSearchIndex.SearchResult fifthPage() {
+        return index.search(query, 80, 20);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TradeSearchBenchmark.class.getSimpleName()).build()).run();
+    }
+}
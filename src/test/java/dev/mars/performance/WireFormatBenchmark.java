@@ -0,0 +1,85 @@
+package dev.mars.performance;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.mars.dao.model.Trade;
+import dev.mars.dto.PageRequest;
+import dev.mars.dto.PageResponse;
+import dev.mars.service.format.ResponseFormats;
+import dev.mars.service.format.WireFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares encoding and decoding a page of trades as JSON, CBOR, Smile and MessagePack. The
+ * encoded size of the page in each format is printed when the benchmark is set up.
+ *
+ * Run with:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main WireFormatBenchmark
+ * </pre>
+ * Add {@code -prof gc} to see allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+    private static final TypeReference<PageResponse<Trade>> TRADE_PAGE = new TypeReference<>() { };
+
+    @Param({"JSON", "CBOR", "SMILE", "MSGPACK"})
+    private WireFormat format;
+
+    private final ResponseFormats formats = new ResponseFormats();
+    private ObjectMapper mapper;
+    private PageResponse<Trade> page;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws Exception {
+        List<Trade> trades = new ArrayList<>(100);
+        for (int i = 0; i < 100; i++) {
+            trades.add(new Trade(i, "SYM" + i % 50, 10 * i + 1, 100.25 + i, i % 2 == 0 ? "BUY" : "SELL", "SETTLED",
+                LocalDate.of(2024, 1, 1).plusDays(i), LocalDate.of(2024, 1, 3).plusDays(i), "Counterparty " + i % 7,
+                i % 3 == 0 ? null : "Trade note " + i));
+        }
+        page = PageResponse.of(trades, new PageRequest(0, 100), 10_000);
+        mapper = format.newMapper();
+        encoded = formats.serialize(format, page);
+        System.out.printf("%n%s page of 100 trades: %d bytes%n", format, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return formats.serialize(format, page);
+    }
+
+    @Benchmark
+    public PageResponse<Trade> decode() throws Exception {
+        return mapper.readValue(encoded, TRADE_PAGE);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(WireFormatBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -1,17 +1,26 @@
 package dev.mars.service;
 
+import dev.mars.config.ApplicationProperties;
 import dev.mars.dao.model.Trade;
+import dev.mars.dao.respository.AsyncTradeDaoRepository;
 import dev.mars.dao.respository.TradeDao;
 import dev.mars.exception.TradeNotFoundException;
+import dev.mars.service.async.JdbcExecutor;
+import dev.mars.service.concurrency.ConcurrencyLimiterRegistry;
+import dev.mars.service.events.TradeEvent;
+import dev.mars.service.events.TradeEvents;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletionException;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.*;
 
 public class TradeServiceTest {
@@ -21,8 +30,9 @@ public class TradeServiceTest {
 
     @Before
     public void setup() {
+        ApplicationProperties properties = new ApplicationProperties();
         tradeDao = mock(TradeDao.class);
-        tradeService = new TradeService(tradeDao);
+        tradeService = new TradeService(tradeDao, new AsyncTradeDaoRepository(tradeDao, new JdbcExecutor(properties, new ConcurrencyLimiterRegistry(properties, null))));
     }
 
     @Test
@@ -50,6 +60,36 @@ public class TradeServiceTest {
         // This should throw TradeNotFoundException
     }
 
+    @Test
+    public void testGetTradeByIdAsync_TradeExists() {
+        // Arrange
+        Trade expectedTrade = createSampleTrade(1);
+        when(tradeDao.getTradeById(1)).thenReturn(expectedTrade);
+
+        // Act
+        Trade actualTrade = tradeService.getTradeByIdAsync(1).join();
+
+        // Assert
+        assertSame(expectedTrade, actualTrade);
+        verify(tradeDao).getTradeById(1);
+    }
+
+    @Test
+    public void testGetTradeByIdAsync_TradeNotFound() {
+        // Arrange
+        when(tradeDao.getTradeById(1)).thenReturn(null);
+
+        // Act
+        try {
+            tradeService.getTradeByIdAsync(1).join();
+        } catch (CompletionException e) {
+            // Assert
+            assertTrue(e.getCause() instanceof TradeNotFoundException);
+            return;
+        }
+        throw new AssertionError("Expected TradeNotFoundException");
+    }
+
     @Test
     public void testGetAllTrades() {
         // Arrange
@@ -91,6 +131,27 @@ public class TradeServiceTest {
         verify(tradeDao).updateTrade(trade);
     }
 
+    @Test
+    public void testUpdateOfMissingTradeIsNotPublished() {
+        // Arrange
+        ApplicationProperties properties = new ApplicationProperties();
+        TradeEvents tradeEvents = new TradeEvents();
+        List<TradeEvent> events = new ArrayList<>();
+        tradeEvents.subscribe(events::add);
+        TradeService service = new TradeService(tradeDao, new AsyncTradeDaoRepository(tradeDao,
+            new JdbcExecutor(properties, new ConcurrencyLimiterRegistry(properties, null))), tradeEvents);
+        Trade trade = createSampleTrade(1);
+        when(tradeDao.updateTrade(trade)).thenReturn(false, true);
+
+        // Act
+        service.updateTrade(trade);
+        service.updateTrade(trade);
+
+        // Assert
+        assertEquals(1, events.size());
+        assertEquals(TradeEvent.Type.UPDATED, events.get(0).getType());
+    }
+
     @Test
     public void testDeleteTrade() {
         // Arrange
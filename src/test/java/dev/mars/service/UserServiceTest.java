@@ -1,16 +1,27 @@
 package dev.mars.service;
 
+import dev.mars.config.ApplicationProperties;
 import dev.mars.dao.model.User;
+import dev.mars.dao.respository.AsyncUserDaoRepository;
 import dev.mars.dao.respository.UserDao;
 import dev.mars.exception.UserNotFoundException;
+import dev.mars.service.async.JdbcExecutor;
+import dev.mars.service.cache.CaffeineCache;
+import dev.mars.service.cache.ExistenceFilters;
+import dev.mars.service.concurrency.ConcurrencyLimiterRegistry;
+import dev.mars.service.events.TradeEvents;
+import dev.mars.service.events.UserEvents;
+import dev.mars.service.metrics.MetricsService;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletionException;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.*;
 
 public class UserServiceTest {
@@ -20,8 +31,9 @@ public class UserServiceTest {
 
     @Before
     public void setup() {
+        ApplicationProperties properties = new ApplicationProperties();
         userDao = mock(UserDao.class);
-        userService = new UserService(userDao);
+        userService = new UserService(userDao, new AsyncUserDaoRepository(userDao, new JdbcExecutor(properties, new ConcurrencyLimiterRegistry(properties, null))));
     }
 
     @Test
@@ -49,6 +61,36 @@ public class UserServiceTest {
         // This should throw UserNotFoundException
     }
 
+    @Test
+    public void testGetUserByIdAsync_UserExists() {
+        // Arrange
+        User expectedUser = new User(1, "John Doe");
+        when(userDao.getUserById(1)).thenReturn(expectedUser);
+
+        // Act
+        User actualUser = userService.getUserByIdAsync(1).join();
+
+        // Assert
+        assertSame(expectedUser, actualUser);
+        verify(userDao).getUserById(1);
+    }
+
+    @Test
+    public void testGetUserByIdAsync_UserNotFound() {
+        // Arrange
+        when(userDao.getUserById(1)).thenReturn(null);
+
+        // Act
+        try {
+            userService.getUserByIdAsync(1).join();
+        } catch (CompletionException e) {
+            // Assert
+            assertTrue(e.getCause() instanceof UserNotFoundException);
+            return;
+        }
+        throw new AssertionError("Expected UserNotFoundException");
+    }
+
     @Test
     public void testGetAllUsers() {
         // Arrange
@@ -121,4 +163,53 @@ public class UserServiceTest {
         assertSame(expectedUsers, actualUsers);
         verify(userDao).getUsersPaginated(offset, size);
     }
+
+    @Test
+    public void testGetUserByIdAsync_UnknownIdSkipsDatabase() {
+        // Arrange
+        ApplicationProperties properties = new ApplicationProperties();
+        CaffeineCache cache = new CaffeineCache(properties, new MetricsService(properties));
+        UserEvents userEvents = new UserEvents();
+        ExistenceFilters filters = new ExistenceFilters(properties, cache, new MetricsService(properties), userEvents, new TradeEvents());
+        UserService filtered = new UserService(userDao, new AsyncUserDaoRepository(userDao, new JdbcExecutor(properties, new ConcurrencyLimiterRegistry(properties, null))), userEvents, filters);
+        filters.users().rebuild(() -> List.of("1"));
+
+        // Act
+        try {
+            filtered.getUserByIdAsync(999).join();
+            throw new AssertionError("Expected UserNotFoundException");
+        } catch (CompletionException e) {
+            // Assert
+            assertTrue(e.getCause() instanceof UserNotFoundException);
+            assertEquals(0, e.getCause().getStackTrace().length);
+        }
+        verify(userDao, never()).getUserById(999);
+    }
+
+    @Test
+    public void testGetUserById_MissIsCachedUntilUserIsCreated() {
+        // Arrange
+        ApplicationProperties properties = new ApplicationProperties();
+        CaffeineCache cache = new CaffeineCache(properties, new MetricsService(properties));
+        UserEvents userEvents = new UserEvents();
+        ExistenceFilters filters = new ExistenceFilters(properties, cache, new MetricsService(properties), userEvents, new TradeEvents());
+        UserService filtered = new UserService(userDao, new AsyncUserDaoRepository(userDao, new JdbcExecutor(properties, new ConcurrencyLimiterRegistry(properties, null))), userEvents, filters);
+        when(userDao.getUserById(2)).thenReturn(null);
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            try {
+                filtered.getUserById(2);
+            } catch (UserNotFoundException expected) {
+                // Repeated misses
+            }
+        }
+        User created = new User(2, "Jane Smith");
+        filtered.addUser(created);
+        when(userDao.getUserById(2)).thenReturn(created);
+
+        // Assert
+        assertSame(created, filtered.getUserById(2));
+        verify(userDao, times(2)).getUserById(2);
+    }
 }
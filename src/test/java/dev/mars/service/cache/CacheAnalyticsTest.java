@@ -0,0 +1,119 @@
+package dev.mars.service.cache;
+
+import dev.mars.config.ApplicationProperties;
+import dev.mars.service.metrics.MetricsService;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the cache analytics: hot keys, prefix hit rates, load latencies and removal causes.
+ */
+public class CacheAnalyticsTest {
+
+    @Test
+    void testHistogramReportsBucketUpperBounds() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 98; i++) {
+            histogram.record(3_000_000);          // 3ms, in the (2.048, 4.096] ms bucket
+        }
+        histogram.record(100_000_000);            // 100ms
+        histogram.record(200_000_000);            // 200ms
+
+        assertEquals(100, histogram.count());
+        assertEquals(4.096, histogram.percentileMillis(0.5));
+        assertEquals(4.096, histogram.percentileMillis(0.95));
+        assertEquals(131.072, histogram.percentileMillis(0.99));
+        assertEquals(200.0, histogram.maxMillis());
+        assertEquals(Map.of(4.096, 98L, 131.072, 1L, 262.144, 1L), histogram.buckets());
+    }
+
+    @Test
+    void testLookupsAreCountedByPrefixAndHotKeysRanked() {
+        CaffeineCache cache = cache(new ApplicationProperties());
+        CacheRegion pages = cache.region(CacheRegions.USER_PAGES);
+        CacheKey hot = CacheKey.page("users", 0, 20, null, null);
+        pages.put(hot, "page");
+        for (int i = 0; i < 50; i++) {
+            pages.get(hot, String.class);
+        }
+        pages.get(CacheKey.page("users", 1, 20, null, null), String.class);
+        pages.get(CacheKey.of("users:count"), String.class);
+        pages.get(CacheKey.page("trades", 0, 20, null, null), String.class);
+
+        CacheService.Analytics analytics = cache.getAnalytics(10);
+
+        assertEquals(new HotKey(CacheRegions.USER_PAGES, hot.toString(), 50), analytics.getHotKeys().get(0));
+        CacheService.PrefixStats users = analytics.getRegions().get(CacheRegions.USER_PAGES).getPrefixes().get(0);
+        assertEquals("users", users.getPrefix());
+        assertEquals(50, users.getHitCount());
+        assertEquals(2, users.getMissCount());
+        assertEquals(1, analytics.getRegions().get(CacheRegions.USER_PAGES).getPrefixes().get(1).getMissCount());
+    }
+
+    @Test
+    void testPrefixesBeyondTheLimitAreCountedTogether() {
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.getCache().getAnalytics().setMaxPrefixes(2);
+        CaffeineCache cache = cache(properties);
+        CacheRegion region = cache.region("prefixed");
+        for (String prefix : new String[] {"a", "b", "c", "d"}) {
+            region.get(CacheKey.id(prefix + ":", 1), String.class);
+        }
+
+        CacheService.RegionAnalytics analytics = cache.getAnalytics(10).getRegions().get("prefixed");
+
+        assertEquals(3, analytics.getPrefixes().size());
+        assertTrue(analytics.getPrefixes().stream()
+            .anyMatch(stats -> stats.getPrefix().equals(CacheAnalytics.OTHER_PREFIX) && stats.getMissCount() == 2));
+    }
+
+    @Test
+    void testLoadsAndRemovalsAreRecorded() {
+        ApplicationProperties properties = new ApplicationProperties();
+        ApplicationProperties.CacheConfig.RegionConfig tiny = new ApplicationProperties.CacheConfig.RegionConfig();
+        tiny.setMaxSize(1L);
+        properties.getCache().getRegions().put("tiny", tiny);
+        properties.getCache().setOffHeapEnabled(false);
+        CaffeineCache cache = cache(properties);
+        CacheRegion region = cache.region("tiny");
+
+        region.getOrCompute("a", String.class, () -> "A");
+        assertThrows(RuntimeException.class, () -> region.getOrCompute("b", String.class, () -> {
+            throw new IllegalStateException("load failed");
+        }));
+        region.put("a", "A2");
+        region.evict("a");
+        region.put("x", "X");
+        region.put("y", "Y");
+        region.put("z", "Z");
+        cache.forceCleanup();
+
+        CacheService.RegionAnalytics analytics = cache.getAnalytics(10).getRegions().get("tiny");
+        assertEquals(1, analytics.getLoads().getCount());
+        assertEquals(1, analytics.getLoads().getFailureCount());
+        assertEquals(1, analytics.getRemovals().get("replaced"));
+        assertEquals(1, analytics.getRemovals().get("explicit"));
+        assertEquals(2, analytics.getRemovals().get("size"));
+        assertEquals(0, analytics.getRemovals().get("expired"));
+    }
+
+    @Test
+    void testDisabledAnalyticsAreEmpty() {
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.getCache().getAnalytics().setEnabled(false);
+        CaffeineCache cache = cache(properties);
+        cache.region(CacheRegions.USER_PAGES).get("users:count", String.class);
+
+        CacheService.Analytics analytics = cache.getAnalytics(10);
+
+        assertTrue(analytics.getHotKeys().isEmpty());
+        assertTrue(analytics.getRegions().isEmpty());
+    }
+
+    private static CaffeineCache cache(ApplicationProperties properties) {
+        return new CaffeineCache(properties, new MetricsService(properties));
+    }
+}
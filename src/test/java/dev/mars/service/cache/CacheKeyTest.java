@@ -0,0 +1,77 @@
+package dev.mars.service.cache;
+
+import dev.mars.config.ApplicationProperties;
+import dev.mars.dto.PageRequest;
+import dev.mars.service.metrics.MetricsService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for structured cache keys.
+ */
+public class CacheKeyTest {
+
+    @Test
+    void testKeysRenderAndHashLikeTheirText() {
+        List<CacheKey> keys = List.of(
+            CacheKey.id(0),
+            CacheKey.id(42),
+            CacheKey.id(-7),
+            CacheKey.id(Long.MAX_VALUE),
+            CacheKey.id(Long.MIN_VALUE),
+            CacheKey.id("user:", 1234567890123L),
+            CacheKey.page("users", 3, 20, "name", PageRequest.SortDirection.DESC),
+            CacheKey.page("trades", 0, 100, null, null),
+            CacheKey.request("/api/v1/trades/paginated", CacheKey.page("trades", 12, 50, "symbol", "ASC")));
+
+        for (CacheKey key : keys) {
+            String text = key.toString();
+            assertEquals(text.hashCode(), key.hashCode(), text);
+            assertEquals(text.length(), key.length(), text);
+            assertEquals(CacheKey.of(text), key, text);
+            assertEquals(key, CacheKey.of(text), text);
+        }
+        assertEquals("users:page:3:size:20:sort:name:DESC", keys.get(6).toString());
+        assertEquals("trades:page:0:size:100:sort:null:null", keys.get(7).toString());
+        assertEquals("/api/v1/trades/paginated?trades:page:12:size:50:sort:symbol:ASC", keys.get(8).toString());
+    }
+
+    @Test
+    void testKeysOfTheSameKindCompareParts() {
+        assertEquals(CacheKey.page("users", 1, 20, "id", "ASC"), CacheKey.page("users", 1, 20, "id", "ASC"));
+        assertNotEquals(CacheKey.page("users", 1, 20, "id", "ASC"), CacheKey.page("users", 1, 20, "id", "DESC"));
+        assertNotEquals(CacheKey.page("users", 1, 20, "id", "ASC"), CacheKey.page("trades", 1, 20, "id", "ASC"));
+        assertNotEquals(CacheKey.id(12), CacheKey.id(21));
+        assertNotEquals(CacheKey.id("a", 1), CacheKey.id("b", 1));
+        assertNotEquals(CacheKey.id(1), "1");
+    }
+
+    @Test
+    void testStructuredAndStringKeysNameTheSameEntry() {
+        ApplicationProperties properties = new ApplicationProperties();
+        CaffeineCache cache = new CaffeineCache(properties, new MetricsService(properties));
+        CacheRegion region = cache.region(CacheRegions.USER_BY_ID);
+
+        region.put(CacheKey.id(42), "alice", Set.of("user:42"));
+        assertEquals("alice", region.get("42", String.class).orElseThrow());
+
+        region.evict("42");
+        assertTrue(region.get(CacheKey.id(42), String.class).isEmpty());
+    }
+
+    @Test
+    void testRemoteEvictionReachesStructuredKeys() {
+        ApplicationProperties properties = new ApplicationProperties();
+        CaffeineCache cache = new CaffeineCache(properties, new MetricsService(properties));
+        CacheKey key = CacheKey.page("users", 0, 20, null, null);
+        cache.region(CacheRegions.USER_PAGES).put(key, "page");
+
+        cache.applyInvalidation(Invalidation.key(CacheRegions.USER_PAGES, key.toString()));
+
+        assertTrue(cache.region(CacheRegions.USER_PAGES).get(key, String.class).isEmpty());
+    }
+}
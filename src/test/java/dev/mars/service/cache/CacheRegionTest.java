@@ -0,0 +1,350 @@
+package dev.mars.service.cache;
+
+import dev.mars.config.ApplicationProperties;
+import dev.mars.dao.model.Trade;
+import dev.mars.dao.model.User;
+import dev.mars.dto.PageRequest;
+import dev.mars.dto.PageResponse;
+import dev.mars.service.metrics.MetricsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for named cache regions and their independent policies.
+ */
+public class CacheRegionTest {
+
+    private ApplicationProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ApplicationProperties();
+        ApplicationProperties.CacheConfig.RegionConfig small = new ApplicationProperties.CacheConfig.RegionConfig();
+        small.setMaxSize(10L);
+        ApplicationProperties.CacheConfig.RegionConfig weighted = new ApplicationProperties.CacheConfig.RegionConfig();
+        weighted.setMaxWeight(100L);
+        properties.getCache().getRegions().put("small", small);
+        properties.getCache().getRegions().put("weighted", weighted);
+    }
+
+    @Test
+    void testRegionsAreIsolated() {
+        CaffeineCache cache = new CaffeineCache(properties, new MetricsService(properties));
+        CacheRegion users = cache.region(CacheRegions.USER_BY_ID);
+        CacheRegion small = cache.region("small");
+
+        users.put("user:1", "Alice");
+        for (int i = 0; i < 1000; i++) {
+            small.put("page:" + i, "value");
+        }
+        cache.forceCleanup();
+
+        assertEquals("Alice", users.get("user:1", String.class).orElseThrow());
+        assertTrue(small.getStats().getSize() <= 10);
+        assertTrue(cache.get("user:1", String.class).isEmpty(), "Default region must not see other regions' keys");
+    }
+
+    @Test
+    void testWeightBoundsLargeValues() {
+        CaffeineCache cache = new CaffeineCache(properties, new MetricsService(properties));
+        CacheRegion weighted = cache.region("weighted");
+
+        List<Integer> content = Collections.nCopies(49, 0);
+        for (int i = 0; i < 10; i++) {
+            weighted.put("page:" + i, PageResponse.of(content, new PageRequest(), 49));
+        }
+        cache.forceCleanup();
+
+        assertTrue(weighted.getStats().getSize() <= 2, "Each page weighs 50, so at most two fit in 100");
+        assertEquals(50, CaffeineCacheRegion.weigh(PageResponse.of(content, new PageRequest(), 49)));
+        assertEquals(1, CaffeineCacheRegion.weigh("single"));
+    }
+
+    @Test
+    void testRegionStatsAndAggregate() {
+        CaffeineCache cache = new CaffeineCache(properties, new MetricsService(properties));
+        cache.region("small").put("a", "1");
+        cache.region("small").get("a", String.class);
+        cache.region("weighted").get("missing", String.class);
+
+        Map<String, CacheService.CacheStats> stats = cache.getRegionStats();
+        assertTrue(stats.keySet().containsAll(List.of(CacheRegions.DEFAULT, "small", "weighted")));
+        assertEquals(1, stats.get("small").getHitCount());
+        assertEquals(1, stats.get("weighted").getMissCount());
+        assertEquals(1, cache.getStats().getHitCount());
+        assertEquals(1, cache.getStats().getMissCount());
+
+        cache.evictAll();
+        cache.forceCleanup();
+        assertEquals(0, cache.getStats().getSize());
+    }
+
+    @Test
+    void testRefreshServesCurrentValueAndReloadsInBackground() throws Exception {
+        CaffeineCacheRegion region = new CaffeineCacheRegion("refreshing",
+            new CaffeineCacheRegion.Settings(100, null, Duration.ofMinutes(10), Duration.ofMillis(50)),
+            new MetricsService(properties), Runnable::run);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals(1, region.getOrComputeAsync("k", Integer.class,
+            () -> CompletableFuture.completedFuture(loads.incrementAndGet())).get(1, TimeUnit.SECONDS));
+        Thread.sleep(100);
+
+        // Due for refresh: the old value is served while the reload runs
+        CompletableFuture<Integer> reload = new CompletableFuture<>();
+        assertEquals(1, region.getOrComputeAsync("k", Integer.class, () -> reload).get(1, TimeUnit.SECONDS));
+        assertEquals(1, region.getOrComputeAsync("k", Integer.class,
+            () -> CompletableFuture.failedFuture(new AssertionError("refresh already in flight"))).get(1, TimeUnit.SECONDS));
+
+        reload.complete(2);
+        assertEquals(2, region.get("k", Integer.class).orElseThrow());
+    }
+
+    @Test
+    void testFailedRefreshKeepsValue() throws Exception {
+        CaffeineCacheRegion region = new CaffeineCacheRegion("refreshing",
+            new CaffeineCacheRegion.Settings(100, null, Duration.ofMinutes(10), Duration.ofMillis(50)),
+            new MetricsService(properties), Runnable::run);
+        region.put("k", 1);
+        Thread.sleep(100);
+
+        assertEquals(1, region.getOrComputeAsync("k", Integer.class,
+            () -> CompletableFuture.failedFuture(new IllegalStateException("db down"))).get(1, TimeUnit.SECONDS));
+        assertEquals(1, region.get("k", Integer.class).orElseThrow());
+    }
+
+    @Test
+    void testSyncRefreshKeepsTheEntryTags() throws Exception {
+        CaffeineCacheRegion region = new CaffeineCacheRegion("refreshing",
+            new CaffeineCacheRegion.Settings(100, null, Duration.ofMinutes(10), Duration.ofMillis(50)),
+            new MetricsService(properties), Runnable::run);
+        region.put("k", 1, Set.of("trade:1"));
+        Thread.sleep(100);
+
+        assertEquals(1, region.getOrCompute("k", Integer.class, () -> 2));
+        assertEquals(2, region.get("k", Integer.class).orElseThrow());
+
+        assertEquals(1, region.invalidateTag("trade:1"), "The refreshed entry is still reached by its tag");
+        assertTrue(region.get("k", Integer.class).isEmpty());
+    }
+
+    @Test
+    void testSyncLoadRacingWithInvalidationIsNotCached() throws Exception {
+        CaffeineCacheRegion region = new CaffeineCacheRegion("stale-if-error",
+            new CaffeineCacheRegion.Settings(100, null, Duration.ofMillis(50), null, null, Duration.ofMinutes(1)),
+            new MetricsService(properties), Runnable::run);
+        region.put("k", "old", Set.of("trade:1"));
+        Thread.sleep(100);
+
+        String loaded = region.getOrCompute("k", String.class, () -> {
+            region.invalidateTag("trade:1");
+            return "loaded before the invalidation";
+        });
+
+        assertEquals("loaded before the invalidation", loaded);
+        assertTrue(region.get("k", String.class).isEmpty(), "A value loaded across an invalidation must not be cached");
+    }
+
+    @Test
+    void testStaleWhileRevalidateServesExpiredEntryAndReloadsInBackground() throws Exception {
+        List<Runnable> background = new ArrayList<>();
+        CaffeineCacheRegion region = new CaffeineCacheRegion("swr",
+            new CaffeineCacheRegion.Settings(100, null, Duration.ofMillis(50), null, Duration.ofMinutes(1), null),
+            new MetricsService(properties), background::add);
+        region.put("k", 1);
+        Thread.sleep(100);
+
+        // Past its time to live but inside the window: served immediately, reload queued in the background
+        assertEquals(1, region.getOrComputeAsync("k", Integer.class,
+            () -> CompletableFuture.completedFuture(2)).get(1, TimeUnit.SECONDS));
+        assertEquals(1, background.size());
+        assertEquals(1, region.get("k", Integer.class).orElseThrow());
+
+        background.forEach(Runnable::run);
+        assertEquals(2, region.get("k", Integer.class).orElseThrow());
+    }
+
+    @Test
+    void testStaleIfErrorServesExpiredEntryWhenLoadFails() throws Exception {
+        CaffeineCacheRegion region = new CaffeineCacheRegion("sie",
+            new CaffeineCacheRegion.Settings(100, null, Duration.ofMillis(50), null, null, Duration.ofMinutes(1)),
+            new MetricsService(properties), Runnable::run);
+        region.put("k", 1);
+        Thread.sleep(100);
+
+        // Expired entries are not plain hits, but back up a failing load
+        assertTrue(region.get("k", Integer.class).isEmpty());
+        assertEquals(1, region.getOrComputeAsync("k", Integer.class,
+            () -> CompletableFuture.failedFuture(new IllegalStateException("db down"))).get(1, TimeUnit.SECONDS));
+        assertEquals(1, region.getOrCompute("k", Integer.class, () -> {
+            throw new IllegalStateException("db down");
+        }));
+
+        // A successful load replaces the stale entry
+        assertEquals(2, region.getOrComputeAsync("k", Integer.class,
+            () -> CompletableFuture.completedFuture(2)).get(1, TimeUnit.SECONDS));
+        assertEquals(2, region.get("k", Integer.class).orElseThrow());
+    }
+
+    @Test
+    void testExpiredEntryWithoutStaleWindowsIsReloaded() throws Exception {
+        CaffeineCacheRegion region = new CaffeineCacheRegion("plain",
+            new CaffeineCacheRegion.Settings(100, null, Duration.ofMillis(50), null),
+            new MetricsService(properties), Runnable::run);
+        region.put("k", 1);
+        Thread.sleep(100);
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> region.getOrComputeAsync("k", Integer.class,
+            () -> CompletableFuture.<Integer>failedFuture(new IllegalStateException("db down"))).get(1, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+    }
+
+    @Test
+    void testLoadingRegionLoadsByKey() throws Exception {
+        CaffeineCache cache = new CaffeineCache(properties, new MetricsService(properties));
+        AtomicInteger loads = new AtomicInteger();
+        LoadingCacheRegion<String> region = cache.loadingRegion("loading", String.class, key -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("value-" + key);
+        }, value -> Set.of("tag"));
+
+        assertEquals("value-1", region.get("1").get(1, TimeUnit.SECONDS));
+        assertEquals("value-1", region.get("1").get(1, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+
+        cache.invalidateTag("tag");
+        assertEquals("value-1", region.get("1").get(1, TimeUnit.SECONDS));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testMemoryBudgetBoundsEstimatedBytes() {
+        ApplicationProperties.CacheConfig.RegionConfig budgeted = new ApplicationProperties.CacheConfig.RegionConfig();
+        budgeted.setMaxMemoryMb(1L);
+        properties.getCache().getRegions().put("budgeted", budgeted);
+        CaffeineCache cache = new CaffeineCache(properties, new MetricsService(properties));
+        CacheRegion region = cache.region("budgeted");
+
+        for (int i = 0; i < 200; i++) {
+            region.put("page:" + i, PageResponse.of(trades(100), new PageRequest(), 100));
+        }
+        cache.forceCleanup();
+
+        CacheService.WeightStats weight = region.getStats().getWeight();
+        assertEquals(CaffeineCacheRegion.WEIGHT_UNIT_BYTES, weight.getUnit());
+        assertEquals(1024 * 1024, weight.getMaximum());
+        assertTrue(weight.getWeightedSize() <= weight.getMaximum());
+        assertTrue(region.getStats().getSize() < 200, "Pages of 100 trades must not all fit in 1 MB");
+        assertEquals(weight.getWeightedSize(), cache.getStats().getWeight().getWeightedSize());
+    }
+
+    @Test
+    void testGlobalMemoryBudgetAppliesOnlyToUnboundedRegions() {
+        properties.getCache().setMaxMemoryMb(8L);
+        CaffeineCache cache = new CaffeineCache(properties, new MetricsService(properties));
+
+        assertEquals(CaffeineCacheRegion.WEIGHT_UNIT_BYTES, cache.region("other").getStats().getWeight().getUnit());
+        assertEquals(CaffeineCacheRegion.WEIGHT_UNIT_ENTRIES, cache.region("small").getStats().getWeight().getUnit());
+        assertEquals(CaffeineCacheRegion.WEIGHT_UNIT_ELEMENTS, cache.region("weighted").getStats().getWeight().getUnit());
+    }
+
+    @Test
+    void testSizeEstimatesScaleWithContent() {
+        long user = SizeEstimator.of(new User(1, "Alice"));
+        long smallPage = SizeEstimator.of(PageResponse.of(trades(10), new PageRequest(), 10));
+        long largePage = SizeEstimator.of(PageResponse.of(trades(100), new PageRequest(), 100));
+
+        assertTrue(user > 0 && user < 200, "A user is a few small objects: " + user);
+        assertTrue(largePage > 100 * user, "A page of 100 trades outweighs 100 users: " + largePage);
+        assertEquals(10.0, (double) largePage / smallPage, 1.0);
+        assertTrue(SizeEstimator.of(new byte[4096]) >= 4096);
+    }
+
+    private static List<Trade> trades(int count) {
+        List<Trade> trades = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            trades.add(new Trade(i, "AAPL", 100, 150.5, "BUY", "PENDING",
+                LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 17), "Broker XYZ", "Trade " + i));
+        }
+        return trades;
+    }
+
+    @Test
+    void testSizeEvictionsSpillOffHeapAndArePromotedOnRead() {
+        CaffeineCacheRegion region = twoTierRegion();
+        for (int i = 0; i < 50; i++) {
+            region.put("user:" + i, "value-" + i, Set.of("user:" + i));
+        }
+        region.cleanUp();
+
+        CacheService.CacheStats stats = region.getStats();
+        assertTrue(stats.getSize() <= 5);
+        assertTrue(stats.getOffHeap().getSize() >= 45, "Entries evicted for size must move off-heap");
+
+        AtomicInteger loads = new AtomicInteger();
+        assertEquals("value-0", region.getOrCompute("user:0", String.class, () -> {
+            loads.incrementAndGet();
+            return "reloaded";
+        }));
+        assertEquals(0, loads.get(), "An off-heap hit must not reach the loader");
+        assertEquals(1, region.getStats().getOffHeap().getHitCount());
+        assertEquals("value-0", region.get("user:0", String.class).orElseThrow());
+    }
+
+    @Test
+    void testTagInvalidationReachesOffHeapEntries() {
+        CaffeineCacheRegion region = twoTierRegion();
+        for (int i = 0; i < 50; i++) {
+            region.put("user:" + i, "value-" + i, Set.of("user:" + i, "users"));
+        }
+        region.cleanUp();
+
+        assertEquals(50, region.invalidateTag("users"));
+        assertEquals(0, region.getStats().getOffHeap().getSize());
+        assertTrue(region.get("user:0", String.class).isEmpty());
+    }
+
+    @Test
+    void testOffHeapTierIsOptional() {
+        properties.getCache().setOffHeapEnabled(false);
+        ApplicationProperties.CacheConfig.RegionConfig config = new ApplicationProperties.CacheConfig.RegionConfig();
+        config.setOffHeapMb(1L);
+        properties.getCache().getRegions().put("tiered", config);
+        CaffeineCache cache = new CaffeineCache(properties, new MetricsService(properties));
+
+        cache.region("tiered").put("a", "1");
+        assertNull(cache.getRegionStats().get("tiered").getOffHeap());
+    }
+
+    private CaffeineCacheRegion twoTierRegion() {
+        return new CaffeineCacheRegion("two-tier",
+            new CaffeineCacheRegion.Settings(5, null, null, Duration.ofMinutes(5), null, null, null, 64 * 1024),
+            new MetricsService(properties), Runnable::run);
+    }
+
+    @Test
+    void testDisabledCachePassesThrough() {
+        properties.getCache().setEnabled(false);
+        CaffeineCache cache = new CaffeineCache(properties, new MetricsService(properties));
+        CacheRegion region = cache.region("small");
+
+        region.put("a", "1");
+        assertTrue(region.get("a", String.class).isEmpty());
+        assertEquals("computed", region.getOrCompute("a", String.class, () -> "computed"));
+        assertTrue(cache.getRegionStats().isEmpty());
+    }
+}
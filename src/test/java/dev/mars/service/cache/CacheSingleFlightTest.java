@@ -0,0 +1,160 @@
+package dev.mars.service.cache;
+
+import dev.mars.config.ApplicationProperties;
+import dev.mars.dao.model.Trade;
+import dev.mars.dao.respository.TradeDao;
+import dev.mars.exception.DeadlineExceededException;
+import dev.mars.service.async.Futures;
+import dev.mars.service.deadline.Deadline;
+import dev.mars.service.deadline.DeadlineContext;
+import dev.mars.service.metrics.MetricsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * Contention tests showing that concurrent cache misses for a key share a single load.
+ */
+public class CacheSingleFlightTest {
+
+    private static final int THREADS = 32;
+    private static final int KEYS = 4;
+
+    private CacheService cacheService;
+    private TradeDao tradeDao;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties properties = new ApplicationProperties();
+        cacheService = new CaffeineCache(properties, new MetricsService(properties));
+        executor = Executors.newFixedThreadPool(THREADS);
+
+        // A slow DAO widens the window in which concurrent misses can pile up
+        tradeDao = mock(TradeDao.class);
+        when(tradeDao.getTradeById(anyInt())).thenAnswer(invocation -> {
+            Thread.sleep(100);
+            int id = invocation.getArgument(0);
+            return new Trade(id, "AAPL", 100, 150.5, "BUY", "PENDING",
+                LocalDate.now(), LocalDate.now().plusDays(2), "Broker XYZ", "Trade " + id);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testConcurrentSyncMissesLoadOncePerKey() throws Exception {
+        List<Future<Trade>> results = runConcurrently(id ->
+            cacheService.getOrCompute("trade:" + id, Trade.class, () -> tradeDao.getTradeById(id)));
+
+        assertAllLoaded(results);
+        for (int id = 0; id < KEYS; id++) {
+            verify(tradeDao, times(1)).getTradeById(id);
+        }
+    }
+
+    @Test
+    void testConcurrentAsyncMissesLoadOncePerKey() throws Exception {
+        List<Future<Trade>> results = runConcurrently(id ->
+            cacheService.getOrComputeAsync("trade:" + id, Trade.class,
+                () -> CompletableFuture.supplyAsync(() -> tradeDao.getTradeById(id))).join());
+
+        assertAllLoaded(results);
+        for (int id = 0; id < KEYS; id++) {
+            verify(tradeDao, times(1)).getTradeById(id);
+        }
+    }
+
+    @Test
+    void testSyncAndAsyncMissesShareOneLoad() throws Exception {
+        List<Future<Trade>> results = runConcurrently(id -> id % 2 == 0
+            ? cacheService.getOrCompute("trade:mixed", Trade.class, () -> tradeDao.getTradeById(42))
+            : cacheService.getOrComputeAsync("trade:mixed", Trade.class,
+                () -> CompletableFuture.supplyAsync(() -> tradeDao.getTradeById(42))).join());
+
+        assertAllLoaded(results);
+        verify(tradeDao, times(1)).getTradeById(42);
+    }
+
+    @Test
+    void testShortDeadlineOnlyFailsItsOwnWait() {
+        CompletableFuture<Trade> load = new CompletableFuture<>();
+        List<Deadline> loadDeadlines = new ArrayList<>();
+        DeadlineContext.set(Deadline.after(Duration.ofMillis(20), Duration.ofSeconds(30)));
+        CompletableFuture<Trade> impatient;
+        try {
+            impatient = cacheService.getOrComputeAsync("trade:shared", Trade.class, () -> {
+                loadDeadlines.add(DeadlineContext.current());
+                return load;
+            });
+        } finally {
+            DeadlineContext.clear();
+        }
+        CompletableFuture<Trade> patient = cacheService.getOrComputeAsync("trade:shared", Trade.class,
+            () -> CompletableFuture.failedFuture(new AssertionError("The in-flight load is shared")));
+
+        CompletionException e = assertThrows(CompletionException.class, impatient::join);
+        assertInstanceOf(DeadlineExceededException.class, Futures.unwrap(e));
+        assertTrue(loadDeadlines.get(0).remainingMillis() > 1000, "The load runs under the shared deadline");
+
+        load.complete(tradeDao.getTradeById(9));
+        assertEquals(9, patient.join().getId());
+    }
+
+    @Test
+    void testFailedLoadIsNotCachedAndIsRetried() {
+        RuntimeException failure = new IllegalStateException("database down");
+
+        assertThrows(RuntimeException.class, () ->
+            cacheService.getOrCompute("trade:failing", Trade.class, () -> {
+                throw failure;
+            }));
+
+        Trade trade = cacheService.getOrCompute("trade:failing", Trade.class, () -> tradeDao.getTradeById(7));
+        assertEquals(7, trade.getId());
+    }
+
+    private List<Future<Trade>> runConcurrently(Loader loader) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Trade>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            int id = i % KEYS;
+            results.add(executor.submit(() -> {
+                start.await();
+                return loader.load(id);
+            }));
+        }
+        start.countDown();
+        return results;
+    }
+
+    private static void assertAllLoaded(List<Future<Trade>> results) throws Exception {
+        for (Future<Trade> result : results) {
+            assertNotNull(result.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @FunctionalInterface
+    private interface Loader {
+        Trade load(int id) throws Exception;
+    }
+}
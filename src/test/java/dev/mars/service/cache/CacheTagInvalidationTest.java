@@ -0,0 +1,124 @@
+package dev.mars.service.cache;
+
+import dev.mars.config.ApplicationProperties;
+import dev.mars.dao.model.Trade;
+import dev.mars.dto.PageRequest;
+import dev.mars.dto.PageResponse;
+import dev.mars.service.events.TradeEvent;
+import dev.mars.service.events.TradeEvents;
+import dev.mars.service.events.UserEvents;
+import dev.mars.service.metrics.MetricsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for tag-based cache invalidation.
+ */
+public class CacheTagInvalidationTest {
+
+    private CaffeineCache cache;
+    private TradeEvents tradeEvents;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties properties = new ApplicationProperties();
+        cache = new CaffeineCache(properties, new MetricsService(properties));
+        tradeEvents = new TradeEvents();
+        new CacheInvalidator(cache, tradeEvents, new UserEvents());
+    }
+
+    @Test
+    void testInvalidateTagRemovesOnlyTaggedEntries() {
+        CacheRegion pages = cache.region(CacheRegions.TRADE_PAGES);
+        CacheRegion aggregates = cache.region(CacheRegions.AGGREGATES);
+        pages.put("page:0", "p0", Set.of("trades", "trade:1"));
+        pages.put("page:1", "p1", Set.of("trades", "trade:2"));
+        aggregates.put("count", 2L, Set.of("trades"));
+        aggregates.put("other", "x");
+
+        assertEquals(1, cache.invalidateTag("trade:1"));
+        assertTrue(pages.get("page:0", String.class).isEmpty());
+        assertEquals("p1", pages.get("page:1", String.class).orElseThrow());
+
+        assertEquals(2, cache.invalidateTag("trades"));
+        assertTrue(pages.get("page:1", String.class).isEmpty());
+        assertTrue(aggregates.get("count", Long.class).isEmpty());
+        assertEquals("x", aggregates.get("other", String.class).orElseThrow());
+        assertEquals(0, cache.invalidateTag("trades"));
+    }
+
+    @Test
+    void testRetaggingReplacesOldTags() {
+        CacheRegion region = cache.region("retag");
+        region.put("k", "v1", Set.of("a"));
+        region.put("k", "v2", Set.of("b"));
+
+        assertEquals(0, region.invalidateTag("a"));
+        assertEquals(1, region.invalidateTag("b"));
+        assertTrue(region.get("k", String.class).isEmpty());
+    }
+
+    @Test
+    void testTradeEventsInvalidatePreciselyByType() throws Exception {
+        CacheRegion pages = cache.region(CacheRegions.TRADE_PAGES);
+        cacheTradePage(pages, "page:0", 1, 2);
+        cacheTradePage(pages, "page:1", 3, 4);
+
+        // Updating trade 3 only affects the page that contains it
+        tradeEvents.publish(TradeEvent.updated(trade(3)));
+        assertTrue(pages.get("page:0", PageResponse.class).isPresent());
+        assertTrue(pages.get("page:1", PageResponse.class).isEmpty());
+
+        // Creating a trade shifts every page
+        tradeEvents.publish(TradeEvent.created(trade(5)));
+        assertTrue(pages.get("page:0", PageResponse.class).isEmpty());
+    }
+
+    @Test
+    void testLoadRacingWithInvalidationIsNotCached() throws Exception {
+        CacheRegion region = cache.region("race");
+        CompletableFuture<String> slowLoad = new CompletableFuture<>();
+        CompletableFuture<String> result = region.getOrComputeAsync("k", String.class, () -> slowLoad, value -> Set.of("t"));
+
+        region.invalidateTag("t");
+        slowLoad.complete("stale");
+
+        assertEquals("stale", result.get(1, TimeUnit.SECONDS));
+        assertTrue(region.get("k", String.class).isEmpty(), "A value loaded across an invalidation must not be cached");
+
+        String fresh = region.getOrComputeAsync("k", String.class,
+            () -> CompletableFuture.completedFuture("fresh"), value -> Set.of("t")).get(1, TimeUnit.SECONDS);
+        assertEquals("fresh", fresh);
+        assertEquals("fresh", region.get("k", String.class).orElseThrow());
+    }
+
+    @Test
+    void testEvictionCleansTagIndex() {
+        CacheRegion region = cache.region("evicting");
+        region.put("k", "v", Set.of("t"));
+        region.evict("k");
+
+        assertEquals(0, region.invalidateTag("t"));
+    }
+
+    private static void cacheTradePage(CacheRegion region, String key, int... ids) throws Exception {
+        List<Trade> trades = Arrays.stream(ids).mapToObj(CacheTagInvalidationTest::trade).toList();
+        region.getOrComputeAsync(key, PageResponse.class,
+            () -> CompletableFuture.completedFuture(PageResponse.of(trades, new PageRequest(), trades.size())),
+            CacheTags::tradePage).get(1, TimeUnit.SECONDS);
+    }
+
+    private static Trade trade(int id) {
+        return new Trade(id, "AAPL", 100, 150.5, "BUY", "PENDING",
+            LocalDate.now(), LocalDate.now().plusDays(2), "Broker XYZ", "Trade " + id);
+    }
+}
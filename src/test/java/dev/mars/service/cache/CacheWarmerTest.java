@@ -0,0 +1,119 @@
+package dev.mars.service.cache;
+
+import dev.mars.config.ApplicationProperties;
+import dev.mars.service.metrics.MetricsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for hot-key tracking and cache warmup across restarts.
+ */
+public class CacheWarmerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ApplicationProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ApplicationProperties();
+        properties.getCache().getWarmup().setFile(tempDir.resolve("hot-keys.json").toString());
+        properties.getCache().getWarmup().setTopK(10);
+    }
+
+    @Test
+    void testTrackerFindsHottestKeysAmongNoise() {
+        HotKeyTracker tracker = new HotKeyTracker(10);
+        for (int round = 0; round < 100; round++) {
+            for (int hot = 0; hot < 10; hot++) {
+                tracker.record("users", CacheKey.of("hot-" + hot));
+            }
+            for (int cold = 0; cold < 20; cold++) {
+                tracker.record("users", CacheKey.of("cold-" + round + "-" + cold));
+            }
+        }
+
+        List<HotKey> top = tracker.top(10);
+        assertEquals(10, top.size());
+        assertTrue(top.stream().allMatch(key -> key.key().startsWith("hot-")), top.toString());
+        assertTrue(top.get(0).frequency() >= top.get(9).frequency());
+    }
+
+    @Test
+    void testSavedKeysAreLoadedAfterRestart() throws Exception {
+        CaffeineCache before = new CaffeineCache(properties, new MetricsService(properties));
+        LoadingCacheRegion<String> users = before.loadingRegion("users", String.class,
+            key -> CompletableFuture.completedFuture("user-" + key), value -> Set.of());
+        for (int i = 0; i < 50; i++) {
+            users.get("1").join();
+            users.get("2").join();
+        }
+        users.get("3").join();
+        assertEquals(3, new CacheWarmer(properties, before, new MetricsService(properties)).saveHotKeys());
+
+        CaffeineCache after = new CaffeineCache(properties, new MetricsService(properties));
+        Set<String> loaded = ConcurrentHashMap.newKeySet();
+        after.loadingRegion("users", String.class, key -> {
+            loaded.add(key);
+            return CompletableFuture.completedFuture("user-" + key);
+        }, value -> Set.of());
+        CacheWarmer warmer = new CacheWarmer(properties, after, new MetricsService(properties));
+
+        warmer.warmUp().get(5, TimeUnit.SECONDS);
+
+        assertTrue(warmer.isWarm());
+        assertEquals(Set.of("1", "2", "3"), loaded);
+        assertEquals("user-1", after.region("users").get("1", String.class).orElseThrow());
+        assertTrue(after.getHotKeys(10).isEmpty(), "Warmup loads must not count as accesses");
+    }
+
+    @Test
+    void testWarmupToleratesFailedLoadsAndUnknownRegions() throws Exception {
+        Files.writeString(Path.of(properties.getCache().getWarmup().getFile()),
+            "[{\"region\":\"users\",\"key\":\"1\",\"frequency\":5},"
+                + "{\"region\":\"gone\",\"key\":\"2\",\"frequency\":3}]");
+        CaffeineCache cache = new CaffeineCache(properties, new MetricsService(properties));
+        cache.loadingRegion("users", String.class,
+            key -> CompletableFuture.failedFuture(new IllegalStateException("db down")), value -> Set.of());
+
+        new CacheWarmer(properties, cache, new MetricsService(properties)).warmUp().get(5, TimeUnit.SECONDS);
+
+        assertTrue(cache.region("users").get("1", String.class).isEmpty());
+    }
+
+    @Test
+    void testMissingOrCorruptFileMeansColdStart() throws Exception {
+        CaffeineCache cache = new CaffeineCache(properties, new MetricsService(properties));
+        CacheWarmer missing = new CacheWarmer(properties, cache, new MetricsService(properties));
+        assertTrue(missing.warmUp().isDone());
+
+        Files.writeString(Path.of(properties.getCache().getWarmup().getFile()), "not json");
+        CacheWarmer corrupt = new CacheWarmer(properties, cache, new MetricsService(properties));
+        assertTrue(corrupt.warmUp().isDone());
+        assertTrue(corrupt.isWarm());
+    }
+
+    @Test
+    void testDisabledWarmupTracksAndSavesNothing() {
+        properties.getCache().getWarmup().setEnabled(false);
+        CaffeineCache cache = new CaffeineCache(properties, new MetricsService(properties));
+        cache.loadingRegion("users", String.class, key -> CompletableFuture.completedFuture(key), value -> Set.of())
+            .get("1").join();
+
+        assertTrue(cache.getHotKeys(10).isEmpty());
+        assertEquals(0, new CacheWarmer(properties, cache, new MetricsService(properties)).saveHotKeys());
+        assertFalse(Files.exists(Path.of(properties.getCache().getWarmup().getFile())));
+    }
+}
@@ -0,0 +1,112 @@
+package dev.mars.service.cache;
+
+import dev.mars.config.ApplicationProperties;
+import dev.mars.service.metrics.MetricsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the Bloom filter and negative cache in front of lookups by id.
+ */
+public class ExistenceFilterTest {
+
+    private CaffeineCache cache;
+    private ExistenceFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties properties = new ApplicationProperties();
+        cache = new CaffeineCache(properties, new MetricsService(properties));
+        filter = new ExistenceFilter("users", cache.region(CacheRegions.USER_MISSES), new MetricsService(properties),
+            true, 1000, 0.01);
+    }
+
+    @Test
+    void testBloomFilterHasNoFalseNegativesAndFewFalsePositives() {
+        BloomFilter bloom = new BloomFilter(10_000, 0.01);
+        for (int id = 0; id < 10_000; id++) {
+            bloom.add(String.valueOf(id));
+        }
+
+        for (int id = 0; id < 10_000; id++) {
+            assertTrue(bloom.mightContain(String.valueOf(id)));
+        }
+        long falsePositives = IntStream.range(10_000, 110_000)
+            .filter(id -> bloom.mightContain(String.valueOf(id)))
+            .count();
+        assertTrue(falsePositives < 2_000, "False-positive rate too high: " + falsePositives + " in 100000");
+    }
+
+    @Test
+    void testEveryIdMightExistUntilRebuilt() {
+        assertFalse(filter.isReady());
+        assertTrue(filter.mightExist("42"));
+
+        filter.rebuild(() -> List.of("1", "2", "3"));
+
+        assertTrue(filter.isReady());
+        assertTrue(filter.mightExist("2"));
+        assertFalse(filter.mightExist("42"));
+    }
+
+    @Test
+    void testRecordedMissIsRejectedUntilTheIdIsAdded() {
+        filter.rebuild(() -> List.of("1"));
+
+        filter.recordMissing("1");
+        assertFalse(filter.mightExist("1"));
+
+        filter.added("1");
+        assertTrue(filter.mightExist("1"));
+    }
+
+    @Test
+    void testAddedIdIsAcceptedAndClearsItsMissOnEveryListener() {
+        filter.rebuild(() -> List.of());
+        List<Invalidation> published = new ArrayList<>();
+        cache.addInvalidationListener(published::add);
+
+        filter.added("7");
+
+        assertTrue(filter.mightExist("7"));
+        assertEquals(List.of(Invalidation.key(CacheRegions.USER_MISSES, "7")), published);
+    }
+
+    @Test
+    void testIdsAddedDuringRebuildAreKept() {
+        filter.rebuild(() -> {
+            filter.added("99");
+            return List.of("1");
+        });
+
+        assertTrue(filter.mightExist("1"));
+        assertTrue(filter.mightExist("99"));
+    }
+
+    @Test
+    void testIdAddedOnAnotherNodeIsAccepted() {
+        filter.rebuild(() -> List.of());
+
+        filter.addedRemotely("5");
+
+        assertTrue(filter.mightExist("5"));
+    }
+
+    @Test
+    void testDisabledBloomFilterOnlyCachesMisses() {
+        ApplicationProperties properties = new ApplicationProperties();
+        ExistenceFilter missesOnly = new ExistenceFilter("trades", cache.region(CacheRegions.TRADE_MISSES),
+            new MetricsService(properties), false, 1000, 0.01);
+
+        assertEquals(0, missesOnly.rebuild(() -> List.of("1")));
+        assertTrue(missesOnly.mightExist("42"));
+        missesOnly.recordMissing("42");
+        assertFalse(missesOnly.mightExist("42"));
+    }
+}
@@ -0,0 +1,98 @@
+package dev.mars.service.cache;
+
+import dev.mars.dao.model.Trade;
+import dev.mars.dao.model.User;
+import dev.mars.dto.PageRequest;
+import dev.mars.dto.PageResponse;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the off-heap cache tier and the serializer that feeds it.
+ */
+public class OffHeapStoreTest {
+
+    @Test
+    void testPutGetAndRemove() {
+        OffHeapStore store = new OffHeapStore(1024, key -> { });
+
+        assertTrue(store.put("a", bytes("alpha"), 42L));
+        OffHeapStore.Record record = store.get("a");
+
+        assertEquals("alpha", new String(record.bytes(), StandardCharsets.UTF_8));
+        assertEquals(42L, record.writtenAt());
+        assertNull(store.get("b"));
+        assertEquals(1, store.hitCount());
+        assertEquals(1, store.missCount());
+
+        assertTrue(store.remove("a"));
+        assertFalse(store.contains("a"));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void testOverwritesOldestWhenFull() {
+        List<String> evicted = new ArrayList<>();
+        OffHeapStore store = new OffHeapStore(100, evicted::add);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(store.put("key:" + i, new byte[30], i));
+        }
+
+        assertEquals(List.of("key:0", "key:1"), evicted);
+        assertFalse(store.contains("key:0"));
+        assertTrue(store.contains("key:4"));
+        assertTrue(store.bytesUsed() <= 100);
+        assertEquals(2, store.evictionCount());
+    }
+
+    @Test
+    void testRejectsValuesLargerThanCapacity() {
+        OffHeapStore store = new OffHeapStore(16, key -> { });
+
+        assertFalse(store.put("big", new byte[17], 0));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void testReplacingKeyKeepsLatestValue() {
+        OffHeapStore store = new OffHeapStore(1024, key -> { });
+
+        store.put("a", bytes("first"), 1);
+        store.put("a", bytes("second"), 2);
+
+        assertEquals("second", new String(store.get("a").bytes(), StandardCharsets.UTF_8));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testSerializerRoundTripsCachedTypes() throws Exception {
+        CacheSerializer serializer = new CacheSerializer();
+        List<Trade> trades = new ArrayList<>();
+        trades.add(new Trade(1, "AAPL", 100, 150.25, "BUY", "PENDING",
+            LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 17), "Goldman Sachs", null));
+        PageResponse<Trade> page = PageResponse.of(trades, new PageRequest(), 1);
+
+        Object restoredPage = serializer.deserialize(serializer.serialize(page));
+        Object restoredUser = serializer.deserialize(serializer.serialize(new User(7, "Alice")));
+        Object restoredCount = serializer.deserialize(serializer.serialize(12L));
+
+        PageResponse<?> pageCopy = assertInstanceOf(PageResponse.class, restoredPage);
+        Trade trade = assertInstanceOf(Trade.class, pageCopy.getContent().get(0));
+        assertEquals("AAPL", trade.getSymbol());
+        assertEquals(LocalDate.of(2024, 1, 17), trade.getSettlementDate());
+        assertEquals(1, pageCopy.getMetadata().getTotalElements());
+        assertEquals("Alice", assertInstanceOf(User.class, restoredUser).getName());
+        assertEquals(12L, restoredCount);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
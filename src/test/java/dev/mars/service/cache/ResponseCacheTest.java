@@ -0,0 +1,268 @@
+package dev.mars.service.cache;
+
+import com.aayushatharva.brotli4j.decoder.Decoder;
+import dev.mars.config.ApplicationProperties;
+import dev.mars.dao.model.Trade;
+import dev.mars.dto.PageRequest;
+import dev.mars.dto.PageResponse;
+import dev.mars.service.compression.ResponseCompressor;
+import dev.mars.service.format.WireFormat;
+import dev.mars.service.metrics.MetricsService;
+import io.javalin.http.Context;
+import io.javalin.http.Header;
+import io.javalin.http.HttpStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for serving cached responses as encoded JSON.
+ */
+public class ResponseCacheTest {
+
+    private ApplicationProperties properties;
+    private CacheRegion region;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ApplicationProperties();
+        properties.getServer().getCompression().setMinSizeBytes(64);
+        region = new CaffeineCache(properties, new MetricsService(properties)).region(CacheRegions.TRADE_PAGES);
+    }
+
+    @Test
+    void testHitWritesCachedBytesWithoutLoading() throws Exception {
+        ResponseCache responseCache = new ResponseCache(properties);
+        AtomicInteger loads = new AtomicInteger();
+        Context first = request(null);
+        Context second = request(null);
+
+        serve(responseCache, first, loads);
+        serve(responseCache, second, loads);
+
+        assertEquals(1, loads.get());
+        byte[] body = resultOf(second);
+        assertEquals(new String(resultOf(first), StandardCharsets.UTF_8), new String(body, StandardCharsets.UTF_8));
+        assertTrue(new String(body, StandardCharsets.UTF_8).contains("\"totalElements\":100"));
+        verify(second, never()).json(any());
+    }
+
+    @Test
+    void testGzipBodyServedWhenAccepted() throws Exception {
+        ResponseCache responseCache = new ResponseCache(properties);
+        Context plain = request(null);
+        Context gzip = request("gzip, deflate");
+
+        serve(responseCache, plain, new AtomicInteger());
+        serve(responseCache, gzip, new AtomicInteger());
+
+        verify(gzip).header(Header.CONTENT_ENCODING, "gzip");
+        verify(plain, never()).header(Header.CONTENT_ENCODING, "gzip");
+        byte[] unzipped = new GZIPInputStream(new ByteArrayInputStream(resultOf(gzip))).readAllBytes();
+        assertArrayEquals(resultOf(plain), unzipped);
+    }
+
+    @Test
+    void testEachFormatIsCachedSeparately() throws Exception {
+        ResponseCache responseCache = new ResponseCache(properties);
+        AtomicInteger loads = new AtomicInteger();
+        Context json = request(null);
+        Context cbor = request(null);
+        when(cbor.header(Header.ACCEPT)).thenReturn("application/cbor");
+        Context cborAgain = request(null);
+        when(cborAgain.header(Header.ACCEPT)).thenReturn("application/cbor");
+
+        serve(responseCache, json, loads);
+        serve(responseCache, cbor, loads);
+        serve(responseCache, cborAgain, loads);
+
+        assertEquals(2, loads.get());
+        verify(cbor).contentType("application/cbor");
+        verify(cbor).header(Header.VARY, Header.ACCEPT);
+        verify(json).header(Header.VARY, Header.ACCEPT + ", " + Header.ACCEPT_ENCODING);
+        assertArrayEquals(resultOf(cbor), resultOf(cborAgain));
+        assertTrue(resultOf(cbor).length < resultOf(json).length);
+        assertNotEquals(etagOf(json), etagOf(cbor));
+    }
+
+    @Test
+    void testBrotliBodyPreferredWhenAccepted() throws Exception {
+        ResponseCache responseCache = new ResponseCache(properties);
+        assumeTrue(new ResponseCompressor(properties).isBrotliEnabled(), "brotli4j native library unavailable");
+        Context plain = request(null);
+        Context brotli = request("gzip, deflate, br");
+
+        serve(responseCache, plain, new AtomicInteger());
+        serve(responseCache, brotli, new AtomicInteger());
+
+        verify(brotli).header(Header.CONTENT_ENCODING, "br");
+        assertArrayEquals(resultOf(plain), Decoder.decompress(resultOf(brotli)).getDecompressedData());
+    }
+
+    @Test
+    void testPrecompressionCanBeTurnedOff() {
+        properties.getCache().getResponseCache().setPrecompress(false);
+
+        EncodedResponse encoded = new ResponseCache(properties).encode(WireFormat.JSON, page(), Set.of());
+
+        assertNull(encoded.getGzipBody());
+        assertNull(encoded.getBrotliBody());
+    }
+
+    @Test
+    void testSmallBodiesAreNotGzipped() {
+        EncodedResponse encoded = new ResponseCache(properties).encode(WireFormat.JSON, 42L, Set.of());
+
+        assertNull(encoded.getGzipBody());
+        assertEquals("42", new String(encoded.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testEncodedEntriesInvalidatedByTag() throws Exception {
+        ResponseCache responseCache = new ResponseCache(properties);
+        AtomicInteger loads = new AtomicInteger();
+
+        serve(responseCache, request(null), loads);
+        region.invalidateTag(CacheTags.TRADES);
+        serve(responseCache, request(null), loads);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testEncodedResponseSurvivesOffHeapSerialization() throws Exception {
+        EncodedResponse encoded = new ResponseCache(properties).encode(WireFormat.JSON, page(), Set.of(CacheTags.TRADES));
+        CacheSerializer serializer = new CacheSerializer();
+
+        EncodedResponse copy = assertInstanceOf(EncodedResponse.class,
+            serializer.deserialize(serializer.serialize(encoded)));
+
+        assertArrayEquals(encoded.getBody(), copy.getBody());
+        assertArrayEquals(encoded.getGzipBody(), copy.getGzipBody());
+        assertArrayEquals(encoded.getBrotliBody(), copy.getBrotliBody());
+        assertEquals(encoded.getWeight(), copy.getWeight());
+        assertEquals(encoded.getEtag(), copy.getEtag());
+    }
+
+    @Test
+    void testUnchangedResponseIsAnsweredWithNotModified() throws Exception {
+        ResponseCache responseCache = new ResponseCache(properties);
+        Context first = request(null);
+        serve(responseCache, first, new AtomicInteger());
+        String etag = etagOf(first);
+        verify(first).header(Header.CACHE_CONTROL, "no-cache");
+
+        Context revalidation = request(null);
+        when(revalidation.header(Header.IF_NONE_MATCH)).thenReturn("\"other\", " + etag);
+        serve(responseCache, revalidation, new AtomicInteger());
+
+        verify(revalidation).status(HttpStatus.NOT_MODIFIED);
+        verify(revalidation).header(Header.ETAG, etag);
+        verify(revalidation, never()).result(any(byte[].class));
+    }
+
+    @Test
+    void testEtagChangesWithTheBody() {
+        ResponseCache responseCache = new ResponseCache(properties);
+        String etag = responseCache.encode(WireFormat.JSON, page(), Set.of()).getEtag();
+
+        assertTrue(etag.startsWith("W/\""));
+        assertEquals(etag, responseCache.encode(WireFormat.JSON, page(), Set.of()).getEtag());
+        assertNotEquals(etag, responseCache.encode(WireFormat.JSON, List.of(1, 2, 3), Set.of()).getEtag());
+        assertTrue(ResponseCache.matches(etag.substring(2), etag));
+        assertTrue(ResponseCache.matches("*", etag));
+        assertFalse(ResponseCache.matches(null, etag));
+        assertFalse(ResponseCache.matches("W/\"0-0\"", etag));
+    }
+
+    @Test
+    void testEntityHitsReuseTheEncodedBodyAndEtag() throws Exception {
+        ResponseCache responseCache = new ResponseCache(properties);
+        AtomicInteger loads = new AtomicInteger();
+        LoadingCacheRegion<Trade> trades = new LoadingCacheRegion<>(region, Trade.class, key -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture(page().getContent().get(Integer.parseInt(key) - 1));
+        }, trade -> Set.of(CacheTags.trade(trade.getId())));
+        Context first = request(null);
+        responseCache.serve(first, trades, CacheKey.id(1)).get(1, TimeUnit.SECONDS);
+        String etag = etagOf(first);
+
+        Context revalidation = request(null);
+        when(revalidation.header(Header.IF_NONE_MATCH)).thenReturn(etag);
+        responseCache.serve(revalidation, trades, CacheKey.id(1)).get(1, TimeUnit.SECONDS);
+
+        assertEquals(1, loads.get());
+        assertTrue(new String(resultOf(first), StandardCharsets.UTF_8).contains("\"symbol\":\"AAPL\""));
+        verify(revalidation).status(HttpStatus.NOT_MODIFIED);
+        verify(revalidation, never()).result(any(byte[].class));
+
+        region.invalidateTag(CacheTags.trade(1));
+        responseCache.serve(request(null), trades, CacheKey.id(1)).get(1, TimeUnit.SECONDS);
+        assertEquals(2, loads.get(), "Invalidating the entity drops its encoded response");
+    }
+
+    @Test
+    void testObjectModeSerializesOnEveryHit() throws Exception {
+        ResponseCache responseCache = ResponseCache.objects();
+        Context ctx = request(null);
+
+        serve(responseCache, ctx, new AtomicInteger());
+
+        verify(ctx).json(any(PageResponse.class));
+        verify(ctx, never()).result(any(byte[].class));
+        verify(ctx, never()).header(eq(Header.ETAG), anyString());
+    }
+
+    private void serve(ResponseCache responseCache, Context ctx, AtomicInteger loads) throws Exception {
+        responseCache.serve(ctx, region, CacheKey.page("trades", 0, 20, null, null), PageResponse.class, () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture(page());
+        }, CacheTags::tradePage).get(1, TimeUnit.SECONDS);
+    }
+
+    private static PageResponse<Trade> page() {
+        List<Trade> trades = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            trades.add(new Trade(i, "AAPL", 100, 150.5, "BUY", "PENDING",
+                LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 17), "Broker XYZ", null));
+        }
+        return PageResponse.of(trades, new PageRequest(), 100);
+    }
+
+    private static Context request(String acceptEncoding) {
+        Context ctx = mock(Context.class);
+        when(ctx.path()).thenReturn("/trades/paginated");
+        when(ctx.header(Header.ACCEPT_ENCODING)).thenReturn(acceptEncoding);
+        when(ctx.header(anyString(), anyString())).thenReturn(ctx);
+        return ctx;
+    }
+
+    private static String etagOf(Context ctx) {
+        List<String> etags = new ArrayList<>();
+        verify(ctx).header(eq(Header.ETAG), argThat((String etag) -> etags.add(etag)));
+        return etags.get(0);
+    }
+
+    private static byte[] resultOf(Context ctx) {
+        List<byte[]> results = new ArrayList<>();
+        verify(ctx).result(argThat((byte[] bytes) -> results.add(bytes)));
+        return results.get(0);
+    }
+}
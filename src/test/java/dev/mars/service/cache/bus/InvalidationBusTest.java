@@ -0,0 +1,259 @@
+package dev.mars.service.cache.bus;
+
+import dev.mars.config.ApplicationProperties;
+import dev.mars.service.cache.CacheRegion;
+import dev.mars.service.cache.CaffeineCache;
+import dev.mars.service.cache.Invalidation;
+import dev.mars.service.metrics.MetricsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for broadcasting cache invalidations between nodes.
+ */
+public class InvalidationBusTest {
+    private static final String SECRET = "test-secret";
+
+    private ApplicationProperties properties;
+    private final List<AutoCloseable> closeables = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        properties = new ApplicationProperties();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (AutoCloseable closeable : closeables) {
+            closeable.close();
+        }
+    }
+
+    @Test
+    void testCodecRoundTripSplitsLargeBatches() throws IOException {
+        List<Invalidation> batch = new ArrayList<>();
+        batch.add(Invalidation.all());
+        batch.add(Invalidation.region("user-pages"));
+        batch.add(Invalidation.tag("users"));
+        for (int i = 0; i < 500; i++) {
+            batch.add(Invalidation.key("user-by-id", "user:" + i));
+        }
+        AtomicLong sequence = new AtomicLong();
+
+        List<byte[]> packets = InvalidationCodec.encode(42L, sequence, batch, 1400);
+
+        assertTrue(packets.size() > 1);
+        assertEquals(packets.size(), sequence.get());
+        List<Invalidation> decoded = new ArrayList<>();
+        for (byte[] packet : packets) {
+            assertTrue(packet.length <= 1400);
+            InvalidationCodec.Packet decodedPacket = InvalidationCodec.decode(packet);
+            assertEquals(42L, decodedPacket.nodeId());
+            decoded.addAll(decodedPacket.invalidations());
+        }
+        assertEquals(batch, decoded);
+    }
+
+    @Test
+    void testCodecRejectsForeignPackets() {
+        assertThrows(IOException.class, () -> InvalidationCodec.decode(new byte[] {1, 2, 3, 4, 5, 6}));
+    }
+
+    @Test
+    void testBurstIsDeduplicatedIntoOnePacket() throws IOException {
+        CaffeineCache cache = new CaffeineCache(properties, new MetricsService(properties));
+        RecordingTransport transport = new RecordingTransport();
+        InvalidationBus bus = bus(cache, transport, Duration.ofHours(1), 1000);
+
+        for (int i = 0; i < 100; i++) {
+            cache.region("user-by-id").evict("user:1");
+            cache.invalidateTag("users");
+        }
+        bus.flush();
+
+        assertEquals(1, transport.sent.size());
+        assertEquals(List.of(Invalidation.key("user-by-id", "user:1"), Invalidation.tag("users")),
+            decode(transport.sent.get(0)).invalidations());
+    }
+
+    @Test
+    void testEvictAllReplacesQueuedInvalidations() throws IOException {
+        CaffeineCache cache = new CaffeineCache(properties, new MetricsService(properties));
+        RecordingTransport transport = new RecordingTransport();
+        InvalidationBus bus = bus(cache, transport, Duration.ofHours(1), 1000);
+
+        cache.region("user-by-id").evict("user:1");
+        cache.evictAll();
+        cache.invalidateTag("users");
+        bus.flush();
+
+        assertEquals(List.of(Invalidation.all()), decode(transport.sent.get(0)).invalidations());
+    }
+
+    @Test
+    void testFullBatchIsSentWithoutWaitingForTheInterval() throws Exception {
+        CaffeineCache cache = new CaffeineCache(properties, new MetricsService(properties));
+        RecordingTransport transport = new RecordingTransport();
+        bus(cache, transport, Duration.ofHours(1), 10);
+
+        for (int i = 0; i < 10; i++) {
+            cache.region("user-by-id").evict("user:" + i);
+        }
+
+        await(() -> !transport.sent.isEmpty());
+        assertEquals(10, decode(transport.sent.get(0)).invalidations().size());
+    }
+
+    @Test
+    void testPacketsThatFailVerificationAreDropped() throws IOException {
+        CaffeineCache cache = new CaffeineCache(properties, new MetricsService(properties));
+        RecordingTransport transport = new RecordingTransport();
+        bus(cache, transport, Duration.ofHours(1), 1000);
+        CacheRegion users = cache.region("user-by-id");
+        users.put("user:1", "alice");
+        byte[] packet = InvalidationCodec.encode(7L, new AtomicLong(), List.of(Invalidation.key("user-by-id", "user:1")),
+            1400).get(0);
+
+        transport.receiver.accept(packet);
+        transport.receiver.accept(new PacketAuthenticator("other-secret").sign(packet));
+        byte[] tampered = new PacketAuthenticator(SECRET).sign(packet);
+        tampered[tampered.length - 1] ^= 1;
+        transport.receiver.accept(tampered);
+        assertEquals("alice", users.get("user:1", String.class).orElse(null));
+
+        transport.receiver.accept(new PacketAuthenticator(SECRET).sign(packet));
+        assertTrue(users.get("user:1", String.class).isEmpty());
+    }
+
+    @Test
+    void testSecretIsRequired() {
+        CaffeineCache cache = new CaffeineCache(properties, new MetricsService(properties));
+        assertThrows(IllegalArgumentException.class, () -> new InvalidationBus(cache, new MetricsService(properties),
+            new RecordingTransport(), " ", Duration.ofHours(1), 1000, 1400));
+    }
+
+    @Test
+    void testInvalidationsReachOtherNodeOverUdp() throws Exception {
+        int portA = freePort();
+        int portB = freePort();
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        CaffeineCache nodeA = new CaffeineCache(properties, new MetricsService(properties));
+        CaffeineCache nodeB = new CaffeineCache(properties, new MetricsService(properties));
+        RecordingTransport echoOfB = new RecordingTransport();
+        bus(nodeA, UdpInvalidationTransport.unicast(new InetSocketAddress(loopback, portA),
+            List.of(new InetSocketAddress(loopback, portB))), Duration.ofMillis(10), 1000);
+        bus(nodeB, new TeeTransport(UdpInvalidationTransport.unicast(new InetSocketAddress(loopback, portB),
+            List.of(new InetSocketAddress(loopback, portA))), echoOfB), Duration.ofMillis(10), 1000);
+
+        CacheRegion usersB = nodeB.region("user-by-id");
+        usersB.put("user:1", "alice");
+        usersB.put("user:2", "bob", Set.of("users"));
+        nodeB.region("user-pages").put("page:0", "first page");
+
+        nodeA.region("user-by-id").evict("user:1");
+        await(() -> usersB.get("user:1", String.class).isEmpty());
+
+        nodeA.invalidateTag("users");
+        await(() -> usersB.get("user:2", String.class).isEmpty());
+
+        nodeA.evictAll();
+        await(() -> nodeB.region("user-pages").get("page:0", String.class).isEmpty());
+
+        assertTrue(echoOfB.sent.isEmpty(), "Applied remote invalidations must not be broadcast again");
+    }
+
+    private InvalidationBus bus(CaffeineCache cache, InvalidationTransport transport, Duration flushInterval,
+                                int maxBatchSize) throws IOException {
+        InvalidationBus bus = new InvalidationBus(cache, new MetricsService(properties), transport, SECRET, flushInterval,
+            maxBatchSize, 1400);
+        closeables.add(bus);
+        return bus;
+    }
+
+    private static InvalidationCodec.Packet decode(byte[] signed) throws IOException {
+        byte[] packet = new PacketAuthenticator(SECRET).verify(signed);
+        assertNotNull(packet, "Sent packets are signed with the shared secret");
+        return InvalidationCodec.decode(packet);
+    }
+
+    private static int freePort() throws IOException {
+        try (DatagramSocket socket = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met within 5s");
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Keeps sent packets in memory; tests hand received packets to the receiver directly.
+     */
+    private static class RecordingTransport implements InvalidationTransport {
+        final List<byte[]> sent = new CopyOnWriteArrayList<>();
+        volatile Consumer<byte[]> receiver;
+
+        @Override
+        public void start(Consumer<byte[]> receiver) {
+            this.receiver = receiver;
+        }
+
+        @Override
+        public void send(byte[] packet) {
+            sent.add(packet);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Sends over a real transport and also records what was sent.
+     */
+    private static class TeeTransport implements InvalidationTransport {
+        private final InvalidationTransport delegate;
+        private final RecordingTransport recorder;
+
+        TeeTransport(InvalidationTransport delegate, RecordingTransport recorder) {
+            this.delegate = delegate;
+            this.recorder = recorder;
+        }
+
+        @Override
+        public void start(Consumer<byte[]> receiver) throws IOException {
+            delegate.start(receiver);
+        }
+
+        @Override
+        public void send(byte[] packet) throws IOException {
+            recorder.send(packet);
+            delegate.send(packet);
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
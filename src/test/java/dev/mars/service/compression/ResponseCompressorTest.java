@@ -0,0 +1,87 @@
+package dev.mars.service.compression;
+
+import dev.mars.config.ApplicationProperties;
+import io.javalin.compression.CompressionStrategy;
+import io.javalin.http.Context;
+import io.javalin.http.Header;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for response compression settings and precompressed bodies.
+ */
+public class ResponseCompressorTest {
+
+    private ApplicationProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ApplicationProperties();
+        properties.getServer().getCompression().setMinSizeBytes(100);
+    }
+
+    @Test
+    void testAcceptEncodingIsParsedWithQualities() {
+        assertTrue(ResponseCompressor.accepts("gzip, deflate, br", "br"));
+        assertTrue(ResponseCompressor.accepts("GZIP;q=0.5", "gzip"));
+        assertTrue(ResponseCompressor.accepts("*", "br"));
+        assertFalse(ResponseCompressor.accepts("gzip, br;q=0", "br"));
+        assertFalse(ResponseCompressor.accepts("gzip;q=0.0", "gzip"));
+        assertFalse(ResponseCompressor.accepts("brotli", "br"));
+        assertFalse(ResponseCompressor.accepts(null, "gzip"));
+    }
+
+    @Test
+    void testOnlyLargeBodiesOfListedTypesArePrecompressed() throws Exception {
+        ResponseCompressor compressor = new ResponseCompressor(properties);
+        byte[] large = "{\"value\":\"aaaa\"}".repeat(20).getBytes(StandardCharsets.UTF_8);
+
+        ResponseCompressor.Precompressed json = compressor.precompress(large, "application/json; charset=utf-8");
+        assertArrayEquals(large, new GZIPInputStream(new ByteArrayInputStream(json.gzip())).readAllBytes());
+        assertEquals(compressor.isBrotliEnabled(), json.brotli() != null);
+
+        assertNull(compressor.precompress(large, "image/png").gzip());
+        assertNull(compressor.precompress("{}".getBytes(StandardCharsets.UTF_8), "application/json").gzip());
+    }
+
+    @Test
+    void testIdentityWrittenWhenNoPrecompressedFormIsAccepted() {
+        ResponseCompressor compressor = new ResponseCompressor(properties);
+        byte[] body = "body".getBytes(StandardCharsets.UTF_8);
+        byte[] gzipBody = "gzip".getBytes(StandardCharsets.UTF_8);
+        Context ctx = mock(Context.class);
+        when(ctx.header(Header.ACCEPT_ENCODING)).thenReturn("br;q=0, identity");
+
+        compressor.write(ctx, body, gzipBody, null);
+
+        verify(ctx, never()).header(eq(Header.CONTENT_ENCODING), any());
+        verify(ctx).result(body);
+    }
+
+    @Test
+    void testDisabledCompressionCompressesNothing() {
+        properties.getServer().getCompression().setEnabled(false);
+        ResponseCompressor compressor = new ResponseCompressor(properties);
+
+        assertSame(CompressionStrategy.NONE, compressor.strategy());
+        assertNull(compressor.precompress(new byte[4096], "application/json").gzip());
+    }
+
+    @Test
+    void testStrategyFollowsSettings() {
+        properties.getServer().getCompression().setBrotli(false);
+        CompressionStrategy strategy = new ResponseCompressor(properties).strategy();
+
+        assertEquals(1, strategy.getCompressors().size());
+        assertEquals("gzip", strategy.getCompressors().get(0).encoding());
+        assertEquals(100, strategy.getDefaultMinSizeForCompression());
+        assertTrue(strategy.getAllowedMimeTypes().contains("application/json"));
+    }
+}
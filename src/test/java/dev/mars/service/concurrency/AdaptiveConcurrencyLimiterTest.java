@@ -0,0 +1,96 @@
+package dev.mars.service.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the AIMD concurrency limiter.
+ */
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    @Test
+    void testRejectsRequestsOverTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 1, 10, 100, 0.5);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire(), "Third concurrent request should be rejected");
+
+        assertEquals(2, limiter.getInFlight());
+        assertEquals(1, limiter.getRejections());
+    }
+
+    @Test
+    void testSlowResponsesShrinkTheLimit() {
+        AtomicLong clock = new AtomicLong();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 16, 2, 32, 100, 0.5, clock::get);
+
+        // Each call starts after the previous cut, so each one is a new congestion signal
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire());
+            clock.addAndGet(SLOW);
+            limiter.release(SLOW, false);
+        }
+
+        assertEquals(2, limiter.getLimit(), "Limit should back off multiplicatively down to the minimum");
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void testBurstOfSlowResponsesShrinksTheLimitOnce() {
+        AtomicLong clock = new AtomicLong();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 20, 2, 32, 100, 0.5, clock::get);
+        for (int i = 0; i < 20; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+
+        // All twenty were in flight together, so they finish slow within a short window of each other
+        clock.addAndGet(SLOW);
+        for (int i = 0; i < 20; i++) {
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+            limiter.release(SLOW, false);
+        }
+        assertEquals(10, limiter.getLimit(), "One burst should cut the limit once");
+
+        // A call started after the cut that is still slow cuts again
+        assertTrue(limiter.tryAcquire());
+        clock.addAndGet(SLOW);
+        limiter.release(SLOW, false);
+        assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    void testFailuresShrinkTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 1, 20, 100, 0.5);
+
+        assertTrue(limiter.tryAcquire());
+        limiter.release(FAST, true);
+
+        assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    void testFastResponsesUnderLoadGrowTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 4, 1, 8, 100, 0.5);
+
+        // Keep the limiter saturated so that it probes upwards
+        for (int round = 0; round < 50; round++) {
+            int acquired = 0;
+            while (limiter.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limiter.release(FAST, false);
+            }
+        }
+
+        assertEquals(8, limiter.getLimit(), "Limit should grow additively up to the maximum");
+    }
+}
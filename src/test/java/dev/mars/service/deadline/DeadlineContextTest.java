@@ -0,0 +1,129 @@
+package dev.mars.service.deadline;
+
+import dev.mars.config.ApplicationProperties;
+import dev.mars.exception.DeadlineExceededException;
+import dev.mars.service.async.Futures;
+import dev.mars.service.async.JdbcExecutor;
+import dev.mars.service.concurrency.ConcurrencyLimiterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for request deadline propagation.
+ */
+public class DeadlineContextTest {
+
+    @AfterEach
+    void clearDeadline() {
+        DeadlineContext.clear();
+    }
+
+    @Test
+    void testQueryTimeoutUsesRemainingBudgetRoundedUp() throws Exception {
+        DeadlineContext.set(Deadline.after(Duration.ofMillis(1500)));
+        Statement statement = mock(Statement.class);
+
+        DeadlineContext.applyQueryTimeout(statement, "getTradeById");
+
+        verify(statement).setQueryTimeout(2);
+    }
+
+    @Test
+    void testNoQueryTimeoutWithoutDeadline() throws Exception {
+        Statement statement = mock(Statement.class);
+
+        DeadlineContext.applyQueryTimeout(statement, "getTradeById");
+
+        verify(statement, never()).setQueryTimeout(anyInt());
+    }
+
+    @Test
+    void testExpiredDeadlineCancelsStatementBeforeExecution() {
+        DeadlineContext.set(Deadline.after(Duration.ZERO));
+        Statement statement = mock(Statement.class);
+
+        assertThrows(DeadlineExceededException.class,
+            () -> DeadlineContext.applyQueryTimeout(statement, "getTradeById"));
+        verifyNoInteractions(statement);
+    }
+
+    @Test
+    void testJdbcExecutorCarriesDeadlineToWorkerThread() {
+        JdbcExecutor executor = new JdbcExecutor(new ApplicationProperties(),
+            new ConcurrencyLimiterRegistry(new ApplicationProperties(), null));
+        try {
+            Deadline deadline = Deadline.after(Duration.ofSeconds(5));
+            DeadlineContext.set(deadline);
+
+            Deadline seen = executor.submit(DeadlineContext::current).join();
+
+            assertSame(deadline, seen);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testJdbcExecutorRejectsExpiredDeadline() {
+        JdbcExecutor executor = new JdbcExecutor(new ApplicationProperties(),
+            new ConcurrencyLimiterRegistry(new ApplicationProperties(), null));
+        try {
+            DeadlineContext.set(Deadline.after(Duration.ZERO));
+
+            CompletableFuture<String> result = executor.submit(() -> "should not run");
+
+            CompletionException e = assertThrows(CompletionException.class, result::join);
+            assertInstanceOf(DeadlineExceededException.class, Futures.unwrap(e));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testBoundFailsWaitWhenDeadlinePasses() {
+        DeadlineContext.set(Deadline.after(Duration.ofMillis(50)));
+
+        CompletableFuture<Object> bounded = DeadlineContext.bound(new CompletableFuture<>());
+
+        CompletionException e = assertThrows(CompletionException.class, bounded::join);
+        assertInstanceOf(DeadlineExceededException.class, Futures.unwrap(e));
+    }
+
+    @Test
+    void testBoundPassesThroughTheFutureOutcome() {
+        DeadlineContext.set(Deadline.after(Duration.ofSeconds(5)));
+        CompletableFuture<String> future = new CompletableFuture<>();
+        CompletableFuture<String> failing = new CompletableFuture<>();
+
+        CompletableFuture<String> bounded = DeadlineContext.bound(future);
+        CompletableFuture<String> boundedFailure = DeadlineContext.bound(failing);
+        future.complete("loaded");
+        failing.completeExceptionally(new IllegalStateException("database down"));
+
+        assertEquals("loaded", bounded.join());
+        CompletionException e = assertThrows(CompletionException.class, boundedFailure::join);
+        assertInstanceOf(IllegalStateException.class, Futures.unwrap(e));
+    }
+
+    @Test
+    void testSharedWorkRunsUnderTheLongerDeadline() {
+        Deadline deadline = Deadline.after(Duration.ofMillis(100), Duration.ofSeconds(30));
+        DeadlineContext.set(deadline);
+
+        Deadline shared = DeadlineContext.shared(DeadlineContext::current);
+
+        assertTrue(shared.remainingMillis() > 1000, shared.toString());
+        assertSame(deadline, DeadlineContext.current());
+        Deadline unshared = Deadline.after(Duration.ofSeconds(1));
+        assertSame(unshared, unshared.forSharedWork(), "Without a shared budget the deadline is its own");
+    }
+}
@@ -0,0 +1,306 @@
+package dev.mars.service.feed;
+
+import dev.mars.config.ApplicationProperties;
+import dev.mars.dao.model.Trade;
+import dev.mars.service.events.TradeEvent;
+import dev.mars.service.events.TradeEvents;
+import dev.mars.service.metrics.MetricsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for batching, filtering and slow-subscriber handling in the live trade feed.
+ */
+public class TradeFeedTest {
+
+    private final TradeEvents tradeEvents = new TradeEvents();
+    private final List<Trade> trades = new CopyOnWriteArrayList<>();
+    private ApplicationProperties properties;
+    private TradeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ApplicationProperties();
+        // Flushed by hand unless a batch fills up
+        properties.getFeed().setBatchIntervalMs(60_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (feed != null) {
+            feed.close();
+        }
+    }
+
+    @Test
+    void testChangesAreSentInOneBatch() throws InterruptedException {
+        feed = newFeed();
+        RecordingSink sink = new RecordingSink();
+        feed.subscribe(TradeFeedFilter.all(), sink, false);
+
+        tradeEvents.publish(TradeEvent.created(trade(1, "AAPL", "Goldman Sachs")));
+        tradeEvents.publish(TradeEvent.updated(trade(1, "AAPL", "Goldman Sachs")));
+        tradeEvents.publish(TradeEvent.deleted(2));
+        assertTrue(sink.messages.isEmpty());
+        feed.flush();
+
+        await(() -> sink.messages.size() == 1);
+        String batch = sink.messages.get(0);
+        assertTrue(batch.startsWith("batch {\"type\":\"batch\",\"events\":[{\"type\":\"CREATED\",\"tradeId\":1,\"trade\":{"), batch);
+        assertTrue(batch.contains("{\"type\":\"UPDATED\",\"tradeId\":1,"), batch);
+        assertTrue(batch.endsWith("{\"type\":\"DELETED\",\"tradeId\":2}]}"), batch);
+    }
+
+    @Test
+    void testFullBatchIsSentWithoutWaiting() throws InterruptedException {
+        properties.getFeed().setMaxBatchSize(2);
+        feed = newFeed();
+        RecordingSink sink = new RecordingSink();
+        feed.subscribe(TradeFeedFilter.all(), sink, false);
+
+        tradeEvents.publish(TradeEvent.created(trade(1, "AAPL", "Goldman Sachs")));
+        tradeEvents.publish(TradeEvent.created(trade(2, "AAPL", "Goldman Sachs")));
+
+        await(() -> sink.messages.size() == 1);
+        assertTrue(sink.messages.get(0).contains("\"tradeId\":2"));
+    }
+
+    @Test
+    void testFiltersBySymbolAndCounterparty() throws InterruptedException {
+        TradeFeedFilter filter = TradeFeedFilter.of("aapl, MSFT", "goldman sachs");
+        assertTrue(filter.matches(trade(1, "AAPL", "Goldman Sachs")));
+        assertTrue(filter.matches(trade(1, "MSFT", "GOLDMAN SACHS")));
+        assertFalse(filter.matches(trade(1, "TSLA", "Goldman Sachs")));
+        assertFalse(filter.matches(trade(1, "AAPL", "Morgan Stanley")));
+        assertTrue(filter.matches(TradeEvent.deleted(1)));
+        assertTrue(TradeFeedFilter.of(null, " ").matches(trade(1, "TSLA", "Morgan Stanley")));
+
+        feed = newFeed();
+        RecordingSink sink = new RecordingSink();
+        feed.subscribe(TradeFeedFilter.of("AAPL", null), sink, false);
+        tradeEvents.publish(TradeEvent.created(trade(1, "MSFT", "Goldman Sachs")));
+        tradeEvents.publish(TradeEvent.created(trade(2, "AAPL", "Goldman Sachs")));
+        tradeEvents.publish(TradeEvent.deleted(3));
+        feed.flush();
+
+        await(() -> sink.messages.size() == 1);
+        String batch = sink.messages.get(0);
+        assertFalse(batch.contains("\"tradeId\":1"), batch);
+        assertTrue(batch.contains("\"tradeId\":2"), batch);
+        assertTrue(batch.contains("\"tradeId\":3"), batch);
+    }
+
+    @Test
+    void testSubscriberThatFallsBehindIsSentASnapshot() throws InterruptedException {
+        properties.getFeed().setMaxBatchSize(1);
+        properties.getFeed().setQueueCapacity(2);
+        trades.add(trade(1, "AAPL", "Goldman Sachs"));
+        trades.add(trade(2, "MSFT", "Goldman Sachs"));
+        trades.add(trade(3, "AAPL", "Morgan Stanley"));
+        feed = newFeed();
+        RecordingSink sink = new RecordingSink();
+        sink.gate = new CountDownLatch(1);
+        feed.subscribe(TradeFeedFilter.of("AAPL", null), sink, false);
+
+        // The first batch blocks in the sink, so later changes pile up until the queue overflows
+        tradeEvents.publish(TradeEvent.created(trade(1, "AAPL", "Goldman Sachs")));
+        await(() -> sink.sending);
+        for (int i = 0; i < 3; i++) {
+            tradeEvents.publish(TradeEvent.updated(trade(1, "AAPL", "Goldman Sachs")));
+        }
+        sink.gate.countDown();
+
+        await(() -> {
+            feed.flush();
+            return sink.messages.size() == 2;
+        });
+        String snapshot = sink.messages.get(1);
+        assertTrue(snapshot.startsWith("snapshot {\"type\":\"snapshot\",\"trades\":["), snapshot);
+        assertTrue(snapshot.contains("\"id\":1,") && snapshot.contains("\"id\":3,"), snapshot);
+        assertFalse(snapshot.contains("\"id\":2,"), snapshot);
+        assertTrue(snapshot.indexOf("\"id\":1,") < snapshot.indexOf("\"id\":3,"), "Oldest first: " + snapshot);
+        assertEquals(1, feed.getSubscriberCount());
+        assertFalse(sink.closed);
+    }
+
+    @Test
+    void testSnapshotIsRetriedWhenTradesCannotBeRead() throws InterruptedException {
+        properties.getFeed().setSnapshotMaxTrades(1);
+        trades.add(trade(1, "AAPL", "Goldman Sachs"));
+        trades.add(trade(2, "AAPL", "Goldman Sachs"));
+        AtomicBoolean failing = new AtomicBoolean(true);
+        feed = new TradeFeed(tradeEvents, (filter, limit) -> failing.get()
+            ? CompletableFuture.failedFuture(new IllegalStateException("Database busy"))
+            : CompletableFuture.completedFuture(List.of(trades.get(1))), new MetricsService(properties), properties.getFeed());
+        RecordingSink sink = new RecordingSink();
+        feed.subscribe(TradeFeedFilter.all(), sink, true);
+
+        feed.flush();
+        Thread.sleep(50);
+        assertTrue(sink.messages.isEmpty());
+        assertEquals(1, feed.getSubscriberCount());
+
+        failing.set(false);
+        await(() -> {
+            feed.flush();
+            return sink.messages.size() == 1;
+        });
+        String snapshot = sink.messages.get(0);
+        assertTrue(snapshot.contains("\"id\":2,") && !snapshot.contains("\"id\":1,"), snapshot);
+    }
+
+    @Test
+    void testUpdateThatLeavesTheFilterIsSentAsARemoval() throws InterruptedException {
+        trades.add(trade(1, "AAPL", "Goldman Sachs"));
+        feed = newFeed();
+        RecordingSink sink = new RecordingSink();
+        feed.subscribe(TradeFeedFilter.of("AAPL", null), sink, true);
+        await(() -> {
+            feed.flush();
+            return sink.messages.size() == 1;
+        });
+
+        tradeEvents.publish(TradeEvent.created(trade(2, "AAPL", "Goldman Sachs")));
+        // Held trades moved to another symbol, and a trade the subscriber was never sent
+        tradeEvents.publish(TradeEvent.updated(trade(1, "MSFT", "Goldman Sachs")));
+        tradeEvents.publish(TradeEvent.updated(trade(2, "MSFT", "Goldman Sachs")));
+        tradeEvents.publish(TradeEvent.updated(trade(4, "MSFT", "Goldman Sachs")));
+        feed.flush();
+
+        await(() -> sink.messages.size() == 2);
+        String batch = sink.messages.get(1);
+        assertTrue(batch.contains("{\"type\":\"CREATED\",\"tradeId\":2,"), batch);
+        assertTrue(batch.contains("{\"type\":\"REMOVED\",\"tradeId\":1}"), batch);
+        assertTrue(batch.contains("{\"type\":\"REMOVED\",\"tradeId\":2}"), batch);
+        assertFalse(batch.contains("\"tradeId\":4"), batch);
+
+        // Once removed, later changes outside the filter are not sent
+        tradeEvents.publish(TradeEvent.updated(trade(1, "TSLA", "Goldman Sachs")));
+        feed.flush();
+        Thread.sleep(50);
+        assertEquals(2, sink.messages.size());
+    }
+
+    @Test
+    void testOnlyTheLatestTradesSentAreRemembered() throws InterruptedException {
+        properties.getFeed().setSnapshotMaxTrades(2);
+        feed = newFeed();
+        RecordingSink sink = new RecordingSink();
+        feed.subscribe(TradeFeedFilter.of("AAPL", null), sink, false);
+        for (int id = 1; id <= 3; id++) {
+            tradeEvents.publish(TradeEvent.created(trade(id, "AAPL", "Goldman Sachs")));
+        }
+        feed.flush();
+        await(() -> sink.messages.size() == 1);
+
+        // Trade 1 has aged out of the two remembered, so only trade 3 leaving the filter is sent
+        tradeEvents.publish(TradeEvent.updated(trade(1, "MSFT", "Goldman Sachs")));
+        tradeEvents.publish(TradeEvent.updated(trade(3, "MSFT", "Goldman Sachs")));
+        feed.flush();
+
+        await(() -> sink.messages.size() == 2);
+        String batch = sink.messages.get(1);
+        assertEquals("batch {\"type\":\"batch\",\"events\":[{\"type\":\"REMOVED\",\"tradeId\":3}]}", batch);
+    }
+
+    @Test
+    void testSubscriberThatFallsBehindIsDisconnectedWhenConfigured() throws InterruptedException {
+        properties.getFeed().setMaxBatchSize(1);
+        properties.getFeed().setQueueCapacity(2);
+        properties.getFeed().setOverflow("disconnect");
+        feed = newFeed();
+        RecordingSink sink = new RecordingSink();
+        sink.gate = new CountDownLatch(1);
+        feed.subscribe(TradeFeedFilter.all(), sink, false);
+
+        tradeEvents.publish(TradeEvent.created(trade(1, "AAPL", "Goldman Sachs")));
+        await(() -> sink.sending);
+        for (int i = 0; i < 3; i++) {
+            tradeEvents.publish(TradeEvent.updated(trade(1, "AAPL", "Goldman Sachs")));
+        }
+
+        assertTrue(sink.closed);
+        assertEquals(0, feed.getSubscriberCount());
+        sink.gate.countDown();
+    }
+
+    @Test
+    void testSubscribersAreLimited() {
+        properties.getFeed().setMaxSubscribers(1);
+        feed = newFeed();
+
+        TradeFeed.Subscription first = feed.subscribe(TradeFeedFilter.all(), new RecordingSink(), false);
+        assertNotNull(first);
+        assertNull(feed.subscribe(TradeFeedFilter.all(), new RecordingSink(), false));
+
+        feed.unsubscribe(first);
+        assertNotNull(feed.subscribe(TradeFeedFilter.all(), new RecordingSink(), false));
+
+        properties.getFeed().setOverflow("drop");
+        assertThrows(IllegalArgumentException.class, this::newFeed);
+    }
+
+    private TradeFeed newFeed() {
+        return new TradeFeed(tradeEvents, (filter, limit) -> CompletableFuture.completedFuture(trades.stream()
+            .filter(filter::matches)
+            .sorted(Comparator.comparingInt(Trade::getId).reversed())
+            .limit(limit)
+            .toList()), new MetricsService(properties), properties.getFeed());
+    }
+
+    private static Trade trade(int id, String symbol, String counterparty) {
+        return new Trade(id, symbol, 100, 187.25, "BUY", "PENDING",
+            LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 17), counterparty, null);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met within 5s");
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Records each message as its type and JSON; sends wait on the gate, if set.
+     */
+    private static class RecordingSink implements TradeFeedSink {
+        final List<String> messages = new CopyOnWriteArrayList<>();
+        volatile CountDownLatch gate;
+        volatile boolean sending;
+        volatile boolean closed;
+
+        @Override
+        public void send(String type, String json) throws InterruptedIOException {
+            sending = true;
+            try {
+                if (gate != null && !gate.await(5, TimeUnit.SECONDS)) {
+                    throw new InterruptedIOException("Gate not opened");
+                }
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+            messages.add(type + " " + json);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
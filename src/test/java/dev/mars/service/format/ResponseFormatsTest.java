@@ -0,0 +1,97 @@
+package dev.mars.service.format;
+
+import dev.mars.config.ApplicationProperties;
+import dev.mars.dao.model.Trade;
+import io.javalin.http.BadRequestResponse;
+import io.javalin.http.Context;
+import io.javalin.http.Header;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for negotiating, writing and reading the JSON and binary formats.
+ */
+public class ResponseFormatsTest {
+
+    private final ResponseFormats formats = new ResponseFormats();
+
+    @Test
+    void testAcceptHeaderPicksHighestRatedOfferedFormat() {
+        assertEquals(WireFormat.JSON, formats.negotiate(accepting(null)));
+        assertEquals(WireFormat.JSON, formats.negotiate(accepting("*/*")));
+        assertEquals(WireFormat.JSON, formats.negotiate(accepting("application/xml")));
+        assertEquals(WireFormat.CBOR, formats.negotiate(accepting("application/CBOR")));
+        assertEquals(WireFormat.SMILE, formats.negotiate(accepting("application/json;q=0.5, application/x-jackson-smile")));
+        assertEquals(WireFormat.MSGPACK, formats.negotiate(accepting("application/x-msgpack, application/cbor;q=0.9")));
+        assertEquals(WireFormat.JSON, formats.negotiate(accepting("application/cbor;q=0, */*;q=0.1")));
+    }
+
+    @Test
+    void testFormatsNotConfiguredAreNotOffered() {
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.getApi().setFormats(List.of("smile"));
+        ResponseFormats smileOnly = new ResponseFormats(properties);
+
+        assertEquals(WireFormat.JSON, smileOnly.negotiate(accepting("application/cbor")));
+        assertEquals(WireFormat.SMILE, smileOnly.negotiate(accepting("application/x-jackson-smile")));
+
+        properties.getApi().setFormats(List.of("json", "xml"));
+        assertThrows(IllegalArgumentException.class, () -> new ResponseFormats(properties));
+    }
+
+    @Test
+    void testJsonIsWrittenWithJavalinsMapper() {
+        Context ctx = accepting("application/json");
+
+        formats.write(ctx, trade());
+
+        verify(ctx).header(Header.VARY, Header.ACCEPT);
+        verify(ctx).json(any());
+        verify(ctx, never()).result(any(byte[].class));
+    }
+
+    @Test
+    void testBinaryBodiesRoundTrip() {
+        int jsonLength = formats.serialize(WireFormat.JSON, trade()).length;
+        for (WireFormat format : List.of(WireFormat.CBOR, WireFormat.SMILE, WireFormat.MSGPACK)) {
+            byte[] body = formats.serialize(format, trade());
+            Context request = mock(Context.class);
+            when(request.contentType()).thenReturn(format.mediaType() + "; charset=binary");
+            when(request.bodyAsBytes()).thenReturn(body);
+
+            Trade read = formats.read(request, Trade.class);
+
+            assertEquals("AAPL", read.getSymbol(), format.name());
+            assertEquals(187.25, read.getPrice(), format.name());
+            assertEquals(LocalDate.of(2024, 1, 15), read.getTradeDate(), format.name());
+            assertNull(read.getNotes(), format.name());
+            assertTrue(body.length < jsonLength, format.name());
+        }
+    }
+
+    @Test
+    void testUndecodableBinaryBodyIsABadRequest() {
+        Context request = mock(Context.class);
+        when(request.contentType()).thenReturn("application/cbor");
+        when(request.bodyAsBytes()).thenReturn(new byte[] {(byte) 0xFF, 0x01});
+
+        assertThrows(BadRequestResponse.class, () -> formats.read(request, Trade.class));
+    }
+
+    private static Context accepting(String accept) {
+        Context ctx = mock(Context.class);
+        when(ctx.header(Header.ACCEPT)).thenReturn(accept);
+        return ctx;
+    }
+
+    private static Trade trade() {
+        return new Trade(1, "AAPL", 100, 187.25, "BUY", "PENDING",
+            LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 17), "Goldman Sachs", null);
+    }
+}
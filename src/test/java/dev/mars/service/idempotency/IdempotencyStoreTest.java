@@ -0,0 +1,110 @@
+package dev.mars.service.idempotency;
+
+import dev.mars.config.ApplicationProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the idempotency key store.
+ */
+public class IdempotencyStoreTest {
+
+    private IdempotencyStore store;
+
+    @BeforeEach
+    void setup() {
+        store = new IdempotencyStore(new ApplicationProperties());
+    }
+
+    @Test
+    void testFirstClaimOwnsKey() {
+        IdempotencyStore.Claim first = store.claim("/trades|k1", "abc");
+        IdempotencyStore.Claim second = store.claim("/trades|k1", "abc");
+
+        assertTrue(first.isOwner());
+        assertFalse(second.isOwner());
+        assertEquals("abc", second.getFingerprint());
+        assertFalse(second.result().isDone());
+    }
+
+    @Test
+    void testCompletedResponseIsReplayed() {
+        IdempotencyStore.Claim owner = store.claim("/trades|k1", "abc");
+        store.complete(owner, new StoredResponse(201, "application/json", new byte[]{1, 2}));
+
+        IdempotencyStore.Claim retry = store.claim("/trades|k1", "abc");
+        assertFalse(retry.isOwner());
+        StoredResponse response = retry.result().join();
+        assertEquals(201, response.getStatus());
+        assertEquals("application/json", response.getContentType());
+        assertArrayEquals(new byte[]{1, 2}, response.getBody());
+    }
+
+    @Test
+    void testAbandonReleasesKeyAndWaiters() {
+        IdempotencyStore.Claim owner = store.claim("/trades|k1", "abc");
+        IdempotencyStore.Claim waiter = store.claim("/trades|k1", "abc");
+
+        store.abandon(owner);
+
+        assertNull(waiter.result().join());
+        assertTrue(store.claim("/trades|k1", "abc").isOwner());
+    }
+
+    @Test
+    void testKeysAreIndependent() {
+        assertTrue(store.claim("/trades|k1", "abc").isOwner());
+        assertTrue(store.claim("/trades|k2", "abc").isOwner());
+        assertTrue(store.claim("/users|k1", "abc").isOwner());
+    }
+
+    @Test
+    void testExpiredKeyCanBeReused() throws InterruptedException {
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.getIdempotency().setWindowSeconds(1);
+        IdempotencyStore shortWindow = new IdempotencyStore(properties);
+
+        IdempotencyStore.Claim owner = shortWindow.claim("/trades|k1", "abc");
+        shortWindow.complete(owner, new StoredResponse(201, null, new byte[0]));
+        Thread.sleep(1100);
+
+        assertTrue(shortWindow.claim("/trades|k1", "abc").isOwner());
+    }
+
+    @Test
+    void testConcurrentClaimsHaveSingleOwner() throws Exception {
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<IdempotencyStore.Claim>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return store.claim("/trades|k1", "abc");
+                }));
+            }
+            start.countDown();
+
+            int owners = 0;
+            for (Future<IdempotencyStore.Claim> future : futures) {
+                if (future.get(5, TimeUnit.SECONDS).isOwner()) {
+                    owners++;
+                }
+            }
+            assertEquals(1, owners);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package dev.mars.service.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import dev.mars.dao.model.Trade;
+import dev.mars.dao.model.User;
+import dev.mars.dto.PageRequest;
+import dev.mars.dto.PageResponse;
+import io.javalin.json.JavalinJackson;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the hand-written serializers write and read what Jackson's bean serializers do.
+ */
+public class DomainJsonModuleTest {
+
+    private final ObjectMapper mapper = DomainJsonModule.objectMapper();
+    private final ObjectMapper reflective = JavalinJackson.defaultMapper();
+
+    @Test
+    void testPagesAreWrittenAsTheBeanSerializersWriteThem() throws Exception {
+        User user = new User(7, "Ann \"Quote\" Lee");
+        user.setEmail("ann@example.com");
+        PageResponse<Object> page = PageResponse.of(Arrays.asList(trade(1), null, trade(2), user, new User(8, null)),
+            new PageRequest(2, 5), 42);
+
+        assertEquals(reflective.writeValueAsString(page), mapper.writeValueAsString(page));
+        assertEquals(reflective.writeValueAsString(page.getMetadata()), mapper.writeValueAsString(page.getMetadata()));
+        assertEquals(reflective.writeValueAsString(new PageResponse<>()), mapper.writeValueAsString(new PageResponse<>()));
+    }
+
+    @Test
+    void testDatesAreWrittenAsArraysByDefault() throws Exception {
+        String json = mapper.writeValueAsString(trade(1));
+
+        assertTrue(json.contains("\"tradeDate\":[2024,1,15],\"settlementDate\":[2024,1,17]"), json);
+        assertEquals(reflective.writeValueAsString(trade(1)), json);
+        assertEquals(LocalDate.of(2024, 1, 15), mapper.readValue(json, Trade.class).getTradeDate());
+    }
+
+    @Test
+    void testDatesAreWrittenAsIsoStringsWhenTimestampsAreDisabled() throws Exception {
+        ObjectMapper isoMapper = DomainJsonModule.objectMapper().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        ObjectMapper isoReflective = JavalinJackson.defaultMapper().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        Trade trade = trade(1);
+        trade.setTradeDate(LocalDate.of(7, 3, 9));
+        trade.setSettlementDate(LocalDate.of(12345, 12, 31));
+
+        String json = isoMapper.writeValueAsString(trade);
+
+        assertTrue(json.contains("\"tradeDate\":\"0007-03-09\""), json);
+        assertEquals(isoReflective.writeValueAsString(trade), json);
+        assertEquals(LocalDate.of(12345, 12, 31), isoMapper.readValue(json, Trade.class).getSettlementDate());
+    }
+
+    @Test
+    void testTradesAndUsersRoundTrip() throws Exception {
+        Trade trade = mapper.readValue(mapper.writeValueAsString(trade(3)), Trade.class);
+        assertEquals(reflective.writeValueAsString(trade(3)), reflective.writeValueAsString(trade));
+
+        User user = mapper.readValue("{\"id\":\"4\",\"name\":\"Bob\",\"email\":null}", User.class);
+        assertEquals(4, user.getId());
+        assertEquals("Bob", user.getName());
+        assertNull(user.getEmail());
+    }
+
+    @Test
+    void testDatesAreReadInEveryFormJacksonAccepts() throws Exception {
+        Trade trade = mapper.readValue("{\"tradeDate\":[2024,1,15],\"settlementDate\":\" 2024-01-17 \"}", Trade.class);
+
+        assertEquals(LocalDate.of(2024, 1, 15), trade.getTradeDate());
+        assertEquals(LocalDate.of(2024, 1, 17), trade.getSettlementDate());
+        assertThrows(InvalidFormatException.class,
+            () -> mapper.readValue("{\"tradeDate\":\"2024-02-30\"}", Trade.class));
+    }
+
+    @Test
+    void testUnknownPropertiesAreRejected() {
+        assertThrows(UnrecognizedPropertyException.class,
+            () -> mapper.readValue("{\"symbol\":\"AAPL\",\"venue\":\"XNAS\"}", Trade.class));
+        assertThrows(UnrecognizedPropertyException.class,
+            () -> mapper.readValue("{\"name\":\"Ann\",\"role\":\"admin\"}", User.class));
+    }
+
+    private static Trade trade(int id) {
+        return new Trade(id, "AAPL", 100 * id, 187.25 + id, "BUY", "PENDING",
+            LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 17), "Goldman Sachs", id % 2 == 0 ? null : "note " + id);
+    }
+}
@@ -0,0 +1,85 @@
+package dev.mars.service.search;
+
+import dev.mars.dao.model.Trade;
+import dev.mars.dao.model.User;
+import dev.mars.service.events.TradeEvent;
+import dev.mars.service.events.TradeEvents;
+import dev.mars.service.events.UserEvent;
+import dev.mars.service.events.UserEvents;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for symbol and user name autocomplete kept current from events.
+ */
+public class AutocompleteServiceTest {
+
+    private TradeEvents tradeEvents;
+    private UserEvents userEvents;
+    private AutocompleteService service;
+    private final PrefixIndex.Buffer buffer = new PrefixIndex.Buffer(AutocompleteService.MAX_SUGGESTIONS);
+
+    @BeforeEach
+    void setup() {
+        tradeEvents = new TradeEvents();
+        userEvents = new UserEvents();
+        service = new AutocompleteService(tradeEvents, userEvents);
+        service.rebuild(
+            List.of(trade(1, "AAPL"), trade(2, "AAPL"), trade(3, "AMZN")),
+            List.of(new User(1, "Alice"), new User(2, "Alan"), new User(3, "Bob")));
+    }
+
+    @Test
+    void testSymbolCountsFollowTradeEvents() {
+        tradeEvents.publish(TradeEvent.created(trade(4, "AMZN")));
+        tradeEvents.publish(TradeEvent.created(trade(5, "AMZN")));
+        assertEquals(List.of("AMZN:3", "AAPL:2"), symbols("a"));
+
+        tradeEvents.publish(TradeEvent.updated(trade(1, "MSFT")));
+        assertEquals(List.of("AMZN:3", "AAPL:1"), symbols("a"));
+        assertEquals(List.of("MSFT:1"), symbols("m"));
+
+        tradeEvents.publish(TradeEvent.deleted(2));
+        assertEquals(List.of("AMZN:3"), symbols("a"));
+    }
+
+    @Test
+    void testUserNamesFollowUserEvents() {
+        assertEquals(List.of("Alan:1", "Alice:1"), users("al"));
+
+        userEvents.publish(UserEvent.updated(new User(2, "Bart")));
+        userEvents.publish(UserEvent.created(new User(4, "Alice")));
+        assertEquals(List.of("Alice:2"), users("al"));
+        assertEquals(List.of("Bart:1", "Bob:1"), users("b"));
+
+        userEvents.publish(UserEvent.deleted(3));
+        assertEquals(List.of("Bart:1"), users("b"));
+    }
+
+    private List<String> symbols(String prefix) {
+        return collect(service.suggestSymbols(prefix, 10, buffer));
+    }
+
+    private List<String> users(String prefix) {
+        return collect(service.suggestUserNames(prefix, 10, buffer));
+    }
+
+    private List<String> collect(int found) {
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < found; i++) {
+            result.add(buffer.value(i) + ":" + buffer.count(i));
+        }
+        return result;
+    }
+
+    private static Trade trade(int id, String symbol) {
+        return new Trade(id, symbol, 100, 150.0, "BUY", "PENDING",
+            LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 4), "Goldman Sachs", null);
+    }
+}
@@ -0,0 +1,72 @@
+package dev.mars.service.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the sorted-array prefix index.
+ */
+public class PrefixIndexTest {
+
+    private PrefixIndex index;
+    private PrefixIndex.Buffer buffer;
+
+    @BeforeEach
+    void setup() {
+        index = new PrefixIndex();
+        index.rebuild(Map.of("AAPL", 5, "AMZN", 9, "AMD", 2, "MSFT", 7, "ABNB", 2));
+        buffer = new PrefixIndex.Buffer(10);
+    }
+
+    @Test
+    void testMostFrequentFirstWithAlphabeticalTies() {
+        assertEquals(List.of("AMZN", "AAPL", "ABNB", "AMD"), lookup("a", 10));
+        assertEquals(List.of("AMZN", "AMD"), lookup("AM", 10));
+        assertEquals(List.of("AMZN", "MSFT"), lookup("", 2));
+        assertTrue(lookup("z", 10).isEmpty());
+    }
+
+    @Test
+    void testLimitKeepsTopEntries() {
+        assertEquals(List.of("AMZN", "AAPL"), lookup("a", 2));
+        assertEquals(9, buffer.count(0));
+        assertEquals(5, buffer.count(1));
+    }
+
+    @Test
+    void testIncrementalUpdates() {
+        index.increment("abc");
+        index.increment("ABC");
+        index.increment("ABC");
+        assertEquals(List.of("AMZN", "AAPL", "abc"), lookup("a", 3), "Case variants share one entry");
+
+        index.decrement("AMZN");
+        assertEquals(8, countOf("AMZN"));
+
+        for (int i = 0; i < 2; i++) {
+            index.decrement("AMD");
+        }
+        assertFalse(lookup("am", 10).contains("AMD"), "Values are dropped once their count reaches zero");
+        assertEquals(5, index.size());
+    }
+
+    private List<String> lookup(String prefix, int limit) {
+        int found = index.lookup(prefix, limit, buffer);
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < found; i++) {
+            values.add(buffer.value(i));
+        }
+        return values;
+    }
+
+    private int countOf(String value) {
+        int found = index.lookup(value, 1, buffer);
+        return found == 0 ? 0 : buffer.count(0);
+    }
+}
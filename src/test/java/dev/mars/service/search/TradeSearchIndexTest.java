@@ -0,0 +1,159 @@
+package dev.mars.service.search;
+
+import dev.mars.dao.model.Trade;
+import dev.mars.service.events.TradeEvent;
+import dev.mars.service.events.TradeEvents;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the in-memory trade text search index.
+ */
+public class TradeSearchIndexTest {
+
+    private TradeEvents tradeEvents;
+    private TradeSearchIndex index;
+
+    @BeforeEach
+    void setup() {
+        tradeEvents = new TradeEvents();
+        index = new TradeSearchIndex(tradeEvents);
+        index.rebuild(List.of(
+            trade(1, "Goldman Sachs", "Hedge for quarterly rebalance"),
+            trade(2, "Morgan Stanley", "Client requested goldman style settlement"),
+            trade(3, "Goldman Sachs", "Late settlement expected"),
+            trade(4, "Barclays", "Block trade, partial fill")
+        ));
+    }
+
+    @Test
+    void testCounterpartyMatchesRankAboveNotes() {
+        TradeSearchIndex.SearchResult result = index.search("goldman", 0, 10);
+
+        assertEquals(3, result.getTotalMatches());
+        assertEquals(List.of(3, 1, 2), ids(result), "Counterparty hits first (newest first on ties), then notes");
+    }
+
+    @Test
+    void testAllWordsMustMatch() {
+        TradeSearchIndex.SearchResult result = index.search("Goldman settlement", 0, 10);
+
+        assertEquals(List.of(3, 2), ids(result));
+    }
+
+    @Test
+    void testPartialCounterpartyNames() {
+        assertEquals(List.of(2), ids(index.search("morg", 0, 10)));
+        assertEquals(List.of(4), ids(index.search("BARC", 0, 10)));
+        assertEquals(0, index.search("x", 0, 10).getTotalMatches(), "Single letters only match whole terms");
+    }
+
+    @Test
+    void testPagination() {
+        TradeSearchIndex.SearchResult first = index.search("goldman", 0, 2);
+        TradeSearchIndex.SearchResult second = index.search("goldman", 2, 2);
+        TradeSearchIndex.SearchResult beyond = index.search("goldman", 4, 2);
+
+        assertEquals(List.of(3, 1), ids(first));
+        assertEquals(List.of(2), ids(second));
+        assertTrue(beyond.getTrades().isEmpty());
+        assertEquals(3, beyond.getTotalMatches());
+    }
+
+    @Test
+    void testIndexFollowsTradeEvents() {
+        Trade created = trade(5, "Nomura", "Urgent confirmation");
+        tradeEvents.publish(TradeEvent.created(created));
+        assertEquals(List.of(5), ids(index.search("nomura", 0, 10)));
+
+        tradeEvents.publish(TradeEvent.updated(trade(5, "Nomura", "Confirmed")));
+        assertEquals(0, index.search("urgent", 0, 10).getTotalMatches(), "Old terms are dropped on update");
+        assertEquals(List.of(5), ids(index.search("confirmed", 0, 10)));
+
+        tradeEvents.publish(TradeEvent.deleted(5));
+        assertEquals(0, index.search("nomura", 0, 10).getTotalMatches());
+
+        tradeEvents.publish(TradeEvent.updated(trade(99, "Ghost", "Never inserted")));
+        assertTrue(index.contains(99), "Updates for trades the index missed are indexed");
+        assertEquals(List.of(99), ids(index.search("ghost", 0, 10)));
+    }
+
+    @Test
+    void testParallelRebuildMatchesBruteForce() {
+        String[] counterparties = {"Goldman Sachs", "Morgan Stanley", "Barclays", "Deutsche Bank", "Nomura"};
+        String[] words = {"hedge", "rebalance", "settlement", "late", "urgent", "block", "client", "review"};
+        List<Trade> trades = new ArrayList<>();
+        for (int id = 1; id <= 50_000; id++) {
+            String notes = words[id % words.length] + " " + words[(id / 7) % words.length];
+            trades.add(trade(id, counterparties[id % counterparties.length], notes));
+        }
+        index.rebuild(trades);
+
+        long expected = trades.stream()
+            .filter(t -> t.getCounterparty().startsWith("Deutsche") && t.getNotes().contains("urgent"))
+            .count();
+        TradeSearchIndex.SearchResult all = index.search("deutsche urgent", 0, 50_000);
+        TradeSearchIndex.SearchResult result = index.search("deutsche urgent", 0, 20);
+
+        assertEquals(50_000, index.size());
+        assertEquals(expected, all.getTotalMatches());
+        assertFalse(all.isTotalLowerBound());
+        assertEquals(20, result.getTrades().size());
+        assertTrue(result.isTotalLowerBound(), "Counting stops at the threshold");
+        assertEquals(TradeSearchIndex.TOTAL_COUNT_THRESHOLD, result.getTotalMatches());
+    }
+
+    @Test
+    void testWordCountsOnceForTheBestTermItMatches() {
+        index.rebuild(List.of(
+            trade(1, "Goldman Sachs", "Golden opportunity"),
+            trade(2, "Goldman Sachs", null)
+        ));
+
+        // Trade 1 also matches "golden", but "gold" scores only its counterparty match, so the
+        // newer trade 2 ties and ranks first
+        assertEquals(List.of(2, 1), ids(index.search("gold", 0, 10)));
+    }
+
+    @Test
+    void testPagesMatchTheFullRanking() {
+        String[] counterparties = {"Goldman Sachs", "Goldberg Capital", "Morgan Stanley", "Deutsche Bank"};
+        String[] words = {"gold", "hedge", "urgent", "golden", "review"};
+        List<Trade> trades = new ArrayList<>();
+        for (int id = 1; id <= 5_000; id++) {
+            String notes = words[id % words.length] + " " + words[(id / 3) % words.length];
+            trades.add(trade(id, counterparties[(id / 2) % counterparties.length], notes));
+        }
+        index.rebuild(trades);
+
+        for (String query : List.of("goldman", "gold", "deutsche urgent", "gold hedge")) {
+            TradeSearchIndex.SearchResult full = index.search(query, 0, 5_000);
+            List<Integer> ranking = ids(full);
+            for (int offset : new int[] {0, 7, 40}) {
+                TradeSearchIndex.SearchResult page = index.search(query, offset, 20);
+                if (page.isTotalLowerBound()) {
+                    assertTrue(page.getTotalMatches() >= TradeSearchIndex.TOTAL_COUNT_THRESHOLD, query);
+                    assertTrue(page.getTotalMatches() <= full.getTotalMatches(), query);
+                } else {
+                    assertEquals(full.getTotalMatches(), page.getTotalMatches(), query);
+                }
+                assertEquals(ranking.subList(offset, Math.min(offset + 20, ranking.size())), ids(page), query);
+            }
+        }
+    }
+
+    private static List<Integer> ids(TradeSearchIndex.SearchResult result) {
+        return result.getTrades().stream().map(Trade::getId).toList();
+    }
+
+    private static Trade trade(int id, String counterparty, String notes) {
+        return new Trade(id, "AAPL", 100, 150.0, "BUY", "PENDING",
+            LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 4), counterparty, notes);
+    }
+}